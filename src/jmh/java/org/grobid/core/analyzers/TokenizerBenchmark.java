@@ -0,0 +1,84 @@
+package org.grobid.core.analyzers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenization of DatastetAnalyzer: StringTokenizer and regex split (previous implementation)
+ * against the character-class scanner, on a text of a sample article cut to a fixed number of
+ * tokens. The scores are tokens per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private static final int TOKENS = 100000;
+    private static final String REGEX = "(?<=[a-zA-Z])(?=\\d)|(?<=\\d)(?=\\D)";
+
+    private String text;
+
+    @Setup
+    public void setup() throws IOException {
+        String sample = new String(Files.readAllBytes(Paths.get("resources/samples/journal.pone.0198050.tei.xml")),
+            StandardCharsets.UTF_8);
+        // the sample repeated and cut to exactly TOKENS tokens
+        StringBuilder builder = new StringBuilder();
+        int nbTokens = 0;
+        while (nbTokens < TOKENS) {
+            for (String token : tokenizeStringTokenizer(sample)) {
+                builder.append(token);
+                if (++nbTokens == TOKENS)
+                    break;
+            }
+        }
+        text = builder.toString();
+    }
+
+    private static List<String> tokenizeStringTokenizer(String text) {
+        List<String> result = new ArrayList<>();
+        StringTokenizer st = new StringTokenizer(text, DatastetAnalyzer.DELIMITERS, true);
+        while (st.hasMoreTokens()) {
+            String token = st.nextToken();
+            String[] subtokens = token.split(REGEX);
+            for (int i = 0; i < subtokens.length; i++) {
+                result.add(subtokens[i]);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void stringTokenizer(Blackhole blackhole) {
+        blackhole.consume(tokenizeStringTokenizer(text));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void scanner(Blackhole blackhole) {
+        blackhole.consume(DatastetAnalyzer.getInstance().tokenize(text));
+    }
+}
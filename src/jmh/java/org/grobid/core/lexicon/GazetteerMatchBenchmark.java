@@ -0,0 +1,95 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.analyzers.DatastetAnalyzer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the dataset name gazetteer in tokens per second, for gazetteers of different
+ * sizes, on synthetic sentences containing some of the names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GazetteerMatchBenchmark {
+
+    private static final int TOKENS = 100000;
+    private static final int SENTENCE_LENGTH = 50;
+
+    private static final String[] WORDS = {"the", "data", "were", "obtained", "from", "and", "analyzed", "with",
+        "samples", "of", "patients", "in", "cohort", "study", "(", ")", ",", ".", "we", "used", "Survey", "Project",
+        "Atlas", "Data", "Set", "2019", "-", "II", "Health", "National"};
+
+    @Param({"1000", "100000"})
+    public int names;
+
+    private DatasetGazetteer gazetteer;
+    private List<List<String>> sentences;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<String> gazetteerNames = new ArrayList<>();
+        for (int i = 0; i < names; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 1 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                if (j > 0)
+                    name.append(" ");
+                // mix of names sharing common words and of specific acronyms
+                if (random.nextBoolean())
+                    name.append(WORDS[20 + random.nextInt(10)]);
+                else
+                    name.append("DS").append(random.nextInt(names));
+            }
+            gazetteerNames.add(name.toString());
+        }
+        gazetteer = new DatasetGazetteer(gazetteerNames, DatastetAnalyzer.getInstance()::tokenize);
+
+        sentences = new ArrayList<>();
+        List<String> sentence = new ArrayList<>();
+        for (int i = 0; i < TOKENS; i++) {
+            if (i % 2 == 1) {
+                sentence.add(" ");
+            } else if (random.nextInt(20) == 0) {
+                sentence.add("DS" + random.nextInt(names));
+            } else {
+                sentence.add(WORDS[random.nextInt(WORDS.length)]);
+            }
+            if (sentence.size() == SENTENCE_LENGTH) {
+                sentences.add(sentence);
+                sentence = new ArrayList<>();
+            }
+        }
+        if (sentence.size() > 0)
+            sentences.add(sentence);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void match(Blackhole blackhole) {
+        for (List<String> sentence : sentences) {
+            blackhole.consume(gazetteer.match(sentence));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.grobid.core.lexicon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stopword and black list checks of DatastetLexicon: list scans (previous implementation) against
+ * the hash-based term sets, on a sample of candidate mentions. The times are per sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexiconLookupBenchmark {
+
+    private static final String[] MENTIONS = {"data", "GEO", "the TCGA data", "UK Biobank", "models",
+        "of the cohort", "ImageNet", "A", "patients", "the Human Connectome Project", "MβCD",
+        "the present study data set", "MIMIC-III", "which", "an ADNI cohort", "data sets"};
+
+    private List<String> stopwordList;
+    private List<String> blackList;
+    private TermSet stopwordSet;
+    private TermSet blackListSet;
+
+    @Setup
+    public void setup() throws IOException {
+        stopwordList = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get("resources/lexicon/stopwords_en.txt"), StandardCharsets.UTF_8)) {
+            if (line.length() > 0)
+                stopwordList.add(line.trim());
+        }
+        blackList = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get("resources/lexicon/covid_blacklist.txt"), StandardCharsets.UTF_8)) {
+            if (line.trim().length() > 0 && !line.startsWith("#"))
+                blackList.add(line.trim().toLowerCase());
+        }
+        stopwordSet = new TermSet(stopwordList);
+        blackListSet = new TermSet(blackList);
+    }
+
+    @Benchmark
+    public void stopwordListScan(Blackhole blackhole) {
+        for (String mention : MENTIONS) {
+            String value = mention.length() == 1 ? mention.toLowerCase() : mention;
+            blackhole.consume(stopwordList.contains(value));
+        }
+    }
+
+    @Benchmark
+    public void stopwordTermSet(Blackhole blackhole) {
+        for (String mention : MENTIONS) {
+            blackhole.consume(mention.length() == 1 ? stopwordSet.containsLowerCase(mention) : stopwordSet.contains(mention));
+        }
+    }
+
+    @Benchmark
+    public void blackListScan(Blackhole blackhole) {
+        for (String mention : MENTIONS) {
+            blackhole.consume(blackList.contains(mention.toLowerCase()) ||
+                mention.toLowerCase().endsWith("model") || mention.toLowerCase().endsWith("models"));
+        }
+    }
+
+    @Benchmark
+    public void blackListTermSet(Blackhole blackhole) {
+        for (String mention : MENTIONS) {
+            blackhole.consume(blackListSet.containsLowerCase(mention) ||
+                mention.regionMatches(true, mention.length() - 5, "model", 0, 5) ||
+                mention.regionMatches(true, mention.length() - 6, "models", 0, 6));
+        }
+    }
+
+    @Benchmark
+    public void leadingStopwordsListScan(Blackhole blackhole) {
+        for (String mention : MENTIONS) {
+            String string = mention.trim();
+            while (string.length() > 0) {
+                int startSize = string.length();
+                for (String stopword : stopwordList) {
+                    if (string.startsWith(stopword + " ")) {
+                        string = string.substring(stopword.length()).trim();
+                        break;
+                    }
+                }
+                if (startSize == string.length())
+                    break;
+            }
+            blackhole.consume(string);
+        }
+    }
+
+    @Benchmark
+    public void leadingStopwordsTermSet(Blackhole blackhole) {
+        for (String mention : MENTIONS) {
+            blackhole.consume(stopwordSet.removeLeadingTerms(mention));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.grobid.service.controller;
+
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.DatasetComponent;
+import org.grobid.core.data.DatasetContextAttributes;
+import org.grobid.core.data.JsonWritable;
+import org.grobid.core.layout.BoundingBox;
+import org.grobid.core.utilities.OffsetPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of a dataset mention response in indented JSON, compact JSON, Smile and CBOR with the
+ * generator code of the service. The mentions have the shape of the results on a sample article:
+ * the contexts are sentences of the sample, with bounding boxes and context attributes. The size
+ * of the response in each format is printed at setup, the scores are the encoding times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    @Param({"50", "500"})
+    public int mentions;
+
+    private JsonWritable response;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() throws IOException {
+        String sample = new String(Files.readAllBytes(Paths.get("resources/samples/journal.pone.0198050.tei.xml")),
+            StandardCharsets.UTF_8);
+        List<String> sentences = new ArrayList<>();
+        for (String sentence : sample.replaceAll("<[^>]+>", " ").replaceAll("\\s+", " ").split("(?<=\\.) ")) {
+            if (sentence.length() > 80)
+                sentences.add(sentence.trim());
+        }
+
+        Random random = new Random(42);
+        List<Dataset> datasets = new ArrayList<>();
+        for (int i = 0; i < mentions; i++) {
+            String context = sentences.get(i % sentences.size());
+            String[] words = context.split(" ");
+            String name = words[random.nextInt(words.length)];
+
+            DatasetComponent component = new DatasetComponent(Dataset.DatasetType.DATASET_NAME, name);
+            component.setNormalizedForm(name);
+            int start = context.indexOf(name);
+            component.setOffsets(new OffsetPosition(start, start + name.length()));
+            component.setBoundingBoxes(Arrays.asList(
+                BoundingBox.fromPointAndDimensions(1 + i / 10, 72.0 + random.nextDouble() * 400, 90.0 + random.nextDouble() * 600, 40.0, 9.96),
+                BoundingBox.fromPointAndDimensions(1 + i / 10, 72.0, 90.0 + random.nextDouble() * 600, 25.5, 9.96)));
+
+            Dataset dataset = new Dataset(Dataset.DatasetType.DATASET_NAME, name);
+            dataset.setDatasetName(component);
+            dataset.setContext(context);
+            DatasetContextAttributes attributes = new DatasetContextAttributes();
+            attributes.setUsed(random.nextBoolean());
+            attributes.setUsedScore(random.nextDouble());
+            attributes.setCreated(random.nextBoolean());
+            attributes.setCreatedScore(random.nextDouble());
+            attributes.setShared(random.nextBoolean());
+            attributes.setSharedScore(random.nextDouble());
+            dataset.setMentionContextAttributes(attributes);
+            datasets.add(dataset);
+        }
+        List<List<Dataset>> entities = Arrays.asList(datasets);
+
+        response = generator -> {
+            generator.writeStartObject();
+            DatastetServiceUtils.writeApplicationDetails(generator, "0.8.1", "00000000");
+            DatastetServiceUtils.writeMentions(generator, entities);
+            generator.writeNumberField("runtime", 1.0f);
+            generator.writeEndObject();
+        };
+        output = new ByteArrayOutputStream(1 << 20);
+
+        System.out.println();
+        System.out.println(mentions + " mentions: pretty JSON " + encode(ResponseFormat.JSON, true) +
+            " bytes, compact JSON " + encode(ResponseFormat.JSON, false) +
+            " bytes, Smile " + encode(ResponseFormat.SMILE, false) +
+            " bytes, CBOR " + encode(ResponseFormat.CBOR, false) + " bytes");
+    }
+
+    private int encode(ResponseFormat format, boolean prettyPrint) throws IOException {
+        output.reset();
+        DatastetServiceUtils.streamResponse(response, format, prettyPrint).write(output);
+        return output.size();
+    }
+
+    @Benchmark
+    public int prettyJson() throws IOException {
+        return encode(ResponseFormat.JSON, true);
+    }
+
+    @Benchmark
+    public int compactJson() throws IOException {
+        return encode(ResponseFormat.JSON, false);
+    }
+
+    @Benchmark
+    public int smile() throws IOException {
+        return encode(ResponseFormat.SMILE, false);
+    }
+
+    @Benchmark
+    public int cbor() throws IOException {
+        return encode(ResponseFormat.CBOR, false);
+    }
+}
@@ -3,9 +3,11 @@ package org.grobid.core.analyzers;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.lang.Language;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.StringTokenizer;
+import java.util.RandomAccess;
 
 /**
  * Tokenizer for all Indo-European languages and identifying dataset mentions.
@@ -42,7 +44,18 @@ public class DatastetAnalyzer implements org.grobid.core.analyzers.Analyzer {
     }
 
     public static final String DELIMITERS = " \n\r\t([^%‰°,:;?.!/)-–−=≈<>+\"“”‘’'`$®]*\u2666\u2665\u2663\u2660\u00A0";
-    private static final String REGEX = "(?<=[a-zA-Z])(?=\\d)|(?<=\\d)(?=\\D)";
+
+    // delimiter lookup table, one bit per UTF-16 char
+    private static final long[] DELIMITER_TABLE = new long[1 << 10];
+    static {
+        for (int i = 0; i < DELIMITERS.length(); i++) {
+            char c = DELIMITERS.charAt(i);
+            DELIMITER_TABLE[c >>> 6] |= 1L << c;
+        }
+    }
+
+    // token end offsets of the last scanned text, reused by the calls of a thread
+    private static final ThreadLocal<TokenOffsets> tokenOffsets = ThreadLocal.withInitial(TokenOffsets::new);
 
     public String getName() {
         return "DatastetAnalyzer";
@@ -55,39 +68,151 @@ public class DatastetAnalyzer implements org.grobid.core.analyzers.Analyzer {
     }
 
     public List<String> tokenize(String text, Language lang) {
-        List<String> result = new ArrayList<>();
-        StringTokenizer st = new StringTokenizer(text, DELIMITERS, true);
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            // in addition we split "letter" characters and digits
-            String[] subtokens = token.split(REGEX);
-            for (int i = 0; i < subtokens.length; i++) {
-                result.add(subtokens[i]);
-            }
+        TokenOffsets offsets = scan(text, tokenOffsets.get());
+        List<String> result = new ArrayList<>(offsets.size);
+        int start = 0;
+        for (int i = 0; i < offsets.size; i++) {
+            int end = offsets.ends[i];
+            result.add(text.substring(start, end));
+            start = end;
         }
         return result;
     }
 
     public List<LayoutToken> tokenizeWithLayoutToken(String text) {
-        List<LayoutToken> result = new ArrayList<>();
-        StringTokenizer st = new StringTokenizer(text, DELIMITERS, true);
-        int ind = 0;
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            // in addition we split "letter" characters and digits
-            String[] subtokens = token.split(REGEX);
-            for (int i = 0; i < subtokens.length; i++) {
-                LayoutToken layoutToken = new LayoutToken();
-                layoutToken.setText(subtokens[i]);
-                layoutToken.setOffset(ind);
-                result.add(layoutToken);
-                ind += layoutToken.getText().length();
-            }
+        TokenOffsets offsets = scan(text, tokenOffsets.get());
+        List<LayoutToken> result = new AnalyzedTokens(offsets.size);
+        int start = 0;
+        for (int i = 0; i < offsets.size; i++) {
+            int end = offsets.ends[i];
+            LayoutToken layoutToken = new LayoutToken();
+            layoutToken.setText(text.substring(start, end));
+            layoutToken.setOffset(start);
+            result.add(layoutToken);
+            start = end;
         }
 
         return result;
     }
 
+    /**
+     * Scan a text into tokens and record their end offsets, the tokens being contiguous. Every
+     * delimiter character is a token, and the character sequences between delimiters are
+     * in addition split between an ASCII letter and a digit and after a digit, as done
+     * previously with the regex (?<=[a-zA-Z])(?=\d)|(?<=\d)(?=\D).
+     */
+    static TokenOffsets scan(String text, TokenOffsets offsets) {
+        offsets.size = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i++);
+            if (isDelimiter(c)) {
+                offsets.add(i);
+                continue;
+            }
+            while (i < length) {
+                char next = text.charAt(i);
+                if (isDelimiter(next))
+                    break;
+                boolean nextDigit = next >= '0' && next <= '9';
+                if (c >= '0' && c <= '9') {
+                    if (!nextDigit)
+                        offsets.add(i);
+                } else if (nextDigit && ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                    offsets.add(i);
+                }
+                c = next;
+                i++;
+            }
+            offsets.add(i);
+        }
+        return offsets;
+    }
+
+    private static boolean isDelimiter(char c) {
+        return (DELIMITER_TABLE[c >>> 6] & (1L << c)) != 0;
+    }
+
+    /**
+     * @return the tokens of a list from index start (included) to end (excluded) as a view, without
+     * copy. The view of a list tokenized by this analyzer is read-only and not retokenized again.
+     */
+    public static List<LayoutToken> subTokens(List<LayoutToken> tokens, int start, int end) {
+        if (tokens instanceof AnalyzedTokens)
+            return new AnalyzedTokenRange((AnalyzedTokens) tokens, start, end);
+        if (tokens instanceof AnalyzedTokenRange) {
+            AnalyzedTokenRange range = (AnalyzedTokenRange) tokens;
+            if (start < 0 || end > range.size() || start > end)
+                throw new IndexOutOfBoundsException("range [" + start + ", " + end + "[ of " + range.size() + " tokens");
+            return new AnalyzedTokenRange(range.tokens, range.start + start, range.start + end);
+        }
+        return tokens.subList(start, end);
+    }
+
+    /**
+     * List of layout tokens tokenized by this analyzer, retokenizing it is a no-op. Sub-sequences
+     * of such a list are taken as ranges, see subTokens().
+     */
+    public static class AnalyzedTokens extends ArrayList<LayoutToken> {
+        public AnalyzedTokens() {
+            super();
+        }
+
+        public AnalyzedTokens(int initialCapacity) {
+            super(initialCapacity);
+        }
+    }
+
+    /**
+     * Read-only range of an AnalyzedTokens list, like a sentence of a zone. Retokenizing it is
+     * a no-op too.
+     */
+    public static final class AnalyzedTokenRange extends AbstractList<LayoutToken> implements RandomAccess {
+        private final AnalyzedTokens tokens;
+        private final int start;
+        private final int end;
+
+        private AnalyzedTokenRange(AnalyzedTokens tokens, int start, int end) {
+            if (start < 0 || end > tokens.size() || start > end)
+                throw new IndexOutOfBoundsException("range [" + start + ", " + end + "[ of " + tokens.size() + " tokens");
+            this.tokens = tokens;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public LayoutToken get(int index) {
+            if (index < 0 || index >= end - start)
+                throw new IndexOutOfBoundsException("index " + index + " of " + (end - start) + " tokens");
+            return tokens.get(start + index);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+    }
+
+    static final class TokenOffsets {
+        int[] ends = new int[256];
+        int size;
+
+        void add(int end) {
+            if (size == ends.length)
+                ends = Arrays.copyOf(ends, size * 2);
+            ends[size++] = end;
+        }
+    }
+
     public List<String> retokenize(List<String> chunks) {
         List<String> result = new ArrayList<>();
         for (String chunk : chunks) {
@@ -96,29 +221,48 @@ public class DatastetAnalyzer implements org.grobid.core.analyzers.Analyzer {
         return result;
     }
 
+    /**
+     * Retokenize layout tokens according to this analyzer. The tokens which are not split are
+     * kept as they are, only the split tokens are copied. A list already produced by this analyzer
+     * (see AnalyzedTokens and AnalyzedTokenRange) is returned unchanged.
+     */
     public List<LayoutToken> retokenizeLayoutTokens(List<LayoutToken> tokens) {
-        List<LayoutToken> result = new ArrayList<>();
+        if (tokens instanceof AnalyzedTokens || tokens instanceof AnalyzedTokenRange)
+            return tokens;
         if (tokens == null || tokens.size() == 0)
-            return result;
+            return new AnalyzedTokens();
+        AnalyzedTokens result = new AnalyzedTokens(tokens.size());
+        TokenOffsets offsets = tokenOffsets.get();
         for (LayoutToken token : tokens) {
-            result.addAll(tokenize(token));
+            String text = token.getText();
+            scan(text, offsets);
+            if (offsets.size == 1) {
+                result.add(token);
+                continue;
+            }
+            int start = 0;
+            for (int i = 0; i < offsets.size; i++) {
+                int end = offsets.ends[i];
+                LayoutToken theChunk = new LayoutToken(token); // deep copy
+                theChunk.setText(text.substring(start, end));
+                result.add(theChunk);
+                start = end;
+            }
         }
         return result;
     }
 
      public List<LayoutToken> tokenize(LayoutToken chunk) {
-        List<LayoutToken> result = new ArrayList<>();
         String text = chunk.getText();
-        StringTokenizer st = new StringTokenizer(text, DELIMITERS, true);
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            // in addition we split "letter" characters and digits
-            String[] subtokens = token.split(REGEX);
-            for (int i = 0; i < subtokens.length; i++) {
-                LayoutToken theChunk = new LayoutToken(chunk); // deep copy
-                theChunk.setText(subtokens[i]);
-                result.add(theChunk);
-            }
+        TokenOffsets offsets = scan(text, tokenOffsets.get());
+        List<LayoutToken> result = new AnalyzedTokens(offsets.size);
+        int start = 0;
+        for (int i = 0; i < offsets.size; i++) {
+            int end = offsets.ends[i];
+            LayoutToken theChunk = new LayoutToken(chunk); // deep copy
+            theChunk.setText(text.substring(start, end));
+            result.add(theChunk);
+            start = end;
         }
 
         return result;
@@ -0,0 +1,86 @@
+package org.grobid.core.benchmark;
+
+import org.grobid.core.data.Dataset;
+import org.grobid.core.document.Document;
+import org.grobid.core.engines.DatasetParser;
+import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.main.GrobidHomeFinder;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.grobid.core.utilities.GrobidConfig.ModelParameters;
+import org.grobid.core.utilities.GrobidProperties;
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * End-to-end throughput benchmark of the PDF processing pipeline over a directory of PDF files.
+ * With the "stub" engine set for the "datasets" model and the text classifiers in the config 
+ * file, this measures the Java side of the pipeline only (PDF parsing, segmentation, tokenization, 
+ * post-processing and serialization).
+ *
+ * Run like this: ./gradlew benchmark_pipeline -Pin=/path/pdf/directory -Pn=3 -PgH=/path/grobid/home
+ */
+public class PipelineThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: {PDF directory} {number of runs} {grobid home}");
+            System.exit(-1);
+        }
+        File inputDirectory = new File(args[0]);
+        int nbRuns = Integer.parseInt(args[1]);
+
+        GrobidHomeFinder grobidHomeFinder = new GrobidHomeFinder(Arrays.asList(args[2]));
+        GrobidProperties.getInstance(grobidHomeFinder);
+
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        DatastetConfiguration configuration = 
+            mapper.readValue(new File("resources/config/config.yml"), DatastetConfiguration.class);
+        for (ModelParameters model : configuration.getModels())
+            GrobidProperties.getInstance().addModel(model);
+        LibraryLoader.load();
+        DatastetLexicon.getInstance();
+
+        File[] files = inputDirectory.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf"));
+        if (files == null || files.length == 0) {
+            System.err.println("No PDF file found in " + inputDirectory.getAbsolutePath());
+            System.exit(-1);
+        }
+
+        DatasetParser parser = DatasetParser.getInstance(configuration);
+
+        // warm-up
+        parser.processPDF(files[0], false);
+
+        List<Long> runtimes = new ArrayList<>();
+        int nbMentions = 0;
+        long start = System.currentTimeMillis();
+        for (int run = 0; run < nbRuns; run++) {
+            for (File file : files) {
+                long startDocument = System.currentTimeMillis();
+                Pair<List<List<Dataset>>, Document> result = parser.processPDF(file, false);
+                runtimes.add(System.currentTimeMillis() - startDocument);
+                for (List<Dataset> datasets : result.getLeft()) {
+                    nbMentions += datasets.size();
+                }
+            }
+        }
+        long total = System.currentTimeMillis() - start;
+
+        Collections.sort(runtimes);
+        System.out.println(runtimes.size() + " documents processed in " + total + " ms");
+        System.out.println("throughput: " + String.format("%.2f", runtimes.size() * 1000.0 / total) + " documents/s");
+        System.out.println("median: " + runtimes.get(runtimes.size() / 2) + " ms, p95: " + 
+            runtimes.get((int) Math.min(runtimes.size() - 1, Math.round(runtimes.size() * 0.95))) + " ms");
+        System.out.println(nbMentions + " dataset mentions");
+        System.exit(0);
+    }
+}
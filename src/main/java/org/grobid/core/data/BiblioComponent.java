@@ -7,9 +7,9 @@ import org.grobid.core.lexicon.DatastetLexicon;
 import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -60,19 +60,13 @@ public class BiblioComponent extends DatasetComponent {
         return refKey;
     }
 
-    public String toJson() {
-        ObjectMapper mapper = new ObjectMapper();
-        
-        StringBuffer buffer = new StringBuffer();
-        buffer.append("{ ");
-                
-        try {
-            buffer.append("\"label\" : " + mapper.writeValueAsString(rawForm));
-        } catch (JsonProcessingException e) {
-            buffer.append("\"label\" : \"" + "JsonProcessingException" + "\"");
-        }
-        if (normalizedForm != null)
-            buffer.append(", \"normalizedForm\" : \"" + normalizedForm + "\"");
+    @Override
+    public void writeJson(JsonGenerator generator, ResponseFields fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.includes("label"))
+            generator.writeStringField("label", rawForm);
+        if (normalizedForm != null && fields.includes("normalizedForm"))
+            generator.writeStringField("normalizedForm", normalizedForm);
 
         /*if (biblio != null) {
             try {
@@ -81,42 +75,35 @@ public class BiblioComponent extends DatasetComponent {
                 logger.warn("tei for biblio cannot be encoded", e);
             }
         }*/
-        buffer.append(", \"refKey\": " + refKey);
+        if (fields.includes("refKey"))
+            generator.writeNumberField("refKey", refKey);
         
         // knowledge information
-        if (wikidataId != null) {
-            buffer.append(", \"wikidataId\": \"" + wikidataId + "\"");
+        if (wikidataId != null && fields.includes("wikidataId")) {
+            generator.writeStringField("wikidataId", wikidataId);
         }
-        if (wikipediaExternalRef != -1) {
-            buffer.append(", \"wikipediaExternalRef\": " + wikipediaExternalRef);
+        if (wikipediaExternalRef != -1 && fields.includes("wikipediaExternalRef")) {
+            generator.writeNumberField("wikipediaExternalRef", wikipediaExternalRef);
         }
-        if (lang != null) {
-            buffer.append(", \"lang\": \"" + lang + "\"");
+        if (lang != null && fields.includes("lang")) {
+            generator.writeStringField("lang", lang);
         }
-        if (disambiguationScore != null) {
-            buffer.append(", \"confidence\": " + TextUtilities.formatFourDecimals(disambiguationScore.doubleValue()));
+        if (disambiguationScore != null && fields.includes("confidence")) {
+            generator.writeFieldName("confidence");
+            JsonWritable.writeScore(generator, disambiguationScore.doubleValue());
         }
 
         if (offsets != null) {
-            buffer.append(", \"offsetStart\" : " + offsets.start);
-            buffer.append(", \"offsetEnd\" : " + offsets.end);  
+            if (fields.includes("offsetStart"))
+                generator.writeNumberField("offsetStart", offsets.start);
+            if (fields.includes("offsetEnd"))
+                generator.writeNumberField("offsetEnd", offsets.end);
         }
 
-        if ( (boundingBoxes != null) && (boundingBoxes.size() > 0) ) {
-            buffer.append(", \"boundingBoxes\" : [");
-            boolean first = true;
-            for (BoundingBox box : boundingBoxes) {
-                if (first)
-                    first = false;
-                else
-                    buffer.append(",");
-                buffer.append("{").append(box.toJson()).append("}");
-            }
-            buffer.append("] ");
-        }
+        if (fields.includes("boundingBoxes"))
+            writeBoundingBoxes(generator, boundingBoxes);
         
-        buffer.append(" }");
-        return buffer.toString();
+        generator.writeEndObject();
     }
 
 }   
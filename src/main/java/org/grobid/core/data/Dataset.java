@@ -7,10 +7,9 @@ import org.grobid.core.lexicon.DatastetLexicon;
 import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -23,7 +22,7 @@ import org.slf4j.LoggerFactory;
  *  describing the entity.  
  *
  */
-public class Dataset extends KnowledgeEntity implements Comparable<Dataset> {   
+public class Dataset extends KnowledgeEntity implements Comparable<Dataset>, JsonWritable {   
     private static final Logger logger = LoggerFactory.getLogger(Dataset.class);
     
     // Orign of the component definition
@@ -367,76 +366,72 @@ public class Dataset extends KnowledgeEntity implements Comparable<Dataset> {
     }
     
     public String toJson() {
-        ObjectMapper mapper = new ObjectMapper();
-        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
-        byte[] encoded = null;
-        String output;
+        return JsonWritable.toJson(this);
+    }
 
-        StringBuffer buffer = new StringBuffer();
-        buffer.append("{ ");
-
-        encoded = encoder.quoteAsUTF8(rawForm);
-        output = new String(encoded);
-        try {
-            buffer.append("\"rawForm\" : " + mapper.writeValueAsString(output));
-        } catch (JsonProcessingException e) {
-            logger.warn("could not serialize in JSON the normalized form: " + type.getName());
-        }
+    public void writeJson(JsonGenerator generator) throws IOException {
+        writeJson(generator, ResponseFields.ALL);
+    }
 
-        if (type != null) {
-            try {
-                String localTypeValue = type.getName();
-                if (localTypeValue.equals("dataset"))
-                    localTypeValue = "dataset-implicit";
-                buffer.append(", \"type\" : " + mapper.writeValueAsString(localTypeValue));
-            } catch (JsonProcessingException e) {
-                logger.warn("could not serialize in JSON the normalized form: " + type.getName());
-            }
+    /**
+     * Write the mention as a JSON object restricted to the selected fields, the selection
+     * applying also to the fields of its components
+     */
+    public void writeJson(JsonGenerator generator, ResponseFields fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.includes("rawForm"))
+            generator.writeStringField("rawForm", rawForm);
+
+        if (type != null && fields.includes("type")) {
+            String localTypeValue = type.getName();
+            if (localTypeValue.equals("dataset"))
+                localTypeValue = "dataset-implicit";
+            generator.writeStringField("type", localTypeValue);
         }
 
-        if (datasetName != null) {
-            buffer.append(", \"dataset-name\":" + datasetName.toJson());
+        if (datasetName != null && fields.includes("dataset-name")) {
+            generator.writeFieldName("dataset-name");
+            datasetName.writeJson(generator, fields);
         }
 
-        if (dataset != null) {
-            buffer.append(", \"dataset-implicit\":" + dataset.toJson());
+        if (dataset != null && fields.includes("dataset-implicit")) {
+            generator.writeFieldName("dataset-implicit");
+            dataset.writeJson(generator, fields);
         }
 
-        if (dataDevice != null) {
-            buffer.append(", \"data-device\":" + dataDevice.toJson());
+        if (dataDevice != null && fields.includes("data-device")) {
+            generator.writeFieldName("data-device");
+            dataDevice.writeJson(generator, fields);
         }
 
-        if (url != null) {
-            buffer.append(", \"url\":" + url.toJson());
+        if (url != null && fields.includes("url")) {
+            generator.writeFieldName("url");
+            url.writeJson(generator, fields);
         }
 
-        if (publisher != null) {
-            buffer.append(", \"publisher\":" + url.toJson());
+        if (publisher != null && fields.includes("publisher")) {
+            generator.writeFieldName("publisher");
+            publisher.writeJson(generator, fields);
         }
 
-        if (normalizedForm != null) {
-            encoded = encoder.quoteAsUTF8(normalizedForm);
-            output = new String(encoded);
-            try{
-                buffer.append(", \"normalizedForm\" : " + mapper.writeValueAsString(output));
-            } catch (JsonProcessingException e) {
-                logger.warn("could not serialize in JSON the normalized form: " + type.getName());
-            }
+        if (normalizedForm != null && fields.includes("normalizedForm")) {
+            generator.writeStringField("normalizedForm", normalizedForm);
         }
         
         // knowledge information
-        if (wikidataId != null) {
-            buffer.append(", \"wikidataId\": \"" + wikidataId + "\"");
+        if (wikidataId != null && fields.includes("wikidataId")) {
+            generator.writeStringField("wikidataId", wikidataId);
         }
-        if (wikipediaExternalRef != -1) {
-            buffer.append(", \"wikipediaExternalRef\": " + wikipediaExternalRef);
+        if (wikipediaExternalRef != -1 && fields.includes("wikipediaExternalRef")) {
+            generator.writeNumberField("wikipediaExternalRef", wikipediaExternalRef);
         }
 
-        if (lang != null) {
-            buffer.append(", \"lang\": \"" + lang + "\"");
+        if (lang != null && fields.includes("lang")) {
+            generator.writeStringField("lang", lang);
         }
-        if (disambiguationScore != null) {
-            buffer.append(", \"confidence\": " + TextUtilities.formatFourDecimals(disambiguationScore.doubleValue()));
+        if (disambiguationScore != null && fields.includes("confidence")) {
+            generator.writeFieldName("confidence");
+            JsonWritable.writeScore(generator, disambiguationScore.doubleValue());
         }
 
         /*if (offsets != null) {
@@ -444,85 +439,45 @@ public class Dataset extends KnowledgeEntity implements Comparable<Dataset> {
             buffer.append(", \"offsetEnd\" : " + offsets.end);  
         }*/
 
-        if (inDataAvailabilitySection) {
-            buffer.append(", \"inDataAvailabilitySection\" : true");
+        if (inDataAvailabilitySection && fields.includes("inDataAvailabilitySection")) {
+            generator.writeBooleanField("inDataAvailabilitySection", true);
         }
 
-        if (context != null && context.length()>0) {
-            encoded = encoder.quoteAsUTF8(context.replace("\n", " ").replace("  ", " "));
-            output = new String(encoded);
-            try {
-                buffer.append(", \"context\" : " + mapper.writeValueAsString(output));
-            } catch (JsonProcessingException e) {
-                logger.warn("could not serialize in JSON the normalized form: " + type.getName());
-            }
-            /*try {
-                buffer.append(", \"context\" : \"" + mapper.writeValueAsString(context.replace("\n", " ").replace("  ", " ")) + "\"");
-            } catch (JsonProcessingException e) {
-                logger.warn("could not serialize in JSON the context: " + context);
-            }*/
+        if (context != null && context.length()>0 && fields.includes("context")) {
+            generator.writeStringField("context", context.replace("\n", " ").replace("  ", " "));
         }
 
-        if (paragraph != null && paragraph.length()>0) {
+        // the offset is relative to the paragraph
+        if (paragraph != null && paragraph.length()>0 && fields.includes("paragraph")) {
             if (paragraphContextOffset != -1) {
-                buffer.append(", \"contextOffset\": " + paragraphContextOffset);
+                generator.writeNumberField("contextOffset", paragraphContextOffset);
             }
-
-            encoded = encoder.quoteAsUTF8(paragraph.replace("\n", " ").replace("  ", " "));
-            output = new String(encoded);
-            try{
-                buffer.append(", \"paragraph\": \"" + mapper.writeValueAsString(output) + "\"");
-            } catch (JsonProcessingException e) {
-                logger.warn("could not serialize in JSON the normalized form: " + type.getName());
-            }
-            /*try {
-                buffer.append(", \"paragraph\": \"" + mapper.writeValueAsString(paragraph.replace("\n", " ").replace("  ", " ")) + "\"");
-            } catch (JsonProcessingException e) {
-                logger.warn("could not serialize in JSON the paragraph context: " + paragraph);
-            }*/
+            generator.writeStringField("paragraph", paragraph.replace("\n", " ").replace("  ", " "));
         }
 
         //buffer.append(", \"conf\" : \"" + conf + "\"");
         
-        /*if ( (boundingBoxes != null) && (boundingBoxes.size() > 0) ) {
-            buffer.append(", \"boundingBoxes\" : [");
-            boolean first = true;
-            for (BoundingBox box : boundingBoxes) {
-                if (first)
-                    first = false;
-                else
-                    buffer.append(",");
-                buffer.append("{").append(box.toJson()).append("}");
-            }
-            buffer.append("] ");
-        }*/
-        
-        if (mentionContextAttributes != null) {
-            buffer.append(", \"mentionContextAttributes\": " + mentionContextAttributes.toJson());
+        if (mentionContextAttributes != null && fields.includes("mentionContextAttributes")) {
+            generator.writeFieldName("mentionContextAttributes");
+            mentionContextAttributes.writeJson(generator);
         }
 
-        if (documentContextAttributes != null) {
-            buffer.append(", \"documentContextAttributes\": " + documentContextAttributes.toJson());
+        if (documentContextAttributes != null && fields.includes("documentContextAttributes")) {
+            generator.writeFieldName("documentContextAttributes");
+            documentContextAttributes.writeJson(generator);
         }
 
-        if (bibRefs != null) {
-            buffer.append(", \"references\": ["); 
-            boolean first = true;
+        if (bibRefs != null && fields.includes("references")) {
+            generator.writeArrayFieldStart("references");
             for(BiblioComponent bibRef : bibRefs) {
                 if (bibRef.getBiblio() == null)
                     continue;
-                if (!first)
-                    buffer.append(", ");
-                else
-                    first = false;
-                buffer.append(bibRef.toJson());
+                bibRef.writeJson(generator, fields);
             }
-
-            buffer.append(" ] ");
+            generator.writeEndArray();
         }
 
-        buffer.append(" }");
-        return buffer.toString();
+        generator.writeEndObject();
     }
     
     /*public String toString() {
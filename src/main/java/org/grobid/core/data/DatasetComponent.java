@@ -8,9 +8,9 @@ import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.data.Dataset.DatasetType;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -20,7 +20,7 @@ import org.slf4j.LoggerFactory;
  *  Representation of a mention of a component corresponding to a dataset description.
  *
  */
-public class DatasetComponent extends KnowledgeEntity implements Comparable<DatasetComponent> {   
+public class DatasetComponent extends KnowledgeEntity implements Comparable<DatasetComponent>, JsonWritable {   
     private static final Logger logger = LoggerFactory.getLogger(DatasetComponent.class);
 
     // surface form of the component as it appears in the source document
@@ -50,6 +50,10 @@ public class DatasetComponent extends KnowledgeEntity implements Comparable<Data
     // a status flag indicating that the component was filtered 
     protected boolean filtered = false;
 
+    // a status flag indicating that the disambiguation was requested but could not be done 
+    // (disambiguation service unavailable or too slow)
+    protected boolean disambiguationSkipped = false;
+
     // type of dataset object
     protected DatasetType type = null;
 
@@ -184,6 +188,14 @@ public class DatasetComponent extends KnowledgeEntity implements Comparable<Data
     public void setFiltered(boolean filtered) {
         this.filtered = filtered;
     } 
+
+    public boolean isDisambiguationSkipped() {
+        return disambiguationSkipped;
+    }
+
+    public void setDisambiguationSkipped(boolean disambiguationSkipped) {
+        this.disambiguationSkipped = disambiguationSkipped;
+    }
     
     public DatasetType getType() {
         return this.type;
@@ -252,65 +264,85 @@ public class DatasetComponent extends KnowledgeEntity implements Comparable<Data
     }
     
     public String toJson() {
-        ObjectMapper mapper = new ObjectMapper();
-        
-        StringBuffer buffer = new StringBuffer();
-        buffer.append("{ ");
-        try {
-            buffer.append("\"rawForm\" : " + mapper.writeValueAsString(rawForm));
-        } catch (JsonProcessingException e) {
-            buffer.append("\"rawForm\" : \"" + "JsonProcessingException" + "\"");
-        }
-        if (normalizedForm != null) {
-            try {
-                buffer.append(", \"normalizedForm\" : " + mapper.writeValueAsString(normalizedForm));
-            } catch (JsonProcessingException e) {
-                logger.warn("could not serialize in JSON the normalized form: " + normalizedForm);
-            }
+        return JsonWritable.toJson(this);
+    }
+
+    public void writeJson(JsonGenerator generator) throws IOException {
+        writeJson(generator, ResponseFields.ALL);
+    }
+
+    /**
+     * Write the component as a JSON object restricted to the selected fields
+     */
+    public void writeJson(JsonGenerator generator, ResponseFields fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.includes("rawForm"))
+            generator.writeStringField("rawForm", rawForm);
+        if (normalizedForm != null && fields.includes("normalizedForm")) {
+            generator.writeStringField("normalizedForm", normalizedForm);
         }
 
         // knowledge information
-        if (wikidataId != null) {
-            buffer.append(", \"wikidataId\": \"" + wikidataId + "\"");
+        if (wikidataId != null && fields.includes("wikidataId")) {
+            generator.writeStringField("wikidataId", wikidataId);
+        }
+        if (wikipediaExternalRef != -1 && fields.includes("wikipediaExternalRef")) {
+            generator.writeNumberField("wikipediaExternalRef", wikipediaExternalRef);
         }
-        if (wikipediaExternalRef != -1) {
-            buffer.append(", \"wikipediaExternalRef\": " + wikipediaExternalRef);
+        if (lang != null && fields.includes("lang")) {
+            generator.writeStringField("lang", lang);
         }
-        if (lang != null) {
-            buffer.append(", \"lang\": \"" + lang + "\"");
+        if (disambiguationScore != null && fields.includes("confidence")) {
+            generator.writeFieldName("confidence");
+            JsonWritable.writeScore(generator, disambiguationScore.doubleValue());
         }
-        if (disambiguationScore != null) {
-            buffer.append(", \"confidence\": " + TextUtilities.formatFourDecimals(disambiguationScore.doubleValue()));
+        if (disambiguationSkipped && fields.includes("disambiguated")) {
+            generator.writeBooleanField("disambiguated", false);
         }
 
         if (offsets != null) {
-            buffer.append(", \"offsetStart\" : " + offsets.start);
-            buffer.append(", \"offsetEnd\" : " + offsets.end);  
+            if (fields.includes("offsetStart"))
+                generator.writeNumberField("offsetStart", offsets.start);
+            if (fields.includes("offsetEnd"))
+                generator.writeNumberField("offsetEnd", offsets.end);
         }
         
         if (bestDataType != null) { 
-            buffer.append(", \"bestDataType\": \"" + bestDataType + "\"");
-            buffer.append(", \"bestTypeScore\": " + TextUtilities.formatFourDecimals(bestDataTypeScore));
-            buffer.append(", \"hasDataset\": " + hasDatasetScore);
+            if (fields.includes("bestDataType"))
+                generator.writeStringField("bestDataType", bestDataType);
+            if (fields.includes("bestTypeScore")) {
+                generator.writeFieldName("bestTypeScore");
+                JsonWritable.writeScore(generator, bestDataTypeScore);
+            }
+            if (fields.includes("hasDataset"))
+                generator.writeNumberField("hasDataset", hasDatasetScore);
         }
 
         //buffer.append(", \"conf\" : \"" + conf + "\"");
         
-        if ( (boundingBoxes != null) && (boundingBoxes.size() > 0) ) {
-            buffer.append(", \"boundingBoxes\" : [");
-            boolean first = true;
-            for (BoundingBox box : boundingBoxes) {
-                if (first)
-                    first = false;
-                else
-                    buffer.append(",");
-                buffer.append("{").append(box.toJson()).append("}");
-            }
-            buffer.append("] ");
-        }
+        if (fields.includes("boundingBoxes"))
+            writeBoundingBoxes(generator, boundingBoxes);
         
-        buffer.append(" }");
-        return buffer.toString();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the bounding boxes of a component, if any, as a boundingBoxes field
+     */
+    protected static void writeBoundingBoxes(JsonGenerator generator, List<BoundingBox> boundingBoxes) throws IOException {
+        if ( (boundingBoxes == null) || (boundingBoxes.size() == 0) )
+            return;
+        generator.writeArrayFieldStart("boundingBoxes");
+        for (BoundingBox box : boundingBoxes) {
+            generator.writeStartObject();
+            generator.writeNumberField("p", box.getPage());
+            generator.writeNumberField("x", box.getX());
+            generator.writeNumberField("y", box.getY());
+            generator.writeNumberField("w", box.getWidth());
+            generator.writeNumberField("h", box.getHeight());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
     }
     
     public String toString() {
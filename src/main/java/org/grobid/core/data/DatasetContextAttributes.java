@@ -1,8 +1,8 @@
 package org.grobid.core.data;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -12,7 +12,7 @@ import java.util.List;
  *  - shared: dataset is claimed shared via a sharing statement
  * Scores in [0,1] and binary class values are stored for each attribute.
  */
-public class DatasetContextAttributes {
+public class DatasetContextAttributes implements JsonWritable {
 
     private Boolean used = null;
     private Double usedScore = null;
@@ -24,6 +24,15 @@ public class DatasetContextAttributes {
     public DatasetContextAttributes() {
     }
 
+    public DatasetContextAttributes(DatasetContextAttributes attributes) {
+        this.used = attributes.used;
+        this.usedScore = attributes.usedScore;
+        this.created = attributes.created;
+        this.createdScore = attributes.createdScore;
+        this.shared = attributes.shared;
+        this.sharedScore = attributes.sharedScore;
+    }
+
     public Boolean getUsed() {
         return this.used;
     } 
@@ -85,11 +94,30 @@ public class DatasetContextAttributes {
     }
 
     public String toJson() {
-        StringBuffer buffer = new StringBuffer();
-        buffer.append("{\"used\" : { \"value\": " + this.used + ", \"score\": " + this.usedScore + "}");
-        buffer.append(", \"created\" : { \"value\": " + this.created + ", \"score\": " + this.createdScore + "}");
-        buffer.append(", \"shared\" : { \"value\": " + this.shared + ", \"score\": " + this.sharedScore + "}}");
-        return buffer.toString();
+        return JsonWritable.toJson(this);
+    }
+
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeAttribute(generator, "used", this.used, this.usedScore);
+        writeAttribute(generator, "created", this.created, this.createdScore);
+        writeAttribute(generator, "shared", this.shared, this.sharedScore);
+        generator.writeEndObject();
+    }
+
+    private static void writeAttribute(JsonGenerator generator, String name, Boolean value, Double score) throws IOException {
+        generator.writeObjectFieldStart(name);
+        generator.writeFieldName("value");
+        if (value == null)
+            generator.writeNull();
+        else
+            generator.writeBoolean(value);
+        generator.writeFieldName("score");
+        if (score == null)
+            generator.writeNull();
+        else
+            generator.writeNumber(score);
+        generator.writeEndObject();
     }
 
 }
\ No newline at end of file
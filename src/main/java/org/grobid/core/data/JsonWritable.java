@@ -0,0 +1,44 @@
+package org.grobid.core.data;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ *  Object which can be written with a Jackson JsonGenerator, so that it is streamed in the
+ *  service responses without intermediate strings.
+ */
+public interface JsonWritable {
+
+    JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Write the object as a JSON value with the given generator
+     */
+    void writeJson(JsonGenerator generator) throws IOException;
+
+    /**
+     * Write a score rounded to 4 decimals as a number value, the same in all the encodings (a
+     * formatted string would be written as a string by the binary generators)
+     */
+    static void writeScore(JsonGenerator generator, double score) throws IOException {
+        generator.writeNumber(Math.round(score * 10000) / 10000.0);
+    }
+
+    /**
+     * @return the JSON representation of an object as a string
+     */
+    static String toJson(JsonWritable object) {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            object.writeJson(generator);
+        } catch (IOException e) {
+            // no I/O with a StringWriter
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package org.grobid.core.data;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Selection of the fields written in a JSON result, given by the names of the fields to be kept
+ * and/or to be excluded. A name applies at every level of the result, for instance
+ * "boundingBoxes" for all the components of the mentions or "references" for both the
+ * references of the mentions and the TEI of the references of the document, the context
+ * attributes being selected as a whole. The fields which are not selected are neither computed
+ * nor encoded.
+ */
+public class ResponseFields {
+
+    public static final ResponseFields ALL = new ResponseFields(null, Collections.emptySet());
+
+    // null if all the fields are kept
+    private final Set<String> included;
+    private final Set<String> excluded;
+
+    private ResponseFields(Set<String> included, Set<String> excluded) {
+        this.included = included;
+        this.excluded = excluded;
+    }
+
+    /**
+     * @param fields comma-separated names of the fields to be kept, all the fields if null or empty
+     * @param exclude comma-separated names of the fields to be excluded, if any
+     */
+    public static ResponseFields parse(String fields, String exclude) {
+        Set<String> included = parseNames(fields);
+        Set<String> excluded = parseNames(exclude);
+        if (included.isEmpty() && excluded.isEmpty())
+            return ALL;
+        return new ResponseFields(included.isEmpty() ? null : included, excluded);
+    }
+
+    private static Set<String> parseNames(String names) {
+        Set<String> result = new HashSet<>();
+        if (names == null)
+            return result;
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.length() > 0)
+                result.add(name);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the field of the given name has to be written
+     */
+    public boolean includes(String field) {
+        if (excluded.contains(field))
+            return false;
+        return included == null || included.contains(field);
+    }
+}
@@ -0,0 +1,108 @@
+package org.grobid.core.engines;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Circuit breaker for a remote service. After a number of consecutive failed calls, the circuit
+ * is opened and the calls are refused without trying the service. When open, the service is
+ * periodically probed (e.g. with its isalive service), and when the probe succeeds, one trial call
+ * is allowed: its success closes the circuit again, its failure keeps the circuit open.
+ */
+public class CircuitBreaker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long retryInterval;
+    private final BooleanSupplier probe;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long nextProbe = 0;
+    private boolean probing = false;
+
+    /**
+     * @param name name of the service, for logging
+     * @param failureThreshold number of consecutive failures opening the circuit
+     * @param retryInterval minimum time in milliseconds between two probes of the service
+     * @param probe check of the service availability
+     */
+    public CircuitBreaker(String name, int failureThreshold, long retryInterval, BooleanSupplier probe) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.retryInterval = retryInterval;
+        this.probe = probe;
+    }
+
+    /**
+     * @return true if a call to the service can be made, false if the call must be skipped
+     */
+    public boolean allowRequest() {
+        synchronized (this) {
+            if (state == State.CLOSED)
+                return true;
+            // in half-open state, a single trial call is in progress, if its result is not recorded 
+            // after the retry interval, the trial call is considered as abandoned and the service 
+            // is probed again
+            if (probing || System.currentTimeMillis() < nextProbe)
+                return false;
+            probing = true;
+        }
+
+        // the probe is made outside the lock, the other callers are refused meanwhile
+        boolean available = false;
+        try {
+            available = probe.getAsBoolean();
+        } catch(Exception e) {
+            LOGGER.warn("Probe of " + name + " failed", e);
+        }
+
+        synchronized (this) {
+            probing = false;
+            if (available) {
+                state = State.HALF_OPEN;
+                nextProbe = System.currentTimeMillis() + retryInterval;
+                LOGGER.info(name + " available again, trial call");
+                return true;
+            }
+            nextProbe = System.currentTimeMillis() + retryInterval;
+            return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED)
+            LOGGER.info("Circuit to " + name + " closed");
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            if (state == State.CLOSED)
+                LOGGER.warn("Circuit to " + name + " opened after " + consecutiveFailures + " consecutive failures");
+            state = State.OPEN;
+            nextProbe = System.currentTimeMillis() + retryInterval;
+        }
+    }
+
+    /**
+     * Open the circuit, the service being known as unavailable
+     */
+    public synchronized void open() {
+        state = State.OPEN;
+        nextProbe = System.currentTimeMillis() + retryInterval;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
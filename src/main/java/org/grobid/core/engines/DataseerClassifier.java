@@ -21,7 +21,8 @@ import org.grobid.core.main.LibraryLoader;
 import org.grobid.core.engines.tagging.GrobidCRFEngine;
 import org.grobid.core.engines.tagging.*;
 import org.grobid.core.jni.PythonEnvironmentConfig;
-import org.grobid.core.jni.DeLFTClassifierModel;
+import org.grobid.core.engines.classifier.TextClassifierModel;
+import org.grobid.core.engines.classifier.TextClassifierModels;
 import org.grobid.core.utilities.GrobidConfig.ModelParameters;
 
 import org.slf4j.Logger;
@@ -91,11 +92,11 @@ public class DataseerClassifier {
     //private static List<String> textualElements = Arrays.asList("p");
 
     // map of classification models (binay, first-level, etc.)
-    private Map<String,DeLFTClassifierModel> models = null;
+    private Map<String,TextClassifierModel> models = null;
 
-    private DeLFTClassifierModel classifierBinary = null;
-    private DeLFTClassifierModel classifierFirstLevel = null;
-    private DeLFTClassifierModel classifierReuse = null;
+    private TextClassifierModel classifierBinary = null;
+    private TextClassifierModel classifierFirstLevel = null;
+    private TextClassifierModel classifierReuse = null;
 
     private DatastetConfiguration datastetConfiguration = null;
 
@@ -128,14 +129,14 @@ public class DataseerClassifier {
             // grobid
             engine = GrobidFactory.getInstance().createEngine();
 
-            // Datatype classifier via DeLFT
+            // Datatype classifier via DeLFT or ONNX Runtime, depending on the engine of each model
             for(ModelParameters parameter : datastetConfiguration.getModels()) {
                 if (parameter.name.equals("dataseer-binary")) {
-                    this.classifierBinary = new DeLFTClassifierModel("dataseer-binary", parameter.delft.architecture);
+                    this.classifierBinary = TextClassifierModels.create("dataseer-binary", datastetConfiguration);
                 } else if (parameter.name.equals("dataseer-first")) {
-                    this.classifierFirstLevel = new DeLFTClassifierModel("dataseer-first", parameter.delft.architecture);
+                    this.classifierFirstLevel = TextClassifierModels.create("dataseer-first", datastetConfiguration);
                 } else if (parameter.name.equals("dataseer-reuse")) {
-                    this.classifierReuse = new DeLFTClassifierModel("dataseer-reuse", parameter.delft.architecture);
+                    this.classifierReuse = TextClassifierModels.create("dataseer-reuse", datastetConfiguration);
                 }
             }
 
@@ -230,6 +231,7 @@ public class DataseerClassifier {
         String cascaded_json = null;
         JsonNode rootCascaded = null;
         if (cascaded_texts.size() > 0) {
+            ProcessingDeadline.checkCurrent();
             cascaded_json = classifierFirstLevel.classify(cascaded_texts);
             if (cascaded_json != null && cascaded_json.length() > 0)
                 rootCascaded = mapper.readTree(cascaded_json);
@@ -243,6 +245,7 @@ public class DataseerClassifier {
         String cascaded_reuse_json = null;
         JsonNode rootReuseCascaded = null;
         if (cascaded_texts.size() > 0) {
+            ProcessingDeadline.checkCurrent();
             cascaded_reuse_json = classifierReuse.classify(cascaded_texts);
             if (cascaded_reuse_json != null && cascaded_reuse_json.length() > 0)
                 rootReuseCascaded = mapper.readTree(cascaded_reuse_json);
@@ -1,6 +1,7 @@
 package org.grobid.core.engines;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.io.FileUtils;
 import org.grobid.core.GrobidModels;
@@ -10,7 +11,8 @@ import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.layout.LayoutTokenization;
 import org.grobid.core.utilities.*;
 import org.grobid.core.jni.PythonEnvironmentConfig;
-import org.grobid.core.jni.DeLFTClassifierModel;
+import org.grobid.core.engines.classifier.TextClassifierModel;
+import org.grobid.core.engines.classifier.TextClassifierModels;
 import org.grobid.core.utilities.GrobidConfig.ModelParameters;
 import org.grobid.core.utilities.TextUtilities;
 import org.grobid.core.data.Dataset;
@@ -49,15 +51,24 @@ public class DatasetContextClassifier {
     // we can use either one single multi-label (over 3 classes) classifier or 3 binary classifiers
 
     // multi-class/multi-label classifier
-    private DeLFTClassifierModel classifier = null;
+    private TextClassifierModel classifier = null;
 
     // binary classifiers
-    private DeLFTClassifierModel classifierBinaryUsed = null;
-    private DeLFTClassifierModel classifierBinaryCreated = null;
-    private DeLFTClassifierModel classifierBinaryShared = null;
+    private TextClassifierModel classifierBinaryUsed = null;
+    private TextClassifierModel classifierBinaryCreated = null;
+    private TextClassifierModel classifierBinaryShared = null;
 
     private Boolean useBinary; 
 
+    // early-exit policy for the binary classifiers: creation and shared classifiers are only 
+    // applied when the used score is in the uncertainty band or in a data availability section
+    private boolean earlyExit = false;
+    private double usedLowerThreshold = 0.1;
+    private double usedUpperThreshold = 0.9;
+
+    // number of contexts sent to each classifier
+    private final Map<MODEL_TYPE, AtomicLong> invocationCounts = new EnumMap<>(MODEL_TYPE.class);
+
     private DatastetConfiguration datastetConfiguration;
     private JsonParser parser;
 
@@ -96,22 +107,44 @@ public class DatasetContextClassifier {
     }
 
     private DatasetContextClassifier(DatastetConfiguration configuration) {
-        ModelParameters parameter = configuration.getModel("context");
-
-        ModelParameters parameterUsed = configuration.getModel("context_used");
-        ModelParameters parameterCreated = configuration.getModel("context_creation");
-        ModelParameters parameterShared = configuration.getModel("context_shared");
-
         this.useBinary = configuration.getUseBinaryContextClassifiers();
         if (this.useBinary == null)
             this.useBinary = true;
+        init(configuration);
 
         if (this.useBinary) {
-            this.classifierBinaryUsed = new DeLFTClassifierModel("context_used", parameterUsed.delft.architecture);
-            this.classifierBinaryCreated = new DeLFTClassifierModel("context_creation", parameterCreated.delft.architecture);
-            this.classifierBinaryShared = new DeLFTClassifierModel("context_shared", parameterShared.delft.architecture);
+            this.classifierBinaryUsed = TextClassifierModels.create("context_used", configuration);
+            this.classifierBinaryCreated = TextClassifierModels.create("context_creation", configuration);
+            this.classifierBinaryShared = TextClassifierModels.create("context_shared", configuration);
         } else {
-            this.classifier = new DeLFTClassifierModel("context", parameter.delft.architecture);
+            this.classifier = TextClassifierModels.create("context", configuration);
+        }
+    }
+
+    /**
+     * Context classifier with the given binary classifiers, for testing
+     */
+    DatasetContextClassifier(DatastetConfiguration configuration, 
+                             TextClassifierModel classifierBinaryUsed, 
+                             TextClassifierModel classifierBinaryCreated, 
+                             TextClassifierModel classifierBinaryShared) {
+        this.useBinary = true;
+        init(configuration);
+        this.classifierBinaryUsed = classifierBinaryUsed;
+        this.classifierBinaryCreated = classifierBinaryCreated;
+        this.classifierBinaryShared = classifierBinaryShared;
+    }
+
+    private void init(DatastetConfiguration configuration) {
+        if (configuration.getContextClassifierEarlyExit() != null)
+            this.earlyExit = configuration.getContextClassifierEarlyExit();
+        if (configuration.getContextUsedLowerThreshold() != null)
+            this.usedLowerThreshold = configuration.getContextUsedLowerThreshold();
+        if (configuration.getContextUsedUpperThreshold() != null)
+            this.usedUpperThreshold = configuration.getContextUsedUpperThreshold();
+
+        for (MODEL_TYPE type : MODEL_TYPE.values()) {
+            this.invocationCounts.put(type, new AtomicLong(0));
         }
     }
 
@@ -135,7 +168,9 @@ public class DatasetContextClassifier {
         if (texts == null || texts.size() == 0)
             return null;
 
+        ProcessingDeadline.checkCurrent();
         LOGGER.info("classify: " + texts.size() + " sentence(s) for type " + type.toString());
+        this.invocationCounts.get(type).addAndGet(texts.size());
 
         String the_json = null;
 
@@ -157,6 +192,10 @@ public class DatasetContextClassifier {
      * classified and a global decision is realized at document-level using all the mentioned 
      * contexts corresponding to the same dataset.  
      * 
+     * Identical contexts (several mentions in the same sentence, propagated mentions) are 
+     * classified only once and the resulting scores are then shared by all the corresponding 
+     * entities.
+     * 
      * This method uses one multi-class, multi-label classifier.
      * 
      **/
@@ -165,25 +204,18 @@ public class DatasetContextClassifier {
         if (this.useBinary)
             return classifyDocumentContextsBinary(entities);
 
+        List<Dataset> flatEntities = flattenEntities(entities);
         List<String> contexts = new ArrayList<>();
+        int[] contextRanks = indexContexts(flatEntities, contexts);
 
-        for(List<Dataset> datasets : entities) {
-            for(Dataset entity : datasets) {
-                if (entity.getContext() != null && entity.getContext().length()>0) {
-                    String localContext = TextUtilities.dehyphenize(entity.getContext());
-                    localContext = localContext.replace("\n", " ");
-                    localContext = localContext.replaceAll("( )+", " ");
-                    contexts.add(localContext);
-                } else {
-                    // dummy place holder
-                    contexts.add("");
-                }
-            }
-        }
+        if (contexts.size() == 0)
+            return entities;
 
         String results = null;
         try {
             results = classify(contexts, MODEL_TYPE.all);
+        } catch(ProcessingCancelledException e) {
+            throw e;
         } catch(Exception e) {
             LOGGER.error("fail to classify document's set of contexts", e);
             return entities;
@@ -192,23 +224,22 @@ public class DatasetContextClassifier {
         if (results == null) 
             return entities;
 
-        // set resulting context classes to entity mentions
+        // context classes for each distinct context
+        DatasetContextAttributes[] contextAttributes = new DatasetContextAttributes[contexts.size()];
         try {
             ObjectMapper mapper = new ObjectMapper();
             JsonNode root = mapper.readTree(results);
 
-            int entityRank =0;
-            String lang = null;
+            int contextRank = 0;
             JsonNode classificationsNode = root.findPath("classifications");
             if ((classificationsNode != null) && (!classificationsNode.isMissingNode())) {
                 Iterator<JsonNode> ite = classificationsNode.elements();
-                while (ite.hasNext()) {
+                while (ite.hasNext() && contextRank < contextAttributes.length) {
                     JsonNode classificationNode = ite.next();
 
                     JsonNode usedNode = classificationNode.findPath("used");
                     JsonNode createdNode = classificationNode.findPath("creation");
                     JsonNode sharedNode = classificationNode.findPath("shared");
-                    JsonNode textNode = classificationNode.findPath("text");
 
                     double scoreUsed = 0.0;
                     if ((usedNode != null) && (!usedNode.isMissingNode())) {
@@ -225,59 +256,104 @@ public class DatasetContextClassifier {
                         scoreShared = sharedNode.doubleValue();
                     }
 
-                    String textValue = null;
-                    if ((textNode != null) && (!textNode.isMissingNode())) {
-                        textValue = textNode.textValue();
-                    }
-                    
-                    DatasetContextAttributes contextAttributes = new DatasetContextAttributes();
-                    contextAttributes.setUsedScore(scoreUsed);
-                    contextAttributes.setCreatedScore(scoreCreated);
-                    contextAttributes.setSharedScore(scoreShared);
+                    DatasetContextAttributes localContextAttributes = new DatasetContextAttributes();
+                    localContextAttributes.setUsedScore(scoreUsed);
+                    localContextAttributes.setCreatedScore(scoreCreated);
+                    localContextAttributes.setSharedScore(scoreShared);
 
                     if (scoreUsed>0.5) 
-                        contextAttributes.setUsed(true);
+                        localContextAttributes.setUsed(true);
                     else 
-                        contextAttributes.setUsed(false);
+                        localContextAttributes.setUsed(false);
 
                     if (scoreCreated > 0.5) 
-                        contextAttributes.setCreated(true);
+                        localContextAttributes.setCreated(true);
                     else 
-                        contextAttributes.setCreated(false);
+                        localContextAttributes.setCreated(false);
 
                     if (scoreShared > 0.5) 
-                        contextAttributes.setShared(true);
+                        localContextAttributes.setShared(true);
                     else 
-                        contextAttributes.setShared(false);
-                    
-                    //Dataset entity = entities.get(entityRank);
-                    Dataset entity = getEntityByGlobalRank(entities, entityRank);
-                    if (entity != null)
-                        entity.setMentionContextAttributes(contextAttributes);
-
-                    entityRank++;
+                        localContextAttributes.setShared(false);
+
+                    contextAttributes[contextRank] = localContextAttributes;
+                    contextRank++;
                 }
             }
         } catch(JsonProcessingException e) {
             LOGGER.error("failed to parse JSON context classification result", e);
         }
 
+        // fan-out the context classes to every entity mention sharing the context
+        for(int entityRank=0; entityRank<flatEntities.size(); entityRank++) {
+            DatasetContextAttributes localContextAttributes = contextAttributes[contextRanks[entityRank]];
+            if (localContextAttributes != null)
+                flatEntities.get(entityRank).setMentionContextAttributes(new DatasetContextAttributes(localContextAttributes));
+        }
+
         // in a second pass, we share all predictions for mentions of the same dataset name in 
         // different places and apply a consistency propagation
         return documentPropagation(entities);
     }
 
-    private static Dataset getEntityByGlobalRank(List<List<Dataset>> entities, int rank) {
-        int currentRank = 0;
+    /**
+     * Flat list of the entities of a document, following the document order
+     */
+    private static List<Dataset> flattenEntities(List<List<Dataset>> entities) {
+        List<Dataset> flatEntities = new ArrayList<>();
         for(List<Dataset> datasets : entities) {
-            int localSize = datasets.size();
-            if (currentRank + localSize > rank) {
-                return datasets.get(rank - currentRank);
-            } else {
-                currentRank += localSize;
+            if (datasets == null)
+                continue;
+            for(Dataset entity : datasets) {
+                if (entity != null)
+                    flatEntities.add(entity);
+            }
+        }
+        return flatEntities;
+    }
+
+    /**
+     * Add the distinct normalized contexts of the entities to the given list. The contexts are
+     * stored in a sentence table local to the call, so that each distinct context is normalized
+     * only once.
+     * 
+     * @return for each entity rank, the rank of its context in the list of distinct contexts
+     */
+    private static int[] indexContexts(List<Dataset> flatEntities, List<String> contexts) {
+        int[] contextRanks = new int[flatEntities.size()];
+        SentenceTable sentences = new SentenceTable(DatasetContextClassifier::normalizeContext);
+        // for each sentence id, the rank of its normalized form (distinct sentences can have the 
+        // same normalized form)
+        List<Integer> sentenceRanks = new ArrayList<>();
+        Map<String, Integer> contextIndex = new HashMap<>();
+        for(int entityRank=0; entityRank<flatEntities.size(); entityRank++) {
+            Dataset entity = flatEntities.get(entityRank);
+            String context = entity.getContext();
+            int sentenceId = sentences.add(context == null ? "" : context);
+            if (sentenceId == sentenceRanks.size()) {
+                String localContext = sentences.getNormalized(sentenceId);
+                Integer contextRank = contextIndex.get(localContext);
+                if (contextRank == null) {
+                    contextRank = Integer.valueOf(contexts.size());
+                    contextIndex.put(localContext, contextRank);
+                    contexts.add(localContext);
+                }
+                sentenceRanks.add(contextRank);
             }
+            contextRanks[entityRank] = sentenceRanks.get(sentenceId).intValue();
         }
-        return null;
+        return contextRanks;
+    }
+
+    private static String normalizeContext(String context) {
+        if (context == null || context.length() == 0) {
+            // dummy place holder
+            return "";
+        }
+        String localContext = TextUtilities.dehyphenize(context);
+        localContext = localContext.replace("\n", " ");
+        localContext = localContext.replaceAll("( )+", " ");
+        return localContext;
     }
 
     /**
@@ -285,160 +361,181 @@ public class DatasetContextClassifier {
      * classified and a global decision is realized at document-level using all the mentioned 
      * contexts corresponding to the same dataset.  
      * 
+     * As for the multi-label classifier, identical contexts are classified only once. 
+     * 
+     * When the early-exit policy is enabled, the "used" classifier is applied first and the 
+     * "creation" and "shared" classifiers are only applied to the contexts with an uncertain 
+     * "used" score or appearing in a data availability section. The other contexts are 
+     * considered as not creation and not shared. 
+     * 
      * This method uses binary classifiers.
      * 
      **/
     public List<List<Dataset>> classifyDocumentContextsBinary(List<List<Dataset>> entities) {
+        List<Dataset> flatEntities = flattenEntities(entities);
         List<String> contexts = new ArrayList<>();
-        for(List<Dataset> datasets : entities) {
-            for(Dataset entity : datasets) {
-                if (entity.getContext() != null && entity.getContext().length()>0) {
-                    String localContext = TextUtilities.dehyphenize(entity.getContext());
-                    localContext = localContext.replace("\n", " ");
-                    localContext = localContext.replaceAll("( )+", " ");
-                    contexts.add(localContext);
-                } else {
-                    // dummy place holder
-                    contexts.add("");
-                }
-            }
+        int[] contextRanks = indexContexts(flatEntities, contexts);
+
+        if (contexts.size() == 0)
+            return entities;
+
+        // context classes for each distinct context
+        DatasetContextAttributes[] contextAttributes = new DatasetContextAttributes[contexts.size()];
+        for(int i=0; i<contextAttributes.length; i++) {
+            contextAttributes[i] = new DatasetContextAttributes();
+        }
+
+        List<Integer> allContextRanks = new ArrayList<>();
+        for(int i=0; i<contexts.size(); i++) {
+            allContextRanks.add(i);
         }
 
-        String resultsUsed = null;
-        String resultsCreated = null;
-        String resultsShared = null;
         try {
-            resultsUsed = classify(contexts, MODEL_TYPE.used);
-            resultsCreated = classify(contexts, MODEL_TYPE.created);
-            resultsShared = classify(contexts, MODEL_TYPE.shared);
+            classifyBinary(contexts, allContextRanks, MODEL_TYPE.used, contextAttributes);
+
+            List<Integer> selectedContextRanks = allContextRanks;
+            if (this.earlyExit) {
+                boolean[] inDataAvailabilitySection = new boolean[contexts.size()];
+                for(int entityRank=0; entityRank<flatEntities.size(); entityRank++) {
+                    if (flatEntities.get(entityRank).isInDataAvailabilitySection())
+                        inDataAvailabilitySection[contextRanks[entityRank]] = true;
+                }
+
+                selectedContextRanks = new ArrayList<>();
+                for(int i=0; i<contexts.size(); i++) {
+                    Double usedScore = contextAttributes[i].getUsedScore();
+                    if (inDataAvailabilitySection[i] || usedScore == null || 
+                        (usedScore > this.usedLowerThreshold && usedScore < this.usedUpperThreshold)) {
+                        selectedContextRanks.add(i);
+                    } else {
+                        // early exit, the context is considered as not creation and not shared 
+                        contextAttributes[i].setCreatedScore(0.0);
+                        contextAttributes[i].setCreated(false);
+                        contextAttributes[i].setSharedScore(0.0);
+                        contextAttributes[i].setShared(false);
+                    }
+                }
+            }
+
+            classifyBinary(contexts, selectedContextRanks, MODEL_TYPE.created, contextAttributes);
+            classifyBinary(contexts, selectedContextRanks, MODEL_TYPE.shared, contextAttributes);
+
+            LOGGER.info("context classification: " + contexts.size() + " distinct context(s), " + 
+                selectedContextRanks.size() + " sent to creation and shared classifiers");
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("contexts sent to each context classifier since the start: " + getInvocationCounts());
+        } catch(ProcessingCancelledException e) {
+            throw e;
         } catch(Exception e) {
             LOGGER.error("fail to classify document's set of contexts", e);
             return entities;
         }
 
-        if (resultsUsed == null && resultsCreated == null && resultsShared == null) 
-            return entities;
+        // fan-out the context classes to every entity mention sharing the context
+        for(int entityRank=0; entityRank<flatEntities.size(); entityRank++) {
+            DatasetContextAttributes localContextAttributes = contextAttributes[contextRanks[entityRank]];
+            if (localContextAttributes.getUsed() != null)
+                flatEntities.get(entityRank).setMentionContextAttributes(new DatasetContextAttributes(localContextAttributes));
+        }
 
-        List<String> results = new ArrayList<>();
-        results.add(resultsUsed);
-        results.add(resultsCreated);
-        results.add(resultsShared);
+        // in a second pass, we share all predictions for mentions of the same dataset name in 
+        // different places and apply a consistency propagation
+        return documentPropagation(entities);
+    }
 
-        // set resulting context classes to entity mentions
-        for(int i=0; i<results.size(); i++) {
-            if (results.get(i) == null) 
-                continue;
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode root = mapper.readTree(results.get(i));
-
-                int entityRank =0;
-                String lang = null;
-                JsonNode classificationsNode = root.findPath("classifications");
-                if ((classificationsNode != null) && (!classificationsNode.isMissingNode())) {
-                    Iterator<JsonNode> ite = classificationsNode.elements();
-                    while (ite.hasNext()) {
-                        JsonNode classificationNode = ite.next();
-                        //Dataset entity = entities.get(entityRank);
-                        Dataset entity = getEntityByGlobalRank(entities, entityRank);
-
-                        if (entity == null) {
-                            entityRank++;
-                            continue;
-                        }
-
-                        DatasetContextAttributes contextAttributes = entity.getMentionContextAttributes();
-                        if (contextAttributes == null)
-                            contextAttributes = new DatasetContextAttributes();
-                        
-                        if (i==0) {
-                            JsonNode usedNode = classificationNode.findPath("used");
-                            JsonNode notUsedNode = classificationNode.findPath("not_used");
-
-                            double scoreUsed = 0.0;
-                            if ((usedNode != null) && (!usedNode.isMissingNode())) {
-                                scoreUsed = usedNode.doubleValue();
-                            }
-                            double scoreNotUsed = 0.0;
-                            if ((notUsedNode != null) && (!notUsedNode.isMissingNode())) {
-                                scoreNotUsed = notUsedNode.doubleValue();
-                            }
-
-                            if (scoreUsed > scoreNotUsed)
-                                contextAttributes.setUsedScore(scoreUsed);
-                            else 
-                                contextAttributes.setUsedScore(1-scoreNotUsed);
-
-                            if (scoreUsed>0.5 && scoreUsed > scoreNotUsed) 
-                                contextAttributes.setUsed(true);
-                            else 
-                                contextAttributes.setUsed(false);
-                        } else if (i == 1) {
-                            JsonNode createdNode = classificationNode.findPath("creation");
-                            JsonNode notCreatedNode = classificationNode.findPath("not_creation");
-
-                            double scoreCreated = 0.0;
-                            if ((createdNode != null) && (!createdNode.isMissingNode())) {
-                                scoreCreated = createdNode.doubleValue();
-                            }
-
-                            double scoreNotCreated = 0.0;
-                            if ((notCreatedNode != null) && (!notCreatedNode.isMissingNode())) {
-                                scoreNotCreated = notCreatedNode.doubleValue();
-                            }
-
-                            if (scoreCreated > scoreNotCreated)
-                                contextAttributes.setCreatedScore(scoreCreated);
-                            else
-                                contextAttributes.setCreatedScore(1 - scoreNotCreated);
-
-                            if (scoreCreated > 0.5 && scoreCreated > scoreNotCreated) 
-                                contextAttributes.setCreated(true);
-                            else 
-                                contextAttributes.setCreated(false);
-                        } else {
-                            JsonNode sharedNode = classificationNode.findPath("shared");
-                            JsonNode notSharedNode = classificationNode.findPath("not_shared");
-
-                            double scoreShared = 0.0;
-                            if ((sharedNode != null) && (!sharedNode.isMissingNode())) {
-                                scoreShared = sharedNode.doubleValue();
-                            }
-
-                            double scoreNotShared = 0.0;
-                            if ((notSharedNode != null) && (!notSharedNode.isMissingNode())) {
-                                scoreNotShared = notSharedNode.doubleValue();
-                            }
-
-                            if (scoreShared > scoreNotShared)
-                                contextAttributes.setSharedScore(scoreShared);
-                            else
-                                contextAttributes.setSharedScore(1 - scoreNotShared);
-
-                            if (scoreShared > 0.5 && scoreShared > scoreNotShared) 
-                                contextAttributes.setShared(true);
-                            else 
-                                contextAttributes.setShared(false);
-                        }
-
-                        JsonNode textNode = classificationNode.findPath("text");
-                        String textValue = null;
-                        if ((textNode != null) && (!textNode.isMissingNode())) {
-                            textValue = textNode.textValue();
-                        }
-                        
-                        entity.setMentionContextAttributes(contextAttributes);
-                        entityRank++;
+    /**
+     * Apply one of the binary context classifiers to the selected distinct contexts and set the 
+     * resulting score and class in the corresponding context attributes.
+     */
+    private void classifyBinary(List<String> contexts, 
+                                List<Integer> selectedContextRanks, 
+                                MODEL_TYPE type, 
+                                DatasetContextAttributes[] contextAttributes) throws Exception {
+        if (selectedContextRanks.size() == 0)
+            return;
+
+        List<String> selectedContexts = new ArrayList<>();
+        for(Integer contextRank : selectedContextRanks) {
+            selectedContexts.add(contexts.get(contextRank));
+        }
+
+        String results = classify(selectedContexts, type);
+        if (results == null) 
+            return;
+
+        String positiveLabel;
+        String negativeLabel;
+        if (type == MODEL_TYPE.used) {
+            positiveLabel = "used";
+            negativeLabel = "not_used";
+        } else if (type == MODEL_TYPE.created) {
+            positiveLabel = "creation";
+            negativeLabel = "not_creation";
+        } else {
+            positiveLabel = "shared";
+            negativeLabel = "not_shared";
+        }
+
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode root = mapper.readTree(results);
+
+            int rank = 0;
+            JsonNode classificationsNode = root.findPath("classifications");
+            if ((classificationsNode != null) && (!classificationsNode.isMissingNode())) {
+                Iterator<JsonNode> ite = classificationsNode.elements();
+                while (ite.hasNext() && rank < selectedContextRanks.size()) {
+                    JsonNode classificationNode = ite.next();
+                    DatasetContextAttributes localContextAttributes = 
+                        contextAttributes[selectedContextRanks.get(rank)];
+
+                    JsonNode positiveNode = classificationNode.findPath(positiveLabel);
+                    JsonNode negativeNode = classificationNode.findPath(negativeLabel);
+
+                    double scorePositive = 0.0;
+                    if ((positiveNode != null) && (!positiveNode.isMissingNode())) {
+                        scorePositive = positiveNode.doubleValue();
+                    }
+                    double scoreNegative = 0.0;
+                    if ((negativeNode != null) && (!negativeNode.isMissingNode())) {
+                        scoreNegative = negativeNode.doubleValue();
+                    }
+
+                    double score;
+                    if (scorePositive > scoreNegative)
+                        score = scorePositive;
+                    else 
+                        score = 1 - scoreNegative;
+                    boolean decision = scorePositive > 0.5 && scorePositive > scoreNegative;
+
+                    if (type == MODEL_TYPE.used) {
+                        localContextAttributes.setUsedScore(score);
+                        localContextAttributes.setUsed(decision);
+                    } else if (type == MODEL_TYPE.created) {
+                        localContextAttributes.setCreatedScore(score);
+                        localContextAttributes.setCreated(decision);
+                    } else {
+                        localContextAttributes.setSharedScore(score);
+                        localContextAttributes.setShared(decision);
                     }
+
+                    rank++;
                 }
-            } catch(JsonProcessingException e) {
-                LOGGER.error("failed to parse JSON context classification result", e);
             }
+        } catch(JsonProcessingException e) {
+            LOGGER.error("failed to parse JSON context classification result", e);
         }
+    }
 
-        // in a second pass, we share all predictions for mentions of the same dataset name in 
-        // different places and apply a consistency propagation
-        return documentPropagation(entities);
+    /**
+     * Number of contexts sent to each context classifier since the start of the service 
+     */
+    public Map<String, Long> getInvocationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<MODEL_TYPE, AtomicLong> entry : this.invocationCounts.entrySet()) {
+            counts.put(entry.getKey().toString(), entry.getValue().get());
+        }
+        return counts;
     }
 
     private List<List<Dataset>> documentPropagation(List<List<Dataset>> entities) {
@@ -23,6 +23,7 @@ import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.layout.LayoutTokenization;
 import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.lexicon.LexiconSnapshot;
 import org.grobid.core.utilities.DatastetConfiguration;
 import org.grobid.core.utilities.*;
 import org.slf4j.Logger;
@@ -39,6 +40,15 @@ import java.io.*;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
@@ -62,6 +72,11 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.conn.HttpHostConnectException;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.commons.lang3.tuple.Pair;
 
 import static org.apache.commons.lang3.StringUtils.*;
@@ -80,10 +95,52 @@ public class DatasetDisambiguator {
 
     private static volatile DatasetDisambiguator instance;
 
-    private static String nerd_host = null;
-    private static String nerd_port = null;
-
-    private static boolean serverStatus = false;
+    private String nerd_host = null;
+    private String nerd_port = null;
+
+    // shared HTTP client with a pool of keep-alive connections to entity-fishing
+    private PoolingHttpClientConnectionManager connectionManager = null;
+    private CloseableHttpClient httpClient = null;
+    private RequestConfig requestConfig = null;
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 10;
+    private static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    private static final int DEFAULT_READ_TIMEOUT = 30000;
+    private static final int DEFAULT_KEEP_ALIVE = 30000;
+
+    // batched disambiguation: max text length of a batch of segments, max gap between two 
+    // consecutive segments of a same batch and number of concurrent batches per document
+    private static final int DEFAULT_BATCH_MAX_LENGTH = 3000;
+    private static final int DEFAULT_MAX_CONCURRENT_BATCHES = 4;
+    private static final int MAX_SEGMENT_GAP = 5;
+    private int batchMaxLength = DEFAULT_BATCH_MAX_LENGTH;
+    private int maxConcurrentBatches = DEFAULT_MAX_CONCURRENT_BATCHES;
+
+    private final ExecutorService batchExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "entity-fishing-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // cache of the disambiguation results per mention and context, null if disabled
+    private static final int DEFAULT_CACHE_SIZE = 100000;
+    private static final int DEFAULT_CACHE_TTL = 30 * 24 * 3600;
+    private static final int DEFAULT_CACHE_DISK_SLOTS = 1000000;
+    private static final int FINGERPRINT_SIZE = 5;
+    private DisambiguationCache cache = null;
+
+    // max duration of the disambiguation of a document, and circuit breaker stopping the calls 
+    // to entity-fishing after consecutive failures, the service being then probed periodically
+    private static final int DEFAULT_DEADLINE = 20000;
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final int DEFAULT_RETRY_INTERVAL = 30000;
+    private long deadlineDuration = DEFAULT_DEADLINE;
+    private final CircuitBreaker circuitBreaker;
+    private volatile boolean customisationReady = false;
+
+    // usage counters
+    private final AtomicLong nbRequests = new AtomicLong(0);
+    private final AtomicLong nbFailedRequests = new AtomicLong(0);
 
     public static DatasetDisambiguator getInstance(DatastetConfiguration configuration) {
         if (instance == null) {
@@ -99,15 +156,163 @@ public class DatasetDisambiguator {
         instance = new DatasetDisambiguator(configuration);
     }
 
-    private DatasetDisambiguator(DatastetConfiguration configuration) {
+    DatasetDisambiguator(DatastetConfiguration configuration) {
+        int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+        if (configuration.getEntityFishingFailureThreshold() != null)
+            failureThreshold = configuration.getEntityFishingFailureThreshold();
+        int retryInterval = DEFAULT_RETRY_INTERVAL;
+        if (configuration.getEntityFishingRetryInterval() != null)
+            retryInterval = configuration.getEntityFishingRetryInterval();
+        circuitBreaker = new CircuitBreaker("entity-fishing", failureThreshold, retryInterval, this::probeService);
+
         try {
             nerd_host = configuration.getEntityFishingHost();
             nerd_port = configuration.getEntityFishingPort();
-            serverStatus = checkIfAlive();
-            if (serverStatus == true)
-                ensureCustomizationReady();
+            if (configuration.getEntityFishingBatchMaxLength() != null)
+                batchMaxLength = configuration.getEntityFishingBatchMaxLength();
+            if (configuration.getEntityFishingMaxConcurrentBatches() != null)
+                maxConcurrentBatches = Math.max(1, configuration.getEntityFishingMaxConcurrentBatches());
+            if (configuration.getEntityFishingDeadline() != null)
+                deadlineDuration = configuration.getEntityFishingDeadline();
+            createHttpClient(configuration);
+            createCache(configuration);
+            if (!probeService())
+                circuitBreaker.open();
         } catch(Exception e) {
             LOGGER.error("Cannot read properties for disambiguation service", e);
+            circuitBreaker.open();
+        }
+    }
+
+    /**
+     * Check if the service is available and, the first time it is, that the dataset customisation 
+     * is loaded
+     */
+    private boolean probeService() {
+        if (httpClient == null)
+            return false;
+        boolean alive = checkIfAlive();
+        if (alive && !customisationReady) {
+            ensureCustomizationReady();
+            customisationReady = true;
+        }
+        return alive;
+    }
+
+    private void createHttpClient(DatastetConfiguration configuration) {
+        int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        if (configuration.getEntityFishingMaxConnections() != null)
+            maxConnections = configuration.getEntityFishingMaxConnections();
+        int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        if (configuration.getEntityFishingConnectTimeout() != null)
+            connectTimeout = configuration.getEntityFishingConnectTimeout();
+        int readTimeout = DEFAULT_READ_TIMEOUT;
+        if (configuration.getEntityFishingReadTimeout() != null)
+            readTimeout = configuration.getEntityFishingReadTimeout();
+        final int keepAlive;
+        if (configuration.getEntityFishingKeepAlive() != null)
+            keepAlive = configuration.getEntityFishingKeepAlive();
+        else
+            keepAlive = DEFAULT_KEEP_ALIVE;
+
+        // there is only one route, the entity-fishing server
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeout)
+            .setConnectionRequestTimeout(connectTimeout)
+            .setSocketTimeout(readTimeout)
+            .build();
+
+        // keep-alive duration given by the server if any, otherwise the configured one
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : keepAlive;
+        };
+
+        httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy)
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    private void createCache(DatastetConfiguration configuration) {
+        int cacheSize = DEFAULT_CACHE_SIZE;
+        if (configuration.getDisambiguationCacheSize() != null)
+            cacheSize = configuration.getDisambiguationCacheSize();
+        if (cacheSize <= 0)
+            return;
+        int ttl = DEFAULT_CACHE_TTL;
+        if (configuration.getDisambiguationCacheTTL() != null)
+            ttl = configuration.getDisambiguationCacheTTL();
+        int diskSlots = DEFAULT_CACHE_DISK_SLOTS;
+        if (configuration.getDisambiguationCacheDiskSlots() != null)
+            diskSlots = configuration.getDisambiguationCacheDiskSlots();
+        cache = new DisambiguationCache(cacheSize, ttl * 1000L, configuration.getDisambiguationCachePath(), diskSlots);
+    }
+
+    private String getServiceUrl(String path) {
+        if ( (nerd_port != null) && (nerd_port.length() > 0) )
+            if (nerd_port.equals("443"))
+                return "https://" + nerd_host + "/service/" + path;
+            else
+                return "http://" + nerd_host + ":" + nerd_port + "/service/" + path;
+        else
+            return "http://" + nerd_host + "/service/" + path;
+    }
+
+    /**
+     * Usage of the connection pool and of the disambiguation service
+     */
+    public Map<String, Long> getConnectionPoolStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        if (connectionManager != null) {
+            PoolStats poolStats = connectionManager.getTotalStats();
+            stats.put("leased", (long) poolStats.getLeased());
+            stats.put("available", (long) poolStats.getAvailable());
+            stats.put("pending", (long) poolStats.getPending());
+            stats.put("max", (long) poolStats.getMax());
+        }
+        stats.put("requests", nbRequests.get());
+        stats.put("failed_requests", nbFailedRequests.get());
+        return stats;
+    }
+
+    /**
+     * State of the circuit breaker: CLOSED when the service is used normally, OPEN when the calls 
+     * are skipped after failures, HALF_OPEN when a trial call is made after a successful probe 
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Hit rate of the disambiguation cache, empty if the cache is disabled
+     */
+    public Map<String, Object> getCacheStats() {
+        if (cache == null)
+            return new LinkedHashMap<>();
+        return cache.getStats();
+    }
+
+    /**
+     * Release the pooled connections
+     */
+    public void close() {
+        batchExecutor.shutdown();
+        if (cache != null)
+            cache.close();
+        try {
+            if (httpClient != null)
+                httpClient.close();
+        } catch(IOException e) {
+            LOGGER.warn("Failed to close the disambiguation service HTTP client", e);
         }
     }
 
@@ -119,26 +324,18 @@ public class DatasetDisambiguator {
     public boolean checkIfAlive() {
         boolean result = false;
         try {
-            URL url = null;
-            if ( (nerd_port != null) && (nerd_port.length() > 0) )
-                if (nerd_port.equals("443"))
-                    url = new URL("https://" + nerd_host + "/service/isalive");
-                else
-                    url = new URL("http://" + nerd_host + ":" + nerd_port + "/service/isalive");
-            else
-                url = new URL("http://" + nerd_host + "/service/isalive");
+            URL url = new URL(getServiceUrl("isalive"));
 
             LOGGER.debug("Calling: " + url.toString());
 //System.out.println("Calling: " + url.toString());
-            CloseableHttpClient httpClient = HttpClients.createDefault();
             HttpGet get = new HttpGet(url.toString());
 
             CloseableHttpResponse response = null;
-            Scanner in = null;
             try {
                 response = httpClient.execute(get);
 //System.out.println(response.getStatusLine());
                 int code = response.getStatusLine().getStatusCode();
+                EntityUtils.consume(response.getEntity());
                 if (code != 200) {
                     LOGGER.error("Failed isalive service for disambiguation service entity-fishing, HTTP error code : " + code);
                     return false;
@@ -146,8 +343,6 @@ public class DatasetDisambiguator {
                     result = true;
                 }
             } finally {
-                if (in != null)
-                    in.close();
                 if (response != null)
                     response.close();
             }
@@ -170,31 +365,22 @@ public class DatasetDisambiguator {
         URL url = null;
         CloseableHttpResponse response = null;
         try {
-            if ( (nerd_port != null) && (nerd_port.length() > 0) )
-                if (nerd_port.equals("443"))
-                    url = new URL("https://" + nerd_host + "/service/customisation/dataset");
-                else
-                    url = new URL("http://" + nerd_host + ":" + nerd_port + "/service/customisation/dataset");
-            else
-                url = new URL("http://" + nerd_host + "/service/customisation/dataset");
+            url = new URL(getServiceUrl("customisation/dataset"));
 
             LOGGER.debug("Calling: " + url.toString());
 //System.out.println("Calling: " + url.toString());
-            CloseableHttpClient httpClient = HttpClients.createDefault();
             HttpGet get = new HttpGet(url.toString());
-            Scanner in = null;
             try {
                 response = httpClient.execute(get);
 //System.out.println(response.getStatusLine());
                 int code = response.getStatusLine().getStatusCode();
+                EntityUtils.consume(response.getEntity());
                 if (code != 200) {
                     LOGGER.info("Failed customization lookup service: HTTP error code : " + code + " - the customization will be loaded");
                 } else {
                     result = true;
                 }
             } finally {
-                if (in != null)
-                    in.close();
                 if (response != null)
                     response.close();
             }
@@ -209,13 +395,7 @@ public class DatasetDisambiguator {
         if (!result && url != null) {
             LOGGER.info("Dataset customisation not present on server, loading it...");
             try {
-                if ( (nerd_port != null) && (nerd_port.length() > 0) )
-                    if (nerd_port.equals("443"))
-                        url = new URL("https://" + nerd_host + "/service/customisations");
-                    else
-                       url = new URL("http://" + nerd_host + ":" + nerd_port + "/service/customisations");
-                else
-                    url = new URL("http://" + nerd_host + "/service/customisations");
+                url = new URL(getServiceUrl("customisations"));
 
                 LOGGER.debug("Calling: " + url.toString());
 //System.out.println("Calling: " + url.toString());
@@ -225,7 +405,6 @@ public class DatasetDisambiguator {
 
                 String json = FileUtils.readFileToString(cutomisationFile, "UTF-8");
 
-                CloseableHttpClient httpClient = HttpClients.createDefault();
                 HttpPost post = new HttpPost(url.toString());
 
                 //StringBody stringValue = new StringBody(json, ContentType.MULTIPART_FORM_DATA);
@@ -243,6 +422,7 @@ public class DatasetDisambiguator {
 //System.out.println(response.getStatusLine());
 
                     int code = response.getStatusLine().getStatusCode();
+                    EntityUtils.consume(response.getEntity());
                     if (code != 200) {
                         LOGGER.error("Failed loading dataset customisation: HTTP error code : " + code);
                     } else {
@@ -270,38 +450,350 @@ public class DatasetDisambiguator {
     public List<Dataset> disambiguate(List<Dataset> entities, List<LayoutToken> tokens) {
         if ( (entities == null) || (entities.size() == 0) ) 
             return entities;
+        disambiguate(Collections.singletonList(entities), Collections.singletonList(tokens));
+        return entities;
+    }
+
+    /**
+     * Disambiguate against Wikidata the raw entities extracted from a list of text segments
+     * (typically the sentences of a document, in reading order), each segment being represented 
+     * as a list of tokens. 
+     *
+     * Consecutive segments are grouped into batches (roughly corresponding to paragraphs or zones) 
+     * and the entities of a batch are disambiguated with a single call to entity-fishing. 
+     * The batches of the document are processed concurrently, with a bounded number of 
+     * simultaneous calls.
+     * 
+     * The disambiguation is bounded by a deadline, the mentions which could not be disambiguated 
+     * in time or because the service is unavailable are marked as not disambiguated.
+     * 
+     * @return the list of entities for each segment, with disambiguation information
+     */
+    public List<List<Dataset>> disambiguate(List<List<Dataset>> entitiesPerSegment, 
+                                            List<List<LayoutToken>> tokensPerSegment) {
+        if (entitiesPerSegment == null || entitiesPerSegment.size() == 0)
+            return entitiesPerSegment;
+
+        Deadline deadline = new Deadline(deadlineDuration);
+        List<List<Integer>> batches = prepareBatches(entitiesPerSegment, tokensPerSegment);
+        runBatches(batches, entitiesPerSegment, tokensPerSegment, deadline);
+        deadline.expire();
+        return entitiesPerSegment;
+    }
+
+    /**
+     * Start the disambiguation of the entities of a list of text segments in the background, 
+     * so that it overlaps with the rest of the processing of the document. The entities must 
+     * not be modified structurally before PendingDisambiguation.await() returns.
+     */
+    public PendingDisambiguation disambiguateAsync(final List<List<Dataset>> entitiesPerSegment, 
+                                                   final List<List<LayoutToken>> tokensPerSegment) {
+        final Deadline deadline = new Deadline(deadlineDuration);
+        if (entitiesPerSegment == null || entitiesPerSegment.size() == 0)
+            return new PendingDisambiguation(entitiesPerSegment, null, deadline);
+
+        final List<List<Integer>> batches = prepareBatches(entitiesPerSegment, tokensPerSegment);
+        // the background tasks use the lexical resources of the request
+        final LexiconSnapshot lexiconSnapshot = DatastetLexicon.getInstance().getSnapshot();
+        Future<?> future = null;
+        try {
+            future = batchExecutor.submit(() -> {
+                DatastetLexicon.getInstance().pin(lexiconSnapshot);
+                try {
+                    runBatches(batches, entitiesPerSegment, tokensPerSegment, deadline);
+                } finally {
+                    DatastetLexicon.getInstance().unpin();
+                }
+            });
+        } catch(RejectedExecutionException e) {
+            LOGGER.warn("Disambiguation rejected, the mentions are not disambiguated");
+        }
+        return new PendingDisambiguation(entitiesPerSegment, future, deadline);
+    }
+
+    /**
+     * Disambiguation of the entities of a document running in the background
+     */
+    public static class PendingDisambiguation {
+        private final List<List<Dataset>> entitiesPerSegment;
+        private final Future<?> future;
+        private final Deadline deadline;
+
+        private PendingDisambiguation(List<List<Dataset>> entitiesPerSegment, Future<?> future, Deadline deadline) {
+            this.entitiesPerSegment = entitiesPerSegment;
+            this.future = future;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Wait for the end of the disambiguation, at most until its deadline. After this call, 
+         * late answers of the service are ignored.
+         *
+         * @return the list of entities for each segment, with disambiguation information
+         */
+        public List<List<Dataset>> await() {
+            if (future != null) {
+                try {
+                    future.get(Math.max(0, deadline.remaining()), TimeUnit.MILLISECONDS);
+                } catch(TimeoutException e) {
+                    LOGGER.warn("Disambiguation deadline exceeded, the remaining mentions are not disambiguated");
+                    future.cancel(true);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.cancel(true);
+                } catch(ExecutionException e) {
+                    LOGGER.error("Disambiguation failed", e.getCause());
+                }
+            }
+            deadline.expire();
+            return entitiesPerSegment;
+        }
+    }
+
+    /**
+     * Deadline of the disambiguation of a document. Once expired, the results of the pending calls 
+     * are ignored, so that late answers never modify entities which are further processed.
+     * The disambiguation also ends with the deadline or the cancellation of the request, if any.
+     */
+    private static class Deadline {
+        private final long time;
+        private final ProcessingDeadline request;
+        private boolean expired = false;
+
+        Deadline(long duration) {
+            this.time = System.currentTimeMillis() + duration;
+            this.request = ProcessingDeadline.current();
+        }
+
+        long remaining() {
+            long remaining = time - System.currentTimeMillis();
+            if (request != null)
+                remaining = Math.min(remaining, request.remaining());
+            return remaining;
+        }
+
+        synchronized boolean isExpired() {
+            return expired || remaining() <= 0 || (request != null && request.isCancelled());
+        }
+
+        synchronized void expire() {
+            expired = true;
+        }
+    }
+
+    /**
+     * Group consecutive segments with entities into batches. The components of these entities are 
+     * marked as not disambiguated until their disambiguation succeeds.
+     */
+    List<List<Integer>> prepareBatches(List<List<Dataset>> entitiesPerSegment, 
+                                       List<List<LayoutToken>> tokensPerSegment) {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> currentBatch = new ArrayList<>();
+        int currentLength = 0;
+        int previousEnd = -1;
+        for(int i=0; i<entitiesPerSegment.size() && i<tokensPerSegment.size(); i++) {
+            List<Dataset> entities = entitiesPerSegment.get(i);
+            List<LayoutToken> tokens = tokensPerSegment.get(i);
+            if (entities == null || entities.size() == 0 || tokens == null || tokens.size() == 0)
+                continue;
+
+            for(DatasetComponent component : getComponents(entities)) {
+                component.setDisambiguationSkipped(true);
+            }
+
+            int length = 0;
+            for(LayoutToken token : tokens) {
+                length += token.getText().length();
+            }
+            int segmentStart = tokens.get(0).getOffset();
+            LayoutToken lastToken = tokens.get(tokens.size()-1);
+
+            // a new batch is started when the segment is not following the previous one in the text 
+            // (not the same paragraph/zone) or when the batch is getting too large
+            if (currentBatch.size() > 0 && 
+                (currentLength + length > batchMaxLength || segmentStart - previousEnd > MAX_SEGMENT_GAP)) {
+                batches.add(currentBatch);
+                currentBatch = new ArrayList<>();
+                currentLength = 0;
+            }
+            currentBatch.add(i);
+            currentLength += length + 1;
+            previousEnd = lastToken.getOffset() + lastToken.getText().length();
+        }
+        if (currentBatch.size() > 0)
+            batches.add(currentBatch);
+        return batches;
+    }
+
+    private void runBatches(List<List<Integer>> batches, 
+                            List<List<Dataset>> entitiesPerSegment, 
+                            List<List<LayoutToken>> tokensPerSegment,
+                            Deadline deadline) {
+        if (batches.size() == 0)
+            return;
+
+        if (batches.size() == 1) {
+            runBatch(batches.get(0), entitiesPerSegment, tokensPerSegment, deadline);
+            return;
+        }
+
+        // bounded concurrency for the batches of this document
+        final Semaphore semaphore = new Semaphore(maxConcurrentBatches);
+        final LexiconSnapshot lexiconSnapshot = DatastetLexicon.getInstance().getSnapshot();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for(List<Integer> batch : batches) {
+                if (deadline.isExpired())
+                    break;
+                if (!semaphore.tryAcquire(Math.max(0, deadline.remaining()), TimeUnit.MILLISECONDS)) 
+                    break;
+                try {
+                    futures.add(batchExecutor.submit(() -> {
+                        DatastetLexicon.getInstance().pin(lexiconSnapshot);
+                        try {
+                            runBatch(batch, entitiesPerSegment, tokensPerSegment, deadline);
+                        } finally {
+                            DatastetLexicon.getInstance().unpin();
+                            semaphore.release();
+                        }
+                    }));
+                } catch(RejectedExecutionException e) {
+                    semaphore.release();
+                    throw e;
+                }
+            }
+            for(Future<?> future : futures) {
+                future.get(Math.max(0, deadline.remaining()), TimeUnit.MILLISECONDS);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Disambiguation interrupted");
+        } catch(TimeoutException e) {
+            LOGGER.warn("Disambiguation deadline exceeded, the remaining mentions are not disambiguated");
+        } catch(ExecutionException e) {
+            LOGGER.error("Disambiguation of a batch failed", e.getCause());
+        }
+    }
+
+    private void runBatch(List<Integer> batch, 
+                          List<List<Dataset>> entitiesPerSegment, 
+                          List<List<LayoutToken>> tokensPerSegment,
+                          Deadline deadline) {
+        List<List<Dataset>> batchEntities = new ArrayList<>();
+        List<List<LayoutToken>> batchTokens = new ArrayList<>();
+        for(Integer index : batch) {
+            batchEntities.add(entitiesPerSegment.get(index));
+            batchTokens.add(tokensPerSegment.get(index));
+        }
+        disambiguateBatch(batchEntities, batchTokens, deadline);
+    }
+
+    /**
+     * Disambiguate the entities of a batch of segments with one call to entity-fishing. The segments 
+     * are concatenated in the query text, the positions of the entities being shifted accordingly, 
+     * and the positions of the disambiguated entities are then mapped back to each segment.
+     *
+     * Mentions already disambiguated in a similar context are taken from the cache and are not 
+     * sent to entity-fishing, no call is made when all the mentions of the batch are cached.
+     */
+    private void disambiguateBatch(List<List<Dataset>> batchEntities, 
+                                   List<List<LayoutToken>> batchTokens, 
+                                   Deadline deadline) {
+        // start of each segment in the batch text
+        int[] batchStarts = new int[batchTokens.size()];
+        String text = buildBatchText(batchTokens, batchStarts);
+
+        List<Dataset> entities = new ArrayList<>();
+        for(List<Dataset> segmentEntities : batchEntities) {
+            entities.addAll(segmentEntities);
+        }
+
+        // the dataset components to be disambiguated for each segment, minus the cached ones
+        List<List<DatasetComponent>> batchComponents = new ArrayList<>();
+        Map<DatasetComponent, String> cacheKeys = new IdentityHashMap<>();
+        int nbComponents = 0;
+        for(int i=0; i<batchEntities.size(); i++) {
+            List<DatasetComponent> components = getComponents(batchEntities.get(i));
+            if (cache != null) {
+                String fingerprint = getContextFingerprint(batchTokens.get(i));
+                Iterator<DatasetComponent> componentIterator = components.iterator();
+                while (componentIterator.hasNext()) {
+                    DatasetComponent component = componentIterator.next();
+                    String key = getCacheKey(component, fingerprint);
+                    if (key == null)
+                        continue;
+                    DisambiguationCache.Entry cached = cache.get(key);
+                    if (cached != null) {
+                        synchronized (deadline) {
+                            if (deadline.isExpired())
+                                return;
+                            applyCachedResult(component, cached);
+                        }
+                        componentIterator.remove();
+                    } else {
+                        cacheKeys.put(component, key);
+                    }
+                }
+            }
+            nbComponents += components.size();
+            batchComponents.add(components);
+        }
+
+        if (nbComponents == 0) {
+            synchronized (deadline) {
+                if (!deadline.isExpired())
+                    propagateFiltering(entities);
+            }
+            return;
+        }
+
         String json = null;
         try {
-            json = runNerd(entities, tokens, "en");
+            json = runNerd(batchComponents, text, batchStarts, "en", deadline);
         } catch(RuntimeException e) {
             LOGGER.error("Call to entity-fishing failed.", e);
         }
-        if (json == null)
-            return entities;
 
-        List<Dataset> filteredEntities = new ArrayList<Dataset>();
+        // the results are merged only if the deadline of the document is not exceeded
+        synchronized (deadline) {
+            if (deadline.isExpired())
+                return;
+            if (json == null) {
+                // nothing is cached when the service fails, the components stay marked as not disambiguated
+                propagateFiltering(entities);
+                return;
+            }
+            mergeResults(json, entities, batchComponents, batchStarts, cacheKeys);
+        }
+    }
+
+    /**
+     * Merge the disambiguation results of entity-fishing with the extracted mentions
+     */
+    private void mergeResults(String json, 
+                              List<Dataset> entities, 
+                              List<List<DatasetComponent>> batchComponents,
+                              int[] batchStarts, 
+                              Map<DatasetComponent, String> cacheKeys) {
 
 //System.out.println(json);
-        int segmentStartOffset = 0;
-        if (tokens != null && tokens.size()>0)
-            segmentStartOffset = tokens.get(0).getOffset();
 
         // build a map for the existing entities in order to catch them easily
-        // based on their positions
-        Map<Integer, DatasetComponent> entityPositions = new TreeMap<Integer, DatasetComponent>();
-        for(Dataset entity : entities) {
-            DatasetComponent datasetName = entity.getDatasetName();
-            DatasetComponent dataset = entity.getDataset();
-            DatasetComponent dataDevice = entity.getDataDevice();
-
-            if (datasetName != null)
-                entityPositions.put(Integer.valueOf(datasetName.getOffsetStart()), datasetName);
-            if (dataset != null)
-                entityPositions.put(Integer.valueOf(dataset.getOffsetStart()), dataset);
-            if (dataDevice != null)
-                entityPositions.put(Integer.valueOf(dataDevice.getOffsetStart()), dataDevice);
+        // based on their positions, for each segment (the offsets of the components are relative to 
+        // their segment)
+        List<Map<Integer, DatasetComponent>> entityPositions = new ArrayList<>();
+        for(List<DatasetComponent> components : batchComponents) {
+            Map<Integer, DatasetComponent> segmentPositions = new TreeMap<Integer, DatasetComponent>();
+            entityPositions.add(segmentPositions);
+            for(DatasetComponent component : components) {
+                segmentPositions.put(Integer.valueOf(component.getOffsetStart()), component);
+                component.setDisambiguationSkipped(false);
+            }
         }
 
+        // components matched by a result of entity-fishing
+        Set<DatasetComponent> matchedComponents = Collections.newSetFromMap(new IdentityHashMap<>());
+
         // merge entity disambiguation with actual extracted mentions
         JsonNode root = null;
         try {
@@ -439,8 +931,13 @@ public class DatasetDisambiguator {
                     }
 
 //System.out.println(""+startOff + " / " + (startOff+segmentStartOffset));
-                    DatasetComponent component = entityPositions.get(startOff+segmentStartOffset);
+                    // position in the batch text mapped back to the segment and the position in the segment
+                    int segmentRank = 0;
+                    while (segmentRank+1 < batchStarts.length && batchStarts[segmentRank+1] <= startOff)
+                        segmentRank++;
+                    DatasetComponent component = entityPositions.get(segmentRank).get(startOff - batchStarts[segmentRank]);
                     if (component != null) {
+                        matchedComponents.add(component);
                         // merging
                         if (wikidataId != null)
                             component.setWikidataId(wikidataId);
@@ -460,19 +957,17 @@ public class DatasetDisambiguator {
                 }
             }
 
-            // propagate filtering status
-            for(Dataset entity : entities) {
-                DatasetComponent datasetName = entity.getDatasetName();
-                if (datasetName != null && datasetName.isFiltered()) {
-                    entity.setFiltered(true);
-                }
-                DatasetComponent dataset = entity.getDataset();
-                if (dataset != null && dataset.isFiltered()) {
-                    entity.setFiltered(true);
-                }
-                DatasetComponent dataDevice = entity.getDataDevice();
-                if (dataDevice != null && dataDevice.isFiltered()) {
-                    entity.setFiltered(true);
+            // cache the results of the sent mentions matched by a result, including the mentions 
+            // returned without identifier, a mention whose result could not be mapped is not cached
+            if (cache != null) {
+                long now = System.currentTimeMillis();
+                for(Map.Entry<DatasetComponent, String> cacheKey : cacheKeys.entrySet()) {
+                    DatasetComponent component = cacheKey.getKey();
+                    if (!matchedComponents.contains(component))
+                        continue;
+                    cache.put(cacheKey.getValue(), new DisambiguationCache.Entry(component.getWikidataId(), 
+                        component.getWikipediaExternalRef(), component.getDisambiguationScore(), 
+                        component.isFiltered(), component.getLang(), now));
                 }
             }
 
@@ -484,7 +979,132 @@ public class DatasetDisambiguator {
             e.printStackTrace();
         }
 
-        return entities;
+        propagateFiltering(entities);
+    }
+
+    /**
+     * Get the dataset components interesting to disambiguate
+     */
+    private static List<DatasetComponent> getComponents(List<Dataset> entities) {
+        List<DatasetComponent> components = new ArrayList<>();
+        for(Dataset entity : entities) {
+            DatasetComponent datasetName = entity.getDatasetName();
+            DatasetComponent dataset = entity.getDataset();
+            DatasetComponent dataDevice = entity.getDataDevice();
+
+            if (datasetName != null)
+                components.add(datasetName);
+            if (dataset != null)
+                components.add(dataset);
+            if (dataDevice != null)
+                components.add(dataDevice);
+        }
+        return components;
+    }
+
+    private static void propagateFiltering(List<Dataset> entities) {
+        for(Dataset entity : entities) {
+            DatasetComponent datasetName = entity.getDatasetName();
+            if (datasetName != null && datasetName.isFiltered()) {
+                entity.setFiltered(true);
+            }
+            DatasetComponent dataset = entity.getDataset();
+            if (dataset != null && dataset.isFiltered()) {
+                entity.setFiltered(true);
+            }
+            DatasetComponent dataDevice = entity.getDataDevice();
+            if (dataDevice != null && dataDevice.isFiltered()) {
+                entity.setFiltered(true);
+            }
+        }
+    }
+
+    private static void applyCachedResult(DatasetComponent component, DisambiguationCache.Entry cached) {
+        if (cached.getWikidataId() != null)
+            component.setWikidataId(cached.getWikidataId());
+        if (cached.getWikipediaExternalRef() != -1)
+            component.setWikipediaExternalRef(cached.getWikipediaExternalRef());
+        if (cached.getScore() != null)
+            component.setDisambiguationScore(cached.getScore());
+        if (cached.getLang() != null)
+            component.setLang(cached.getLang());
+        if (cached.isFiltered())
+            component.setFiltered(true);
+        component.setDisambiguationSkipped(false);
+    }
+
+    /**
+     * Cache key of a mention: its normalized form, lower-cased, with the fingerprint of its context
+     */
+    private static String getCacheKey(DatasetComponent component, String fingerprint) {
+        String mention = component.getNormalizedForm();
+        if (mention == null)
+            mention = component.getRawForm();
+        if (mention == null || mention.trim().length() == 0)
+            return null;
+        mention = mention.trim().replaceAll("\\s+", " ").toLowerCase();
+        return DisambiguationCache.getKey(mention, fingerprint);
+    }
+
+    /**
+     * Coarse fingerprint of a segment: the most specific words of the segment (highest IDF), 
+     * so that the same mention in a similar context shares the same disambiguation result, 
+     * while the same name in a different domain does not.
+     */
+    static String getContextFingerprint(List<LayoutToken> tokens) {
+        DatastetLexicon lexicon = DatastetLexicon.getInstance();
+        Map<String, Double> words = new HashMap<>();
+        for(LayoutToken token : tokens) {
+            String word = token.getText();
+            if (word == null || word.length() < 4)
+                continue;
+            boolean letters = true;
+            for(int i=0; i<word.length(); i++) {
+                if (!Character.isLetter(word.charAt(i))) {
+                    letters = false;
+                    break;
+                }
+            }
+            if (!letters)
+                continue;
+            word = word.toLowerCase();
+            if (words.containsKey(word) || lexicon.isEnglishStopword(word))
+                continue;
+            words.put(word, lexicon.getTermIDF(word));
+        }
+
+        List<Map.Entry<String, Double>> sortedWords = new ArrayList<>(words.entrySet());
+        sortedWords.sort((w1, w2) -> {
+            int comparison = Double.compare(w2.getValue(), w1.getValue());
+            return comparison != 0 ? comparison : w1.getKey().compareTo(w2.getKey());
+        });
+        List<String> selected = new ArrayList<>();
+        for(int i=0; i<sortedWords.size() && i<FINGERPRINT_SIZE; i++) {
+            selected.add(sortedWords.get(i).getKey());
+        }
+        Collections.sort(selected);
+        return String.join(" ", selected);
+    }
+
+    /**
+     * Concatenate the text of the segments of a batch, separated by a space, and record the start 
+     * of each segment in the batch text. The offsets of the mentions being relative to their 
+     * segment, they are shifted by the start of their segment in the batch text.
+     */
+    static String buildBatchText(List<List<LayoutToken>> batchTokens, int[] batchStarts) {
+        StringBuilder text = new StringBuilder();
+        for(int i=0; i<batchTokens.size(); i++) {
+            if (i > 0)
+                text.append(" ");
+            batchStarts[i] = text.length();
+            for(LayoutToken token : batchTokens.get(i)) {
+                String tokenText = token.getText();
+                if (tokenText.equals("\n")) 
+                    tokenText = " ";
+                text.append(tokenText);
+            }
+        }
+        return text.toString();
     }
 
     private static String RESOURCEPATH = "disambiguate";
@@ -492,26 +1112,48 @@ public class DatasetDisambiguator {
     /**
      * Call entity fishing disambiguation service on server.
      *
-     * To be Moved in a Worker !
-     *
      * @return the resulting disambiguated context in JSON or null
      */
     public String runNerd(List<Dataset> entities, List<LayoutToken> subtokens, String lang) throws RuntimeException {
-        if (!serverStatus)
+        int[] batchStarts = new int[1];
+        String text = buildBatchText(Collections.singletonList(subtokens), batchStarts);
+        return runNerd(Collections.singletonList(getComponents(entities)), text, batchStarts, "en", null);
+    }
+
+    /**
+     * Call entity fishing disambiguation service on server for a batch of segments.
+     *
+     * @param batchComponents the dataset components to disambiguate in each segment of the batch
+     * @param text the concatenated text of the segments
+     * @param batchStarts the start offset of each segment in the concatenated text
+     * @param deadline deadline of the call, null if none
+     *
+     * @return the resulting disambiguated context in JSON or null, when the service failed, 
+     * the circuit is open or the deadline is exceeded
+     */
+    private String runNerd(List<List<DatasetComponent>> batchComponents, 
+                           String text, 
+                           int[] batchStarts, 
+                           String lang,
+                           Deadline deadline) throws RuntimeException {
+        // the deadline is checked before the circuit breaker, so that a trial call granted by 
+        // the circuit breaker is always made
+        int remaining = Integer.MAX_VALUE;
+        if (deadline != null) {
+            remaining = (int) Math.min(Integer.MAX_VALUE, deadline.remaining());
+            if (remaining <= 0)
+                return null;
+        }
+
+        if (!circuitBreaker.allowRequest())
             return null;
 
         StringBuffer output = new StringBuffer();
+        // every call allowed by the circuit breaker records its success or failure
+        boolean success = false;
         try {
-            URL url = null;
-            if ( (nerd_port != null) && (nerd_port.length() > 0) )
-                if (nerd_port.equals("443"))
-                    url = new URL("https://" + nerd_host + "/service/" + RESOURCEPATH);
-                else
-                    url = new URL("http://" + nerd_host + ":" + nerd_port + "/service/" + RESOURCEPATH);
-            else
-                url = new URL("http://" + nerd_host + "/service/" + RESOURCEPATH);
+            URL url = new URL(getServiceUrl(RESOURCEPATH));
 //System.out.println("calling... " + url.toString());
-            CloseableHttpClient httpClient = HttpClients.createDefault();
             HttpPost post = new HttpPost(url.toString());
             //post.addHeader("Content-Type", "application/json");
             //post.addHeader("Accept", "application/json");
@@ -525,54 +1167,33 @@ public class DatasetDisambiguator {
             // we ask for French and German language correspondences in the result
             //buffer.append(", \"resultLanguages\":[ \"de\", \"fr\"]");
             buffer.append(", \"text\": \"");
-            int startSegmentOffset = -1;
-            for(LayoutToken token : subtokens) {
-                String tokenText = token.getText();
-                if (startSegmentOffset == -1)
-                    startSegmentOffset = token.getOffset();
-                if (tokenText.equals("\n")) 
-                    tokenText = " ";
-                byte[] encodedText = encoder.quoteAsUTF8(tokenText);
-                String outputEncodedText = new String(encodedText);
-                buffer.append(outputEncodedText);
-            }
-            if (startSegmentOffset == -1)
-                startSegmentOffset = 0;
+            buffer.append(new String(encoder.quoteAsUTF8(text)));
 
             // no mention, it means only the mentions given in the query will be dismabiguated!
             buffer.append("\", \"mentions\": []");
 
             buffer.append(", \"entities\": [");
             boolean first = true;
-            List<DatasetComponent> components = new ArrayList<>();
-            for(Dataset entity : entities) {
-                // get the dataset components interesting to disambiguate
-                DatasetComponent datasetName = entity.getDatasetName();
-                DatasetComponent dataset = entity.getDataset();
-                DatasetComponent dataDevice = entity.getDataDevice();
-
-                if (datasetName != null)
-                    components.add(datasetName);
-                if (dataset != null)
-                    components.add(dataset);
-                if (dataDevice != null)
-                    components.add(dataDevice);
-            }
-
-            for(DatasetComponent component: components) {
-                if (first) {
-                    first = false;
-                } else {
-                    buffer.append(", ");
-                }
+            for(int i=0; i<batchComponents.size(); i++) {
+                List<DatasetComponent> components = batchComponents.get(i);
+
+                // shift from the positions in the segment to the positions in the batch text
+                int shift = batchStarts[i];
+                for(DatasetComponent component: components) {
+                    if (first) {
+                        first = false;
+                    } else {
+                        buffer.append(", ");
+                    }
 
-                byte[] encodedText = encoder.quoteAsUTF8(component.getRawForm() );
-                String outputEncodedText = new String(encodedText);
+                    byte[] encodedText = encoder.quoteAsUTF8(component.getRawForm() );
+                    String outputEncodedText = new String(encodedText);
 
-                buffer.append("{\"rawName\": \"" + outputEncodedText + "\", \"offsetStart\": " + (component.getOffsetStart() - startSegmentOffset)+ 
-                    ", \"offsetEnd\": " + (component.getOffsetEnd() - startSegmentOffset));
-                //buffer.append(", \"type\": \"");
-                buffer.append(" }");
+                    buffer.append("{\"rawName\": \"" + outputEncodedText + "\", \"offsetStart\": " + (component.getOffsetStart() + shift)+ 
+                        ", \"offsetEnd\": " + (component.getOffsetEnd() + shift));
+                    //buffer.append(", \"type\": \"");
+                    buffer.append(" }");
+                }
             }
 
             buffer.append("], \"full\": true, \"customisation\": \"dataset\", \"minSelectorScore\": 0.2 }");
@@ -588,8 +1209,17 @@ public class DatasetDisambiguator {
             builder.addPart("query", stringBody);
             HttpEntity entity = builder.build();
 
+            if (deadline != null) {
+                // the timeouts of the call are bounded by the remaining time
+                post.setConfig(RequestConfig.copy(requestConfig)
+                    .setConnectTimeout(Math.min(requestConfig.getConnectTimeout(), remaining))
+                    .setConnectionRequestTimeout(Math.min(requestConfig.getConnectionRequestTimeout(), remaining))
+                    .setSocketTimeout(Math.min(requestConfig.getSocketTimeout(), remaining))
+                    .build());
+            }
+
             CloseableHttpResponse response = null;
-            Scanner in = null;
+            nbRequests.incrementAndGet();
             try {
                 //post.setEntity(new UrlEncodedFormEntity(params));
                 post.setEntity(entity);
@@ -599,27 +1229,32 @@ public class DatasetDisambiguator {
                 int code = response.getStatusLine().getStatusCode();
                 if (code != 200) {
                     LOGGER.error("Failed annotating text segment: HTTP error code : " + code);
+                    EntityUtils.consume(response.getEntity());
+                    nbFailedRequests.incrementAndGet();
                     return null;
                 }
 
+                // the entity is fully consumed, so that the connection goes back to the pool
                 HttpEntity entityResp = response.getEntity();
-                in = new Scanner(entityResp.getContent());
-                while (in.hasNext()) {
-                    output.append(in.next());
-                    output.append(" ");
-                }
-                EntityUtils.consume(entityResp);
+                output.append(EntityUtils.toString(entityResp, "UTF-8"));
+                success = true;
             } finally {
-                if (in != null)
-                    in.close();
                 if (response != null)
                     response.close();
             }
         } catch (MalformedURLException e) {
             e.printStackTrace();
         } catch (IOException e) {
-            e.printStackTrace();
+            nbFailedRequests.incrementAndGet();
+            LOGGER.error("Call to entity-fishing failed", e);
+            return null;
+        } finally {
+            if (success)
+                circuitBreaker.recordSuccess();
+            else
+                circuitBreaker.recordFailure();
         }
+        LOGGER.debug("entity-fishing connection pool: " + getConnectionPoolStats());
         return output.toString().trim();
     }
 
@@ -28,6 +28,7 @@ import org.grobid.core.features.FeatureFactory;
 import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.layout.LayoutTokenization;
+import org.grobid.core.layout.Page;
 import org.grobid.core.layout.PDFAnnotation;
 import org.grobid.core.layout.PDFAnnotation.Type;
 import org.grobid.core.lexicon.DatastetLexicon;
@@ -35,9 +36,12 @@ import org.grobid.core.lexicon.Lexicon;
 import org.grobid.core.tokenization.TaggingTokenCluster;
 import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.*;
+import org.grobid.core.utilities.GrobidConfig.ModelParameters;
 import org.grobid.core.utilities.counters.CntManager;
 import org.grobid.core.utilities.counters.impl.CntManagerFactory;
 import org.grobid.core.lexicon.FastMatcher;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -91,6 +95,17 @@ public class DatasetParser extends AbstractParser {
     private DatastetConfiguration datastetConfiguration;
     private DataseerClassifier dataseerClassifier;
     private DatasetDisambiguator disambiguator;
+    private LocalDatasetDisambiguator localDisambiguator;
+    // if true, the known dataset names of the gazetteer are added to the labeled ones
+    private boolean useDatasetGazetteer = false;
+
+    // documents with more pages than the threshold are processed by windows of pages, 0 to disable
+    private int windowedProcessingPageThreshold = 0;
+    private int pageWindowSize = 20;
+
+    private static final String STUB_ENGINE = "stub";
+    private static final String LOCAL_DISAMBIGUATION = "local";
+    private StubSequenceLabeler stubLabeler = null;
 
     public static DatasetParser getInstance(DatastetConfiguration configuration) {
         if (instance == null) {
@@ -108,13 +123,42 @@ public class DatasetParser extends AbstractParser {
 
     private DatasetParser(DatastetConfiguration configuration) {
         super(DatasetModels.DATASET, CntManagerFactory.getCntManager(), 
-            GrobidCRFEngine.valueOf(configuration.getModel("datasets").engine.toUpperCase()),
-            configuration.getModel("datasets").delft.architecture);
+            getLabelingEngine(configuration.getModel("datasets")),
+            configuration.getModel("datasets").delft != null ? configuration.getModel("datasets").delft.architecture : null);
+
+        if (STUB_ENGINE.equals(configuration.getModel("datasets").engine))
+            stubLabeler = new StubSequenceLabeler();
 
         datastetLexicon = DatastetLexicon.getInstance();
         parsers = new EngineParsers();
         datastetConfiguration = configuration;
-        disambiguator = DatasetDisambiguator.getInstance(configuration);
+        if (LOCAL_DISAMBIGUATION.equals(configuration.getDisambiguationEngine()))
+            localDisambiguator = LocalDatasetDisambiguator.getInstance(configuration);
+        else
+            disambiguator = DatasetDisambiguator.getInstance(configuration);
+        if (configuration.getUseDatasetGazetteer() != null)
+            useDatasetGazetteer = configuration.getUseDatasetGazetteer();
+        if (configuration.getWindowedProcessingPageThreshold() != null)
+            windowedProcessingPageThreshold = configuration.getWindowedProcessingPageThreshold();
+        if (configuration.getPageWindowSize() != null && configuration.getPageWindowSize() > 0)
+            pageWindowSize = configuration.getPageWindowSize();
+    }
+
+    /**
+     * The stub engine is not a grobid tagging engine, the dummy grobid tagger is then created and 
+     * the labeling is realized by the stub labeler.
+     */
+    private static GrobidCRFEngine getLabelingEngine(ModelParameters parameters) {
+        if (STUB_ENGINE.equals(parameters.engine))
+            return GrobidCRFEngine.DUMMY;
+        return GrobidCRFEngine.valueOf(parameters.engine.toUpperCase());
+    }
+
+    @Override
+    public String label(String data) {
+        if (stubLabeler != null)
+            return stubLabeler.label(data);
+        return super.label(data);
     }
 
     /**
@@ -181,6 +225,7 @@ public class DatasetParser extends AbstractParser {
 
         tokensList = newTokensList;
 
+        ProcessingDeadline.checkCurrent();
         String allRes = null;
         try {
             allRes = label(input.toString());
@@ -189,6 +234,7 @@ public class DatasetParser extends AbstractParser {
             throw new GrobidException(
                     "An exception occured while labeling a sequence.", e);
         }
+        ProcessingDeadline.checkCurrent();
 
         if (allRes == null || allRes.length() == 0)
             return results;
@@ -219,6 +265,10 @@ System.out.println(localDatasetcomponent.toJson());
                     localDatasetcomponents.add(component);
                 }
 
+                // known dataset names of the gazetteer not recognized by the labeler
+                if (useDatasetGazetteer)
+                    localDatasetcomponents = addGazetteerComponents(tokens, localDatasetcomponents, text);
+
                 Collections.sort(localDatasetcomponents);
 /*System.out.println("\n" + text);
 for(DatasetComponent localDatasetcomponent : localDatasetcomponents) {
@@ -248,35 +298,47 @@ System.out.println(localDatasetcomponent.toJson());
                     }
                 }
 
-                // disambiguation
-                if (disambiguate) {
-                    localDatasets = disambiguator.disambiguate(localDatasets, tokens);
-
-                    // apply existing filtering
-                    indexToBeFiltered = new ArrayList<>();
-                    k = 0;
-                    for(Dataset entity : localDatasets) {
-                        if (entity.isFiltered()) {
-                            indexToBeFiltered.add(Integer.valueOf(k));
-                        }
-                        k++;
-                    }
-
-                    if (indexToBeFiltered.size() > 0) {
-                        for(int j=indexToBeFiltered.size()-1; j>= 0; j--) {
-                            localDatasets.remove(indexToBeFiltered.get(j).intValue());
-                        }
-                    }
-                }
-
                 results.add(localDatasets);
             }
             i++;
         }
 
+        // disambiguation, the mentions of consecutive sentences are disambiguated by batch
+        if (disambiguate) {
+            if (localDisambiguator != null)
+                localDisambiguator.disambiguate(results, tokensList);
+            else
+                disambiguator.disambiguate(results, tokensList);
+            removeFilteredEntities(results);
+        }
+
         return results;
     }
 
+    /**
+     * Apply existing filtering, e.g. resulting from the disambiguation 
+     */
+    private void removeFilteredEntities(List<List<Dataset>> results) {
+        for(List<Dataset> localDatasets : results) {
+            if (localDatasets == null)
+                continue;
+            List<Integer> indexToBeFiltered = new ArrayList<>();
+            int k = 0;
+            for(Dataset entity : localDatasets) {
+                if (entity.isFiltered()) {
+                    indexToBeFiltered.add(Integer.valueOf(k));
+                }
+                k++;
+            }
+
+            if (indexToBeFiltered.size() > 0) {
+                for(int j=indexToBeFiltered.size()-1; j>= 0; j--) {
+                    localDatasets.remove(indexToBeFiltered.get(j).intValue());
+                }
+            }
+        }
+    }
+
     private List<DatasetComponent> resultExtractionLayoutTokens(String result, List<LayoutToken> tokenizations, String text) {
         List<DatasetComponent> datasetComponents = new ArrayList<>();
         
@@ -507,6 +569,61 @@ System.out.println(localDatasetcomponent.toJson());
         return existingComponents;
     }
 
+    /**
+     * Add the dataset names of the gazetteer matched in a sentence as dataset name components, 
+     * when they do not overlap an existing component. These high-precision candidates then go 
+     * through the same filtering and term propagation as the labeled dataset names.
+     */
+    private List<DatasetComponent> addGazetteerComponents(List<LayoutToken> sentenceTokens, 
+                                                          List<DatasetComponent> existingComponents, 
+                                                          String text) {
+        // note: gazetteer positions are token index, end included
+        List<OffsetPosition> namePositions = DatastetLexicon.getInstance().matchDatasetNames(sentenceTokens);
+        if (namePositions.size() == 0)
+            return existingComponents;
+
+        List<OffsetPosition> existingPositions = new ArrayList<>();
+        for(DatasetComponent existingComponent : existingComponents) {
+            existingPositions.add(existingComponent.getOffsets());
+        }
+
+        int tokenIndex = 0;
+        int tokenPos = 0;
+        for(OffsetPosition namePosition : namePositions) {
+            // character offsets of the matched tokens
+            while (tokenIndex < namePosition.start) {
+                tokenPos += sentenceTokens.get(tokenIndex).getText().length();
+                tokenIndex++;
+            }
+            int startPos = tokenPos;
+            int endPos = tokenPos;
+            for(int j=namePosition.start; j<=namePosition.end; j++) {
+                endPos += sentenceTokens.get(j).getText().length();
+            }
+            if (endPos > text.length())
+                break;
+
+            OffsetPosition charPosition = new OffsetPosition(startPos, endPos);
+            if (overlapsPosition(existingPositions, charPosition)) 
+                continue;
+
+            List<LayoutToken> nameTokens = new ArrayList<>(sentenceTokens.subList(namePosition.start, namePosition.end+1));
+            DatasetComponent nameComponent = new DatasetComponent(DatasetType.DATASET_NAME, text.substring(startPos, endPos));
+            nameComponent.setOffsetStart(startPos);
+            nameComponent.setOffsetEnd(endPos);
+            nameComponent.setLabel(DatasetTaggingLabels.DATASET_NAME);
+            nameComponent.setTokens(nameTokens);
+
+            List<BoundingBox> boundingBoxes = BoundingBoxCalculator.calculate(nameTokens);
+            nameComponent.setBoundingBoxes(boundingBoxes);
+
+            existingComponents.add(nameComponent);
+            existingPositions.add(charPosition);
+        }
+
+        return existingComponents;
+    }
+
     /**
      * Sequence labelling of a string for identifying dataset names. 
      *
@@ -536,7 +653,23 @@ System.out.println(localDatasetcomponent.toJson());
 
     public Pair<List<List<Dataset>>,Document> processPDF(File file, 
                                                         boolean disambiguate) throws IOException {
-        List<List<Dataset>> entities = new ArrayList<>();
+        return processPDF(file, disambiguate, null);
+    }
+
+    /**
+     * Process a PDF document, the listener, if not null, being notified of the intermediary 
+     * results of the processing stages
+     */
+    public Pair<List<List<Dataset>>,Document> processPDF(File file, 
+                                                        boolean disambiguate, 
+                                                        PDFProcessingListener listener) throws IOException {
+        if (windowedProcessingPageThreshold > 0) {
+            int nbPages = countPages(file);
+            if (nbPages > windowedProcessingPageThreshold)
+                return processPDFWindowed(file, nbPages, disambiguate, listener);
+        }
+
+        List<List<Dataset>> entities = null;
         Document doc = null;
         try {
             GrobidAnalysisConfig config =
@@ -554,6 +687,9 @@ System.out.println(localDatasetcomponent.toJson());
                 processingReferenceSection(doc, parsers.getReferenceSegmenterParser(), config.getConsolidateCitations());
 
             doc.setBibDataSets(resCitations);
+            ProcessingDeadline.checkpointCurrent("segmentation");
+            if (listener != null)
+                listener.documentSegmented(doc);
 
             // annotations for gathering urls
             List<PDFAnnotation> pdfAnnotations = doc.getPDFAnnotations();
@@ -563,411 +699,633 @@ System.out.println(localDatasetcomponent.toJson());
             // for refining the process based on structures, we need to filter
             // segment of interest (e.g. header, body, annex) and possibly apply 
             // the corresponding model to further filter by structure types 
-
+            PDFSentences sentences = new PDFSentences();
             List<List<LayoutToken>> selectedLayoutTokenSequences = new ArrayList<>();
-            List<Boolean> relevantSectionsNamedDatasets = new ArrayList<>();
-            List<Boolean> relevantSectionsImplicitDatasets = new ArrayList<>();
-
-            // the following array stores the index of the sections identified as Data availability statement
-            //List<Integer> sectionsDAS = new ArrayList<>();
-
-            // from the header, we are interested in title, abstract and keywords
-            SortedSet<DocumentPiece> documentParts = doc.getDocumentPart(SegmentationLabels.HEADER);
-            BiblioItem resHeader = null;
-            if (documentParts != null) {
-                Pair<String,List<LayoutToken>> headerFeatured = parsers.getHeaderParser().getSectionHeaderFeatured(doc, documentParts);
-                String header = headerFeatured.getLeft();
-                List<LayoutToken> tokenizationHeader = headerFeatured.getRight();
-                String labeledResult = null;
-                if ((header != null) && (header.trim().length() > 0)) {
-                    labeledResult = parsers.getHeaderParser().label(header);
-                    resHeader = new BiblioItem();
-                    try {
-                        resHeader.generalResultMappingHeader(labeledResult, tokenizationHeader);
-                    } catch(Exception e) {
-                        LOGGER.error("Problem decoding header labeling, header will be skipped", e);
-                        resHeader = null;
-                    }
+            List<TaggingTokenCluster> bodyClusters = selectZones(doc, true, selectedLayoutTokenSequences, sentences);
 
-                    if (resHeader != null) {
-                        // title
-                        List<LayoutToken> titleTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_TITLE);
-                        if (titleTokens != null) {
-                            selectedLayoutTokenSequences.add(titleTokens);
-                            relevantSectionsNamedDatasets.add(false);
-                            relevantSectionsImplicitDatasets.add(false);
-                        } 
-
-                        // abstract
-                        List<LayoutToken> abstractTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_ABSTRACT);
-                        if (abstractTokens != null) {
-                            selectedLayoutTokenSequences.add(abstractTokens);
-                            relevantSectionsNamedDatasets.add(true);
-                            relevantSectionsImplicitDatasets.add(false);
-                        } 
-
-                        // keywords
-                        List<LayoutToken> keywordTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_KEYWORD);
-                        if (keywordTokens != null) {
-                            selectedLayoutTokenSequences.add(keywordTokens);
-                            relevantSectionsNamedDatasets.add(false);
-                            relevantSectionsImplicitDatasets.add(false);
-                        }
-                    }
-                }
-            }
+            // segment zone into sentences
+            segmentSentences(selectedLayoutTokenSequences, pdfAnnotations, sentences);
 
-            // process selected structures in the body,
-            documentParts = doc.getDocumentPart(SegmentationLabels.BODY);
-            List<TaggingTokenCluster> bodyClusters = null;
-            if (documentParts != null) {
-                // full text processing
-                Pair<String, LayoutTokenization> featSeg = parsers.getFullTextParser().getBodyTextFeatured(doc, documentParts);
-                if (featSeg != null) {
-                    // if featSeg is null, it usually means that no body segment is found in the
-                    // document segmentation
-                    String bodytext = featSeg.getLeft();
-
-                    LayoutTokenization tokenizationBody = featSeg.getRight();
-                    String rese = null;
-                    if ( (bodytext != null) && (bodytext.trim().length() > 0) ) {               
-                        rese = parsers.getFullTextParser().label(bodytext);
-                    } else {
-                        LOGGER.debug("Fulltext model: The input to the sequence labelling processing is empty");
-                    }
+            // pre-process labeling of every sentences in batch
+            processLayoutTokenSequences(sentences.tokens, sentences.entities, sentences.offsetStarts, pdfAnnotations, false);
+            ProcessingDeadline.checkpointCurrent("labeling");
+            if (listener != null)
+                listener.sentencesLabeled(sentences.entities, sentences.zones);
 
-                    TaggingTokenClusteror clusteror = new TaggingTokenClusteror(GrobidModels.FULLTEXT, rese, 
-                        tokenizationBody.getTokenization(), true);
-                    bodyClusters = clusteror.cluster();
-                    List<LayoutToken> curParagraphTokens = null;
-                    TaggingLabel lastClusterLabel = null;
-                    for (TaggingTokenCluster cluster : bodyClusters) {
-                        if (cluster == null) {
-                            continue;
-                        }
+            // the disambiguation runs in the background during the classification of the sentences, 
+            // the entities are not modified before the end of the disambiguation
+            DatasetDisambiguator.PendingDisambiguation pendingDisambiguation = startDisambiguation(sentences, disambiguate);
 
-                        TaggingLabel clusterLabel = cluster.getTaggingLabel();
-                        String clusterText = LayoutTokensUtil.toText(cluster.concatTokens());
+            // pre-process classification of every sentences in batch
+            classifySentences(sentences.texts, sentences.entities);
+            ProcessingDeadline.checkpointCurrent("classification");
 
-                        List<LayoutToken> localTokenization = cluster.concatTokens();
-                        if ((localTokenization == null) || (localTokenization.size() == 0))
-                            continue;
-                        
-                        if (TEIFormatter.MARKER_LABELS.contains(clusterLabel)) {
-                            if (curParagraphTokens == null)
-                                curParagraphTokens = new ArrayList<>();
-                            //curParagraphTokens.addAll(localTokenization);
-                        } else if (clusterLabel.equals(TaggingLabels.PARAGRAPH) || clusterLabel.equals(TaggingLabels.ITEM)) {
-                            //|| clusterLabel.equals(TaggingLabels.SECTION) {
-                            if (lastClusterLabel == null || curParagraphTokens == null  || isNewParagraph(lastClusterLabel)) { 
-                                if (curParagraphTokens != null) {
-                                    selectedLayoutTokenSequences.add(curParagraphTokens);
-                                    relevantSectionsNamedDatasets.add(true);
-                                    relevantSectionsImplicitDatasets.add(true);
-                                }
-                                curParagraphTokens = new ArrayList<>();
-                            }
-                            curParagraphTokens.addAll(localTokenization);
+            if (pendingDisambiguation != null) {
+                pendingDisambiguation.await();
+                removeFilteredEntities(sentences.entities);
+                ProcessingDeadline.checkpointCurrent("disambiguation");
+            }
 
-                            //selectedLayoutTokenSequences.add(localTokenization);
-                        } else if (clusterLabel.equals(TaggingLabels.TABLE)) {
-                            //processLayoutTokenSequenceTableFigure(localTokenization, entities);
-                        } else if (clusterLabel.equals(TaggingLabels.FIGURE)) {
-                            //processLayoutTokenSequenceTableFigure(localTokenization, entities);
-                        } else if (clusterLabel.equals(TaggingLabels.SECTION)) {
-                            //currentSection = clusterText;
-                        }
+            List<BiblioComponent> bibRefComponents = collectBibRefComponents(doc, bodyClusters, resCitations);
+            entities = processDocumentLevel(sentences, doc.getTokenizations(), pdfAnnotations, resCitations, bibRefComponents);
+        } catch (ProcessingCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            //e.printStackTrace();
+            throw new GrobidException("Cannot process pdf file: " + file.getPath(), e);
+        }
 
-                        lastClusterLabel = clusterLabel;
-                    }
-                    // last paragraph
-                    if (curParagraphTokens != null) {
-                        selectedLayoutTokenSequences.add(curParagraphTokens);
-                        relevantSectionsNamedDatasets.add(true);
-                        relevantSectionsImplicitDatasets.add(true);
+        return Pair.of(entities, doc);
+    }
+
+    /**
+     * Process a PDF document by windows of consecutive pages, only the sentences of the selected zones 
+     * being kept from one window to the next. The windows are processed from the last one, so that the 
+     * bibliographical references, usually at the end of the document, are known when the reference 
+     * callouts of the previous windows are matched. The token offsets, page numbers and reference 
+     * numbers of each window are shifted to positions in the whole document (see PageWindow), the 
+     * offsets being disjoint and ordered between the windows. The document-level steps are applied 
+     * to the sentences of all the windows at the end. The returned document is the first window, with 
+     * the pages of all the windows and all the bibliographical references. 
+     */
+    private Pair<List<List<Dataset>>,Document> processPDFWindowed(File file, 
+                                                                int nbPages, 
+                                                                boolean disambiguate, 
+                                                                PDFProcessingListener listener) throws IOException {
+        int windowSize = PageWindow.getWindowSize(pageWindowSize, nbPages);
+        if (windowSize != pageWindowSize) {
+            LOGGER.warn(file.getPath() + " (" + nbPages + " pages) exceeds " + PageWindow.MAX_WINDOWS + 
+                " windows of " + pageWindowSize + " pages, the windows are enlarged to " + windowSize + " pages");
+        }
+        int nbWindows = (nbPages + windowSize - 1) / windowSize;
+        LOGGER.info("Processing " + file.getPath() + " (" + nbPages + " pages) by " + nbWindows + " windows of " + 
+            windowSize + " pages");
+
+        List<List<Dataset>> entities = null;
+        Document doc = null;
+        try {
+            GrobidAnalysisConfig config =
+                        GrobidAnalysisConfig.builder()
+                                .consolidateHeader(0)
+                                .consolidateCitations(0)
+                                .build();
+
+            // the references of all the windows, in the order of processing of the windows, a reference 
+            // key being the index of the reference in this list
+            List<BibDataSet> resCitations = new ArrayList<>();
+            List<PDFAnnotation> pdfAnnotations = new ArrayList<>();
+            List<BiblioComponent> bibRefComponents = new ArrayList<>();
+            PDFSentences[] windowSentences = new PDFSentences[nbWindows];
+            List<List<Page>> windowPages = new ArrayList<>(Collections.nCopies(nbWindows, null));
+            for (int window = nbWindows-1; window >= 0; window--) {
+                PageWindow pageWindow = new PageWindow(window, windowSize, nbPages);
+                DocumentSource documentSource = 
+                    DocumentSource.fromPdf(file, pageWindow.getStartPage(), pageWindow.getEndPage());
+                Document windowDoc = parsers.getSegmentationParser().processing(documentSource, config);
+
+                // offsets and page numbers in the whole document
+                int pageShift = windowDoc.getPages().size() > 0 ? 
+                    pageWindow.getPageShift(windowDoc.getPages().get(0).getNumber()) : 0;
+                if (!pageWindow.shift(windowDoc.getTokenizations(), windowDoc.getPDFAnnotations(), pageShift)) {
+                    LOGGER.warn("The text of the pages " + pageWindow.getStartPage() + "-" + pageWindow.getEndPage() + 
+                        " of " + file.getPath() + " exceeds the offset range of a window, the offsets of the mentions might overlap");
+                }
+
+                List<BibDataSet> windowCitations = parsers.getCitationParser().
+                    processingReferenceSection(windowDoc, parsers.getReferenceSegmenterParser(), config.getConsolidateCitations());
+                PageWindow.appendReferences(resCitations, windowCitations);
+                windowDoc.setBibDataSets(resCitations);
+                ProcessingDeadline.checkpointCurrent("segmentation");
+                if (windowDoc.getPDFAnnotations() != null)
+                    pdfAnnotations.addAll(windowDoc.getPDFAnnotations());
+
+                PDFSentences sentences = new PDFSentences();
+                List<List<LayoutToken>> selectedLayoutTokenSequences = new ArrayList<>();
+                List<TaggingTokenCluster> bodyClusters = selectZones(windowDoc, window == 0, selectedLayoutTokenSequences, sentences);
+                segmentSentences(selectedLayoutTokenSequences, windowDoc.getPDFAnnotations(), sentences);
+                processLayoutTokenSequences(sentences.tokens, sentences.entities, sentences.offsetStarts, 
+                    windowDoc.getPDFAnnotations(), false);
+                ProcessingDeadline.checkpointCurrent("labeling");
+                classifySentences(sentences.texts, sentences.entities);
+                ProcessingDeadline.checkpointCurrent("classification");
+
+                List<BiblioComponent> windowBibRefComponents = collectBibRefComponents(windowDoc, bodyClusters, resCitations);
+                if (windowBibRefComponents != null)
+                    bibRefComponents.addAll(windowBibRefComponents);
+                windowSentences[window] = sentences;
+
+                if (window == 0) {
+                    doc = windowDoc;
+                } else {
+                    // only the dimensions of the pages are kept
+                    List<Page> pages = new ArrayList<>();
+                    for (Page windowPage : windowDoc.getPages()) {
+                        Page page = new Page(windowPage.getNumber() + pageShift);
+                        page.setHeight(windowPage.getHeight());
+                        page.setWidth(windowPage.getWidth());
+                        pages.add(page);
                     }
+                    windowPages.set(window, pages);
                 }
             }
 
-            // we don't process references (although reference titles could be relevant)
-            // acknowledgement? 
+            // merge of the windows
+            for (int window = 1; window < nbWindows; window++) {
+                doc.getPages().addAll(windowPages.get(window));
+            }
+            PDFSentences sentences = windowSentences[0];
+            for (int window = 1; window < nbWindows; window++) {
+                sentences.append(windowSentences[window]);
+                windowSentences[window] = null;
+            }
+            doc.setBibDataSets(resCitations);
+            if (listener != null) {
+                listener.documentSegmented(doc);
+                listener.sentencesLabeled(sentences.entities, sentences.zones);
+            }
 
-            // we can process annexes, except those referring to author information, author contribution
-            // and abbreviations (abbreviations might seem relevant, but it is not from the papers we have seen)
-            documentParts = doc.getDocumentPart(SegmentationLabels.ANNEX);
-            if (documentParts != null) {
-                // similar full text processing
-                Pair<String, LayoutTokenization> featSeg = parsers.getFullTextParser().getBodyTextFeatured(doc, documentParts);
-                if (featSeg != null) {
-                    // if featSeg is null, it usually means that no body segment is found in the
-                    // document segmentation
-                    String bodytext = featSeg.getLeft();
+            DatasetDisambiguator.PendingDisambiguation pendingDisambiguation = startDisambiguation(sentences, disambiguate);
+            if (pendingDisambiguation != null) {
+                pendingDisambiguation.await();
+                removeFilteredEntities(sentences.entities);
+                ProcessingDeadline.checkpointCurrent("disambiguation");
+            }
 
-                    LayoutTokenization tokenizationBody = featSeg.getRight();
-                    String rese = null;
-                    if ( (bodytext != null) && (bodytext.trim().length() > 0) ) {               
-                        rese = parsers.getFullTextParser().label(bodytext);
-                    } else {
-                        LOGGER.debug("Fulltext model applied to Annex: The input to the sequence labelling processing is empty");
-                    }
+            // the frequencies of the dataset names are counted in the selected sentences, the other 
+            // tokens of the windows are not kept
+            List<LayoutToken> frequencyTokens = new ArrayList<>();
+            for (List<LayoutToken> sentenceTokens : sentences.tokens) {
+                frequencyTokens.addAll(sentenceTokens);
+            }
 
-                    TaggingTokenClusteror clusteror = new TaggingTokenClusteror(GrobidModels.FULLTEXT, rese, 
-                        tokenizationBody.getTokenization(), true);
-                    List<TaggingTokenCluster> bodyAnnexClusters = clusteror.cluster();
-                    List<LayoutToken> curParagraphTokens = null;
-                    TaggingLabel lastClusterLabel = null;
-                    String currentSection = null;
-                    String previousSection = null;
-                    for (TaggingTokenCluster cluster : bodyAnnexClusters) {
-                        if (cluster == null) {
-                            continue;
-                        }
+            entities = processDocumentLevel(sentences, frequencyTokens, pdfAnnotations, resCitations, 
+                bibRefComponents.size() > 0 ? bibRefComponents : null);
+        } catch (ProcessingCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GrobidException("Cannot process pdf file: " + file.getPath(), e);
+        }
 
-                        TaggingLabel clusterLabel = cluster.getTaggingLabel();
-                        String clusterText = LayoutTokensUtil.toText(cluster.concatTokens());
+        return Pair.of(entities, doc);
+    }
 
-                        List<LayoutToken> localTokenization = cluster.concatTokens();
-                        if ((localTokenization == null) || (localTokenization.size() == 0))
-                            continue;
-                        
-                        if (TEIFormatter.MARKER_LABELS.contains(clusterLabel)) {
-                            if (previousSection == null || previousSection.equals("das")) {
-                                if (curParagraphTokens == null)
-                                    curParagraphTokens = new ArrayList<>();
-                                curParagraphTokens.addAll(localTokenization);
-                            }
-                        } else if (clusterLabel.equals(TaggingLabels.PARAGRAPH) || clusterLabel.equals(TaggingLabels.ITEM)) {
-                            if (lastClusterLabel == null || curParagraphTokens == null  || isNewParagraph(lastClusterLabel)) { 
-                                if (curParagraphTokens != null && previousSection == null) {
-                                    selectedLayoutTokenSequences.add(curParagraphTokens);
-                                    relevantSectionsNamedDatasets.add(true);
-                                    relevantSectionsImplicitDatasets.add(false);
-                                } else if (curParagraphTokens != null && previousSection.equals("das")) {
-                                    selectedLayoutTokenSequences.add(curParagraphTokens);
-                                    relevantSectionsNamedDatasets.add(true);
-                                    relevantSectionsImplicitDatasets.add(true);
-                                } 
-                                curParagraphTokens = new ArrayList<>();
-                            }
-                            if (curParagraphTokens == null)
-                                curParagraphTokens = new ArrayList<>();
-                            if (currentSection == null || currentSection.equals("das"))
-                                curParagraphTokens.addAll(localTokenization);
-                        } else if (clusterLabel.equals(TaggingLabels.SECTION)) {
-                            // section are important to catch possible data/code availability statement section (when misclassified as 
-                            // annex) or author contribution and abbreviation section
-                            previousSection = currentSection;
-                            if (this.checkDASAnnex(localTokenization)) {
-                                currentSection = "das";
-                            } else if (this.checkAuthorAnnex(localTokenization) || this.checkAbbreviationAnnex(localTokenization)) {
-                                currentSection = "author";
-                            } else {
-                                currentSection = null;
-                            }
-                        }
+    /**
+     * @return the number of pages of a PDF document, -1 if the document cannot be read
+     */
+    private static int countPages(File file) {
+        try (PDDocument document = PDDocument.load(file, MemoryUsageSetting.setupTempFileOnly())) {
+            return document.getNumberOfPages();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot count the pages of " + file.getPath(), e);
+            return -1;
+        }
+    }
 
-                        lastClusterLabel = clusterLabel;
-                    }
-                    // last paragraph
-                    if (curParagraphTokens != null && currentSection == null) {
-                        selectedLayoutTokenSequences.add(curParagraphTokens);
-                        relevantSectionsNamedDatasets.add(true);
+    /**
+     * Select the zones of interest of a segmented document (header if requested, body paragraphs, 
+     * annex, footnotes and availability statements), with the relevance of each zone for the named 
+     * and implicit datasets
+     *
+     * @return the labeled clusters of the body, for matching the reference callouts
+     */
+    private List<TaggingTokenCluster> selectZones(Document doc, 
+                                                boolean withHeader, 
+                                                List<List<LayoutToken>> selectedLayoutTokenSequences, 
+                                                PDFSentences sentences) {
+        List<Boolean> relevantSectionsNamedDatasets = sentences.relevantSectionsNamedDatasets;
+        List<Boolean> relevantSectionsImplicitDatasets = sentences.relevantSectionsImplicitDatasets;
+
+        // from the header, we are interested in title, abstract and keywords
+        SortedSet<DocumentPiece> documentParts = withHeader ? doc.getDocumentPart(SegmentationLabels.HEADER) : null;
+        BiblioItem resHeader = null;
+        if (documentParts != null) {
+            Pair<String,List<LayoutToken>> headerFeatured = parsers.getHeaderParser().getSectionHeaderFeatured(doc, documentParts);
+            String header = headerFeatured.getLeft();
+            List<LayoutToken> tokenizationHeader = headerFeatured.getRight();
+            String labeledResult = null;
+            if ((header != null) && (header.trim().length() > 0)) {
+                labeledResult = parsers.getHeaderParser().label(header);
+                resHeader = new BiblioItem();
+                try {
+                    resHeader.generalResultMappingHeader(labeledResult, tokenizationHeader);
+                } catch(Exception e) {
+                    LOGGER.error("Problem decoding header labeling, header will be skipped", e);
+                    resHeader = null;
+                }
+
+                if (resHeader != null) {
+                    // title
+                    List<LayoutToken> titleTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_TITLE);
+                    if (titleTokens != null) {
+                        selectedLayoutTokenSequences.add(titleTokens);
+                        relevantSectionsNamedDatasets.add(false);
                         relevantSectionsImplicitDatasets.add(false);
-                    } else if (curParagraphTokens != null && currentSection.equals("das")) {
-                        selectedLayoutTokenSequences.add(curParagraphTokens);
+                    } 
+
+                    // abstract
+                    List<LayoutToken> abstractTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_ABSTRACT);
+                    if (abstractTokens != null) {
+                        selectedLayoutTokenSequences.add(abstractTokens);
                         relevantSectionsNamedDatasets.add(true);
-                        relevantSectionsImplicitDatasets.add(true);
+                        relevantSectionsImplicitDatasets.add(false);
                     } 
+
+                    // keywords
+                    List<LayoutToken> keywordTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_KEYWORD);
+                    if (keywordTokens != null) {
+                        selectedLayoutTokenSequences.add(keywordTokens);
+                        relevantSectionsNamedDatasets.add(false);
+                        relevantSectionsImplicitDatasets.add(false);
+                    }
                 }
             }
+        }
 
-            // footnotes are also relevant
-            documentParts = doc.getDocumentPart(SegmentationLabels.FOOTNOTE);
-            if (documentParts != null) {
-                List<LayoutToken> footnoteTokens = doc.getTokenizationParts(documentParts, doc.getTokenizations());
-                if (footnoteTokens != null) {
-                    selectedLayoutTokenSequences.add(footnoteTokens);
-                    relevantSectionsNamedDatasets.add(true);
-                    relevantSectionsImplicitDatasets.add(false);
+        // process selected structures in the body,
+        documentParts = doc.getDocumentPart(SegmentationLabels.BODY);
+        List<TaggingTokenCluster> bodyClusters = null;
+        if (documentParts != null) {
+            // full text processing
+            Pair<String, LayoutTokenization> featSeg = parsers.getFullTextParser().getBodyTextFeatured(doc, documentParts);
+            if (featSeg != null) {
+                // if featSeg is null, it usually means that no body segment is found in the
+                // document segmentation
+                String bodytext = featSeg.getLeft();
+
+                LayoutTokenization tokenizationBody = featSeg.getRight();
+                String rese = null;
+                if ( (bodytext != null) && (bodytext.trim().length() > 0) ) {               
+                    rese = parsers.getFullTextParser().label(bodytext);
+                } else {
+                    LOGGER.debug("Fulltext model: The input to the sequence labelling processing is empty");
                 }
-            }
 
-            // explicit availability statements, all types of data mentions
-            List<LayoutToken> availabilityTokens = null;
-            documentParts = doc.getDocumentPart(SegmentationLabels.AVAILABILITY);
-            if (documentParts != null) {
-                availabilityTokens = doc.getTokenizationParts(documentParts, doc.getTokenizations());
-                if (availabilityTokens != null) {
-                    selectedLayoutTokenSequences.add(availabilityTokens);
+                TaggingTokenClusteror clusteror = new TaggingTokenClusteror(GrobidModels.FULLTEXT, rese, 
+                    tokenizationBody.getTokenization(), true);
+                bodyClusters = clusteror.cluster();
+                List<LayoutToken> curParagraphTokens = null;
+                TaggingLabel lastClusterLabel = null;
+                for (TaggingTokenCluster cluster : bodyClusters) {
+                    if (cluster == null) {
+                        continue;
+                    }
+
+                    TaggingLabel clusterLabel = cluster.getTaggingLabel();
+                    String clusterText = LayoutTokensUtil.toText(cluster.concatTokens());
+
+                    List<LayoutToken> localTokenization = cluster.concatTokens();
+                    if ((localTokenization == null) || (localTokenization.size() == 0))
+                        continue;
+                    
+                    if (TEIFormatter.MARKER_LABELS.contains(clusterLabel)) {
+                        if (curParagraphTokens == null)
+                            curParagraphTokens = new ArrayList<>();
+                        //curParagraphTokens.addAll(localTokenization);
+                    } else if (clusterLabel.equals(TaggingLabels.PARAGRAPH) || clusterLabel.equals(TaggingLabels.ITEM)) {
+                        //|| clusterLabel.equals(TaggingLabels.SECTION) {
+                        if (lastClusterLabel == null || curParagraphTokens == null  || isNewParagraph(lastClusterLabel)) { 
+                            if (curParagraphTokens != null) {
+                                selectedLayoutTokenSequences.add(curParagraphTokens);
+                                relevantSectionsNamedDatasets.add(true);
+                                relevantSectionsImplicitDatasets.add(true);
+                            }
+                            curParagraphTokens = new ArrayList<>();
+                        }
+                        curParagraphTokens.addAll(localTokenization);
+
+                        //selectedLayoutTokenSequences.add(localTokenization);
+                    } else if (clusterLabel.equals(TaggingLabels.TABLE)) {
+                        //processLayoutTokenSequenceTableFigure(localTokenization, entities);
+                    } else if (clusterLabel.equals(TaggingLabels.FIGURE)) {
+                        //processLayoutTokenSequenceTableFigure(localTokenization, entities);
+                    } else if (clusterLabel.equals(TaggingLabels.SECTION)) {
+                        //currentSection = clusterText;
+                    }
+
+                    lastClusterLabel = clusterLabel;
+                }
+                // last paragraph
+                if (curParagraphTokens != null) {
+                    selectedLayoutTokenSequences.add(curParagraphTokens);
                     relevantSectionsNamedDatasets.add(true);
                     relevantSectionsImplicitDatasets.add(true);
                 }
             }
+        }
 
-            // segment zone into sentences
-            List<List<LayoutToken>> allLayoutTokens = new ArrayList<>();
-            List<String> allSentences = new ArrayList<>();
-            List<Integer> sentenceOffsetStarts = new ArrayList<>();
-            int zoneIndex = 0;
-            int accumulatedOffset = 0;
-            Map<Integer,Integer> mapSentencesToZones = new HashMap<>();
-            for(List<LayoutToken> layoutTokens : selectedLayoutTokenSequences) {
-                layoutTokens = DatastetAnalyzer.getInstance().retokenizeLayoutTokens(layoutTokens);
-
-                if ( (layoutTokens == null) || (layoutTokens.size() == 0) ) {
-                    //allLayoutTokens.add(null);
-                    //allSentences.add(null);
-                    List<LayoutToken> dummyLayoutTokens = new ArrayList<>();
-                    dummyLayoutTokens. add(new LayoutToken("dummy"));
-                    allLayoutTokens.add(dummyLayoutTokens);
-                    //System.out.println("dummy sentence at " + (allSentences.size()));
-                    allSentences.add("dummy");
-                    sentenceOffsetStarts.add(accumulatedOffset);
-                    continue;
+        // we don't process references (although reference titles could be relevant)
+        // acknowledgement? 
+
+        // we can process annexes, except those referring to author information, author contribution
+        // and abbreviations (abbreviations might seem relevant, but it is not from the papers we have seen)
+        documentParts = doc.getDocumentPart(SegmentationLabels.ANNEX);
+        if (documentParts != null) {
+            // similar full text processing
+            Pair<String, LayoutTokenization> featSeg = parsers.getFullTextParser().getBodyTextFeatured(doc, documentParts);
+            if (featSeg != null) {
+                // if featSeg is null, it usually means that no body segment is found in the
+                // document segmentation
+                String bodytext = featSeg.getLeft();
+
+                LayoutTokenization tokenizationBody = featSeg.getRight();
+                String rese = null;
+                if ( (bodytext != null) && (bodytext.trim().length() > 0) ) {               
+                    rese = parsers.getFullTextParser().label(bodytext);
+                } else {
+                    LOGGER.debug("Fulltext model applied to Annex: The input to the sequence labelling processing is empty");
                 }
 
-                accumulatedOffset = layoutTokens.get(0).getOffset();
-                
-                // segment into sentences
-                String localText = LayoutTokensUtil.toText(layoutTokens);
-                List<OffsetPosition> urlPositions = DatasetParser.characterPositionsUrlPattern(layoutTokens, pdfAnnotations, localText);
-                List<OffsetPosition> sentencePositions = 
-                    SentenceUtilities.getInstance().runSentenceDetection(localText, urlPositions, layoutTokens, null);
-                if (sentencePositions == null) {
-                    sentencePositions = new ArrayList<>();
-                    sentencePositions.add(new OffsetPosition(0, localText.length()));
-                }
-
-                for(OffsetPosition sentencePosition : sentencePositions) {
-                    int startPos = sentencePosition.start;
-                    int endPos = sentencePosition.end;
-
-                    List<LayoutToken> sentenceTokens = new ArrayList<>();
-                    int pos = 0;
-                    for(LayoutToken token : layoutTokens) {
-                        if (startPos <= pos && (pos+token.getText().length()) <= endPos) {
-                            sentenceTokens.add(token);
-                        } else if (endPos < (pos+token.getText().length())) {
-                            break;
+                TaggingTokenClusteror clusteror = new TaggingTokenClusteror(GrobidModels.FULLTEXT, rese, 
+                    tokenizationBody.getTokenization(), true);
+                List<TaggingTokenCluster> bodyAnnexClusters = clusteror.cluster();
+                List<LayoutToken> curParagraphTokens = null;
+                TaggingLabel lastClusterLabel = null;
+                String currentSection = null;
+                String previousSection = null;
+                for (TaggingTokenCluster cluster : bodyAnnexClusters) {
+                    if (cluster == null) {
+                        continue;
+                    }
+
+                    TaggingLabel clusterLabel = cluster.getTaggingLabel();
+                    String clusterText = LayoutTokensUtil.toText(cluster.concatTokens());
+
+                    List<LayoutToken> localTokenization = cluster.concatTokens();
+                    if ((localTokenization == null) || (localTokenization.size() == 0))
+                        continue;
+                    
+                    if (TEIFormatter.MARKER_LABELS.contains(clusterLabel)) {
+                        if (previousSection == null || previousSection.equals("das")) {
+                            if (curParagraphTokens == null)
+                                curParagraphTokens = new ArrayList<>();
+                            curParagraphTokens.addAll(localTokenization);
+                        }
+                    } else if (clusterLabel.equals(TaggingLabels.PARAGRAPH) || clusterLabel.equals(TaggingLabels.ITEM)) {
+                        if (lastClusterLabel == null || curParagraphTokens == null  || isNewParagraph(lastClusterLabel)) { 
+                            if (curParagraphTokens != null && previousSection == null) {
+                                selectedLayoutTokenSequences.add(curParagraphTokens);
+                                relevantSectionsNamedDatasets.add(true);
+                                relevantSectionsImplicitDatasets.add(false);
+                            } else if (curParagraphTokens != null && previousSection.equals("das")) {
+                                selectedLayoutTokenSequences.add(curParagraphTokens);
+                                relevantSectionsNamedDatasets.add(true);
+                                relevantSectionsImplicitDatasets.add(true);
+                            } 
+                            curParagraphTokens = new ArrayList<>();
+                        }
+                        if (curParagraphTokens == null)
+                            curParagraphTokens = new ArrayList<>();
+                        if (currentSection == null || currentSection.equals("das"))
+                            curParagraphTokens.addAll(localTokenization);
+                    } else if (clusterLabel.equals(TaggingLabels.SECTION)) {
+                        // section are important to catch possible data/code availability statement section (when misclassified as 
+                        // annex) or author contribution and abbreviation section
+                        previousSection = currentSection;
+                        if (this.checkDASAnnex(localTokenization)) {
+                            currentSection = "das";
+                        } else if (this.checkAuthorAnnex(localTokenization) || this.checkAbbreviationAnnex(localTokenization)) {
+                            currentSection = "author";
+                        } else {
+                            currentSection = null;
                         }
-                        pos += token.getText().length();
                     }
 
-                    allLayoutTokens.add(sentenceTokens);
-                    allSentences.add(localText.substring(startPos, endPos));
-                    mapSentencesToZones.put(allSentences.size()-1, zoneIndex);
-                    sentenceOffsetStarts.add(accumulatedOffset+startPos);
+                    lastClusterLabel = clusterLabel;
                 }
-                zoneIndex++;
+                // last paragraph
+                if (curParagraphTokens != null && currentSection == null) {
+                    selectedLayoutTokenSequences.add(curParagraphTokens);
+                    relevantSectionsNamedDatasets.add(true);
+                    relevantSectionsImplicitDatasets.add(false);
+                } else if (curParagraphTokens != null && currentSection.equals("das")) {
+                    selectedLayoutTokenSequences.add(curParagraphTokens);
+                    relevantSectionsNamedDatasets.add(true);
+                    relevantSectionsImplicitDatasets.add(true);
+                } 
             }
+        }
 
-            //System.out.println("allLayoutTokens size: " + allLayoutTokens.size());
-            //System.out.println("allSentences size: " + allSentences.size());
-            //System.out.println("sentenceOffsetStarts size: " + sentenceOffsetStarts.size());
+        // footnotes are also relevant
+        documentParts = doc.getDocumentPart(SegmentationLabels.FOOTNOTE);
+        if (documentParts != null) {
+            List<LayoutToken> footnoteTokens = doc.getTokenizationParts(documentParts, doc.getTokenizations());
+            if (footnoteTokens != null) {
+                selectedLayoutTokenSequences.add(footnoteTokens);
+                relevantSectionsNamedDatasets.add(true);
+                relevantSectionsImplicitDatasets.add(false);
+            }
+        }
 
-            // pre-process labeling of every sentences in batch
-            processLayoutTokenSequences(allLayoutTokens, entities, sentenceOffsetStarts, pdfAnnotations, disambiguate);
+        // explicit availability statements, all types of data mentions
+        documentParts = doc.getDocumentPart(SegmentationLabels.AVAILABILITY);
+        if (documentParts != null) {
+            List<LayoutToken> availabilityTokens = doc.getTokenizationParts(documentParts, doc.getTokenizations());
+            if (availabilityTokens != null) {
+                selectedLayoutTokenSequences.add(availabilityTokens);
+                relevantSectionsNamedDatasets.add(true);
+                relevantSectionsImplicitDatasets.add(true);
+                sentences.availabilityZones.add(availabilityTokens);
+            }
+        }
 
-            //System.out.println("entities size: " + entities.size());
-            //System.out.println("mapSentencesToZones size: " + mapSentencesToZones.size());
-            //System.out.println("relevantSections size: " + relevantSectionsNamedDatasets.size());
+        return bodyClusters;
+    }
 
-            // pre-process classification of every sentences in batch
-            if (this.dataseerClassifier == null)
-                dataseerClassifier = DataseerClassifier.getInstance();
+    /**
+     * Segment the selected zones into sentences
+     */
+    private void segmentSentences(List<List<LayoutToken>> selectedLayoutTokenSequences, 
+                                List<PDFAnnotation> pdfAnnotations, 
+                                PDFSentences sentences) {
+        List<List<LayoutToken>> allLayoutTokens = sentences.tokens;
+        List<String> allSentences = sentences.texts;
+        List<Integer> sentenceOffsetStarts = sentences.offsetStarts;
+        Map<Integer,Integer> mapSentencesToZones = sentences.zones;
+        int zoneIndex = 0;
+        int accumulatedOffset = 0;
+        for(List<LayoutToken> layoutTokens : selectedLayoutTokenSequences) {
+            layoutTokens = DatastetAnalyzer.getInstance().retokenizeLayoutTokens(layoutTokens);
+
+            if ( (layoutTokens == null) || (layoutTokens.size() == 0) ) {
+                //allLayoutTokens.add(null);
+                //allSentences.add(null);
+                List<LayoutToken> dummyLayoutTokens = new ArrayList<>();
+                dummyLayoutTokens. add(new LayoutToken("dummy"));
+                allLayoutTokens.add(dummyLayoutTokens);
+                //System.out.println("dummy sentence at " + (allSentences.size()));
+                allSentences.add("dummy");
+                sentenceOffsetStarts.add(accumulatedOffset);
+                continue;
+            }
+
+            accumulatedOffset = layoutTokens.get(0).getOffset();
+            
+            // segment into sentences
+            String localText = LayoutTokensUtil.toText(layoutTokens);
+            List<OffsetPosition> urlPositions = DatasetParser.characterPositionsUrlPattern(layoutTokens, pdfAnnotations, localText);
+            List<OffsetPosition> sentencePositions = 
+                SentenceUtilities.getInstance().runSentenceDetection(localText, urlPositions, layoutTokens, null);
+            if (sentencePositions == null) {
+                sentencePositions = new ArrayList<>();
+                sentencePositions.add(new OffsetPosition(0, localText.length()));
+            }
+
+            // the sentences are index ranges of the zone tokens, found with a cursor moving
+            // forward as long as the sentences are in order
+            int tokenIndex = 0;
+            int pos = 0;
+            for(OffsetPosition sentencePosition : sentencePositions) {
+                int startPos = sentencePosition.start;
+                int endPos = sentencePosition.end;
+
+                if (startPos < pos) {
+                    tokenIndex = 0;
+                    pos = 0;
+                }
+                // first token starting in the sentence
+                while (tokenIndex < layoutTokens.size() && pos < startPos) {
+                    pos += layoutTokens.get(tokenIndex).getText().length();
+                    tokenIndex++;
+                }
+                // tokens ending in the sentence
+                int endIndex = tokenIndex;
+                int endTokenPos = pos;
+                while (endIndex < layoutTokens.size() && 
+                    (endTokenPos + layoutTokens.get(endIndex).getText().length()) <= endPos) {
+                    endTokenPos += layoutTokens.get(endIndex).getText().length();
+                    endIndex++;
+                }
+                // view of the already retokenized zone, not retokenized again in processing()
+                List<LayoutToken> sentenceTokens = DatastetAnalyzer.subTokens(layoutTokens, tokenIndex, endIndex);
+
+                allLayoutTokens.add(sentenceTokens);
+                allSentences.add(localText.substring(startPos, endPos));
+                mapSentencesToZones.put(allSentences.size()-1, zoneIndex);
+                sentenceOffsetStarts.add(accumulatedOffset+startPos);
+            }
+            zoneIndex++;
+        }
+    }
+
+    /**
+     * Start the disambiguation of the labeled entities, synchronously for the local disambiguator
+     *
+     * @return the pending disambiguation to be awaited before modifying the entities, null if 
+     * the disambiguation is already realized or not requested
+     */
+    private DatasetDisambiguator.PendingDisambiguation startDisambiguation(PDFSentences sentences, boolean disambiguate) {
+        if (disambiguate && localDisambiguator != null) {
+            // local disambiguation is fast enough to be done synchronously
+            localDisambiguator.disambiguate(sentences.entities, sentences.tokens);
+            removeFilteredEntities(sentences.entities);
+        } else if (disambiguate) {
+            return disambiguator.disambiguateAsync(sentences.entities, sentences.tokens);
+        }
+        return null;
+    }
+
+    /**
+     * Classify the sentences with the dataseer classifier and set the data type scores of the 
+     * implicit datasets of each sentence
+     */
+    private void classifySentences(List<String> allSentences, List<List<Dataset>> entities) {
+        if (this.dataseerClassifier == null)
+            dataseerClassifier = DataseerClassifier.getInstance();
 
-            int totalClassificationNodes = 0;
+        int totalClassificationNodes = 0;
+
+        List<Double> bestScores = new ArrayList<>();
+        List<String> bestTypes = new ArrayList<>();
+        List<Double> hasDatasetScores = new ArrayList<>();
+        try {
+            String jsonClassification = dataseerClassifier.classify(allSentences);
+            //System.out.println(jsonClassification);
 
-            List<Double> bestScores = new ArrayList<>();
-            List<String> bestTypes = new ArrayList<>();
-            List<Double> hasDatasetScores = new ArrayList<>();
+            //List<Boolean> hasDatasets = new ArrayList<>();
+            ObjectMapper mapper = new ObjectMapper();
             try {
-                String jsonClassification = dataseerClassifier.classify(allSentences);
                 //System.out.println(jsonClassification);
-
-                //List<Boolean> hasDatasets = new ArrayList<>();
-                ObjectMapper mapper = new ObjectMapper();
-                try {
-                    //System.out.println(jsonClassification);
-                    JsonNode root = mapper.readTree(jsonClassification);
-                    JsonNode classificationsNode = root.findPath("classifications");
-                    if ((classificationsNode != null) && (!classificationsNode.isMissingNode())) {
-                        Iterator<JsonNode> ite = classificationsNode.elements();
-                        
-                        while(ite.hasNext()) {
-                            JsonNode classificationNode = ite.next();
-                            Iterator<String> iterator = classificationNode.fieldNames();
-                            Map<String, Double> scoresPerDatatypes = new TreeMap<>();
-                            double hasDatasetScore = 0.0;
-                            while(iterator.hasNext()) {
-                                String field = iterator.next();
-                                if (field.equals("has_dataset")) {
-                                    JsonNode hasDatasetNode = classificationNode.findPath("has_dataset"); 
-                                    if ((hasDatasetNode != null) && (!hasDatasetNode.isMissingNode())) {
-                                        hasDatasetScore = hasDatasetNode.doubleValue();                                        
-                                    }
-                                } else if (field.equals("text")) {
-                                    String localSentence = classificationNode.get("text").textValue();
-                                    // the following should never happen 
-                                    if (!localSentence.equals(allSentences.get(totalClassificationNodes))) {
-                                        System.out.println("sentence, got: " + localSentence);
-                                        System.out.println("\texpecting: " + allSentences.get(totalClassificationNodes));
-                                    }
-                                } else if (!field.equals("no_dataset")) {
-                                    scoresPerDatatypes.put(field, classificationNode.get(field).doubleValue());
-                                } 
-                            }
-                            
-                            double bestScore = 0.0;
-                            String bestType = null;
-                            for (Map.Entry<String, Double> entry : scoresPerDatatypes.entrySet()) {
-                                if (entry.getValue() > bestScore) {
-                                    bestScore = entry.getValue();
-                                    bestType = entry.getKey();
+                JsonNode root = mapper.readTree(jsonClassification);
+                JsonNode classificationsNode = root.findPath("classifications");
+                if ((classificationsNode != null) && (!classificationsNode.isMissingNode())) {
+                    Iterator<JsonNode> ite = classificationsNode.elements();
+                    
+                    while(ite.hasNext()) {
+                        JsonNode classificationNode = ite.next();
+                        Iterator<String> iterator = classificationNode.fieldNames();
+                        Map<String, Double> scoresPerDatatypes = new TreeMap<>();
+                        double hasDatasetScore = 0.0;
+                        while(iterator.hasNext()) {
+                            String field = iterator.next();
+                            if (field.equals("has_dataset")) {
+                                JsonNode hasDatasetNode = classificationNode.findPath("has_dataset"); 
+                                if ((hasDatasetNode != null) && (!hasDatasetNode.isMissingNode())) {
+                                    hasDatasetScore = hasDatasetNode.doubleValue();                                        
+                                }
+                            } else if (field.equals("text")) {
+                                String localSentence = classificationNode.get("text").textValue();
+                                // the following should never happen 
+                                if (!localSentence.equals(allSentences.get(totalClassificationNodes))) {
+                                    System.out.println("sentence, got: " + localSentence);
+                                    System.out.println("\texpecting: " + allSentences.get(totalClassificationNodes));
                                 }
+                            } else if (!field.equals("no_dataset")) {
+                                scoresPerDatatypes.put(field, classificationNode.get(field).doubleValue());
+                            } 
+                        }
+                        
+                        double bestScore = 0.0;
+                        String bestType = null;
+                        for (Map.Entry<String, Double> entry : scoresPerDatatypes.entrySet()) {
+                            if (entry.getValue() > bestScore) {
+                                bestScore = entry.getValue();
+                                bestType = entry.getKey();
                             }
+                        }
 
-                            bestTypes.add(bestType);
-                            bestScores.add(bestScore);
-                            hasDatasetScores.add(hasDatasetScore);
+                        bestTypes.add(bestType);
+                        bestScores.add(bestScore);
+                        hasDatasetScores.add(hasDatasetScore);
 
-                            totalClassificationNodes++; 
-                        }
+                        totalClassificationNodes++; 
                     }
-                } catch(JsonProcessingException e) {
-                    LOGGER.error("Parsing of dataseer classifier JSON result failed", e);
-                } catch(Exception e) {
-                    LOGGER.error("Error when applying dataseer sentence classifier", e);
                 }
-
+            } catch(JsonProcessingException e) {
+                LOGGER.error("Parsing of dataseer classifier JSON result failed", e);
             } catch(Exception e) {
-                e.printStackTrace();
+                LOGGER.error("Error when applying dataseer sentence classifier", e);
             }
 
-            //System.out.println("total data sentence classifications: " + totalClassificationNodes);
-            //System.out.println("bestTypes size: " + bestTypes.size());
-            //System.out.println("bestScores size: " + bestScores.size());
-            //System.out.println("hasDatasetScores size: " + hasDatasetScores.size());
+        } catch(ProcessingCancelledException e) {
+            throw e;
+        } catch(Exception e) {
+            e.printStackTrace();
+        }
+
+        //System.out.println("total data sentence classifications: " + totalClassificationNodes);
+        //System.out.println("bestTypes size: " + bestTypes.size());
+        //System.out.println("bestScores size: " + bestScores.size());
+        //System.out.println("hasDatasetScores size: " + hasDatasetScores.size());
 
-            int i = 0;
-            for(List<Dataset> localDatasets : entities) {
-                if (localDatasets == null || localDatasets.size() == 0) {
-                    i++;
+        int i = 0;
+        for(List<Dataset> localDatasets : entities) {
+            if (localDatasets == null || localDatasets.size() == 0) {
+                i++;
+                continue;
+            }
+            for(Dataset localDataset : localDatasets) {
+                if (localDataset == null) {
                     continue;
                 }
-                for(Dataset localDataset : localDatasets) {
-                    if (localDataset == null) {
-                        continue;
-                    }
 
-                    if (localDataset.getType() == DatasetType.DATASET && (bestTypes.get(i) != null) && localDataset.getDataset() != null) {
-                        localDataset.getDataset().setBestDataType(bestTypes.get(i));
-                        localDataset.getDataset().setBestDataTypeScore(bestScores.get(i));
-                        localDataset.getDataset().setHasDatasetScore(hasDatasetScores.get(i));
-                    }
+                if (localDataset.getType() == DatasetType.DATASET && (bestTypes.get(i) != null) && localDataset.getDataset() != null) {
+                    localDataset.getDataset().setBestDataType(bestTypes.get(i));
+                    localDataset.getDataset().setBestDataTypeScore(bestScores.get(i));
+                    localDataset.getDataset().setHasDatasetScore(hasDatasetScores.get(i));
                 }
-                i++;
             }
+            i++;
+        }
 
 /*System.out.println("--------- Sentences: ");
 int ind =- 0;
@@ -980,241 +1338,271 @@ for(String sentence : allSentences) {
     System.out.println("\n\n");
     ind++;
 }*/
+    }
 
-            // we prepare a matcher for all the identified dataset mention forms 
-            FastMatcher termPattern = prepareTermPattern(entities);
-            // we prepare the frequencies for each dataset name in the whole document
-            Map<String, Integer> frequencies = prepareFrequencies(entities, doc.getTokenizations());
-            // we prepare a map for mapping a dataset name with its positions of annotation in the document and its IDF
-            Map<String, Double> termProfiles = prepareTermProfiles(entities);
-            List<List<OffsetPosition>> placeTaken = preparePlaceTaken(entities);
-
-            //System.out.println("entities size: " + entities.size());
-
-            int index = 0;
-            List<List<Dataset>> newEntities = new ArrayList<>();
-            for (List<LayoutToken> sentenceTokens : allLayoutTokens) {
-                List<Dataset> localEntities = propagateLayoutTokenSequence(sentenceTokens, 
-                                                                        entities.get(index), 
-                                                                        termProfiles, 
-                                                                        termPattern, 
-                                                                        placeTaken.get(index), 
-                                                                        frequencies,
-                                                                        sentenceOffsetStarts.get(index));
-                if (localEntities != null) {
-                    Collections.sort(localEntities);
-                
-                    // revisit and attach URL component
-                    localEntities = attachUrlComponents(localEntities, sentenceTokens, allSentences.get(index), pdfAnnotations);
-                }
-
-                newEntities.add(localEntities);
-                index++;
+    /**
+     * Match the reference callouts of the body clusters with the bibliographical references of 
+     * the document
+     *
+     * @return the reference callouts, null if there is no body or no reference
+     */
+    private List<BiblioComponent> collectBibRefComponents(Document doc, 
+                                                        List<TaggingTokenCluster> bodyClusters, 
+                                                        List<BibDataSet> resCitations) {
+        if ( (bodyClusters == null) || (resCitations == null) || (resCitations.size() == 0) )
+            return null;
+
+        TEIFormatter formatter = new TEIFormatter(doc, parsers.getFullTextParser());
+        List<BiblioComponent> bibRefComponents = new ArrayList<BiblioComponent>();
+        for (TaggingTokenCluster cluster : bodyClusters) {
+            if (cluster == null) {
+                continue;
             }
-            entities = newEntities;
 
-            // selection of relevant data sections
-            //List<Boolean> relevantSections = DataseerParser.getInstance().processingText(segments, sectionTypes, nbDatasets, datasetTypes);
+            TaggingLabel clusterLabel = cluster.getTaggingLabel();
 
-            // filter implicit datasets based on selected relevant data section
-            List<List<Dataset>> filteredEntities = new ArrayList<>();
-            index = 0;
-            for(List<Dataset> localDatasets : entities) {
-                List<Dataset> filteredLocalEntities = new ArrayList<>();
+            List<LayoutToken> localTokenization = cluster.concatTokens();
+            if ((localTokenization == null) || (localTokenization.size() == 0))
+                continue;
 
-                if (mapSentencesToZones.get(index) == null) {
-                    index++;
-                    continue;
+            if (clusterLabel.equals(TaggingLabels.CITATION_MARKER)) {
+                List<LayoutToken> refTokens = TextUtilities.dehyphenize(localTokenization);
+                String chunkRefString = LayoutTokensUtil.toText(refTokens);
+
+                List<nu.xom.Node> refNodes = formatter.markReferencesTEILuceneBased(refTokens,
+                            doc.getReferenceMarkerMatcher(),
+                            true, // generate coordinates
+                            false); // do not mark unsolved callout as ref
+
+                if (refNodes != null) {                            
+                    for (nu.xom.Node refNode : refNodes) {
+                        if (refNode instanceof Element) {
+                            // get the bib ref key
+                            String refKey = ((Element)refNode).getAttributeValue("target");
+               
+                            if (refKey == null)
+                                continue;
+
+                            int refKeyVal = -1;
+                            if (refKey.startsWith("#b")) {
+                                refKey = refKey.substring(2, refKey.length());
+                                try {
+                                    refKeyVal = Integer.parseInt(refKey);
+                                } catch(Exception e) {
+                                    LOGGER.warn("Invalid ref identifier: " + refKey);
+                                }
+                            }
+                            if (refKeyVal == -1)
+                                continue;
+
+                            // get the bibref object
+                            BibDataSet resBib = resCitations.get(refKeyVal);
+                            if (resBib != null) {
+                                BiblioComponent biblioComponent = new BiblioComponent(resBib.getResBib(), refKeyVal);
+                                biblioComponent.setRawForm(refNode.getValue());
+                                biblioComponent.setOffsetStart(refTokens.get(0).getOffset());
+                                biblioComponent.setOffsetEnd(refTokens.get(refTokens.size()-1).getOffset() + 
+                                    refTokens.get(refTokens.size()-1).getText().length());
+                                List<BoundingBox> boundingBoxes = BoundingBoxCalculator.calculate(refTokens);
+                                biblioComponent.setBoundingBoxes(boundingBoxes);
+                                bibRefComponents.add(biblioComponent);
+                            }
+                        }
+                    }
                 }
+            }
+        }
 
-                Integer currentZoneObject = mapSentencesToZones.get(index);
-                if (currentZoneObject == null) {
-                    index++;
-                    continue;
-                }  
+        return bibRefComponents;
+    }
 
-                int currentZone = currentZoneObject.intValue();
+    /**
+     * Document-level steps applied to the labeled and classified sentences of a document: propagation 
+     * of the dataset names, filtering by zone relevance, attachment and consolidation of the references, 
+     * data availability marking and context classification
+     *
+     * @param frequencyTokens the tokens where the frequencies of the dataset names are counted
+     * @param bibRefComponents the reference callouts of the document, null if no reference is matched
+     */
+    private List<List<Dataset>> processDocumentLevel(PDFSentences sentences, 
+                                                    List<LayoutToken> frequencyTokens, 
+                                                    List<PDFAnnotation> pdfAnnotations, 
+                                                    List<BibDataSet> resCitations, 
+                                                    List<BiblioComponent> bibRefComponents) {
+        List<List<Dataset>> entities = sentences.entities;
+        List<List<LayoutToken>> allLayoutTokens = sentences.tokens;
+        List<String> allSentences = sentences.texts;
+        List<Integer> sentenceOffsetStarts = sentences.offsetStarts;
+        Map<Integer,Integer> mapSentencesToZones = sentences.zones;
+        List<Boolean> relevantSectionsNamedDatasets = sentences.relevantSectionsNamedDatasets;
+        List<Boolean> relevantSectionsImplicitDatasets = sentences.relevantSectionsImplicitDatasets;
 
-                /*System.out.println("\nsentence index: " + index);
-                System.out.println("currentZone: " + mapSentencesToZones.get(index));
-                System.out.println("relevantSectionsNamedDatasets: " + relevantSectionsNamedDatasets.get(currentZone));
-                System.out.println("relevantSectionsImplicitDatasets: " + relevantSectionsImplicitDatasets.get(currentZone));*/
+        // we prepare a matcher for all the identified dataset mention forms 
+        FastMatcher termPattern = prepareTermPattern(entities);
+        // we prepare the frequencies for each dataset name in the whole document
+        Map<String, Integer> frequencies = prepareFrequencies(entities, frequencyTokens);
+        // we prepare a map for mapping a dataset name with its positions of annotation in the document and its IDF
+        Map<String, Double> termProfiles = prepareTermProfiles(entities);
+        List<List<OffsetPosition>> placeTaken = preparePlaceTaken(entities);
 
-                for (Dataset localDataset : localDatasets) {
-                    boolean referenceDataSource = false;
-                    if (localDataset.getUrl() != null && 
-                        DatastetLexicon.getInstance().isDatasetURLorDOI(localDataset.getUrl().getNormalizedForm())) {
-                        referenceDataSource = true;
-                    }
+        //System.out.println("entities size: " + entities.size());
 
-                    if (localDataset.getType() == DatasetType.DATASET &&
-                        !relevantSectionsImplicitDatasets.get(currentZone) && !referenceDataSource) {
-                        continue;
-                    } 
+        int index = 0;
+        List<List<Dataset>> newEntities = new ArrayList<>();
+        for (List<LayoutToken> sentenceTokens : allLayoutTokens) {
+            List<Dataset> localEntities = propagateLayoutTokenSequence(sentenceTokens, 
+                                                                    entities.get(index), 
+                                                                    termProfiles, 
+                                                                    termPattern, 
+                                                                    placeTaken.get(index), 
+                                                                    frequencies,
+                                                                    sentenceOffsetStarts.get(index));
+            if (localEntities != null) {
+                Collections.sort(localEntities);
+            
+                // revisit and attach URL component
+                localEntities = attachUrlComponents(localEntities, sentenceTokens, allSentences.get(index), pdfAnnotations);
+            }
 
-                    if (localDataset.getType() == DatasetType.DATASET_NAME &&
-                        !relevantSectionsNamedDatasets.get(currentZone)) {
-                        continue;
-                    } 
+            newEntities.add(localEntities);
+            index++;
+        }
+        entities = newEntities;
 
-                    if (localDataset.getType() == DatasetType.DATASET &&
-                        localDataset.getDataset() != null && 
-                        localDataset.getDataset().getHasDatasetScore() < 0.5 && !referenceDataSource) {
-                        continue;
-                    } 
-                        
-                    filteredLocalEntities.add(localDataset);
-                }
+        // selection of relevant data sections
+        //List<Boolean> relevantSections = DataseerParser.getInstance().processingText(segments, sectionTypes, nbDatasets, datasetTypes);
 
-                filteredEntities.add(filteredLocalEntities);
+        // filter implicit datasets based on selected relevant data section
+        List<List<Dataset>> filteredEntities = new ArrayList<>();
+        index = 0;
+        for(List<Dataset> localDatasets : entities) {
+            List<Dataset> filteredLocalEntities = new ArrayList<>();
+
+            if (mapSentencesToZones.get(index) == null) {
                 index++;
+                continue;
             }
-            entities = filteredEntities;
-
-            // we attach and match bibliographical reference callout
-            TEIFormatter formatter = new TEIFormatter(doc, parsers.getFullTextParser());
-            // second pass, body
-            if ( (bodyClusters != null) && (resCitations != null) && (resCitations.size() > 0) ) {
-                List<BiblioComponent> bibRefComponents = new ArrayList<BiblioComponent>();
-                for (TaggingTokenCluster cluster : bodyClusters) {
-                    if (cluster == null) {
-                        continue;
-                    }
 
-                    TaggingLabel clusterLabel = cluster.getTaggingLabel();
+            Integer currentZoneObject = mapSentencesToZones.get(index);
+            if (currentZoneObject == null) {
+                index++;
+                continue;
+            }  
 
-                    List<LayoutToken> localTokenization = cluster.concatTokens();
-                    if ((localTokenization == null) || (localTokenization.size() == 0))
-                        continue;
+            int currentZone = currentZoneObject.intValue();
 
-                    if (clusterLabel.equals(TaggingLabels.CITATION_MARKER)) {
-                        List<LayoutToken> refTokens = TextUtilities.dehyphenize(localTokenization);
-                        String chunkRefString = LayoutTokensUtil.toText(refTokens);
+            /*System.out.println("\nsentence index: " + index);
+            System.out.println("currentZone: " + mapSentencesToZones.get(index));
+            System.out.println("relevantSectionsNamedDatasets: " + relevantSectionsNamedDatasets.get(currentZone));
+            System.out.println("relevantSectionsImplicitDatasets: " + relevantSectionsImplicitDatasets.get(currentZone));*/
 
-                        List<nu.xom.Node> refNodes = formatter.markReferencesTEILuceneBased(refTokens,
-                                    doc.getReferenceMarkerMatcher(),
-                                    true, // generate coordinates
-                                    false); // do not mark unsolved callout as ref
+            for (Dataset localDataset : localDatasets) {
+                boolean referenceDataSource = false;
+                if (localDataset.getUrl() != null && 
+                    DatastetLexicon.getInstance().isDatasetURLorDOI(localDataset.getUrl().getNormalizedForm())) {
+                    referenceDataSource = true;
+                }
 
-                        if (refNodes != null) {                            
-                            for (nu.xom.Node refNode : refNodes) {
-                                if (refNode instanceof Element) {
-                                    // get the bib ref key
-                                    String refKey = ((Element)refNode).getAttributeValue("target");
-                       
-                                    if (refKey == null)
-                                        continue;
+                if (localDataset.getType() == DatasetType.DATASET &&
+                    !relevantSectionsImplicitDatasets.get(currentZone) && !referenceDataSource) {
+                    continue;
+                } 
 
-                                    int refKeyVal = -1;
-                                    if (refKey.startsWith("#b")) {
-                                        refKey = refKey.substring(2, refKey.length());
-                                        try {
-                                            refKeyVal = Integer.parseInt(refKey);
-                                        } catch(Exception e) {
-                                            LOGGER.warn("Invalid ref identifier: " + refKey);
-                                        }
-                                    }
-                                    if (refKeyVal == -1)
-                                        continue;
+                if (localDataset.getType() == DatasetType.DATASET_NAME &&
+                    !relevantSectionsNamedDatasets.get(currentZone)) {
+                    continue;
+                } 
 
-                                    // get the bibref object
-                                    BibDataSet resBib = resCitations.get(refKeyVal);
-                                    if (resBib != null) {
-                                        BiblioComponent biblioComponent = new BiblioComponent(resBib.getResBib(), refKeyVal);
-                                        biblioComponent.setRawForm(refNode.getValue());
-                                        biblioComponent.setOffsetStart(refTokens.get(0).getOffset());
-                                        biblioComponent.setOffsetEnd(refTokens.get(refTokens.size()-1).getOffset() + 
-                                            refTokens.get(refTokens.size()-1).getText().length());
-                                        List<BoundingBox> boundingBoxes = BoundingBoxCalculator.calculate(refTokens);
-                                        biblioComponent.setBoundingBoxes(boundingBoxes);
-                                        bibRefComponents.add(biblioComponent);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+                if (localDataset.getType() == DatasetType.DATASET &&
+                    localDataset.getDataset() != null && 
+                    localDataset.getDataset().getHasDatasetScore() < 0.5 && !referenceDataSource) {
+                    continue;
+                } 
+                    
+                filteredLocalEntities.add(localDataset);
+            }
 
+            filteredEntities.add(filteredLocalEntities);
+            index++;
+        }
+        entities = filteredEntities;
 
-                if (bibRefComponents.size() > 0) {
-                    // attach references to dataset entities 
-                    entities = attachRefBib(entities, bibRefComponents);
-                }
+        // we attach and match bibliographical reference callout
+        if (bibRefComponents != null) {
+            if (bibRefComponents.size() > 0) {
+                // attach references to dataset entities 
+                entities = attachRefBib(entities, bibRefComponents);
+            }
 
-                // consolidate the attached ref bib (we don't consolidate all bibliographical references
-                // to avoid useless costly computation)
-                List<BibDataSet> citationsToConsolidate = new ArrayList<BibDataSet>();
-                List<Integer> consolidated = new ArrayList<Integer>();
-                for(List<Dataset> datasets : entities) {
-                    for(Dataset entity : datasets) {
-                        if (entity.getBibRefs() != null && entity.getBibRefs().size() > 0) {
-                            List<BiblioComponent> bibRefs = entity.getBibRefs();
-                            for(BiblioComponent bibRef: bibRefs) {
-                                Integer refKeyVal = Integer.valueOf(bibRef.getRefKey());
-                                if (!consolidated.contains(refKeyVal)) {
-                                    citationsToConsolidate.add(resCitations.get(refKeyVal));
-                                    consolidated.add(refKeyVal);
-                                }
+            // consolidate the attached ref bib (we don't consolidate all bibliographical references
+            // to avoid useless costly computation)
+            List<BibDataSet> citationsToConsolidate = new ArrayList<BibDataSet>();
+            List<Integer> consolidated = new ArrayList<Integer>();
+            for(List<Dataset> datasets : entities) {
+                for(Dataset entity : datasets) {
+                    if (entity.getBibRefs() != null && entity.getBibRefs().size() > 0) {
+                        List<BiblioComponent> bibRefs = entity.getBibRefs();
+                        for(BiblioComponent bibRef: bibRefs) {
+                            Integer refKeyVal = Integer.valueOf(bibRef.getRefKey());
+                            if (!consolidated.contains(refKeyVal)) {
+                                citationsToConsolidate.add(resCitations.get(refKeyVal));
+                                consolidated.add(refKeyVal);
                             }
                         }
                     }
                 }
+            }
 
-                try {
-                    Consolidation consolidator = Consolidation.getInstance();
-                    Map<Integer,BiblioItem> resConsolidation = consolidator.consolidate(citationsToConsolidate);
-                    for(int j=0; j<citationsToConsolidate.size(); j++) {
-                        BiblioItem resCitation = citationsToConsolidate.get(j).getResBib();
-                        BiblioItem bibo = resConsolidation.get(j);
-                        if (bibo != null) {
-                            BiblioItem.correct(resCitation, bibo);
-                        }
+            try {
+                Consolidation consolidator = Consolidation.getInstance();
+                Map<Integer,BiblioItem> resConsolidation = consolidator.consolidate(citationsToConsolidate);
+                for(int j=0; j<citationsToConsolidate.size(); j++) {
+                    BiblioItem resCitation = citationsToConsolidate.get(j).getResBib();
+                    BiblioItem bibo = resConsolidation.get(j);
+                    if (bibo != null) {
+                        BiblioItem.correct(resCitation, bibo);
                     }
-                } catch(Exception e) {
-                    throw new GrobidException(
-                    "An exception occured while running consolidation on bibliographical references.", e);
                 }
+            } catch(Exception e) {
+                throw new GrobidException(
+                "An exception occured while running consolidation on bibliographical references.", e);
+            }
 
-                // propagate the bib. ref. to the entities corresponding to the same dataset name without bib. ref.
-                for(List<Dataset> datasets1 : entities) {
-                    for(Dataset entity1 : datasets1) {
-                        if (entity1.getBibRefs() != null && entity1.getBibRefs().size() > 0) {
-                            for(List<Dataset> datasets2 : entities) {
-                                for(Dataset entity2 : datasets2) {
-                                    if (entity2.getBibRefs() != null) {
-                                        continue;
-                                    }
-                                    if ( (entity2.getDatasetName() != null && entity2.getDatasetName().getRawForm() != null && 
-                                        entity1.getDatasetName() != null && entity1.getDatasetName().getRawForm() != null) && 
-                                        (entity2.getDatasetName().getNormalizedForm().equals(entity1.getDatasetName().getNormalizedForm()) ||
-                                        entity2.getDatasetName().getRawForm().equals(entity1.getDatasetName().getRawForm()))
-                                        ) {
-                                        List<BiblioComponent> newBibRefs = new ArrayList<>();
-                                        for(BiblioComponent bibComponent : entity1.getBibRefs()) {
-                                            newBibRefs.add(new BiblioComponent(bibComponent));
-                                        }
-                                        entity2.setBibRefs(newBibRefs);
+            // propagate the bib. ref. to the entities corresponding to the same dataset name without bib. ref.
+            for(List<Dataset> datasets1 : entities) {
+                for(Dataset entity1 : datasets1) {
+                    if (entity1.getBibRefs() != null && entity1.getBibRefs().size() > 0) {
+                        for(List<Dataset> datasets2 : entities) {
+                            for(Dataset entity2 : datasets2) {
+                                if (entity2.getBibRefs() != null) {
+                                    continue;
+                                }
+                                if ( (entity2.getDatasetName() != null && entity2.getDatasetName().getRawForm() != null && 
+                                    entity1.getDatasetName() != null && entity1.getDatasetName().getRawForm() != null) && 
+                                    (entity2.getDatasetName().getNormalizedForm().equals(entity1.getDatasetName().getNormalizedForm()) ||
+                                    entity2.getDatasetName().getRawForm().equals(entity1.getDatasetName().getRawForm()))
+                                    ) {
+                                    List<BiblioComponent> newBibRefs = new ArrayList<>();
+                                    for(BiblioComponent bibComponent : entity1.getBibRefs()) {
+                                        newBibRefs.add(new BiblioComponent(bibComponent));
                                     }
+                                    entity2.setBibRefs(newBibRefs);
                                 }
                             }
                         }
                     }
                 }
             }
+        }
 
-            // mark datasets present in Data Availability section(s)
-            if (availabilityTokens != null && availabilityTokens.size()>0)
+        // mark datasets present in Data Availability section(s)
+        for (List<LayoutToken> availabilityTokens : sentences.availabilityZones) {
+            if (availabilityTokens.size() > 0)
                 entities = markDAS(entities, availabilityTokens);
-
-            // finally classify the context for predicting the role of the dataset mention
-            entities = DatasetContextClassifier.getInstance(datastetConfiguration).classifyDocumentContexts(entities);    
-
-        } catch (Exception e) {
-            //e.printStackTrace();
-            throw new GrobidException("Cannot process pdf file: " + file.getPath(), e);
         }
 
-        return Pair.of(entities, doc);
+        // finally classify the context for predicting the role of the dataset mention
+        return DatasetContextClassifier.getInstance(datastetConfiguration).classifyDocumentContexts(entities);
     }
 
     public List<List<Dataset>> markDAS(List<List<Dataset>> entities, List<LayoutToken> availabilityTokens) {
@@ -2158,6 +2546,16 @@ for(String sentence : allSentences) {
         String localText = LayoutTokensUtil.toText(layoutTokens);
         //System.out.println(results.size() + " results for: " + localText);
 
+        // the context string is shared with the entities already labeled in the sentence
+        if (entities != null) {
+            for(Dataset entity : entities) {
+                if (localText.equals(entity.getContext())) {
+                    localText = entity.getContext();
+                    break;
+                }
+            }
+        }
+
         for(OffsetPosition position : results) {
             // the match positions are expressed relative to the local layoutTokens index, while the offset at
             // token level are expressed relative to the complete doc positions in characters
@@ -0,0 +1,168 @@
+package org.grobid.core.engines;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache of disambiguation results, keyed by the normalized mention and a coarse
+ * fingerprint of its context: an in-memory LRU cache, optionally backed by a memory-mapped
+ * on-disk store shared across runs. Negative results (mention returned by entity-fishing without
+ * identifier) are cached too, so that repeated names do not trigger any call to entity-fishing. 
+ * Entries expire after a time to live.
+ */
+public class DisambiguationCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DisambiguationCache.class);
+
+    /**
+     * Disambiguation result for a mention
+     */
+    public static class Entry {
+        private final String wikidataId;
+        private final int wikipediaExternalRef;
+        private final Double score;
+        private final boolean filtered;
+        private final String lang;
+        private final long timestamp;
+
+        public Entry(String wikidataId, int wikipediaExternalRef, Double score, boolean filtered, String lang, long timestamp) {
+            this.wikidataId = wikidataId;
+            this.wikipediaExternalRef = wikipediaExternalRef;
+            this.score = score;
+            this.filtered = filtered;
+            this.lang = lang;
+            this.timestamp = timestamp;
+        }
+
+        public String getWikidataId() {
+            return wikidataId;
+        }
+
+        public int getWikipediaExternalRef() {
+            return wikipediaExternalRef;
+        }
+
+        public Double getScore() {
+            return score;
+        }
+
+        public boolean isFiltered() {
+            return filtered;
+        }
+
+        public String getLang() {
+            return lang;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private final Map<String, Entry> memory;
+    private final DisambiguationDiskStore disk;
+    private final long ttl;
+
+    private final AtomicLong memoryHits = new AtomicLong(0);
+    private final AtomicLong diskHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    /**
+     * @param maxSize maximum number of entries of the in-memory cache
+     * @param ttl time to live of the entries in milliseconds
+     * @param diskPath path of the on-disk store, null for no disk store
+     * @param diskSlots number of entries of the on-disk store
+     */
+    public DisambiguationCache(final int maxSize, long ttl, String diskPath, int diskSlots) {
+        this.ttl = ttl;
+        this.memory = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        DisambiguationDiskStore store = null;
+        if (diskPath != null && diskPath.length() > 0) {
+            try {
+                store = new DisambiguationDiskStore(new File(diskPath), diskSlots);
+                LOGGER.info("Disambiguation disk cache opened: " + diskPath);
+            } catch(IOException e) {
+                LOGGER.error("Cannot open the disambiguation disk cache " + diskPath + ", only the memory cache is used", e);
+            }
+        }
+        this.disk = store;
+    }
+
+    public static String getKey(String mention, String contextFingerprint) {
+        return mention + "\t" + contextFingerprint;
+    }
+
+    /**
+     * @return the cached disambiguation result or null if not cached or expired
+     */
+    public Entry get(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+            if (entry != null && now - entry.getTimestamp() > ttl) {
+                memory.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            memoryHits.incrementAndGet();
+            return entry;
+        }
+
+        if (disk != null) {
+            entry = disk.get(key);
+            if (entry != null && now - entry.getTimestamp() <= ttl) {
+                diskHits.incrementAndGet();
+                synchronized (memory) {
+                    memory.put(key, entry);
+                }
+                return entry;
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, Entry entry) {
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        if (disk != null)
+            disk.put(key, entry);
+    }
+
+    /**
+     * Hit and miss counts and hit rate since the start of the service
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        stats.put("memory_hits", memoryHits.get());
+        stats.put("disk_hits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("hit_rate", total == 0 ? 0.0 : ((double) hits) / total);
+        synchronized (memory) {
+            stats.put("memory_size", memory.size());
+        }
+        return stats;
+    }
+
+    public void close() {
+        if (disk != null)
+            disk.close();
+    }
+}
@@ -0,0 +1,223 @@
+package org.grobid.core.engines;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Memory-mapped on-disk key-value store for the disambiguation cache. The file is a fixed-size
+ * open addressing hash table, with a small number of probes per key. Keys are identified by a
+ * 64-bit hash, and an entry is only returned if a second, independent 64-bit fingerprint of its
+ * key matches too, so that two keys with the same hash do not share their results. When all the
+ * probed slots are taken, the oldest entry is replaced.
+ *
+ * The file is used by a single process: it is locked when opened, and a second process opening
+ * the same file fails (the cache of this process is then memory only).
+ *
+ * Slot layout (72 bytes):
+ *  0 long   key hash (0 for an empty slot)
+ *  8 long   key fingerprint
+ * 16 long   timestamp
+ * 24 int    wikipedia external ref
+ * 28 double disambiguation score (NaN if none)
+ * 36 byte   flags (bit 0: filtered)
+ * 37 byte   lang length
+ * 38 2 bytes lang
+ * 40 byte   wikidata id length
+ * 41 31 bytes wikidata id
+ */
+class DisambiguationDiskStore {
+
+    private static final int MAGIC = 0x44534443;
+    // version 3: entries of the previous versions may hold results of wrongly mapped batches
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 72;
+    private static final int MAX_PROBES = 8;
+    private static final int MAX_ID_LENGTH = 31;
+
+    private final RandomAccessFile file;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int nbSlots;
+
+    DisambiguationDiskStore(File path, int nbSlots) throws IOException {
+        boolean exists = path.exists() && path.length() > HEADER_SIZE;
+        if (path.getParentFile() != null)
+            path.getParentFile().mkdirs();
+        this.file = new RandomAccessFile(path, "rw");
+        FileLock fileLock = null;
+        try {
+            fileLock = this.file.getChannel().tryLock();
+        } catch (OverlappingFileLockException e) {
+            // already locked in this process
+        }
+        if (fileLock == null) {
+            this.file.close();
+            throw new IOException("Disambiguation cache file already used by another cache: " + path.getPath());
+        }
+        this.lock = fileLock;
+
+        if (exists) {
+            this.file.seek(0);
+            if (this.file.readInt() != MAGIC) {
+                this.file.close();
+                throw new IOException("Invalid disambiguation cache file: " + path.getPath());
+            }
+            if (this.file.readInt() == VERSION) {
+                // the existing store keeps its size
+                nbSlots = this.file.readInt();
+            } else {
+                // store of a previous format, its entries are dropped
+                this.file.setLength(0);
+                exists = false;
+            }
+        }
+        this.nbSlots = nbSlots;
+
+        long size = HEADER_SIZE + ((long) nbSlots) * SLOT_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            this.file.close();
+            throw new IOException("Disambiguation cache file too large, reduce the number of slots");
+        }
+        this.buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (!exists) {
+            this.buffer.putInt(0, MAGIC);
+            this.buffer.putInt(4, VERSION);
+            this.buffer.putInt(8, nbSlots);
+        }
+    }
+
+    static long hash(String key) {
+        // FNV-1a 64 bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    static long fingerprint(String key) {
+        // polynomial hash seeded with the key length, mixed as in SplitMix64, independent from hash()
+        long fingerprint = key.length();
+        for (int i = 0; i < key.length(); i++) {
+            fingerprint = fingerprint * 0x9e3779b97f4a7c15L + key.charAt(i);
+        }
+        fingerprint = (fingerprint ^ (fingerprint >>> 30)) * 0xbf58476d1ce4e5b9L;
+        fingerprint = (fingerprint ^ (fingerprint >>> 27)) * 0x94d049bb133111ebL;
+        return fingerprint ^ (fingerprint >>> 31);
+    }
+
+    private int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    synchronized DisambiguationCache.Entry get(String key) {
+        long hash = hash(key);
+        int start = (int) Math.floorMod(hash, (long) nbSlots);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int position = slotPosition((start + i) % nbSlots);
+            long slotHash = buffer.getLong(position);
+            if (slotHash == 0)
+                return null;
+            if (slotHash == hash) {
+                // same hash for a different key, the slot is not the entry of the key
+                if (buffer.getLong(position + 8) != fingerprint(key))
+                    return null;
+                return read(position);
+            }
+        }
+        return null;
+    }
+
+    synchronized void put(String key, DisambiguationCache.Entry entry) {
+        long hash = hash(key);
+        int start = (int) Math.floorMod(hash, (long) nbSlots);
+        int selected = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int position = slotPosition((start + i) % nbSlots);
+            long slotHash = buffer.getLong(position);
+            if (slotHash == 0 || slotHash == hash) {
+                selected = position;
+                break;
+            }
+            long timestamp = buffer.getLong(position + 16);
+            if (timestamp < oldest) {
+                oldest = timestamp;
+                selected = position;
+            }
+        }
+        write(selected, hash, fingerprint(key), entry);
+    }
+
+    private DisambiguationCache.Entry read(int position) {
+        long timestamp = buffer.getLong(position + 16);
+        int wikipediaExternalRef = buffer.getInt(position + 24);
+        double score = buffer.getDouble(position + 28);
+        boolean filtered = (buffer.get(position + 36) & 1) != 0;
+
+        String lang = null;
+        int langLength = buffer.get(position + 37);
+        if (langLength > 0)
+            lang = readString(position + 38, langLength);
+
+        String wikidataId = null;
+        int idLength = buffer.get(position + 40);
+        if (idLength > 0)
+            wikidataId = readString(position + 41, idLength);
+
+        return new DisambiguationCache.Entry(wikidataId, wikipediaExternalRef,
+            Double.isNaN(score) ? null : score, filtered, lang, timestamp);
+    }
+
+    private String readString(int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void write(int position, long hash, long fingerprint, DisambiguationCache.Entry entry) {
+        byte[] id = entry.getWikidataId() == null ? new byte[0] : entry.getWikidataId().getBytes(StandardCharsets.UTF_8);
+        byte[] lang = entry.getLang() == null ? new byte[0] : entry.getLang().getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_LENGTH || lang.length > 2) {
+            // not a standard identifier, not stored on disk
+            return;
+        }
+
+        // the key hash is written last, so that a partially written slot is never matched
+        buffer.putLong(position, 0);
+        buffer.putLong(position + 8, fingerprint);
+        buffer.putLong(position + 16, entry.getTimestamp());
+        buffer.putInt(position + 24, entry.getWikipediaExternalRef());
+        buffer.putDouble(position + 28, entry.getScore() == null ? Double.NaN : entry.getScore());
+        buffer.put(position + 36, (byte) (entry.isFiltered() ? 1 : 0));
+        buffer.put(position + 37, (byte) lang.length);
+        for (int i = 0; i < lang.length; i++) {
+            buffer.put(position + 38 + i, lang[i]);
+        }
+        buffer.put(position + 40, (byte) id.length);
+        for (int i = 0; i < id.length; i++) {
+            buffer.put(position + 41 + i, id[i]);
+        }
+        buffer.putLong(position, hash);
+    }
+
+    synchronized void close() {
+        buffer.force();
+        try {
+            lock.release();
+            file.close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.DatasetComponent;
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.lexicon.DatasetKnowledgeBase;
+import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dataset entity disambiguator working offline with a local index of dataset-like entities
+ * (engine "local" in the config file), as an alternative to the entity-fishing service for
+ * deployments without network access. The index is built with the build_dataset_kb gradle task.
+ *
+ * The candidates of a mention are the entities having the mention as label or alias. They are
+ * scored with their prior (popularity), the overlap of their description keywords with the words
+ * of the sentence, the type of match (label or alias) and their dataset flags, and the best
+ * candidate is selected if its score is high enough.
+ */
+public class LocalDatasetDisambiguator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalDatasetDisambiguator.class);
+
+    private static volatile LocalDatasetDisambiguator instance;
+
+    private static final String DEFAULT_KB_PATH = "resources/kb/datasets.kb";
+
+    // minimum score for accepting a candidate
+    private static final double MIN_SCORE = 0.3;
+    // number of common keywords for a maximum context score
+    private static final int CONTEXT_NORM = 5;
+
+    private final DatasetKnowledgeBase knowledgeBase;
+
+    public static LocalDatasetDisambiguator getInstance(DatastetConfiguration configuration) {
+        if (instance == null) {
+            getNewInstance(configuration);
+        }
+        return instance;
+    }
+
+    /**
+     * Create a new instance.
+     */
+    private static synchronized void getNewInstance(DatastetConfiguration configuration) {
+        instance = new LocalDatasetDisambiguator(configuration);
+    }
+
+    private LocalDatasetDisambiguator(DatastetConfiguration configuration) {
+        String path = configuration.getLocalKnowledgeBasePath();
+        if (path == null || path.length() == 0)
+            path = DEFAULT_KB_PATH;
+        File file = new File(path);
+        if (!file.exists()) {
+            throw new GrobidResourceException("The dataset knowledge base index does not exist: " +
+                file.getAbsolutePath() + " - it can be built with the build_dataset_kb gradle task");
+        }
+        knowledgeBase = new DatasetKnowledgeBase(file);
+        LOGGER.info("Local dataset knowledge base loaded: " + knowledgeBase.getNbEntities() + " entities");
+    }
+
+    /**
+     * Disambiguate against the local knowledge base a list of raw entities extracted from text
+     * represented as a list of tokens, used as disambiguation context.
+     *
+     * @return list of disambiguated dataset entities
+     */
+    public List<Dataset> disambiguate(List<Dataset> entities, List<LayoutToken> tokens) {
+        if ( (entities == null) || (entities.size() == 0) )
+            return entities;
+
+        int[] context = getContextKeywords(tokens);
+        for(Dataset entity : entities) {
+            if (entity == null)
+                continue;
+            disambiguate(entity.getDatasetName(), context);
+            disambiguate(entity.getDataset(), context);
+            disambiguate(entity.getDataDevice(), context);
+        }
+        return entities;
+    }
+
+    /**
+     * Disambiguate the raw entities extracted from a list of text segments, each segment being
+     * represented as a list of tokens.
+     *
+     * @return the list of entities for each segment, with disambiguation information
+     */
+    public List<List<Dataset>> disambiguate(List<List<Dataset>> entitiesPerSegment,
+                                            List<List<LayoutToken>> tokensPerSegment) {
+        if (entitiesPerSegment == null)
+            return entitiesPerSegment;
+        for(int i=0; i<entitiesPerSegment.size() && i<tokensPerSegment.size(); i++) {
+            List<LayoutToken> tokens = tokensPerSegment.get(i);
+            if (tokens != null)
+                disambiguate(entitiesPerSegment.get(i), tokens);
+        }
+        return entitiesPerSegment;
+    }
+
+    private void disambiguate(DatasetComponent component, int[] context) {
+        if (component == null)
+            return;
+        String mention = component.getNormalizedForm();
+        if (mention == null)
+            mention = component.getRawForm();
+
+        DatasetKnowledgeBase.Candidate best = null;
+        double bestScore = 0.0;
+        for(DatasetKnowledgeBase.Candidate candidate : knowledgeBase.lookup(mention)) {
+            double score = score(candidate, context);
+            if (score > bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+
+        if (best == null || bestScore < MIN_SCORE)
+            return;
+        component.setWikidataId(best.getId());
+        if (best.getWikipediaExternalRef() != -1)
+            component.setWikipediaExternalRef(best.getWikipediaExternalRef());
+        component.setDisambiguationScore(bestScore);
+        component.setLang("en");
+    }
+
+    static double score(DatasetKnowledgeBase.Candidate candidate, int[] context) {
+        double contextScore = 0.0;
+        int[] keywords = candidate.getKeywords();
+        if (keywords.length > 0 && context.length > 0) {
+            int common = 0;
+            int i = 0;
+            int j = 0;
+            while (i < keywords.length && j < context.length) {
+                if (keywords[i] == context[j]) {
+                    common++;
+                    i++;
+                    j++;
+                } else if (keywords[i] < context[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            contextScore = Math.min(1.0, ((double) common) / Math.min(keywords.length, CONTEXT_NORM));
+        }
+
+        double score = 0.35 * candidate.getPrior() + 0.35 * contextScore;
+        score += candidate.isAlias() ? 0.1 : 0.2;
+        if (candidate.getFlags() != 0)
+            score += 0.1;
+        return score;
+    }
+
+    /**
+     * Sorted hashes of the distinct non-stopword words of a segment
+     */
+    private static int[] getContextKeywords(List<LayoutToken> tokens) {
+        Set<Integer> keywords = new LinkedHashSet<>();
+        if (tokens != null) {
+            DatastetLexicon lexicon = DatastetLexicon.getInstance();
+            for(LayoutToken token : tokens) {
+                String word = token.getText();
+                if (word == null || word.length() < 3 || !Character.isLetterOrDigit(word.charAt(0)))
+                    continue;
+                if (lexicon.isEnglishStopword(word.toLowerCase()))
+                    continue;
+                keywords.add(DatasetKnowledgeBase.keywordHash(word));
+            }
+        }
+        int[] result = new int[keywords.size()];
+        int i = 0;
+        for(Integer keyword : keywords) {
+            result[i++] = keyword;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.Dataset;
+import org.grobid.core.document.Document;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listener of the stages of the processing of a PDF document by DatasetParser, for instance to
+ * stream the intermediary results to a client while the document is being processed. The
+ * callbacks are called in the processing thread, an exception thrown by a callback aborts the
+ * processing.
+ */
+public interface PDFProcessingListener {
+
+    /**
+     * Called when the document is segmented, its pages and bibliographical references being available
+     */
+    default void documentSegmented(Document doc) {
+    }
+
+    /**
+     * Called when the sentences are labeled, with the provisional mentions of each sentence before
+     * disambiguation, classification, propagation and filtering. The mentions are not modified
+     * during the callback.
+     *
+     * @param entities the mentions of each sentence
+     * @param sentenceZones the index of the zone of each sentence, no entry for the dummy sentences
+     */
+    default void sentencesLabeled(List<List<Dataset>> entities, Map<Integer, Integer> sentenceZones) {
+    }
+}
@@ -0,0 +1,42 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.Dataset;
+import org.grobid.core.layout.LayoutToken;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sentences of the selected zones of a PDF document with their labeled entities
+ */
+class PDFSentences {
+    final List<List<LayoutToken>> tokens = new ArrayList<>();
+    final List<String> texts = new ArrayList<>();
+    final List<Integer> offsetStarts = new ArrayList<>();
+    final List<List<Dataset>> entities = new ArrayList<>();
+    // sentence index -> zone index
+    final Map<Integer,Integer> zones = new HashMap<>();
+    final List<Boolean> relevantSectionsNamedDatasets = new ArrayList<>();
+    final List<Boolean> relevantSectionsImplicitDatasets = new ArrayList<>();
+    final List<List<LayoutToken>> availabilityZones = new ArrayList<>();
+
+    /**
+     * Add the sentences of the following window of the document
+     */
+    void append(PDFSentences window) {
+        int sentenceBase = texts.size();
+        int zoneBase = relevantSectionsNamedDatasets.size();
+        tokens.addAll(window.tokens);
+        texts.addAll(window.texts);
+        offsetStarts.addAll(window.offsetStarts);
+        entities.addAll(window.entities);
+        for (Map.Entry<Integer,Integer> zone : window.zones.entrySet()) {
+            zones.put(zone.getKey() + sentenceBase, zone.getValue() + zoneBase);
+        }
+        relevantSectionsNamedDatasets.addAll(window.relevantSectionsNamedDatasets);
+        relevantSectionsImplicitDatasets.addAll(window.relevantSectionsImplicitDatasets);
+        availabilityZones.addAll(window.availabilityZones);
+    }
+}
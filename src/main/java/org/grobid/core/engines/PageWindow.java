@@ -0,0 +1,116 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.BibDataSet;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.layout.PDFAnnotation;
+
+import java.util.List;
+
+/**
+ * A window of consecutive pages of a PDF document, parsed separately from the other windows. The
+ * positions in the window (token offsets, page numbers, reference numbers) are shifted to positions
+ * in the whole document, so that the results of the windows can be merged.
+ */
+class PageWindow {
+
+    // the token offsets of a window are shifted by a multiple of this range
+    static final int OFFSET_RANGE = 1 << 22;
+
+    // maximum number of windows of a document, so that the shifted offsets remain in the int range
+    static final int MAX_WINDOWS = (int) ((Integer.MAX_VALUE + 1L) / OFFSET_RANGE);
+
+    private final int index;
+    private final int startPage;
+    private final int endPage;
+
+    /**
+     * @param index rank of the window in the document, from 0
+     * @param pageWindowSize number of pages of a window
+     * @param nbPages number of pages of the document
+     */
+    PageWindow(int index, int pageWindowSize, int nbPages) {
+        if (index < 0 || index >= MAX_WINDOWS)
+            throw new IllegalArgumentException("Invalid page window index: " + index + ", at most " + 
+                MAX_WINDOWS + " windows are supported");
+        this.index = index;
+        this.startPage = index * pageWindowSize + 1;
+        this.endPage = Math.min(startPage + pageWindowSize - 1, nbPages);
+    }
+
+    /**
+     * @return the number of pages of the windows of a document, the requested window size being
+     * enlarged when the document would be split into more than MAX_WINDOWS windows
+     */
+    static int getWindowSize(int pageWindowSize, int nbPages) {
+        int minWindowSize = (int) ((nbPages + (long) MAX_WINDOWS - 1) / MAX_WINDOWS);
+        return Math.max(pageWindowSize, minWindowSize);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the first page of the window in the document, from 1
+     */
+    int getStartPage() {
+        return startPage;
+    }
+
+    /**
+     * @return the last page of the window in the document, included
+     */
+    int getEndPage() {
+        return endPage;
+    }
+
+    int getOffsetShift() {
+        return Math.toIntExact((long) index * OFFSET_RANGE);
+    }
+
+    /**
+     * @param firstPageNumber number of the first page of the parsed window, the pages of a window
+     * being numbered either from 1 or as in the whole document
+     * @return the shift from the page numbers of the parsed window to the page numbers of the document
+     */
+    int getPageShift(int firstPageNumber) {
+        return startPage - firstPageNumber;
+    }
+
+    /**
+     * Shift the offsets and the page numbers of the tokens and the annotations of the parsed window
+     * to positions in the whole document
+     *
+     * @return false if the text of the window exceeds the offset range of a window, the offsets of
+     * the window might then overlap with the offsets of the next window
+     */
+    boolean shift(List<LayoutToken> tokens, List<PDFAnnotation> annotations, int pageShift) {
+        boolean inRange = tokens.size() == 0 || tokens.get(tokens.size()-1).getOffset() < OFFSET_RANGE;
+        int offsetShift = getOffsetShift();
+        for (LayoutToken token : tokens) {
+            token.setOffset(token.getOffset() + offsetShift);
+            token.setPage(token.getPage() + pageShift);
+        }
+        if (annotations != null) {
+            for (PDFAnnotation annotation : annotations) {
+                annotation.setPageNumber(annotation.getPageNumber() + pageShift);
+            }
+        }
+        return inRange;
+    }
+
+    /**
+     * Append the references of a window to the references of the document. The references of a
+     * window are numbered from 0, they are renumbered so that the target of a reference callout
+     * ("#b" + number) is the index of the reference in the document references.
+     */
+    static void appendReferences(List<BibDataSet> references, List<BibDataSet> windowReferences) {
+        if (windowReferences == null)
+            return;
+        for (BibDataSet reference : windowReferences) {
+            if (reference.getResBib() != null)
+                reference.getResBib().setOrdinal(references.size());
+            references.add(reference);
+        }
+    }
+}
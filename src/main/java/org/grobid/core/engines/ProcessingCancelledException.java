@@ -0,0 +1,41 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.exceptions.GrobidException;
+
+import java.util.Map;
+
+/**
+ * The processing of a request has been aborted, because its deadline is exceeded or because it
+ * has been cancelled
+ */
+public class ProcessingCancelledException extends GrobidException {
+
+    private final boolean deadlineExceeded;
+    private final String lastStage;
+    private final Map<String, Long> timings;
+
+    public ProcessingCancelledException(String msg, boolean deadlineExceeded, String lastStage, Map<String, Long> timings) {
+        super(msg);
+        this.deadlineExceeded = deadlineExceeded;
+        this.lastStage = lastStage;
+        this.timings = timings;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+
+    /**
+     * @return the last completed stage of the processing, null if none
+     */
+    public String getLastStage() {
+        return lastStage;
+    }
+
+    /**
+     * @return the time spent in each completed stage in milliseconds
+     */
+    public Map<String, Long> getTimings() {
+        return timings;
+    }
+}
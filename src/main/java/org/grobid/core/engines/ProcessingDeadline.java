@@ -0,0 +1,140 @@
+package org.grobid.core.engines;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deadline and cancellation token of the processing of a request. The token is bound to the
+ * thread processing the request, and the processing stages check it between stages and between
+ * batches: once the deadline is exceeded or the request is cancelled, the processing is aborted
+ * with a ProcessingCancelledException, instead of running to completion for a client which is not
+ * waiting anymore. The tasks running in other threads for the request (classifier workers,
+ * disambiguation batches) bind the token of the request in their own thread.
+ *
+ * A request is cancelled when its client is known to be gone, i.e. when the events of a streamed
+ * response cannot be written, so that its background tasks stop too.
+ *
+ * The time spent in each stage is recorded at the checkpoints, so that the timings of the
+ * completed stages are available when the processing is aborted.
+ */
+public class ProcessingDeadline {
+
+    private static final ThreadLocal<ProcessingDeadline> current = new ThreadLocal<>();
+
+    private final long start;
+    // Long.MAX_VALUE if no timeout
+    private final long time;
+    private volatile boolean cancelled = false;
+
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private long lastCheckpoint;
+    private volatile String stage = null;
+
+    /**
+     * @param timeout maximum duration of the processing in milliseconds, no timeout if 0 or less
+     */
+    public ProcessingDeadline(long timeout) {
+        this.start = System.currentTimeMillis();
+        this.time = timeout > 0 ? start + timeout : Long.MAX_VALUE;
+        this.lastCheckpoint = start;
+    }
+
+    /**
+     * @return the token bound to the current thread, null if none
+     */
+    public static ProcessingDeadline current() {
+        return current.get();
+    }
+
+    /**
+     * Bind this token to the current thread, until unbind()
+     */
+    public void bind() {
+        current.set(this);
+    }
+
+    public static void unbind() {
+        current.remove();
+    }
+
+    /**
+     * Check the token bound to the current thread, if any
+     */
+    public static void checkCurrent() {
+        ProcessingDeadline deadline = current.get();
+        if (deadline != null)
+            deadline.check();
+    }
+
+    /**
+     * Record the end of a stage of the processing for the token bound to the current thread, if
+     * any, and check it
+     */
+    public static void checkpointCurrent(String stage) {
+        ProcessingDeadline deadline = current.get();
+        if (deadline != null)
+            deadline.checkpoint(stage);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= time;
+    }
+
+    /**
+     * @return the remaining time before the deadline in milliseconds, Long.MAX_VALUE if no timeout
+     */
+    public long remaining() {
+        if (time == Long.MAX_VALUE)
+            return Long.MAX_VALUE;
+        return time - System.currentTimeMillis();
+    }
+
+    /**
+     * @throws ProcessingCancelledException if the request is cancelled or its deadline exceeded
+     */
+    public void check() {
+        if (cancelled)
+            throw new ProcessingCancelledException("Processing cancelled", false, stage, getTimings());
+        if (isExpired())
+            throw new ProcessingCancelledException("Processing deadline exceeded", true, stage, getTimings());
+    }
+
+    /**
+     * Record the time spent in a stage since the previous checkpoint, added to the time already
+     * spent in this stage if any, then check the token
+     */
+    public void checkpoint(String stage) {
+        synchronized (timings) {
+            long now = System.currentTimeMillis();
+            timings.merge(stage, now - lastCheckpoint, Long::sum);
+            lastCheckpoint = now;
+            this.stage = stage;
+        }
+        check();
+    }
+
+    /**
+     * @return the time spent in each completed stage in milliseconds, in the order of the stages
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    /**
+     * @return the elapsed time since the start of the processing in milliseconds
+     */
+    public long elapsed() {
+        return System.currentTimeMillis() - start;
+    }
+}
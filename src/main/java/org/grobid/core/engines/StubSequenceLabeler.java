@@ -0,0 +1,52 @@
+package org.grobid.core.engines;
+
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic stub for the "datasets" sequence labeling model (engine "stub" in the config
+ * file), used to benchmark and test the Java pipeline without the Deep Learning stack.
+ *
+ * The input is the token-per-line representation produced by DatasetParser, with sequences
+ * separated by empty lines. Each token gets a label following simple surface rules:
+ * - acronym-like tokens (e.g. TCGA, GEO, UKB2) are labeled as dataset names,
+ * - generic data nouns (data, dataset, database, ...) are labeled as implicit datasets,
+ * - common acquisition device nouns (microscope, scanner, ...) are labeled as data devices,
+ * - everything else is labeled as other.
+ */
+public class StubSequenceLabeler {
+
+    private static final Pattern DATASET_NAME = Pattern.compile("[A-Z][A-Z0-9]{1,9}");
+    private static final Pattern DATASET = Pattern.compile("(?i)data|dataset|datasets|database|databases|corpus|cohort");
+    private static final Pattern DATA_DEVICE = Pattern.compile("(?i)microscope|scanner|sequencer|spectrometer|camera|MRI");
+
+    private static final String OTHER = "<other>";
+
+    public String label(String input) {
+        if (input == null)
+            return null;
+
+        StringBuilder output = new StringBuilder();
+        String[] lines = input.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String token = lines[i];
+            if (token.length() > 0) {
+                output.append(token).append("\t").append(label(token.trim()));
+            }
+            if (i < lines.length - 1)
+                output.append("\n");
+        }
+        return output.toString();
+    }
+
+    private String label(String token) {
+        // single token entities, so every label is a beginning label
+        if (DATA_DEVICE.matcher(token).matches())
+            return "I-<data_device>";
+        else if (DATASET_NAME.matcher(token).matches())
+            return "I-<dataset_name>";
+        else if (DATASET.matcher(token).matches())
+            return "I-<dataset>";
+        else
+            return OTHER;
+    }
+}
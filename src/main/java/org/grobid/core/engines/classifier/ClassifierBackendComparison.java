@@ -0,0 +1,123 @@
+package org.grobid.core.engines.classifier;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.main.GrobidHomeFinder;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.grobid.core.utilities.GrobidConfig.ModelParameters;
+import org.grobid.core.utilities.GrobidProperties;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Check the outputs of the ONNX Runtime backend against the DeLFT outputs for a classifier model,
+ * on a text file with one sentence per line. For each label, the maximum absolute score
+ * difference is reported, together with the agreement on the best label.
+ *
+ * Run like this: ./gradlew compare_classifier_backends -Pmodel=context_used -Pinput=/path/sentences.txt
+ */
+public class ClassifierBackendComparison {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: {model name} {sentence file} {grobid home}");
+            System.exit(-1);
+        }
+        String modelName = args[0];
+        File inputFile = new File(args[1]);
+
+        GrobidHomeFinder grobidHomeFinder = new GrobidHomeFinder(Arrays.asList(args[2]));
+        GrobidProperties.getInstance(grobidHomeFinder);
+
+        ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+        DatastetConfiguration configuration =
+            yamlMapper.readValue(new File("resources/config/config.yml"), DatastetConfiguration.class);
+        for (ModelParameters model : configuration.getModels())
+            GrobidProperties.getInstance().addModel(model);
+        LibraryLoader.load();
+
+        List<String> texts = new ArrayList<>();
+        for (String line : FileUtils.readLines(inputFile, UTF_8)) {
+            if (line.trim().length() > 0)
+                texts.add(line.trim());
+        }
+
+        ModelParameters parameters = configuration.getModel(modelName);
+        TextClassifierModel delftModel = new DeLFTTextClassifierModel(modelName, parameters.delft.architecture);
+        File modelDirectory = new File(configuration.getGrobidHome(), "models" + File.separator +
+                modelName + File.separator + "onnx");
+        TextClassifierModel onnxModel = new OnnxTextClassifierModel(modelName, modelDirectory, 0);
+
+        long start = System.currentTimeMillis();
+        String delftResults = delftModel.classify(texts);
+        long delftRuntime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        String onnxResults = onnxModel.classify(texts);
+        long onnxRuntime = System.currentTimeMillis() - start;
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode delftClassifications = mapper.readTree(delftResults).path("classifications");
+        JsonNode onnxClassifications = mapper.readTree(onnxResults).path("classifications");
+
+        Map<String, Double> maxDifferences = new TreeMap<>();
+        int agreements = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            JsonNode delftNode = delftClassifications.get(i);
+            JsonNode onnxNode = onnxClassifications.get(i);
+
+            String delftBest = null;
+            String onnxBest = null;
+            double delftBestScore = -1.0;
+            double onnxBestScore = -1.0;
+            Iterator<Map.Entry<String, JsonNode>> fields = delftNode.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!field.getValue().isNumber())
+                    continue;
+                String label = field.getKey();
+                double delftScore = field.getValue().doubleValue();
+                double onnxScore = onnxNode.path(label).asDouble(-1.0);
+
+                double difference = Math.abs(delftScore - onnxScore);
+                Double maxDifference = maxDifferences.get(label);
+                if (maxDifference == null || difference > maxDifference)
+                    maxDifferences.put(label, difference);
+
+                if (delftScore > delftBestScore) {
+                    delftBestScore = delftScore;
+                    delftBest = label;
+                }
+                if (onnxScore > onnxBestScore) {
+                    onnxBestScore = onnxScore;
+                    onnxBest = label;
+                }
+            }
+            if (delftBest != null && delftBest.equals(onnxBest))
+                agreements++;
+        }
+
+        System.out.println(texts.size() + " texts classified with " + modelName);
+        System.out.println("DeLFT runtime: " + delftRuntime + " ms, ONNX runtime: " + onnxRuntime + " ms");
+        for (Map.Entry<String, Double> entry : maxDifferences.entrySet()) {
+            System.out.println("max score difference for " + entry.getKey() + ": " + entry.getValue());
+        }
+        System.out.println("best label agreement: " + agreements + "/" + texts.size());
+
+        delftModel.close();
+        onnxModel.close();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,39 @@
+package org.grobid.core.engines.classifier;
+
+import org.grobid.core.jni.DeLFTClassifierModel;
+
+import java.util.List;
+
+/**
+ * Text classifier running a DeLFT model via JEP in the embedded python interpreter.
+ */
+public class DeLFTTextClassifierModel implements TextClassifierModel {
+
+    private final String modelName;
+    private final DeLFTClassifierModel model;
+
+    public DeLFTTextClassifierModel(String modelName, String architecture) {
+        this.modelName = modelName;
+        this.model = new DeLFTClassifierModel(modelName, architecture);
+    }
+
+    @Override
+    public String classify(List<String> texts) throws Exception {
+        return this.model.classify(texts);
+    }
+
+    @Override
+    public String getModelName() {
+        return this.modelName;
+    }
+
+    @Override
+    public String getEngineName() {
+        return "delft";
+    }
+
+    @Override
+    public void close() {
+        this.model.close();
+    }
+}
@@ -0,0 +1,217 @@
+package org.grobid.core.engines.classifier;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import org.grobid.core.engines.ProcessingDeadline;
+import org.grobid.core.exceptions.GrobidResourceException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text classifier running an exported transformer classification model with ONNX Runtime (CPU)
+ * directly in the JVM, without the python interpreter.
+ *
+ * The model directory is expected to contain:
+ * - model.onnx: the exported graph, with inputs input_ids, attention_mask and optionally
+ *   token_type_ids, and the class scores or logits as first output
+ * - vocab.txt: the WordPiece vocabulary of the transformer
+ * - config.json: the list of labels in the order of the output, and optionally the
+ *   max_sequence_length, batch_size, do_lower_case and activation (softmax, sigmoid or none,
+ *   none when the graph already outputs probabilities) parameters
+ */
+public class OnnxTextClassifierModel implements TextClassifierModel {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OnnxTextClassifierModel.class);
+
+    private static final String INPUT_IDS = "input_ids";
+    private static final String ATTENTION_MASK = "attention_mask";
+    private static final String TOKEN_TYPE_IDS = "token_type_ids";
+
+    private final String modelName;
+    private final OrtEnvironment environment;
+    private final OrtSession session;
+    private final WordPieceTokenizer tokenizer;
+    private final boolean useTokenTypeIds;
+
+    private List<String> labels = new ArrayList<>();
+    private int maxSequenceLength = 300;
+    private int batchSize = 20;
+    private boolean lowerCase = false;
+    private String activation = "none";
+
+    public OnnxTextClassifierModel(String modelName, File modelDirectory, int nbThreads) {
+        this.modelName = modelName;
+
+        File configFile = new File(modelDirectory, "config.json");
+        File graphFile = new File(modelDirectory, "model.onnx");
+        File vocabularyFile = new File(modelDirectory, "vocab.txt");
+        if (!configFile.exists() || !graphFile.exists() || !vocabularyFile.exists()) {
+            throw new GrobidResourceException("Invalid ONNX model directory for " + modelName +
+                ", model.onnx, vocab.txt and config.json are expected in " + modelDirectory.getAbsolutePath());
+        }
+
+        try {
+            JsonNode config = new ObjectMapper().readTree(configFile);
+            for (JsonNode label : config.path("labels")) {
+                this.labels.add(label.asText());
+            }
+            this.maxSequenceLength = config.path("max_sequence_length").asInt(this.maxSequenceLength);
+            this.batchSize = config.path("batch_size").asInt(this.batchSize);
+            this.lowerCase = config.path("do_lower_case").asBoolean(this.lowerCase);
+            this.activation = config.path("activation").asText(this.activation);
+        } catch (IOException e) {
+            throw new GrobidResourceException("Cannot read the ONNX model config file: " + configFile.getPath(), e);
+        }
+        if (this.labels.size() == 0)
+            throw new GrobidResourceException("No labels defined in the ONNX model config file: " + configFile.getPath());
+
+        this.tokenizer = new WordPieceTokenizer(vocabularyFile, this.lowerCase);
+
+        try {
+            this.environment = OrtEnvironment.getEnvironment();
+            OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+            if (nbThreads > 0)
+                options.setIntraOpNumThreads(nbThreads);
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            this.session = this.environment.createSession(graphFile.getAbsolutePath(), options);
+            this.useTokenTypeIds = this.session.getInputNames().contains(TOKEN_TYPE_IDS);
+        } catch (OrtException e) {
+            throw new GrobidResourceException("Cannot load the ONNX model: " + graphFile.getPath(), e);
+        }
+
+        LOGGER.info("ONNX classifier " + modelName + " loaded, labels: " + this.labels + 
+            ", graph size: " + (graphFile.length() / (1024 * 1024)) + " MB, intra-op threads: " + 
+            (nbThreads > 0 ? nbThreads : "default"));
+    }
+
+    @Override
+    public String classify(List<String> texts) throws Exception {
+        long start = System.currentTimeMillis();
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        root.put("model", this.modelName);
+        root.put("software", "onnxruntime");
+        root.put("date", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date()));
+        ArrayNode classifications = root.putArray("classifications");
+
+        for (int offset = 0; offset < texts.size(); offset += this.batchSize) {
+            // the request may be aborted between two batches
+            ProcessingDeadline.checkCurrent();
+            List<String> batch = texts.subList(offset, Math.min(offset + this.batchSize, texts.size()));
+            float[][] scores = classifyBatch(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                ObjectNode classification = classifications.addObject();
+                classification.put("text", batch.get(i));
+                for (int j = 0; j < this.labels.size(); j++) {
+                    classification.put(this.labels.get(j), (double) scores[i][j]);
+                }
+            }
+        }
+
+        root.put("runtime", (System.currentTimeMillis() - start) / 1000.0);
+        return mapper.writeValueAsString(root);
+    }
+
+    /**
+     * Run the model on a batch of texts, padded to the longest sequence of the batch
+     */
+    private float[][] classifyBatch(List<String> texts) throws OrtException {
+        int[][] encoded = new int[texts.size()][];
+        int maxLength = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            encoded[i] = this.tokenizer.encode(texts.get(i), this.maxSequenceLength);
+            maxLength = Math.max(maxLength, encoded[i].length);
+        }
+
+        long[][] inputIds = new long[texts.size()][maxLength];
+        long[][] attentionMask = new long[texts.size()][maxLength];
+        long[][] tokenTypeIds = new long[texts.size()][maxLength];
+        for (int i = 0; i < encoded.length; i++) {
+            for (int j = 0; j < maxLength; j++) {
+                if (j < encoded[i].length) {
+                    inputIds[i][j] = encoded[i][j];
+                    attentionMask[i][j] = 1;
+                } else {
+                    inputIds[i][j] = this.tokenizer.getPadId();
+                }
+            }
+        }
+
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        try {
+            inputs.put(INPUT_IDS, OnnxTensor.createTensor(this.environment, inputIds));
+            inputs.put(ATTENTION_MASK, OnnxTensor.createTensor(this.environment, attentionMask));
+            if (this.useTokenTypeIds)
+                inputs.put(TOKEN_TYPE_IDS, OnnxTensor.createTensor(this.environment, tokenTypeIds));
+
+            try (OrtSession.Result result = this.session.run(inputs)) {
+                float[][] scores = (float[][]) result.get(0).getValue();
+                for (float[] row : scores) {
+                    activate(row);
+                }
+                return scores;
+            }
+        } finally {
+            for (OnnxTensor tensor : inputs.values()) {
+                tensor.close();
+            }
+        }
+    }
+
+    private void activate(float[] row) {
+        if ("softmax".equals(this.activation)) {
+            float max = Float.NEGATIVE_INFINITY;
+            for (float value : row) {
+                max = Math.max(max, value);
+            }
+            double sum = 0.0;
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (float) Math.exp(row[i] - max);
+                sum += row[i];
+            }
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (float) (row[i] / sum);
+            }
+        } else if ("sigmoid".equals(this.activation)) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (float) (1.0 / (1.0 + Math.exp(-row[i])));
+            }
+        }
+    }
+
+    @Override
+    public String getModelName() {
+        return this.modelName;
+    }
+
+    @Override
+    public String getEngineName() {
+        return "onnx";
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.session.close();
+        } catch (OrtException e) {
+            LOGGER.warn("Failed to close the ONNX session of " + this.modelName, e);
+        }
+    }
+}
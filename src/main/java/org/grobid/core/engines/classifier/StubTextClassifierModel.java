@@ -0,0 +1,122 @@
+package org.grobid.core.engines.classifier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic stub text classifier, returning rule-based scores without any model, for
+ * benchmarking and testing the Java pipeline without the Deep Learning stack (engine "stub"
+ * in the config file).
+ *
+ * For each label, the score is high when the text contains one of the cue words associated
+ * to the label and low otherwise, with a small variation derived from the text hash so that
+ * the scores are not all identical. The same text always gets the same scores.
+ */
+public class StubTextClassifierModel implements TextClassifierModel {
+
+    private static final Pattern DATASET_CUES = Pattern.compile(
+        "(?i)\\b(data|dataset|datasets|database|repository|accession|deposited|corpus|survey|cohort)\\b");
+    private static final Pattern USED_CUES = Pattern.compile(
+        "(?i)\\b(used|using|use|obtained|downloaded|retrieved|analy[sz]ed|from)\\b");
+    private static final Pattern CREATION_CUES = Pattern.compile(
+        "(?i)\\b(we (collected|generated|produced|created|recorded)|newly|this study)\\b");
+    private static final Pattern SHARED_CUES = Pattern.compile(
+        "(?i)\\b(deposited|available|accession|repository|submitted|shared|upon request)\\b");
+
+    // data types returned for the first level of the data type hierarchy
+    private static final List<String> DATA_TYPES = Arrays.asList(
+        "Genetic Data", "Image", "Tabular data", "Sequence", "Other");
+
+    private static final Map<String, String[]> BINARY_LABELS = new HashMap<>();
+    static {
+        BINARY_LABELS.put("dataseer-binary", new String[] {"dataset", "no_dataset"});
+        BINARY_LABELS.put("dataseer-reuse", new String[] {"reuse", "not_reuse"});
+        BINARY_LABELS.put("context_used", new String[] {"used", "not_used"});
+        BINARY_LABELS.put("context_creation", new String[] {"creation", "not_creation"});
+        BINARY_LABELS.put("context_shared", new String[] {"shared", "not_shared"});
+    }
+
+    private final String modelName;
+
+    public StubTextClassifierModel(String modelName) {
+        this.modelName = modelName;
+    }
+
+    @Override
+    public String classify(List<String> texts) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        root.put("model", this.modelName);
+        root.put("software", "stub");
+        root.put("date", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date()));
+        ArrayNode classifications = root.putArray("classifications");
+
+        for (String text : texts) {
+            ObjectNode classification = classifications.addObject();
+            classification.put("text", text);
+
+            String[] binaryLabels = BINARY_LABELS.get(this.modelName);
+            if (binaryLabels != null) {
+                double score = score(text, binaryLabels[0], cues(binaryLabels[0]));
+                classification.put(binaryLabels[0], score);
+                classification.put(binaryLabels[1], 1.0 - score);
+            } else if (this.modelName.equals("dataseer-first")) {
+                int best = Math.floorMod(text.hashCode(), DATA_TYPES.size());
+                for (int i = 0; i < DATA_TYPES.size(); i++) {
+                    double score = (i == best) ? 0.8 : 0.2 / (DATA_TYPES.size() - 1);
+                    classification.put(DATA_TYPES.get(i), score);
+                }
+            } else {
+                // multi-label context classifier
+                classification.put("used", score(text, "used", USED_CUES));
+                classification.put("creation", score(text, "creation", CREATION_CUES));
+                classification.put("shared", score(text, "shared", SHARED_CUES));
+            }
+        }
+
+        root.put("runtime", 0.0);
+        return mapper.writeValueAsString(root);
+    }
+
+    private static Pattern cues(String label) {
+        if (label.equals("dataset"))
+            return DATASET_CUES;
+        else if (label.equals("creation"))
+            return CREATION_CUES;
+        else if (label.equals("shared"))
+            return SHARED_CUES;
+        else
+            return USED_CUES;
+    }
+
+    private static double score(String text, String label, Pattern cues) {
+        double variation = Math.floorMod((text + label).hashCode(), 100) / 1000.0;
+        if (text != null && cues.matcher(text).find())
+            return 0.85 + variation;
+        else
+            return 0.05 + variation;
+    }
+
+    @Override
+    public String getModelName() {
+        return this.modelName;
+    }
+
+    @Override
+    public String getEngineName() {
+        return "stub";
+    }
+
+    @Override
+    public void close() {
+    }
+}
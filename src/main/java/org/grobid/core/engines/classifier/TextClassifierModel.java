@@ -0,0 +1,38 @@
+package org.grobid.core.engines.classifier;
+
+import java.util.List;
+
+/**
+ * A text classifier model, independently from the engine used to run the inference.
+ *
+ * The classification results are returned in the DeLFT JSON format, so that the different
+ * backends can be used interchangeably:
+ *
+ * {
+ *     "model": "...",
+ *     "software": "...",
+ *     "date": "...",
+ *     "classifications": [
+ *         { "text": "...", "label_1": 0.96, "label_2": 0.04 },
+ *         ...
+ *     ],
+ *     "runtime": 0.12
+ * }
+ */
+public interface TextClassifierModel {
+
+    /**
+     * Classify a list of texts
+     * @return JSON string with the predicted labels/scores for each text, in the input order
+     */
+    String classify(List<String> texts) throws Exception;
+
+    String getModelName();
+
+    /**
+     * Name of the engine running the model, as indicated in the config file (delft, onnx, ...)
+     */
+    String getEngineName();
+
+    void close();
+}
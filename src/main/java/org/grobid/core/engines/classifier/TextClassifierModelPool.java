@@ -0,0 +1,163 @@
+package org.grobid.core.engines.classifier;
+
+import org.grobid.core.engines.ProcessingDeadline;
+import org.grobid.core.exceptions.GrobidException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A pool of inference workers for one classifier model. Each worker owns its own model instance
+ * and a dedicated thread, and a batch of texts to classify is dispatched to the worker with the
+ * lowest number of pending batches.
+ */
+public class TextClassifierModelPool implements TextClassifierModel {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextClassifierModelPool.class);
+
+    private final String modelName;
+    private final List<Worker> workers = new ArrayList<>();
+
+    private static class Worker {
+        private final TextClassifierModel model;
+        private final ExecutorService executor;
+        private final AtomicInteger pending = new AtomicInteger(0);
+
+        private Worker(TextClassifierModel model, ExecutorService executor) {
+            this.model = model;
+            this.executor = executor;
+        }
+    }
+
+    public TextClassifierModelPool(String modelName, int nbWorkers, Supplier<TextClassifierModel> modelSupplier) {
+        this.modelName = modelName;
+        for (int i = 0; i < nbWorkers; i++) {
+            long residentBefore = getResidentMemory();
+            TextClassifierModel model = modelSupplier.get();
+            long residentAfter = getResidentMemory();
+
+            final int rank = i;
+            ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "classifier-" + modelName + "-" + rank);
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.workers.add(new Worker(model, executor));
+
+            if (residentBefore >= 0 && residentAfter >= 0) {
+                LOGGER.info("inference worker " + i + " for " + modelName + " (" + model.getEngineName() + ") loaded, " +
+                    "resident memory: +" + (Math.max(0, residentAfter - residentBefore) / (1024 * 1024)) + " MB");
+            } else {
+                LOGGER.info("inference worker " + i + " for " + modelName + " (" + model.getEngineName() + ") loaded");
+            }
+        }
+    }
+
+    private static final Path PROCESS_STATUS = Paths.get("/proc/self/status");
+
+    /**
+     * Resident set size of the process in bytes, including the native allocations of the
+     * inference engines which are not visible in the JVM heap, or -1 when not available
+     * (non Linux system)
+     */
+    static long getResidentMemory() {
+        if (!Files.isReadable(PROCESS_STATUS))
+            return -1;
+        try {
+            for (String line : Files.readAllLines(PROCESS_STATUS, StandardCharsets.US_ASCII)) {
+                // e.g. "VmRSS:	  123456 kB"
+                if (line.startsWith("VmRSS:")) {
+                    String value = line.substring("VmRSS:".length()).replace("kB", "").trim();
+                    return Long.parseLong(value) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.debug("Cannot read the resident memory of the process", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Select the least loaded worker and count the batch as pending for this worker, atomically
+     * so that concurrent batches do not all select the same worker
+     */
+    private synchronized Worker selectWorker() {
+        Worker selected = this.workers.get(0);
+        for (Worker worker : this.workers) {
+            if (worker.pending.get() < selected.pending.get())
+                selected = worker;
+        }
+        selected.pending.incrementAndGet();
+        return selected;
+    }
+
+    @Override
+    public String classify(List<String> texts) throws Exception {
+        // dispatch to the least loaded worker
+        final Worker worker = selectWorker();
+        // the deadline of the request is checked by the worker, before and during the inference
+        final ProcessingDeadline deadline = ProcessingDeadline.current();
+        try {
+            Future<String> future = worker.executor.submit(() -> {
+                if (deadline == null)
+                    return worker.model.classify(texts);
+                deadline.bind();
+                try {
+                    deadline.check();
+                    return worker.model.classify(texts);
+                } finally {
+                    ProcessingDeadline.unbind();
+                }
+            });
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception)
+                throw (Exception) e.getCause();
+            throw new GrobidException("Inference failed for " + this.modelName, e.getCause());
+        } finally {
+            worker.pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Number of batches currently queued or running for each worker
+     */
+    public List<Integer> getQueueDepths() {
+        List<Integer> depths = new ArrayList<>();
+        for (Worker worker : this.workers) {
+            depths.add(worker.pending.get());
+        }
+        return depths;
+    }
+
+    @Override
+    public String getModelName() {
+        return this.modelName;
+    }
+
+    @Override
+    public String getEngineName() {
+        return this.workers.get(0).model.getEngineName();
+    }
+
+    @Override
+    public void close() {
+        for (Worker worker : this.workers) {
+            worker.executor.shutdown();
+            worker.model.close();
+        }
+    }
+}
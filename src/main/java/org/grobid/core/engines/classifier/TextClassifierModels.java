@@ -0,0 +1,75 @@
+package org.grobid.core.engines.classifier;
+
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.grobid.core.utilities.GrobidConfig.ModelParameters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * Create the text classifier models according to the engine indicated for each model in the
+ * config file:
+ * - delft (default): DeLFT model running in the embedded python interpreter
+ * - onnx: exported model running with ONNX Runtime in the JVM, the model files being located
+ *   under grobid-home/models/{model name}/onnx/
+ * - stub: deterministic rule-based scores without any model, for benchmarking and testing
+ *
+ * When several inference workers are configured (classifierWorkers), each model is loaded once
+ * per worker and the calls are dispatched over the workers. With DeLFT, all the models run in
+ * the same embedded python interpreter, so a single worker is always used for this engine.
+ */
+public class TextClassifierModels {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextClassifierModels.class);
+
+    public static final String ENGINE_DELFT = "delft";
+    public static final String ENGINE_ONNX = "onnx";
+    public static final String ENGINE_STUB = "stub";
+
+    public static TextClassifierModel create(String modelName, DatastetConfiguration configuration) {
+        ModelParameters parameters = configuration.getModel(modelName);
+        if (parameters == null)
+            throw new GrobidException("No model parameters in the config file for the classifier " + modelName);
+
+        String engine = parameters.engine;
+        if (engine == null)
+            engine = ENGINE_DELFT;
+
+        int nbWorkers = 1;
+        if (configuration.getClassifierWorkers() != null && configuration.getClassifierWorkers() > 1) {
+            if (engine.equals(ENGINE_DELFT) || engine.equals(ENGINE_STUB)) 
+                    LOGGER.warn("Only one inference worker is used with the " + engine + " engine, for model " + modelName);
+            else
+                nbWorkers = configuration.getClassifierWorkers();
+        }
+
+        if (nbWorkers == 1)
+            return create(modelName, engine, parameters, configuration, 0);
+
+        // the cores are shared among the workers
+        final String workerEngine = engine;
+        final int nbThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / nbWorkers);
+        return new TextClassifierModelPool(modelName, nbWorkers, 
+            () -> create(modelName, workerEngine, parameters, configuration, nbThreads));
+    }
+
+    private static TextClassifierModel create(String modelName, 
+                                              String engine, 
+                                              ModelParameters parameters, 
+                                              DatastetConfiguration configuration,
+                                              int nbThreads) {
+        if (engine.equals(ENGINE_ONNX)) {
+            File modelDirectory = new File(configuration.getGrobidHome(), "models" + File.separator +
+                modelName + File.separator + "onnx");
+            return new OnnxTextClassifierModel(modelName, modelDirectory, nbThreads);
+        } else if (engine.equals(ENGINE_STUB)) {
+            return new StubTextClassifierModel(modelName);
+        } else if (engine.equals(ENGINE_DELFT)) {
+            return new DeLFTTextClassifierModel(modelName, parameters.delft.architecture);
+        } else {
+            throw new GrobidException("Unsupported engine " + engine + " for the classifier " + modelName);
+        }
+    }
+}
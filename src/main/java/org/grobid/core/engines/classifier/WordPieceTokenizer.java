@@ -0,0 +1,230 @@
+package org.grobid.core.engines.classifier;
+
+import org.grobid.core.exceptions.GrobidResourceException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Java implementation of the BERT WordPiece tokenizer (basic tokenization followed by
+ * greedy longest-match-first sub-word segmentation), producing the same input ids as the
+ * HuggingFace BertTokenizer used by DeLFT for a given vocabulary file.
+ */
+public class WordPieceTokenizer {
+
+    public static final String CLS_TOKEN = "[CLS]";
+    public static final String SEP_TOKEN = "[SEP]";
+    public static final String PAD_TOKEN = "[PAD]";
+    public static final String UNK_TOKEN = "[UNK]";
+
+    private static final int MAX_CHARS_PER_WORD = 100;
+
+    private final Map<String, Integer> vocabulary;
+    private final boolean lowerCase;
+
+    private final int clsId;
+    private final int sepId;
+    private final int padId;
+    private final int unkId;
+
+    public WordPieceTokenizer(File vocabularyFile, boolean lowerCase) {
+        this.vocabulary = loadVocabulary(vocabularyFile);
+        this.lowerCase = lowerCase;
+        this.clsId = getId(CLS_TOKEN);
+        this.sepId = getId(SEP_TOKEN);
+        this.padId = getId(PAD_TOKEN);
+        this.unkId = getId(UNK_TOKEN);
+    }
+
+    private static Map<String, Integer> loadVocabulary(File vocabularyFile) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(vocabularyFile), UTF_8))) {
+            String line;
+            int index = 0;
+            while ((line = reader.readLine()) != null) {
+                vocabulary.put(line.trim(), index);
+                index++;
+            }
+        } catch (IOException e) {
+            throw new GrobidResourceException("Cannot read the WordPiece vocabulary file: " + vocabularyFile.getPath(), e);
+        }
+        return vocabulary;
+    }
+
+    private int getId(String token) {
+        Integer id = this.vocabulary.get(token);
+        if (id == null)
+            throw new GrobidResourceException("Special token " + token + " is missing in the WordPiece vocabulary");
+        return id;
+    }
+
+    public int getPadId() {
+        return this.padId;
+    }
+
+    /**
+     * Convert a text into input ids, starting with [CLS] and ending with [SEP], the sequence being
+     * truncated to the maximum length (special tokens included)
+     */
+    public int[] encode(String text, int maxSequenceLength) {
+        List<Integer> ids = new ArrayList<>();
+        ids.add(this.clsId);
+        for (String word : basicTokenize(text)) {
+            wordPiece(word, ids);
+            if (ids.size() >= maxSequenceLength - 1)
+                break;
+        }
+        int length = Math.min(ids.size(), maxSequenceLength - 1);
+        int[] result = new int[length + 1];
+        for (int i = 0; i < length; i++) {
+            result[i] = ids.get(i);
+        }
+        result[length] = this.sepId;
+        return result;
+    }
+
+    /**
+     * Text cleaning, whitespace and punctuation splitting, optional lowercasing and accent
+     * stripping, as in the BERT BasicTokenizer
+     */
+    protected List<String> basicTokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null)
+            return words;
+
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+
+            if (c == 0 || c == 0xFFFD || isControl(c))
+                continue;
+
+            if (isWhitespace(c)) {
+                flush(word, words);
+            } else if (isPunctuation(c) || isChinese(c)) {
+                flush(word, words);
+                words.add(new String(Character.toChars(c)));
+            } else {
+                word.appendCodePoint(c);
+            }
+        }
+        flush(word, words);
+        return words;
+    }
+
+    private void flush(StringBuilder word, List<String> words) {
+        if (word.length() == 0)
+            return;
+        String token = word.toString();
+        word.setLength(0);
+        if (this.lowerCase) {
+            token = stripAccents(token.toLowerCase());
+            // accent stripping can produce new punctuation characters
+            StringBuilder piece = new StringBuilder();
+            for (int i = 0; i < token.length(); ) {
+                int c = token.codePointAt(i);
+                i += Character.charCount(c);
+                if (isPunctuation(c)) {
+                    if (piece.length() > 0) {
+                        words.add(piece.toString());
+                        piece.setLength(0);
+                    }
+                    words.add(new String(Character.toChars(c)));
+                } else {
+                    piece.appendCodePoint(c);
+                }
+            }
+            if (piece.length() > 0)
+                words.add(piece.toString());
+        } else {
+            words.add(token);
+        }
+    }
+
+    /**
+     * Greedy longest-match-first segmentation of a word into known sub-words
+     */
+    private void wordPiece(String word, List<Integer> ids) {
+        if (word.codePointCount(0, word.length()) > MAX_CHARS_PER_WORD) {
+            ids.add(this.unkId);
+            return;
+        }
+
+        List<Integer> pieces = new ArrayList<>();
+        int start = 0;
+        while (start < word.length()) {
+            int end = word.length();
+            Integer currentId = null;
+            while (start < end) {
+                String candidate = word.substring(start, end);
+                if (start > 0)
+                    candidate = "##" + candidate;
+                currentId = this.vocabulary.get(candidate);
+                if (currentId != null)
+                    break;
+                end = word.offsetByCodePoints(end, -1);
+            }
+            if (currentId == null) {
+                ids.add(this.unkId);
+                return;
+            }
+            pieces.add(currentId);
+            start = end;
+        }
+        ids.addAll(pieces);
+    }
+
+    private static String stripAccents(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK)
+                result.append(c);
+        }
+        return result.toString();
+    }
+
+    private static boolean isWhitespace(int c) {
+        if (c == ' ' || c == '\t' || c == '\n' || c == '\r')
+            return true;
+        return Character.getType(c) == Character.SPACE_SEPARATOR;
+    }
+
+    private static boolean isControl(int c) {
+        if (c == '\t' || c == '\n' || c == '\r')
+            return false;
+        int type = Character.getType(c);
+        return type == Character.CONTROL || type == Character.FORMAT ||
+            type == Character.PRIVATE_USE || type == Character.SURROGATE;
+    }
+
+    private static boolean isPunctuation(int c) {
+        // all non-letter/number ASCII characters are considered as punctuation, like in BERT
+        if ((c >= 33 && c <= 47) || (c >= 58 && c <= 64) || (c >= 91 && c <= 96) || (c >= 123 && c <= 126))
+            return true;
+        int type = Character.getType(c);
+        return type == Character.CONNECTOR_PUNCTUATION || type == Character.DASH_PUNCTUATION ||
+            type == Character.START_PUNCTUATION || type == Character.END_PUNCTUATION ||
+            type == Character.INITIAL_QUOTE_PUNCTUATION || type == Character.FINAL_QUOTE_PUNCTUATION ||
+            type == Character.OTHER_PUNCTUATION;
+    }
+
+    private static boolean isChinese(int c) {
+        return (c >= 0x4E00 && c <= 0x9FFF) || (c >= 0x3400 && c <= 0x4DBF) ||
+            (c >= 0x20000 && c <= 0x2A6DF) || (c >= 0x2A700 && c <= 0x2B73F) ||
+            (c >= 0x2B740 && c <= 0x2B81F) || (c >= 0x2B820 && c <= 0x2CEAF) ||
+            (c >= 0xF900 && c <= 0xFAFF) || (c >= 0x2F800 && c <= 0x2FA1F);
+    }
+}
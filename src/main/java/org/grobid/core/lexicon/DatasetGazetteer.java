@@ -0,0 +1,323 @@
+package org.grobid.core.lexicon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.OffsetPosition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Gazetteer of known dataset names and acronyms compiled into a token-level Aho-Corasick
+ * automaton, so that all the names occurring in a sentence are found in one pass over its
+ * tokens, whatever the size of the gazetteer.
+ *
+ * The names are tokenized with the same tokenizer as the text, the whitespace tokens being
+ * ignored both in the names and in the text. Matching is case-sensitive, and overlapping
+ * matches are resolved leftmost-longest.
+ *
+ * The names file has one name per line, lines starting with # being comments. It can be built
+ * from the JSON Lines entity dump used for the dataset knowledge base, see main().
+ */
+public class DatasetGazetteer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetGazetteer.class);
+
+    private static final int ROOT = 0;
+
+    // token string -> token id
+    private final Map<String, Integer> vocabulary;
+
+    // goto function, open addressing table keyed by (state, token id)
+    private final long[] transitionKeys;
+    private final int[] transitionTargets;
+    private final int transitionMask;
+
+    // failure function
+    private final int[] failures;
+    // number of tokens of the longest name recognized in a state, 0 if none
+    private final int[] outputLengths;
+    // next state on the failure path recognizing a name, -1 if none
+    private final int[] outputLinks;
+
+    private final int size;
+
+    public DatasetGazetteer(Collection<String> names, Function<String, List<String>> tokenizer) {
+        vocabulary = new HashMap<>();
+
+        // trie of the token sequences of the names
+        List<Map<Integer, Integer>> trie = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        trie.add(new HashMap<>());
+        lengths.add(0);
+        int nbNames = 0;
+        int nbTransitions = 0;
+        for (String name : names) {
+            if (name == null)
+                continue;
+            int state = ROOT;
+            int length = 0;
+            for (String token : tokenizer.apply(name)) {
+                if (isWhitespace(token))
+                    continue;
+                Integer tokenId = vocabulary.get(token);
+                if (tokenId == null) {
+                    tokenId = vocabulary.size();
+                    vocabulary.put(token, tokenId);
+                }
+                Integer next = trie.get(state).get(tokenId);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    lengths.add(0);
+                    trie.get(state).put(tokenId, next);
+                    nbTransitions++;
+                }
+                state = next;
+                length++;
+            }
+            if (length > 0 && lengths.get(state) == 0) {
+                lengths.set(state, length);
+                nbNames++;
+            }
+        }
+        size = nbNames;
+
+        int nbStates = trie.size();
+        int capacity = 16;
+        while (capacity < nbTransitions * 2)
+            capacity <<= 1;
+        transitionKeys = new long[capacity];
+        Arrays.fill(transitionKeys, -1L);
+        transitionTargets = new int[capacity];
+        transitionMask = capacity - 1;
+        outputLengths = new int[nbStates];
+        for (int state = 0; state < nbStates; state++) {
+            outputLengths[state] = lengths.get(state);
+            for (Map.Entry<Integer, Integer> transition : trie.get(state).entrySet()) {
+                long key = key(state, transition.getKey());
+                int slot = slot(key);
+                while (transitionKeys[slot] != -1L)
+                    slot = (slot + 1) & transitionMask;
+                transitionKeys[slot] = key;
+                transitionTargets[slot] = transition.getValue();
+            }
+        }
+
+        // failure and output links, breadth-first
+        failures = new int[nbStates];
+        outputLinks = new int[nbStates];
+        Arrays.fill(outputLinks, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (Integer child : trie.get(ROOT).values()) {
+            failures[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Integer, Integer> transition : trie.get(state).entrySet()) {
+                int child = transition.getValue();
+                int failure = failures[state];
+                int next;
+                while ((next = next(failure, transition.getKey())) == -1 && failure != ROOT)
+                    failure = failures[failure];
+                failures[child] = next == -1 ? ROOT : next;
+                int failureState = failures[child];
+                outputLinks[child] = outputLengths[failureState] > 0 ? failureState : outputLinks[failureState];
+                queue.add(child);
+            }
+        }
+
+        LOGGER.info("Dataset gazetteer: " + size + " names, " + nbStates + " states, " + vocabulary.size() + " tokens");
+    }
+
+    /**
+     * Load a gazetteer from a names file, one name per line
+     */
+    public static DatasetGazetteer load(File file, Function<String, List<String>> tokenizer) {
+        List<String> names = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#"))
+                    continue;
+                names.add(line);
+            }
+        } catch (IOException e) {
+            throw new GrobidResourceException("Cannot read the dataset gazetteer file: " + file.getPath(), e);
+        }
+        return new DatasetGazetteer(names, tokenizer);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the dataset names of the gazetteer in a sequence of layout tokens.
+     *
+     * @return the positions of the matched names as token index, end included
+     */
+    public List<OffsetPosition> matchLayoutTokens(final List<LayoutToken> tokens) {
+        return match(new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return tokens.get(index).getText();
+            }
+
+            @Override
+            public int size() {
+                return tokens.size();
+            }
+        });
+    }
+
+    /**
+     * Find the dataset names of the gazetteer in a sequence of tokens.
+     *
+     * @return the positions of the matched names as token index, end included
+     */
+    public List<OffsetPosition> match(List<String> tokens) {
+        List<OffsetPosition> result = new ArrayList<>();
+        if (tokens == null || tokens.size() == 0 || size == 0)
+            return result;
+
+        // index of the non-whitespace tokens, a name of n tokens starts n such tokens before
+        int[] tokenIndexes = new int[tokens.size()];
+        int nbTokens = 0;
+        // longest match starting at each token index, end index or -1
+        int[] longestEnds = null;
+
+        int state = ROOT;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token == null || isWhitespace(token))
+                continue;
+            tokenIndexes[nbTokens++] = i;
+
+            Integer tokenId = vocabulary.get(token);
+            if (tokenId == null) {
+                state = ROOT;
+                continue;
+            }
+            int next;
+            while ((next = next(state, tokenId)) == -1 && state != ROOT)
+                state = failures[state];
+            state = next == -1 ? ROOT : next;
+
+            int output = outputLengths[state] > 0 ? state : outputLinks[state];
+            while (output != -1) {
+                int start = tokenIndexes[nbTokens - outputLengths[output]];
+                if (longestEnds == null) {
+                    longestEnds = new int[tokens.size()];
+                    Arrays.fill(longestEnds, -1);
+                }
+                if (i > longestEnds[start])
+                    longestEnds[start] = i;
+                output = outputLinks[output];
+            }
+        }
+        if (longestEnds == null)
+            return result;
+
+        // leftmost-longest non overlapping matches
+        int i = 0;
+        while (i < tokens.size()) {
+            if (longestEnds[i] != -1) {
+                result.add(new OffsetPosition(i, longestEnds[i]));
+                i = longestEnds[i] + 1;
+            } else {
+                i++;
+            }
+        }
+        return result;
+    }
+
+    private int next(int state, int tokenId) {
+        long key = key(state, tokenId);
+        int slot = slot(key);
+        long candidate;
+        while ((candidate = transitionKeys[slot]) != -1L) {
+            if (candidate == key)
+                return transitionTargets[slot];
+            slot = (slot + 1) & transitionMask;
+        }
+        return -1;
+    }
+
+    private static long key(int state, int tokenId) {
+        return ((long) state << 32) | (tokenId & 0xffffffffL);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & transitionMask;
+    }
+
+    private static boolean isWhitespace(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (!Character.isWhitespace(c) && c != '\u00A0')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Extract a names file from the JSON Lines entity dump used to build the dataset knowledge
+     * base (see DatasetKnowledgeBaseBuilder): the labels and aliases of the entities, keeping only
+     * the names with an upper-case letter or a digit and at least 3 characters, to favor the
+     * precision of the matches.
+     *
+     * Usage: DatasetGazetteer input.jsonl[.gz] output.txt
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DatasetGazetteer input.jsonl[.gz] output.txt");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        InputStream inputStream = new FileInputStream(input);
+        if (input.getName().endsWith(".gz"))
+            inputStream = new GZIPInputStream(inputStream);
+
+        ObjectMapper mapper = new ObjectMapper();
+        Set<String> names = new TreeSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().length() == 0)
+                    continue;
+                JsonNode entity = mapper.readTree(line);
+                for (String field : Arrays.asList("labels", "aliases")) {
+                    JsonNode values = entity.get(field);
+                    if (values == null || !values.isArray())
+                        continue;
+                    for (JsonNode value : values) {
+                        String name = value.asText().trim().replaceAll("\\s+", " ");
+                        if (name.length() >= 3 && (!name.equals(name.toLowerCase()) || name.matches(".*[0-9].*")))
+                            names.add(name);
+                    }
+                }
+            }
+        }
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(args[1]), StandardCharsets.UTF_8)) {
+            writer.write("# dataset names extracted from " + input.getName() + "\n");
+            for (String name : names) {
+                writer.write(name);
+                writer.write("\n");
+            }
+        }
+        System.out.println(names.size() + " dataset names written in " + args[1]);
+    }
+}
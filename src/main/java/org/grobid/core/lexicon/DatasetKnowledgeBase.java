@@ -0,0 +1,220 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.exceptions.GrobidResourceException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only, memory-mapped index of dataset-like knowledge base entities (Wikidata/DataCite subset),
+ * used for local disambiguation without network access. The index is created by
+ * DatasetKnowledgeBaseBuilder.
+ *
+ * File layout (big endian):
+ * - header (32 bytes): magic, version, number of entities, number of keys, offset of the key
+ *   section, offset of the entity offset table, offset of the entity section
+ * - key section: for each normalized label or alias, sorted by hash, 16 bytes: label hash (long),
+ *   entity index (int), key type (int, 0 for a label, 1 for an alias)
+ * - entity offset table: for each entity, the offset (int) of its record in the entity section
+ * - entity section, for each entity: identifier length (byte) and identifier (UTF-8), wikipedia
+ *   external ref (int, -1 if none), prior (float, between 0 and 1), flags (byte), number of
+ *   context keywords (short) and keyword hashes (int, sorted)
+ */
+public class DatasetKnowledgeBase {
+
+    public static final int MAGIC = 0x44534b42;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int KEY_SIZE = 16;
+
+    public static final int KEY_LABEL = 0;
+    public static final int KEY_ALIAS = 1;
+
+    // entity flags
+    public static final int FLAG_DATASET_TYPE = 1;
+    public static final int FLAG_DATASET_URL = 2;
+    public static final int FLAG_DATASET_PROPERTY = 4;
+
+    private final MappedByteBuffer buffer;
+    private final int nbEntities;
+    private final int nbKeys;
+    private final int keysOffset;
+    private final int entityTableOffset;
+    private final int entitiesOffset;
+
+    /**
+     * Candidate entity for a mention
+     */
+    public static class Candidate {
+        private final String id;
+        private final int wikipediaExternalRef;
+        private final float prior;
+        private final int flags;
+        private final int[] keywords;
+        private final boolean alias;
+
+        Candidate(String id, int wikipediaExternalRef, float prior, int flags, int[] keywords, boolean alias) {
+            this.id = id;
+            this.wikipediaExternalRef = wikipediaExternalRef;
+            this.prior = prior;
+            this.flags = flags;
+            this.keywords = keywords;
+            this.alias = alias;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getWikipediaExternalRef() {
+            return wikipediaExternalRef;
+        }
+
+        public float getPrior() {
+            return prior;
+        }
+
+        public int getFlags() {
+            return flags;
+        }
+
+        /**
+         * Sorted hashes of the context keywords of the entity
+         */
+        public int[] getKeywords() {
+            return keywords;
+        }
+
+        /**
+         * True if the mention matches an alias of the entity and not its label
+         */
+        public boolean isAlias() {
+            return alias;
+        }
+    }
+
+    public DatasetKnowledgeBase(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            if (input.length() > Integer.MAX_VALUE)
+                throw new GrobidResourceException("Dataset knowledge base index too large: " + file.getPath());
+            buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+        } catch(IOException e) {
+            throw new GrobidResourceException("Cannot open the dataset knowledge base index: " + file.getPath(), e);
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new GrobidResourceException("Invalid dataset knowledge base index: " + file.getPath());
+        nbEntities = buffer.getInt(8);
+        nbKeys = buffer.getInt(12);
+        keysOffset = buffer.getInt(16);
+        entityTableOffset = buffer.getInt(20);
+        entitiesOffset = buffer.getInt(24);
+    }
+
+    public int getNbEntities() {
+        return nbEntities;
+    }
+
+    /**
+     * Normalized form of a label or of a mention used as key of the index
+     */
+    public static String normalize(String label) {
+        if (label == null)
+            return null;
+        StringBuilder builder = new StringBuilder(label.length());
+        boolean space = false;
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = builder.length() > 0;
+            } else {
+                if (space)
+                    builder.append(' ');
+                space = false;
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    public static long hash(String key) {
+        // FNV-1a 64 bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Hash of a context keyword, words are lower-cased
+     */
+    public static int keywordHash(String word) {
+        return word.toLowerCase().hashCode();
+    }
+
+    /**
+     * @return the candidate entities for a mention, empty if the mention is not a known label or alias
+     */
+    public List<Candidate> lookup(String mention) {
+        List<Candidate> candidates = new ArrayList<>();
+        String key = normalize(mention);
+        if (key == null || key.length() == 0)
+            return candidates;
+        long hash = hash(key);
+
+        // binary search of the first key with this hash
+        int low = 0;
+        int high = nbKeys - 1;
+        int first = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleHash = buffer.getLong(keysOffset + middle * KEY_SIZE);
+            if (middleHash < hash) {
+                low = middle + 1;
+            } else {
+                if (middleHash == hash)
+                    first = middle;
+                high = middle - 1;
+            }
+        }
+        if (first == -1)
+            return candidates;
+
+        for (int i = first; i < nbKeys; i++) {
+            int position = keysOffset + i * KEY_SIZE;
+            if (buffer.getLong(position) != hash)
+                break;
+            int entityIndex = buffer.getInt(position + 8);
+            boolean alias = buffer.getInt(position + 12) == KEY_ALIAS;
+            candidates.add(readEntity(entityIndex, alias));
+        }
+        return candidates;
+    }
+
+    private Candidate readEntity(int entityIndex, boolean alias) {
+        int position = entitiesOffset + buffer.getInt(entityTableOffset + entityIndex * 4);
+        int idLength = buffer.get(position) & 0xff;
+        byte[] idBytes = new byte[idLength];
+        for (int i = 0; i < idLength; i++) {
+            idBytes[i] = buffer.get(position + 1 + i);
+        }
+        position += 1 + idLength;
+        int wikipediaExternalRef = buffer.getInt(position);
+        float prior = buffer.getFloat(position + 4);
+        int flags = buffer.get(position + 8);
+        int nbKeywords = buffer.getShort(position + 9) & 0xffff;
+        int[] keywords = new int[nbKeywords];
+        for (int i = 0; i < nbKeywords; i++) {
+            keywords[i] = buffer.getInt(position + 11 + i * 4);
+        }
+        return new Candidate(new String(idBytes, StandardCharsets.UTF_8), wikipediaExternalRef, prior, flags, keywords, alias);
+    }
+}
@@ -0,0 +1,271 @@
+package org.grobid.core.lexicon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compile a subset of dataset-like knowledge base entities into the memory-mapped index read by
+ * DatasetKnowledgeBase.
+ *
+ * The input is a JSON Lines file (optionally gzipped), one entity per line, typically extracted
+ * from a Wikidata dump and from DataCite records:
+ *
+ * {"id": "Q1234", "labels": ["..."], "aliases": ["..."], "types": ["Q1172284"],
+ *  "urls": ["https://zenodo.org/..."], "properties": ["P5874"], "description": "...",
+ *  "sitelinks": 12, "wikipediaExternalRef": 5678}
+ *
+ * Only id and labels are mandatory. The types (P31 values), official URLs (P856) and properties
+ * are used to flag the entities which are clearly datasets, the description provides the context
+ * keywords and the number of sitelinks the prior of the entity.
+ *
+ * Usage: DatasetKnowledgeBaseBuilder input.jsonl[.gz] output.kb
+ */
+public class DatasetKnowledgeBaseBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetKnowledgeBaseBuilder.class);
+
+    private static final int MAX_KEYWORDS = 32;
+    private static final int MAX_ID_LENGTH = 255;
+
+    // P31 values of dataset entities: data set, database
+    private static final Set<String> DATASET_TYPES = new LinkedHashSet<>(Arrays.asList("Q1172284", "Q8513"));
+
+    // P5874: re3data repository ID, P5195: Wikidata Dataset Imports page, P2666: Datahub page,
+    // P6526: data.gouv.fr dataset ID, P2702: dataset distribution
+    private static final Set<String> DATASET_PROPERTIES =
+        new LinkedHashSet<>(Arrays.asList("P5874", "P5195", "P2666", "P6526", "P2702"));
+
+    // main data sharing sites as possible dataset web page
+    private static final List<String> DATASET_SITES = Arrays.asList("datacite", "zenodo", "dryad",
+        "figshare", "pangaea", "osf", "kaggle", "mendeley", "github");
+
+    private static class Entity {
+        String id;
+        List<String> labels = new ArrayList<>();
+        List<String> aliases = new ArrayList<>();
+        int wikipediaExternalRef = -1;
+        int sitelinks = 0;
+        int flags = 0;
+        int[] keywords;
+    }
+
+    private static class Key implements Comparable<Key> {
+        final long hash;
+        final int entityIndex;
+        final int type;
+
+        Key(long hash, int entityIndex, int type) {
+            this.hash = hash;
+            this.entityIndex = entityIndex;
+            this.type = type;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int comparison = Long.compare(hash, other.hash);
+            if (comparison == 0)
+                comparison = Integer.compare(type, other.type);
+            if (comparison == 0)
+                comparison = Integer.compare(entityIndex, other.entityIndex);
+            return comparison;
+        }
+    }
+
+    public static void build(File input, File output) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Entity> entities = readEntities(input);
+
+        int maxSitelinks = 0;
+        for (Entity entity : entities) {
+            maxSitelinks = Math.max(maxSitelinks, entity.sitelinks);
+        }
+
+        // entity records and keys
+        ByteArrayOutputStream entityBytes = new ByteArrayOutputStream();
+        DataOutputStream entityOutput = new DataOutputStream(entityBytes);
+        int[] entityOffsets = new int[entities.size()];
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            entityOffsets[i] = entityOutput.size();
+            byte[] id = entity.id.getBytes(StandardCharsets.UTF_8);
+            entityOutput.writeByte(id.length);
+            entityOutput.write(id);
+            entityOutput.writeInt(entity.wikipediaExternalRef);
+            float prior = maxSitelinks == 0 ? 0.0f :
+                (float) (Math.log(1 + entity.sitelinks) / Math.log(1 + maxSitelinks));
+            entityOutput.writeFloat(prior);
+            entityOutput.writeByte(entity.flags);
+            entityOutput.writeShort(entity.keywords.length);
+            for (int keyword : entity.keywords) {
+                entityOutput.writeInt(keyword);
+            }
+
+            Set<String> seen = new LinkedHashSet<>();
+            for (String label : entity.labels) {
+                String key = DatasetKnowledgeBase.normalize(label);
+                if (key.length() > 0 && seen.add(key))
+                    keys.add(new Key(DatasetKnowledgeBase.hash(key), i, DatasetKnowledgeBase.KEY_LABEL));
+            }
+            for (String alias : entity.aliases) {
+                String key = DatasetKnowledgeBase.normalize(alias);
+                if (key.length() > 0 && seen.add(key))
+                    keys.add(new Key(DatasetKnowledgeBase.hash(key), i, DatasetKnowledgeBase.KEY_ALIAS));
+            }
+        }
+        entityOutput.flush();
+        keys.sort(null);
+
+        int keysOffset = DatasetKnowledgeBase.HEADER_SIZE;
+        int entityTableOffset = keysOffset + keys.size() * DatasetKnowledgeBase.KEY_SIZE;
+        int entitiesOffset = entityTableOffset + entities.size() * 4;
+        if (((long) entitiesOffset) + entityBytes.size() > Integer.MAX_VALUE)
+            throw new IOException("Too many entities for a single index file");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+            out.writeInt(DatasetKnowledgeBase.MAGIC);
+            out.writeInt(DatasetKnowledgeBase.VERSION);
+            out.writeInt(entities.size());
+            out.writeInt(keys.size());
+            out.writeInt(keysOffset);
+            out.writeInt(entityTableOffset);
+            out.writeInt(entitiesOffset);
+            out.writeInt(0);
+            for (Key key : keys) {
+                out.writeLong(key.hash);
+                out.writeInt(key.entityIndex);
+                out.writeInt(key.type);
+            }
+            for (int offset : entityOffsets) {
+                out.writeInt(offset);
+            }
+            entityBytes.writeTo(out);
+        }
+
+        LOGGER.info("Dataset knowledge base index built: " + entities.size() + " entities, " + keys.size() +
+            " labels and aliases, " + (output.length() / 1024) + " KB, in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static List<Entity> readEntities(File input) throws IOException {
+        List<Entity> entities = new ArrayList<>();
+        ObjectMapper mapper = new ObjectMapper();
+        InputStream inputStream = new FileInputStream(input);
+        if (input.getName().endsWith(".gz"))
+            inputStream = new GZIPInputStream(inputStream);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().length() == 0)
+                    continue;
+                JsonNode node;
+                try {
+                    node = mapper.readTree(line);
+                } catch(IOException e) {
+                    LOGGER.warn("Invalid JSON at line " + lineNumber + ", skipped");
+                    continue;
+                }
+
+                Entity entity = new Entity();
+                entity.id = node.path("id").asText(null);
+                if (entity.id == null || entity.id.length() == 0 ||
+                    entity.id.getBytes(StandardCharsets.UTF_8).length > MAX_ID_LENGTH) {
+                    LOGGER.warn("Missing or invalid id at line " + lineNumber + ", skipped");
+                    continue;
+                }
+                addValues(node.path("labels"), entity.labels);
+                addValues(node.path("label"), entity.labels);
+                addValues(node.path("aliases"), entity.aliases);
+                if (entity.labels.size() == 0 && entity.aliases.size() == 0)
+                    continue;
+                entity.wikipediaExternalRef = node.path("wikipediaExternalRef").asInt(-1);
+                entity.sitelinks = node.path("sitelinks").asInt(0);
+
+                for (JsonNode type : node.path("types")) {
+                    if (DATASET_TYPES.contains(type.asText()))
+                        entity.flags |= DatasetKnowledgeBase.FLAG_DATASET_TYPE;
+                }
+                for (JsonNode property : node.path("properties")) {
+                    if (DATASET_PROPERTIES.contains(property.asText()))
+                        entity.flags |= DatasetKnowledgeBase.FLAG_DATASET_PROPERTY;
+                }
+                for (JsonNode url : node.path("urls")) {
+                    String value = url.asText().toLowerCase();
+                    for (String site : DATASET_SITES) {
+                        if (value.contains(site)) {
+                            entity.flags |= DatasetKnowledgeBase.FLAG_DATASET_URL;
+                            break;
+                        }
+                    }
+                }
+                entity.keywords = getKeywords(node.path("description").asText(""));
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    private static void addValues(JsonNode node, List<String> values) {
+        if (node.isArray()) {
+            for (JsonNode value : node) {
+                if (value.isTextual())
+                    values.add(value.asText());
+            }
+        } else if (node.isTextual()) {
+            values.add(node.asText());
+        }
+    }
+
+    /**
+     * Sorted hashes of the distinct words of at least 3 letters of a description
+     */
+    static int[] getKeywords(String description) {
+        Set<Integer> keywords = new LinkedHashSet<>();
+        for (String word : description.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() < 3)
+                continue;
+            keywords.add(DatasetKnowledgeBase.keywordHash(word));
+            if (keywords.size() == MAX_KEYWORDS)
+                break;
+        }
+        int[] result = new int[keywords.size()];
+        int i = 0;
+        for (Integer keyword : keywords) {
+            result[i++] = keyword;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: DatasetKnowledgeBaseBuilder input.jsonl[.gz] output.kb");
+            System.exit(1);
+        }
+        File output = new File(args[1]);
+        if (output.getParentFile() != null)
+            output.getParentFile().mkdirs();
+        build(new File(args[0]), output);
+    }
+}
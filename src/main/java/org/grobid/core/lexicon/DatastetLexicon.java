@@ -7,7 +7,6 @@ import org.grobid.core.utilities.Pair;
 import org.grobid.core.utilities.OffsetPosition;
 import org.grobid.core.utilities.LayoutTokensUtil;
 import org.grobid.core.utilities.Utilities;
-import org.grobid.core.lexicon.FastMatcher;
 import org.grobid.core.layout.LayoutToken;
 
 import java.util.regex.Pattern;
@@ -18,7 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.*;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.*;
 
 /**
  * Class for managing the lexical resources for datastet
@@ -29,19 +28,24 @@ public class DatastetLexicon {
 
     private static Logger LOGGER = LoggerFactory.getLogger(DatastetLexicon.class);
 
-    private Set<String> Datasetocabulary = null;
-    private FastMatcher DatasetPattern = null;
-
-    private Map<String, Double> termIDF = null;
-
     // the list of P31 and P279 values of the Wikidata dataset entities
     private List<String> propertyValues = null;
 
-    private List<String> englishStopwords = null;
-    private List<String> blackListBioMed = null;
+    // current state of the lexical resources, swapped atomically when reloaded
+    private volatile LexiconSnapshot snapshot = null;
+
+    // snapshots pinned by a thread for the processing of a request, the last pinned first
+    private final ThreadLocal<Deque<LexiconSnapshot>> pinnedSnapshots = new ThreadLocal<>();
 
-    private Set<String> doiPrefixes = null;
-    private Set<String> urlDomains = null;
+    // rebuild of the snapshots in the background and check of the lexicon files
+    private final ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "datastet-lexicon-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> watcher = null;
+    // modification time of lexicon files which failed to load, not retried until modified again
+    private volatile long failedLastModified = 0;
 
     private static volatile DatastetLexicon instance;
 
@@ -60,217 +64,109 @@ public class DatastetLexicon {
         Lexicon.getInstance();
         // init the lexicon
         LOGGER.info("Init Datastet lexicon");
+        snapshot = LexiconSnapshot.load();
+    }
 
-        // term idf
-        File file = new File("resources/lexicon/idf.label.en.txt.gz").getAbsoluteFile();
-        file = new File(file.getAbsolutePath());
-        if (!file.exists()) {
-            throw new GrobidResourceException("Cannot initialize dataset dictionary, because file '" + 
-                file.getAbsolutePath() + "' does not exists.");
-        }
-        if (!file.canRead()) {
-            throw new GrobidResourceException("Cannot initialize dataset dictionary, because cannot read file '" + 
-                file.getAbsolutePath() + "'.");
-        }
-
-        BufferedReader dis = null;
-        // read the idf file
-        try {
-            termIDF = new TreeMap<String, Double>();
-
-            dis = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), "UTF-8"));
-            //dis = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-            String l = null;
-            while ((l = dis.readLine()) != null) {
-                if (l.length() == 0) continue;
-
-                String[] pieces = l.split("\t");
-                if (pieces.length != 2) {
-                    LOGGER.warn("Invalid term/idf line format: " + l);
-                    continue;
-                }
-
-                String term = pieces[0];
-                String idfString = pieces[1];
-                double idf = 0.0;
-                try {
-                    idf = Double.parseDouble(idfString);
-                } catch(Exception e) {
-                    LOGGER.warn("Invalid idf format: " + idfString);
-                    continue;
-                }
+    /**
+     * @return the snapshot of the lexical resources pinned by the current thread, or the current
+     * snapshot if none is pinned
+     */
+    public LexiconSnapshot getSnapshot() {
+        Deque<LexiconSnapshot> pinned = pinnedSnapshots.get();
+        if (pinned != null && !pinned.isEmpty())
+            return pinned.peek();
+        return snapshot;
+    }
 
-                termIDF.put(term, Double.valueOf(idf));
-            }
-        } catch (FileNotFoundException e) {
-            throw new GrobidException("SoftwareLexicon file not found.", e);
-        } catch (IOException e) {
-            throw new GrobidException("Cannot read SoftwareLexicon file.", e);
-        } finally {
-            try {
-                if (dis != null)
-                    dis.close();
-            } catch(Exception e) {
-                throw new GrobidResourceException("Cannot close IO stream.", e);
-            }
-        }
+    /**
+     * Pin the snapshot of the lexical resources for the current thread, so that a request keeps
+     * the same resources during its processing even if the lexicon is reloaded. A pin must be
+     * released with unpin() by the same thread, typically in a finally block. Nested pins keep
+     * the snapshot of the outer one.
+     *
+     * @return the pinned snapshot
+     */
+    public LexiconSnapshot pin() {
+        return pin(getSnapshot());
+    }
 
-        // read the datacite DOI prefixes
-        file = new File("resources/lexicon/doiPrefixes.txt").getAbsoluteFile();
-        file = new File(file.getAbsolutePath());
-        if (!file.exists()) {
-            throw new GrobidResourceException("Cannot initialize DatasetLexicon DOI prefix file, because file '" + 
-                file.getAbsolutePath() + "' does not exists.");
-        }
-        if (!file.canRead()) {
-            throw new GrobidResourceException("Cannot initialize DatasetLexicon DOI prefix file, because cannot read file '" + 
-                file.getAbsolutePath() + "'.");
+    /**
+     * Pin a given snapshot for the current thread, e.g. in a background task of a request
+     */
+    public LexiconSnapshot pin(LexiconSnapshot lexiconSnapshot) {
+        Deque<LexiconSnapshot> pinned = pinnedSnapshots.get();
+        if (pinned == null) {
+            pinned = new ArrayDeque<>();
+            pinnedSnapshots.set(pinned);
         }
+        pinned.push(lexiconSnapshot);
+        return lexiconSnapshot;
+    }
 
-        dis = null;
-        try {
-            doiPrefixes = new HashSet<>();
-
-            dis = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-            String l = null;
-            while ((l = dis.readLine()) != null) {
-                l = l.trim();
-                if (l.length() == 0) 
-                    continue;
-                doiPrefixes.add(l);
-            }
-        } catch (FileNotFoundException e) {
-            throw new GrobidException("DatasetLexicon DOI prefix file not found.", e);
-        } catch (IOException e) {
-            throw new GrobidException("Cannot read DatasetLexicon DOI prefix file.", e);
-        } finally {
-            try {
-                if (dis != null)
-                    dis.close();
-            } catch(Exception e) {
-                throw new GrobidResourceException("DatasetLexicon DOI prefix file: cannot close IO stream.", e);
-            }
-        }
+    public void unpin() {
+        Deque<LexiconSnapshot> pinned = pinnedSnapshots.get();
+        if (pinned == null)
+            return;
+        pinned.poll();
+        if (pinned.isEmpty())
+            pinnedSnapshots.remove();
+    }
 
-        // read the data source url domains 
-        file = new File("resources/lexicon/domains.txt").getAbsoluteFile();
-        file = new File(file.getAbsolutePath());
-        if (!file.exists()) {
-            throw new GrobidResourceException("Cannot initialize DatasetLexicon url domain file, because file '" + 
-                file.getAbsolutePath() + "' does not exists.");
-        }
-        if (!file.canRead()) {
-            throw new GrobidResourceException("Cannot initialize DatasetLexicon url domain file, because cannot read file '" + 
-                file.getAbsolutePath() + "'.");
-        }
-        dis = null;
+    /**
+     * Rebuild the snapshot of the lexical resources from the lexicon files and swap it with the
+     * current one. The requests in progress keep their pinned snapshot. If the files cannot be
+     * loaded, the current snapshot is kept and an exception is thrown.
+     *
+     * @return the new snapshot
+     */
+    public synchronized LexiconSnapshot reload() {
+        LexiconSnapshot previous = snapshot;
+        LexiconSnapshot newSnapshot = null;
         try {
-            urlDomains = new HashSet<>();
-
-            dis = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-            String l = null;
-            while ((l = dis.readLine()) != null) {
-                l = l.trim();
-                if (l.length() == 0) 
-                    continue;
-                urlDomains.add(l);
-            }
-        } catch (FileNotFoundException e) {
-            throw new GrobidException("DatasetLexicon url domain file not found.", e);
-        } catch (IOException e) {
-            throw new GrobidException("Cannot read DatasetLexicon url domain file.", e);
-        } finally {
-            try {
-                if (dis != null)
-                    dis.close();
-            } catch(Exception e) {
-                throw new GrobidResourceException("DatasetLexicon url domain file: cannot close IO stream.", e);
-            }
+            newSnapshot = LexiconSnapshot.load();
+        } catch(Exception e) {
+            failedLastModified = LexiconSnapshot.getLastModified(new File(LexiconSnapshot.LEXICON_PATH).getAbsoluteFile());
+            LOGGER.error("Reloading the lexicon failed, the lexicon " + previous.getVersion() + " is kept", e);
+            throw e;
         }
+        snapshot = newSnapshot;
+        LOGGER.info("Lexicon " + previous.getVersion() + " replaced by lexicon " + newSnapshot.getVersion());
+        return newSnapshot;
+    }
 
-        // a list of stopwords for English for conservative checks with dataset names
-        englishStopwords = new ArrayList<>();
-        file = new File("resources/lexicon/stopwords_en.txt");
-        file = new File(file.getAbsolutePath());
-        if (!file.exists()) {
-            throw new GrobidResourceException("Cannot initialize English stopwords, because file '" + 
-                file.getAbsolutePath() + "' does not exists.");
-        }
-        if (!file.exists()) {
-            throw new GrobidResourceException("Cannot initialize English stopwords, because file '" + 
-                file.getAbsolutePath() + "' does not exists.");
-        }
-        if (!file.canRead()) {
-            throw new GrobidResourceException("Cannot initialize English stopwords, because cannot read file '" + 
-                file.getAbsolutePath() + "'.");
-        }
-        if (!file.canRead()) {
-            throw new GrobidResourceException("Cannot initialize English stopwords, because cannot read file '" + 
-                file.getAbsolutePath() + "'.");
-        }
-        // read the file
-        try {
-            dis = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-            String l = null;
-            while ((l = dis.readLine()) != null) {
-                if (l.length() == 0) continue;
-                englishStopwords.add(l.trim());
-            }
-        } catch (FileNotFoundException e) {
-            throw new GrobidException("English stopwords file not found.", e);
-        } catch (IOException e) {
-            throw new GrobidException("Cannot read English stopwords file.", e);
-        } finally {
-            try {
-                if (dis != null)
-                    dis.close();
-            } catch(Exception e) {
-                throw new GrobidResourceException("Cannot close IO stream.", e);
-            }
-        }
+    /**
+     * Rebuild the snapshot of the lexical resources in the background, see reload()
+     */
+    public Future<LexiconSnapshot> reloadInBackground() {
+        return reloadExecutor.submit(this::reload);
+    }
 
-         // a black list of for English in biomed domain
-        blackListBioMed = new ArrayList<>();
-        file = new File("resources/lexicon/covid_blacklist.txt");
-        file = new File(file.getAbsolutePath());
-        if (!file.exists()) {
-            throw new GrobidResourceException("Cannot initialize covid blacklist, because file '" + 
-                file.getAbsolutePath() + "' does not exists.");
-        }
-        if (!file.exists()) {
-            throw new GrobidResourceException("Cannot initialize covid blacklist, because file '" + 
-                file.getAbsolutePath() + "' does not exists.");
-        }
-        if (!file.canRead()) {
-            throw new GrobidResourceException("Cannot initialize covid blacklist, because cannot read file '" + 
-                file.getAbsolutePath() + "'.");
-        }
-        if (!file.canRead()) {
-            throw new GrobidResourceException("Cannot initialize covid blacklist, because cannot read file '" + 
-                file.getAbsolutePath() + "'.");
+    /**
+     * Check periodically the modification time of the lexicon files and reload the lexicon when
+     * they are modified.
+     *
+     * @param interval interval between two checks in milliseconds, 0 or less to stop checking
+     */
+    public synchronized void watch(long interval) {
+        if (watcher != null) {
+            watcher.cancel(false);
+            watcher = null;
         }
-        // read the file
-        try {
-            dis = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-            String l = null;
-            while ((l = dis.readLine()) != null) {
-                if (l.length() == 0) continue;
-                if (l.startsWith("#")) continue;
-                if (l.trim().length() == 0) continue;
-                blackListBioMed.add(l.trim().toLowerCase());
-            }
-        } catch (FileNotFoundException e) {
-            throw new GrobidException("covid blacklist file not found.", e);
-        } catch (IOException e) {
-            throw new GrobidException("Cannot read covid blacklist file.", e);
-        } finally {
+        if (interval <= 0)
+            return;
+        final File directory = new File(LexiconSnapshot.LEXICON_PATH).getAbsoluteFile();
+        watcher = reloadExecutor.scheduleWithFixedDelay(() -> {
+            long lastModified = LexiconSnapshot.getLastModified(directory);
+            if (lastModified <= snapshot.getLastModified() || lastModified == failedLastModified)
+                return;
+            LOGGER.info("Lexicon files modified, reloading the lexicon");
             try {
-                if (dis != null)
-                    dis.close();
+                reload();
             } catch(Exception e) {
-                throw new GrobidResourceException("Cannot close IO stream.", e);
+                // logged by reload(), retried when the files are modified again
             }
-        }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.info("Watching the lexicon files every " + interval + " ms");
     }
 
     // to use the same method in grobid-core Utilities.java after merging branch update_header
@@ -345,11 +241,7 @@ public class DatastetLexicon {
     }
 
     public double getTermIDF(String term) {
-        Double idf = termIDF.get(term);
-        if (idf != null)
-            return idf.doubleValue();
-        else 
-            return 0.0;
+        return getSnapshot().getTermIDF(term);
     }
 
     /*public boolean inSoftwarePropertyValues(String value) {
@@ -361,34 +253,11 @@ public class DatastetLexicon {
     }  */ 
 
     public boolean isEnglishStopword(String value) {
-        if (this.englishStopwords == null || value == null)
-            return false;
-        if (value.length() == 1) 
-            value = value.toLowerCase();
-        return this.englishStopwords.contains(value);
+        return getSnapshot().isEnglishStopword(value);
     }
 
     public String removeLeadingEnglishStopwords(String string) {
-        if (string == null || string.trim().length() == 0) {
-            return string;
-        }
-
-        string = string.trim();
-        while(string.length()>0) {
-            int startSize = string.length();
-            // note: create a fast matcher...
-            for(String stopword : this.englishStopwords) {
-                if (string.startsWith(stopword+" ")) {
-                    string = string.substring(stopword.length(), string.length());
-                    string = string.trim();
-                    break;
-                }
-            }
-            if (startSize - string.length() == 0) 
-                break;
-        }
-
-        return string;
+        return getSnapshot().removeLeadingEnglishStopwords(string);
     }
 
     /**
@@ -399,9 +268,7 @@ public class DatastetLexicon {
      * of known domains of data repository.
      */
     public boolean isDatasetURLorDOI(String url) {
-        if (url == null || url.length() == 0)
-            return false;
-        return (isDatasetURL(url) || isDatasetDOI(url));
+        return getSnapshot().isDatasetURLorDOI(url);
     }
 
     /**
@@ -410,25 +277,7 @@ public class DatastetLexicon {
      * To determine this, we use a list of known domains of data repository.
      */
     public boolean isDatasetURL(String url) {
-        if (url == null || url.length() == 0)
-            return false;
-
-        // strip protocol prefix
-        if (url.startsWith("https://"))
-            url = url.substring(8);
-        if (url.startsWith("http://"))
-            url = url.substring(7);
-        if (url.startsWith("www."))
-            url = url.substring(4);
-
-        // strip url path
-        int ind = url.indexOf("/");
-        if (ind != -1) 
-            url = url.substring(0, ind);
-
-        if (urlDomains != null && urlDomains.contains(url))
-            return true;
-        return false;
+        return getSnapshot().isDatasetURL(url);
     }
 
     /**
@@ -437,50 +286,19 @@ public class DatastetLexicon {
      * To determine this, we use a list of DOI prefix collected from a datacite dump.
      */
     public boolean isDatasetDOI(String doi) {
-        if (doi == null || doi.length() == 0)
-            return false;
-
-        // strip protocol prefix
-        doi = doi.replace("https://doi.org/", "");
-        doi = doi.replace("http://doi.org/", "");
-
-        // strip url path
-        int ind = doi.indexOf("/");
-        if (ind != -1) 
-            doi = doi.substring(0, ind);
-
-        if (doiPrefixes != null && doiPrefixes.contains(doi))
-            return true;
-        return false;
+        return getSnapshot().isDatasetDOI(doi);
     }
 
-    // basic black list (it should be built semi-automatically in future version and to be put in a file), not enough content
-    // for a full named dataset
-    private List<String> blackListNamedDataset = 
-        Arrays.asList("data", "dataset", "datasets", "data set", "data sets", "cell", "cells", "file", "files", "model", "models",
-            "record", "records", "column", "columns", "line", "lines", "tnbc", "pam", "patient", "patients", "uhrf", "normal",
-            "discovery", "manuscript", "draft", "database", "data base", "databases", "data bases", "base", "bases", "square",
-            "mission", "missions", "subject", "subjects");
+    /**
+     * Find the known dataset names of the gazetteer in a sequence of layout tokens, as 
+     * positions of token index (end included).
+     */
+    public List<OffsetPosition> matchDatasetNames(List<LayoutToken> tokens) {
+        return getSnapshot().matchDatasetNames(tokens);
+    }
 
     public boolean isBlackListedNamedDataset(String term) {
-        if (term == null || term.length() == 0)
-            return false;
-
-        if (blackListNamedDataset.contains(term.toLowerCase())) 
-            return true;
-
-        if (blackListBioMed.contains(term.toLowerCase())) 
-            return true;
-
-        // temporary force filtering all the models, waiting for more training data and negative examples 
-        if (term.toLowerCase().endsWith("model") || term.toLowerCase().endsWith("models") )
-            return true;
-
-        if (term.startsWith("ð")) 
-            return true;
-         
-        return false;
+        return getSnapshot().isBlackListedNamedDataset(term);
     }
 
-
 }
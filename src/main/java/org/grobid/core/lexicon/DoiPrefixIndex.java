@@ -0,0 +1,101 @@
+package org.grobid.core.lexicon;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Index of DOI prefixes (10.5061, 10.5281, ...). A prefix is encoded as a long from its registrant
+ * code, with the number of digits so that leading zeros are significant (10.013 and 10.0130 are
+ * different prefixes), and the codes are kept in a sorted array. A DOI or doi.org URL is parsed
+ * in place to its registrant code, without intermediate strings.
+ */
+public class DoiPrefixIndex {
+
+    // registrant codes are at most 17 digits to fit in the encoding
+    private static final int MAX_DIGITS = 17;
+
+    private final long[] codes;
+
+    public DoiPrefixIndex(Collection<String> prefixes) {
+        long[] values = new long[prefixes.size()];
+        int n = 0;
+        for (String prefix : prefixes) {
+            if (prefix == null)
+                continue;
+            prefix = prefix.trim();
+            long code = encode(prefix, 0);
+            if (code != -1 && prefix.length() == 3 + digits(code))
+                values[n++] = code;
+        }
+        values = Arrays.copyOf(values, n);
+        Arrays.sort(values);
+
+        // remove duplicates
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size == 0 || values[size - 1] != values[i])
+                values[size++] = values[i];
+        }
+        codes = Arrays.copyOf(values, size);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @return true if the prefix of the DOI, given as such or as a doi.org URL, is in the index
+     */
+    public boolean contains(String doi) {
+        if (doi == null)
+            return false;
+
+        int start = 0;
+        if (doi.startsWith("https://"))
+            start = 8;
+        else if (doi.startsWith("http://"))
+            start = 7;
+        if (doi.regionMatches(true, start, "doi.org/", 0, 8))
+            start += 8;
+        else if (doi.regionMatches(true, start, "dx.doi.org/", 0, 11))
+            start += 11;
+        else if (start > 0)
+            return false;
+
+        long code = encode(doi, start);
+        if (code == -1)
+            return false;
+        int end = start + 3 + digits(code);
+        // the prefix is followed by the suffix of the DOI, or is the whole string
+        if (end < doi.length() && doi.charAt(end) != '/')
+            return false;
+        return Arrays.binarySearch(codes, code) >= 0;
+    }
+
+    /**
+     * Encode the registrant code of the DOI starting at the given offset, i.e. the digits
+     * following "10.", or -1 if the string has no DOI prefix at this offset.
+     */
+    private static long encode(String string, int start) {
+        if (!string.startsWith("10.", start))
+            return -1;
+        long value = 0;
+        int digits = 0;
+        for (int i = start + 3; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9')
+                break;
+            if (++digits > MAX_DIGITS)
+                return -1;
+            value = value * 10 + (c - '0');
+        }
+        if (digits == 0)
+            return -1;
+        // the digit count is stored in the top bits
+        return ((long) digits << 57) | value;
+    }
+
+    private static int digits(long code) {
+        return (int) (code >>> 57);
+    }
+}
@@ -0,0 +1,181 @@
+package org.grobid.core.lexicon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Trie of data repository domains indexed by reversed host labels (org -> zenodo), so that a
+ * domain also matches its subdomains. A rule can be restricted to a path prefix, e.g.
+ * "ebi.ac.uk/ena" matches "https://www.ebi.ac.uk/ena/browser/view/PRJEB1787" but not
+ * "https://www.ebi.ac.uk/about". URLs are matched in place, without substring allocation.
+ */
+public class DomainTrie {
+
+    private final Node root = new Node();
+    private int size = 0;
+
+    private static class Node {
+        private String[] labels = new String[0];
+        private Node[] children = new Node[0];
+        // the host is a rule for any path
+        private boolean terminal = false;
+        // path prefix rules for this host, null if none
+        private List<String> pathPrefixes = null;
+
+        private Node child(String string, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i].length() == length && labels[i].regionMatches(true, 0, string, start, length))
+                    return children[i];
+            }
+            return null;
+        }
+
+        private Node addChild(String label) {
+            Node child = child(label, 0, label.length());
+            if (child != null)
+                return child;
+            int n = labels.length;
+            String[] newLabels = new String[n + 1];
+            Node[] newChildren = new Node[n + 1];
+            System.arraycopy(labels, 0, newLabels, 0, n);
+            System.arraycopy(children, 0, newChildren, 0, n);
+            newLabels[n] = label;
+            newChildren[n] = child = new Node();
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    public DomainTrie(Collection<String> rules) {
+        for (String rule : rules) {
+            if (rule != null)
+                add(rule.trim());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void add(String rule) {
+        int start = schemeEnd(rule);
+        if (rule.startsWith("www.", start))
+            start += 4;
+        int hostEnd = hostEnd(rule, start);
+        if (hostEnd == start)
+            return;
+
+        Node node = root;
+        int end = hostEnd;
+        while (end > start) {
+            int dot = rule.lastIndexOf('.', end - 1);
+            int labelStart = Math.max(dot + 1, start);
+            node = node.addChild(rule.substring(labelStart, end).toLowerCase());
+            end = labelStart - 1;
+        }
+
+        String path = rule.substring(hostEnd);
+        while (path.endsWith("/"))
+            path = path.substring(0, path.length() - 1);
+        if (path.length() == 0 || path.charAt(0) != '/') {
+            node.terminal = true;
+        } else {
+            if (node.pathPrefixes == null)
+                node.pathPrefixes = new ArrayList<>();
+            node.pathPrefixes.add(path);
+        }
+        size++;
+    }
+
+    /**
+     * @return true if the host of the URL is a domain of the trie or one of its subdomains, and
+     * the path of the URL satisfies the path prefix rule when the domain has one
+     */
+    public boolean matches(String url) {
+        if (url == null)
+            return false;
+        int start = schemeEnd(url);
+        int hostEnd = hostEnd(url, start);
+        if (hostEnd == start)
+            return false;
+        int pathStart = pathStart(url, hostEnd);
+        int pathEnd = pathEnd(url, pathStart);
+
+        Node node = root;
+        int end = hostEnd;
+        while (end > start) {
+            int dot = url.lastIndexOf('.', end - 1);
+            int labelStart = Math.max(dot + 1, start);
+            node = node.child(url, labelStart, end);
+            if (node == null)
+                return false;
+            if (node.terminal)
+                return true;
+            if (node.pathPrefixes != null && matchesPath(node.pathPrefixes, url, pathStart, pathEnd))
+                return true;
+            end = labelStart - 1;
+        }
+        return false;
+    }
+
+    private static boolean matchesPath(List<String> pathPrefixes, String url, int pathStart, int pathEnd) {
+        for (String prefix : pathPrefixes) {
+            int prefixEnd = pathStart + prefix.length();
+            if (prefixEnd <= pathEnd && url.startsWith(prefix, pathStart) &&
+                (prefixEnd == pathEnd || url.charAt(prefixEnd) == '/'))
+                return true;
+        }
+        return false;
+    }
+
+    private static int schemeEnd(String url) {
+        int ind = url.indexOf("://");
+        if (ind == -1 || ind > 8)
+            return 0;
+        for (int i = 0; i < ind; i++) {
+            if (!Character.isLetter(url.charAt(i)))
+                return 0;
+        }
+        return ind + 3;
+    }
+
+    private static int hostEnd(String url, int start) {
+        int i = start;
+        while (i < url.length()) {
+            char c = url.charAt(i);
+            if (c == '/' || c == ':' || c == '?' || c == '#')
+                break;
+            i++;
+        }
+        // trailing dot of fully qualified names
+        if (i > start && url.charAt(i - 1) == '.')
+            i--;
+        return i;
+    }
+
+    private static int pathStart(String url, int hostEnd) {
+        int i = hostEnd;
+        if (i < url.length() && url.charAt(i) == '.')
+            i++;
+        if (i < url.length() && url.charAt(i) == ':') {
+            // port
+            while (i < url.length() && url.charAt(i) != '/' && url.charAt(i) != '?' && url.charAt(i) != '#')
+                i++;
+        }
+        return i;
+    }
+
+    private static int pathEnd(String url, int pathStart) {
+        int i = pathStart;
+        while (i < url.length()) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#')
+                break;
+            i++;
+        }
+        return i;
+    }
+}
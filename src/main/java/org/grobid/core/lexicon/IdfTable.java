@@ -0,0 +1,214 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.exceptions.GrobidResourceException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compact read-only table of term IDF, memory-mapped from a binary file compiled from the
+ * term/idf text resource (one "term\tidf" per line, optionally gzipped). Being memory-mapped,
+ * the table is not on the heap and the file is shared by the JVMs of the same host through the
+ * page cache.
+ *
+ * File layout (big endian):
+ * - header (16 bytes): magic, version, number of terms, unused
+ * - 64-bit hashes of the terms (long), sorted
+ * - IDF of the terms (float), in the same order
+ *
+ * The terms are identified by their 64-bit hash only, the probability of a false match for an
+ * unknown term being negligible for a table of this size.
+ */
+public class IdfTable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdfTable.class);
+
+    private static final int MAGIC = 0x49444654;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int nbTerms;
+    private final int idfOffset;
+
+    public IdfTable(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+        } catch(IOException e) {
+            throw new GrobidResourceException("Cannot open the IDF table: " + file.getPath(), e);
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new GrobidResourceException("Invalid IDF table: " + file.getPath());
+        nbTerms = buffer.getInt(8);
+        idfOffset = HEADER_SIZE + nbTerms * 8;
+    }
+
+    /**
+     * Load the IDF table corresponding to a term/idf text file. The binary table is compiled next
+     * to the text file when missing or older than the text file, or in a temporary file when the
+     * directory is not writable.
+     */
+    public static IdfTable load(File textFile) {
+        String name = textFile.getName().replaceAll("\\.gz$", "").replaceAll("\\.txt$", "") + ".bin";
+        File binaryFile = new File(textFile.getParentFile(), name);
+        if (!binaryFile.exists() || binaryFile.lastModified() < textFile.lastModified()) {
+            try {
+                compile(textFile, binaryFile);
+            } catch(IOException e) {
+                try {
+                    binaryFile = File.createTempFile("idf", ".bin");
+                    binaryFile.deleteOnExit();
+                    compile(textFile, binaryFile);
+                } catch(IOException e2) {
+                    throw new GrobidResourceException("Cannot compile the IDF table: " + textFile.getPath(), e2);
+                }
+            }
+        }
+        return new IdfTable(binaryFile);
+    }
+
+    public int size() {
+        return nbTerms;
+    }
+
+    /**
+     * @return the IDF of the term or 0.0 if the term is unknown
+     */
+    public double get(String term) {
+        if (term == null)
+            return 0.0;
+        long hash = hash(term);
+        int low = 0;
+        int high = nbTerms - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleHash = buffer.getLong(HEADER_SIZE + middle * 8);
+            if (middleHash < hash)
+                low = middle + 1;
+            else if (middleHash > hash)
+                high = middle - 1;
+            else
+                return buffer.getFloat(idfOffset + middle * 4);
+        }
+        return 0.0;
+    }
+
+    static long hash(String term) {
+        // FNV-1a 64 bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Compile a term/idf text file into a binary IDF table
+     */
+    public static void compile(File textFile, File binaryFile) throws IOException {
+        long start = System.currentTimeMillis();
+        long[] hashes = new long[1024];
+        float[] idfs = new float[1024];
+        int nbTerms = 0;
+
+        InputStream inputStream = new FileInputStream(textFile);
+        if (textFile.getName().endsWith(".gz"))
+            inputStream = new GZIPInputStream(inputStream);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0)
+                    continue;
+                int separator = line.indexOf('\t');
+                if (separator == -1 || line.indexOf('\t', separator + 1) != -1) {
+                    LOGGER.warn("Invalid term/idf line format: " + line);
+                    continue;
+                }
+                float idf;
+                try {
+                    idf = Float.parseFloat(line.substring(separator + 1));
+                } catch(NumberFormatException e) {
+                    LOGGER.warn("Invalid idf format: " + line.substring(separator + 1));
+                    continue;
+                }
+                if (nbTerms == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, nbTerms * 2);
+                    idfs = Arrays.copyOf(idfs, nbTerms * 2);
+                }
+                hashes[nbTerms] = hash(line.substring(0, separator));
+                idfs[nbTerms] = idf;
+                nbTerms++;
+            }
+        }
+
+        // sort the entries by hash, the last value of a duplicated term is kept as with a map
+        Integer[] order = new Integer[nbTerms];
+        for (int i = 0; i < nbTerms; i++) {
+            order[i] = i;
+        }
+        final long[] sortHashes = hashes;
+        Arrays.sort(order, (i1, i2) -> {
+            int comparison = Long.compare(sortHashes[i1], sortHashes[i2]);
+            return comparison != 0 ? comparison : Integer.compare(i1, i2);
+        });
+        long[] sortedHashes = new long[nbTerms];
+        float[] sortedIdfs = new float[nbTerms];
+        int size = 0;
+        for (int i = 0; i < nbTerms; i++) {
+            int index = order[i];
+            if (size > 0 && sortedHashes[size - 1] == hashes[index]) {
+                sortedIdfs[size - 1] = idfs[index];
+                continue;
+            }
+            sortedHashes[size] = hashes[index];
+            sortedIdfs[size] = idfs[index];
+            size++;
+        }
+
+        // written in a temporary file first, the table can be mapped by another JVM
+        File tmpFile = new File(binaryFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(0);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(sortedHashes[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeFloat(sortedIdfs[i]);
+            }
+        }
+        if (!tmpFile.renameTo(binaryFile)) {
+            tmpFile.delete();
+            throw new IOException("Cannot write the IDF table: " + binaryFile.getPath());
+        }
+
+        LOGGER.info("IDF table compiled: " + size + " terms, " + (binaryFile.length() / 1024) + " KB, in " +
+            (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: IdfTable idf.txt[.gz] idf.bin");
+            System.exit(1);
+        }
+        compile(new File(args[0]), new File(args[1]));
+    }
+}
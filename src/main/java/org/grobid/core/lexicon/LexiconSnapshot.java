@@ -0,0 +1,315 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.analyzers.DatastetAnalyzer;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.OffsetPosition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable state of the lexical resources of datastet loaded from the files of resources/lexicon/:
+ * term IDF, English stopwords, black list of dataset names, DOI prefixes, data repository
+ * domains and, when present, the gazetteer of known dataset names. A new snapshot is built when the files are modified and swapped in DatastetLexicon,
+ * the processing in progress keeping the snapshot it started with.
+ *
+ * The version of a snapshot is a checksum of the content of the files, so that the same
+ * resources give the same version on every server of a cluster.
+ */
+public class LexiconSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LexiconSnapshot.class);
+
+    public static final String LEXICON_PATH = "resources/lexicon/";
+
+    private static final String IDF_FILE = "idf.label.en.txt.gz";
+    private static final String DOI_PREFIX_FILE = "doiPrefixes.txt";
+    private static final String DOMAIN_FILE = "domains.txt";
+    private static final String STOPWORD_FILE = "stopwords_en.txt";
+    private static final String BLACKLIST_FILE = "covid_blacklist.txt";
+    // optional
+    private static final String DATASET_NAME_FILE = "datasetNames.txt";
+
+    // basic black list (it should be built semi-automatically in future version and to be put in a file), not enough content
+    // for a full named dataset
+    private static final List<String> blackListNamedDataset =
+        Arrays.asList("data", "dataset", "datasets", "data set", "data sets", "cell", "cells", "file", "files", "model", "models",
+            "record", "records", "column", "columns", "line", "lines", "tnbc", "pam", "patient", "patients", "uhrf", "normal",
+            "discovery", "manuscript", "draft", "database", "data base", "databases", "data bases", "base", "bases", "square",
+            "mission", "missions", "subject", "subjects");
+
+    private final IdfTable termIDF;
+    private final TermSet englishStopwords;
+    // black list of dataset names (inline list and biomedical black list), lower-cased
+    private final TermSet blackListNamedDatasets;
+    private final DoiPrefixIndex doiPrefixes;
+    private final DomainTrie urlDomains;
+    // null if there is no gazetteer file
+    private final DatasetGazetteer datasetGazetteer;
+
+    private final String version;
+    // last modification time of the files when loaded
+    private final long lastModified;
+    private final long loadedAt;
+
+    private LexiconSnapshot(IdfTable termIDF, TermSet englishStopwords, TermSet blackListNamedDatasets,
+                            DoiPrefixIndex doiPrefixes, DomainTrie urlDomains, DatasetGazetteer datasetGazetteer,
+                            String version, long lastModified) {
+        this.termIDF = termIDF;
+        this.englishStopwords = englishStopwords;
+        this.blackListNamedDatasets = blackListNamedDatasets;
+        this.doiPrefixes = doiPrefixes;
+        this.urlDomains = urlDomains;
+        this.datasetGazetteer = datasetGazetteer;
+        this.version = version;
+        this.lastModified = lastModified;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Load a snapshot from the files of resources/lexicon/
+     */
+    public static LexiconSnapshot load() {
+        return load(new File(LEXICON_PATH).getAbsoluteFile());
+    }
+
+    public static LexiconSnapshot load(File directory) {
+        long start = System.currentTimeMillis();
+        // taken before reading, a file modified during the loading gives a new snapshot
+        long lastModified = getLastModified(directory);
+        CRC32 checksum = new CRC32();
+
+        // term idf, the idf file is compiled into a memory-mapped binary table
+        File file = getResourceFile(directory, IDF_FILE, "term IDF");
+        update(checksum, file);
+        IdfTable termIDF = IdfTable.load(file);
+
+        // the datacite DOI prefixes
+        List<String> prefixes = new ArrayList<>();
+        for (String l : readLines(directory, DOI_PREFIX_FILE, "DOI prefix", checksum)) {
+            l = l.trim();
+            if (l.length() == 0)
+                continue;
+            prefixes.add(l);
+        }
+
+        // the data source url domains
+        List<String> domains = new ArrayList<>();
+        for (String l : readLines(directory, DOMAIN_FILE, "url domain", checksum)) {
+            l = l.trim();
+            if (l.length() == 0)
+                continue;
+            domains.add(l);
+        }
+
+        // a list of stopwords for English for conservative checks with dataset names
+        List<String> stopwords = new ArrayList<>();
+        for (String l : readLines(directory, STOPWORD_FILE, "English stopwords", checksum)) {
+            if (l.length() == 0) continue;
+            stopwords.add(l.trim());
+        }
+
+        // a black list of for English in biomed domain
+        List<String> blackListBioMed = new ArrayList<>();
+        for (String l : readLines(directory, BLACKLIST_FILE, "covid blacklist", checksum)) {
+            if (l.length() == 0) continue;
+            if (l.startsWith("#")) continue;
+            if (l.trim().length() == 0) continue;
+            blackListBioMed.add(l.trim().toLowerCase());
+        }
+        blackListBioMed.addAll(blackListNamedDataset);
+
+        // the gazetteer of dataset names, tokenized as the text to be matched
+        DatasetGazetteer datasetGazetteer = null;
+        file = new File(directory, DATASET_NAME_FILE);
+        if (file.exists()) {
+            update(checksum, file);
+            datasetGazetteer = DatasetGazetteer.load(file, DatastetAnalyzer.getInstance()::tokenize);
+        }
+
+        String version = String.format("%08x", checksum.getValue());
+        LexiconSnapshot snapshot = new LexiconSnapshot(termIDF, new TermSet(stopwords), new TermSet(blackListBioMed),
+            new DoiPrefixIndex(prefixes), new DomainTrie(domains), datasetGazetteer, version, lastModified);
+
+        LOGGER.info("Lexicon " + version + " loaded in " + (System.currentTimeMillis() - start) + " ms: " +
+            termIDF.size() + " term IDF, " + snapshot.doiPrefixes.size() + " DOI prefixes, " +
+            snapshot.urlDomains.size() + " url domains, " +
+            (datasetGazetteer == null ? 0 : datasetGazetteer.size()) + " gazetteer dataset names");
+        return snapshot;
+    }
+
+    /**
+     * @return the last modification time of the lexicon files of a directory
+     */
+    public static long getLastModified(File directory) {
+        long lastModified = 0;
+        for (String name : Arrays.asList(IDF_FILE, DOI_PREFIX_FILE, DOMAIN_FILE, STOPWORD_FILE, BLACKLIST_FILE, DATASET_NAME_FILE)) {
+            lastModified = Math.max(lastModified, new File(directory, name).lastModified());
+        }
+        return lastModified;
+    }
+
+    private static File getResourceFile(File directory, String name, String description) {
+        File file = new File(directory, name);
+        if (!file.exists()) {
+            throw new GrobidResourceException("Cannot initialize " + description + " lexicon, because file '" +
+                file.getAbsolutePath() + "' does not exists.");
+        }
+        if (!file.canRead()) {
+            throw new GrobidResourceException("Cannot initialize " + description + " lexicon, because cannot read file '" +
+                file.getAbsolutePath() + "'.");
+        }
+        return file;
+    }
+
+    private static List<String> readLines(File directory, String name, String description, CRC32 checksum) {
+        File file = getResourceFile(directory, name, description);
+        byte[] content = null;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (NoSuchFileException e) {
+            throw new GrobidException(description + " file not found.", e);
+        } catch (IOException e) {
+            throw new GrobidException("Cannot read " + description + " file.", e);
+        }
+        checksum.update(content);
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content), "UTF-8"))) {
+            String l = null;
+            while ((l = reader.readLine()) != null) {
+                lines.add(l);
+            }
+        } catch (IOException e) {
+            throw new GrobidException("Cannot read " + description + " file.", e);
+        }
+        return lines;
+    }
+
+    private static void update(CRC32 checksum, File file) {
+        try (InputStream is = new FileInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                checksum.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new GrobidException("Cannot read lexicon file " + file.getPath(), e);
+        }
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public double getTermIDF(String term) {
+        return termIDF.get(term);
+    }
+
+    public boolean isEnglishStopword(String value) {
+        if (this.englishStopwords == null || value == null)
+            return false;
+        if (value.length() == 1)
+            return this.englishStopwords.containsLowerCase(value);
+        return this.englishStopwords.contains(value);
+    }
+
+    public String removeLeadingEnglishStopwords(String string) {
+        if (this.englishStopwords == null)
+            return string;
+        return this.englishStopwords.removeLeadingTerms(string);
+    }
+
+    /**
+     * Return a boolean value indicating if an URL or DOI is data DOI (referenced by datacite)
+     * or a known dataset URL.
+     *
+     * To determine this, we use a list of DOI prefix collected from a datacite dump and a list
+     * of known domains of data repository.
+     */
+    public boolean isDatasetURLorDOI(String url) {
+        if (url == null || url.length() == 0)
+            return false;
+        return (isDatasetURL(url) || isDatasetDOI(url));
+    }
+
+    /**
+     * Return a boolean value indicating if an URL data source as a known dataset URL.
+     *
+     * To determine this, we use a list of known domains of data repository.
+     */
+    public boolean isDatasetURL(String url) {
+        if (url == null || url.length() == 0)
+            return false;
+
+        // host labels are matched in reverse order, so subdomains and path prefix rules are covered
+        if (urlDomains != null && urlDomains.matches(url))
+            return true;
+        return false;
+    }
+
+    /**
+     * Return a boolean value indicating if a DOI is data DOI (referenced by datacite).
+     *
+     * To determine this, we use a list of DOI prefix collected from a datacite dump.
+     */
+    public boolean isDatasetDOI(String doi) {
+        if (doi == null || doi.length() == 0)
+            return false;
+
+        // the DOI or doi.org URL is parsed in place to its prefix
+        if (doiPrefixes != null && doiPrefixes.contains(doi))
+            return true;
+        return false;
+    }
+
+    /**
+     * Find the known dataset names of the gazetteer in a sequence of layout tokens.
+     *
+     * @return the positions of the matched names as token index, end included, an empty list if
+     * there is no gazetteer
+     */
+    public List<OffsetPosition> matchDatasetNames(List<LayoutToken> tokens) {
+        if (datasetGazetteer == null)
+            return new ArrayList<>();
+        return datasetGazetteer.matchLayoutTokens(tokens);
+    }
+
+    public boolean isBlackListedNamedDataset(String term) {
+        if (term == null || term.length() == 0)
+            return false;
+
+        if (blackListNamedDatasets.containsLowerCase(term))
+            return true;
+
+        // temporary force filtering all the models, waiting for more training data and negative examples
+        if (endsWithIgnoreCase(term, "model") || endsWithIgnoreCase(term, "models"))
+            return true;
+
+        if (term.startsWith("ð"))
+            return true;
+
+        return false;
+    }
+
+    private static boolean endsWithIgnoreCase(String term, String suffix) {
+        return term.length() >= suffix.length() &&
+            term.regionMatches(true, term.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+}
@@ -0,0 +1,137 @@
+package org.grobid.core.lexicon;
+
+import java.util.Collection;
+
+/**
+ * Immutable set of terms for the lexicon checks made on every candidate mention. It is an open
+ * addressing hash table where a term can be looked up as a region of a string and, for the sets
+ * of lower-cased terms, case-insensitively, without allocating any substring or lower-cased copy.
+ */
+public class TermSet {
+
+    private final String[] table;
+    private final int mask;
+    private final int size;
+
+    public TermSet(Collection<String> terms) {
+        int capacity = 16;
+        while (capacity < terms.size() * 2)
+            capacity <<= 1;
+        table = new String[capacity];
+        mask = capacity - 1;
+
+        int count = 0;
+        for (String term : terms) {
+            if (term == null)
+                continue;
+            int slot = hash(term, 0, term.length(), false) & mask;
+            boolean present = false;
+            while (table[slot] != null) {
+                if (table[slot].equals(term)) {
+                    present = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!present) {
+                table[slot] = term;
+                count++;
+            }
+        }
+        size = count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String term) {
+        if (term == null)
+            return false;
+        return contains(term, 0, term.length());
+    }
+
+    /**
+     * @return true if the region [start, end) of the string is a term of the set
+     */
+    public boolean contains(String string, int start, int end) {
+        int slot = hash(string, start, end, false) & mask;
+        String candidate;
+        while ((candidate = table[slot]) != null) {
+            if (candidate.length() == end - start && candidate.regionMatches(0, string, start, end - start))
+                return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Case-insensitive lookup, the terms of the set being lower-cased. Equivalent to
+     * contains(term.toLowerCase()), but without allocation for ASCII terms.
+     */
+    public boolean containsLowerCase(String term) {
+        if (term == null)
+            return false;
+        int length = term.length();
+        for (int i = 0; i < length; i++) {
+            if (term.charAt(i) >= 0x80) {
+                // lower-casing of non-ASCII characters is not always per character
+                return contains(term.toLowerCase());
+            }
+        }
+
+        int slot = hash(term, 0, length, true) & mask;
+        String candidate;
+        while ((candidate = table[slot]) != null) {
+            if (candidate.length() == length && equalsLowerCase(candidate, term))
+                return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Remove the leading terms of a string, a term being followed by a space, and trim the result.
+     * Only the final substring is allocated.
+     */
+    public String removeLeadingTerms(String string) {
+        if (string == null)
+            return string;
+        int start = 0;
+        int end = string.length();
+        while (start < end && string.charAt(start) <= ' ')
+            start++;
+        while (end > start && string.charAt(end - 1) <= ' ')
+            end--;
+        if (start == end)
+            return string;
+
+        while (true) {
+            int space = string.indexOf(' ', start);
+            if (space == -1 || space >= end || !contains(string, start, space))
+                break;
+            start = space;
+            while (start < end && string.charAt(start) <= ' ')
+                start++;
+        }
+        return string.substring(start, end);
+    }
+
+    private static boolean equalsLowerCase(String lowerCased, String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (lowerCased.charAt(i) != Character.toLowerCase(term.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static int hash(String string, int start, int end, boolean lowerCase) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            hash = 31 * hash + (lowerCase ? Character.toLowerCase(c) : c);
+        }
+        // spread the bits, the table size being a power of 2
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -16,8 +16,32 @@ public class DatastetConfiguration {
     public String gluttonPort;
     public String version;
     private Boolean useBinaryContextClassifiers;
+    private Boolean contextClassifierEarlyExit;
+    private Double contextUsedLowerThreshold;
+    private Double contextUsedUpperThreshold;
+    private Integer classifierWorkers;
     private String entityFishingHost;
     private String entityFishingPort;
+    private Integer entityFishingMaxConnections;
+    private Integer entityFishingConnectTimeout;
+    private Integer entityFishingReadTimeout;
+    private Integer entityFishingKeepAlive;
+    private Integer entityFishingBatchMaxLength;
+    private Integer entityFishingMaxConcurrentBatches;
+    private Integer entityFishingDeadline;
+    private Integer entityFishingFailureThreshold;
+    private Integer entityFishingRetryInterval;
+    private Integer disambiguationCacheSize;
+    private String disambiguationEngine;
+    private String localKnowledgeBasePath;
+    private Integer lexiconWatchInterval;
+    private Boolean useDatasetGazetteer;
+    private Integer disambiguationCacheTTL;
+    private String disambiguationCachePath;
+    private Integer disambiguationCacheDiskSlots;
+    private Integer windowedProcessingPageThreshold;
+    private Integer pageWindowSize;
+    private Integer requestTimeout;
 
     //models (sequence labeling and text classifiers)
     public List<ModelParameters> models;
@@ -116,6 +140,38 @@ public class DatastetConfiguration {
         this.useBinaryContextClassifiers = binary;
     }
 
+    public Boolean getContextClassifierEarlyExit() {
+        return this.contextClassifierEarlyExit;
+    }
+
+    public void setContextClassifierEarlyExit(Boolean earlyExit) {
+        this.contextClassifierEarlyExit = earlyExit;
+    }
+
+    public Double getContextUsedLowerThreshold() {
+        return this.contextUsedLowerThreshold;
+    }
+
+    public void setContextUsedLowerThreshold(Double threshold) {
+        this.contextUsedLowerThreshold = threshold;
+    }
+
+    public Double getContextUsedUpperThreshold() {
+        return this.contextUsedUpperThreshold;
+    }
+
+    public void setContextUsedUpperThreshold(Double threshold) {
+        this.contextUsedUpperThreshold = threshold;
+    }
+
+    public Integer getClassifierWorkers() {
+        return this.classifierWorkers;
+    }
+
+    public void setClassifierWorkers(Integer classifierWorkers) {
+        this.classifierWorkers = classifierWorkers;
+    }
+
     public String getEntityFishingHost() {
         return entityFishingHost;
     }
@@ -131,5 +187,164 @@ public class DatastetConfiguration {
     public void setEntityFishingPort(String entityFishingPort) {
         this.entityFishingPort = entityFishingPort;
     }
+
+    public Integer getEntityFishingMaxConnections() {
+        return entityFishingMaxConnections;
+    }
+
+    public void setEntityFishingMaxConnections(Integer entityFishingMaxConnections) {
+        this.entityFishingMaxConnections = entityFishingMaxConnections;
+    }
+
+    public Integer getEntityFishingConnectTimeout() {
+        return entityFishingConnectTimeout;
+    }
+
+    public void setEntityFishingConnectTimeout(Integer entityFishingConnectTimeout) {
+        this.entityFishingConnectTimeout = entityFishingConnectTimeout;
+    }
+
+    public Integer getEntityFishingReadTimeout() {
+        return entityFishingReadTimeout;
+    }
+
+    public void setEntityFishingReadTimeout(Integer entityFishingReadTimeout) {
+        this.entityFishingReadTimeout = entityFishingReadTimeout;
+    }
+
+    public Integer getEntityFishingKeepAlive() {
+        return entityFishingKeepAlive;
+    }
+
+    public void setEntityFishingKeepAlive(Integer entityFishingKeepAlive) {
+        this.entityFishingKeepAlive = entityFishingKeepAlive;
+    }
+
+    public Integer getEntityFishingBatchMaxLength() {
+        return entityFishingBatchMaxLength;
+    }
+
+    public void setEntityFishingBatchMaxLength(Integer entityFishingBatchMaxLength) {
+        this.entityFishingBatchMaxLength = entityFishingBatchMaxLength;
+    }
+
+    public Integer getEntityFishingMaxConcurrentBatches() {
+        return entityFishingMaxConcurrentBatches;
+    }
+
+    public void setEntityFishingMaxConcurrentBatches(Integer entityFishingMaxConcurrentBatches) {
+        this.entityFishingMaxConcurrentBatches = entityFishingMaxConcurrentBatches;
+    }
+
+    public Integer getDisambiguationCacheSize() {
+        return disambiguationCacheSize;
+    }
+
+    public void setDisambiguationCacheSize(Integer disambiguationCacheSize) {
+        this.disambiguationCacheSize = disambiguationCacheSize;
+    }
+
+    public Integer getDisambiguationCacheTTL() {
+        return disambiguationCacheTTL;
+    }
+
+    public void setDisambiguationCacheTTL(Integer disambiguationCacheTTL) {
+        this.disambiguationCacheTTL = disambiguationCacheTTL;
+    }
+
+    public String getDisambiguationCachePath() {
+        return disambiguationCachePath;
+    }
+
+    public void setDisambiguationCachePath(String disambiguationCachePath) {
+        this.disambiguationCachePath = disambiguationCachePath;
+    }
+
+    public Integer getDisambiguationCacheDiskSlots() {
+        return disambiguationCacheDiskSlots;
+    }
+
+    public void setDisambiguationCacheDiskSlots(Integer disambiguationCacheDiskSlots) {
+        this.disambiguationCacheDiskSlots = disambiguationCacheDiskSlots;
+    }
+
+    public Integer getEntityFishingDeadline() {
+        return entityFishingDeadline;
+    }
+
+    public void setEntityFishingDeadline(Integer entityFishingDeadline) {
+        this.entityFishingDeadline = entityFishingDeadline;
+    }
+
+    public Integer getEntityFishingFailureThreshold() {
+        return entityFishingFailureThreshold;
+    }
+
+    public void setEntityFishingFailureThreshold(Integer entityFishingFailureThreshold) {
+        this.entityFishingFailureThreshold = entityFishingFailureThreshold;
+    }
+
+    public Integer getEntityFishingRetryInterval() {
+        return entityFishingRetryInterval;
+    }
+
+    public void setEntityFishingRetryInterval(Integer entityFishingRetryInterval) {
+        this.entityFishingRetryInterval = entityFishingRetryInterval;
+    }
+
+    public String getDisambiguationEngine() {
+        return disambiguationEngine;
+    }
+
+    public void setDisambiguationEngine(String disambiguationEngine) {
+        this.disambiguationEngine = disambiguationEngine;
+    }
+
+    public String getLocalKnowledgeBasePath() {
+        return localKnowledgeBasePath;
+    }
+
+    public void setLocalKnowledgeBasePath(String localKnowledgeBasePath) {
+        this.localKnowledgeBasePath = localKnowledgeBasePath;
+    }
+
+    public Integer getLexiconWatchInterval() {
+        return lexiconWatchInterval;
+    }
+
+    public void setLexiconWatchInterval(Integer lexiconWatchInterval) {
+        this.lexiconWatchInterval = lexiconWatchInterval;
+    }
+
+    public Boolean getUseDatasetGazetteer() {
+        return useDatasetGazetteer;
+    }
+
+    public void setUseDatasetGazetteer(Boolean useDatasetGazetteer) {
+        this.useDatasetGazetteer = useDatasetGazetteer;
+    }
+
+    public Integer getWindowedProcessingPageThreshold() {
+        return windowedProcessingPageThreshold;
+    }
+
+    public void setWindowedProcessingPageThreshold(Integer windowedProcessingPageThreshold) {
+        this.windowedProcessingPageThreshold = windowedProcessingPageThreshold;
+    }
+
+    public Integer getPageWindowSize() {
+        return pageWindowSize;
+    }
+
+    public void setPageWindowSize(Integer pageWindowSize) {
+        this.pageWindowSize = pageWindowSize;
+    }
+
+    public Integer getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Integer requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
 }
- 
\ No newline at end of file
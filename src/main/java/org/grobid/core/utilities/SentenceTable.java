@@ -0,0 +1,59 @@
+package org.grobid.core.utilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Table of distinct sentences, used to memoize their normalization. Each sentence is stored once
+ * and identified by its rank in the table, and its normalized form (for instance for the context
+ * classifiers) is computed only once, when first requested.
+ */
+public class SentenceTable {
+
+    private final Function<String, String> normalizer;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> sentences = new ArrayList<>();
+    // null until computed
+    private final List<String> normalizedSentences = new ArrayList<>();
+
+    public SentenceTable(Function<String, String> normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * @return the id of a sentence, the sentence being added to the table if not already present
+     */
+    public int add(String sentence) {
+        if (sentence == null)
+            throw new IllegalArgumentException("null sentence");
+        Integer id = ids.get(sentence);
+        if (id == null) {
+            id = sentences.size();
+            ids.put(sentence, id);
+            sentences.add(sentence);
+            normalizedSentences.add(null);
+        }
+        return id;
+    }
+
+    public String get(int id) {
+        return sentences.get(id);
+    }
+
+    public String getNormalized(int id) {
+        String normalized = normalizedSentences.get(id);
+        if (normalized == null) {
+            normalized = normalizer.apply(sentences.get(id));
+            normalizedSentences.set(id, normalized);
+        }
+        return normalized;
+    }
+
+    public int size() {
+        return sentences.size();
+    }
+}
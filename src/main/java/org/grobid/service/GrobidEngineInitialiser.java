@@ -43,6 +43,9 @@ public class GrobidEngineInitialiser {
 
         configuration.setDatastetConfiguration(datastetConfiguration);
 
+        if (datastetConfiguration != null && datastetConfiguration.getLexiconWatchInterval() != null)
+            DatastetLexicon.getInstance().watch(datastetConfiguration.getLexiconWatchInterval());
+
         if (datastetConfiguration != null && datastetConfiguration.getModels() != null) {
             for (ModelParameters model : datastetConfiguration.getModels())
                 GrobidProperties.getInstance().addModel(model);
@@ -0,0 +1,204 @@
+package org.grobid.service.controller;
+
+import org.grobid.core.data.BibDataSet;
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.ResponseFields;
+import org.grobid.core.document.Document;
+import org.grobid.core.engines.PDFProcessingListener;
+import org.grobid.core.layout.Page;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Newline-delimited JSON events written in a response output stream while a PDF document is
+ * processed, one JSON object per line with an "event" field:
+ * - "document": application information and pages, after the segmentation of the document,
+ * - "zone": provisional mentions of a zone of the document, after the labeling of the sentences,
+ * - "mention": a final mention, after disambiguation, classification, propagation, filtering
+ *   and context classification,
+ * - "references": the bibliographical references attached to the mentions,
+ * - "summary": the number of mentions and the time of each stage, in ms,
+ * - "error": the processing failed, the stream ends.
+ *
+ * The provisional and the final mentions are written as {"id": ..., "mention": {...}}, the id
+ * (offset of the sentence in the document and offset of the mention in the sentence) linking a
+ * final mention to the provisional one it results from.
+ *
+ * Each event is flushed when written, a client disconnection aborts the processing.
+ */
+public class DatasetEventStream implements PDFProcessingListener, Closeable {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final JsonGenerator generator;
+    private final ResponseFields fields;
+    private final String version;
+    private final String lexiconVersion;
+    private final String md5;
+
+    private final long start = System.currentTimeMillis();
+    private long lastStageEnd = start;
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+    private int nbMentions = 0;
+
+    public DatasetEventStream(OutputStream output,
+                              ResponseFields fields,
+                              String version,
+                              String lexiconVersion,
+                              String md5) throws IOException {
+        this.generator = ResponseFormat.JSON.getFactory().createGenerator(output, JsonEncoding.UTF8);
+        // one event per line
+        this.generator.setRootValueSeparator(null);
+        this.fields = fields;
+        this.version = version;
+        this.lexiconVersion = lexiconVersion;
+        this.md5 = md5;
+    }
+
+    private void endStage(String stage) {
+        long now = System.currentTimeMillis();
+        timings.put(stage, now - lastStageEnd);
+        lastStageEnd = now;
+    }
+
+    private void startEvent(String event) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("event", event);
+    }
+
+    private void endEvent() throws IOException {
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    /**
+     * @return the id of a mention, stable between the labeling of the sentences and the final
+     * mentions: the offset of its sentence in the document and its offset in the sentence
+     */
+    static String getMentionId(Dataset dataset) {
+        return dataset.getGlobalContextOffset() + ":" + dataset.getOffsetStart();
+    }
+
+    private void writeMention(Dataset dataset) throws IOException {
+        generator.writeStringField("id", getMentionId(dataset));
+        generator.writeFieldName("mention");
+        dataset.writeJson(generator, fields);
+    }
+
+    @Override
+    public void documentSegmented(Document doc) {
+        endStage("segmentation");
+        try {
+            startEvent("document");
+            DatastetServiceUtils.writeApplicationDetails(generator, version, lexiconVersion);
+            if (fields.includes("md5"))
+                generator.writeStringField("md5", md5);
+            if (fields.includes("pages")) {
+                generator.writeArrayFieldStart("pages");
+                for(Page page : doc.getPages()) {
+                    generator.writeStartObject();
+                    generator.writeNumberField("page_height", page.getHeight());
+                    generator.writeNumberField("page_width", page.getWidth());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+            endEvent();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void sentencesLabeled(List<List<Dataset>> entities, Map<Integer, Integer> sentenceZones) {
+        endStage("labeling");
+        try {
+            // the sentences of a zone are consecutive
+            Integer currentZone = null;
+            for (int i = 0; i < entities.size(); i++) {
+                Integer zone = sentenceZones.get(i);
+                List<Dataset> datasets = entities.get(i);
+                if (zone == null || datasets == null || datasets.size() == 0)
+                    continue;
+                if (!zone.equals(currentZone)) {
+                    if (currentZone != null) {
+                        generator.writeEndArray();
+                        endEvent();
+                    }
+                    startEvent("zone");
+                    generator.writeNumberField("zone", zone);
+                    generator.writeBooleanField("provisional", true);
+                    generator.writeArrayFieldStart("mentions");
+                    currentZone = zone;
+                }
+                for (Dataset dataset : datasets) {
+                    generator.writeStartObject();
+                    writeMention(dataset);
+                    generator.writeEndObject();
+                }
+            }
+            if (currentZone != null) {
+                generator.writeEndArray();
+                endEvent();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the final mentions of the document, one event per mention, and their references
+     */
+    public void writeMentions(List<List<Dataset>> entities, List<BibDataSet> bibDataSet) throws IOException {
+        endStage("enrichment");
+        if (entities != null) {
+            for (List<Dataset> datasets : entities) {
+                for (Dataset dataset : datasets) {
+                    startEvent("mention");
+                    writeMention(dataset);
+                    endEvent();
+                    nbMentions++;
+                }
+            }
+        }
+        if (fields.includes("references")) {
+            startEvent("references");
+            DatastetServiceUtils.writeReferences(generator, bibDataSet, entities);
+            endEvent();
+        }
+    }
+
+    public void writeSummary() throws IOException {
+        startEvent("summary");
+        generator.writeNumberField("mentions", nbMentions);
+        generator.writeObjectFieldStart("timings");
+        for (Map.Entry<String, Long> timing : timings.entrySet()) {
+            generator.writeNumberField(timing.getKey(), timing.getValue());
+        }
+        generator.writeEndObject();
+        if (fields.includes("runtime"))
+            generator.writeNumberField("runtime", ((float)(System.currentTimeMillis() - start)/1000));
+        endEvent();
+    }
+
+    public void writeError(String message) throws IOException {
+        startEvent("error");
+        generator.writeStringField("message", message);
+        endEvent();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
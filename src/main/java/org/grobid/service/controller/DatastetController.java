@@ -1,6 +1,7 @@
 package org.grobid.service.controller;
 
 import org.glassfish.jersey.media.multipart.FormDataParam;
+import org.grobid.core.data.ResponseFields;
 import org.grobid.core.lexicon.DatastetLexicon;
 import org.grobid.core.main.GrobidHomeFinder;
 import org.grobid.core.main.LibraryLoader;
@@ -13,6 +14,8 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.InputStream;
@@ -42,6 +45,10 @@ public class DatastetController implements DatastetPaths {
     private static final String INPUT = "input";
     private static final String JSON = "json";
     private static final String ADD_PARAGRAPH_CONTEXT = "addParagraphContext";
+    private static final String PRETTY_PRINT = "prettyPrint";
+    private static final String FIELDS = "fields";
+    private static final String EXCLUDE = "exclude";
+    private static final String TIMEOUT = "timeout";
 
     private DatastetConfiguration configuration;
 
@@ -74,19 +81,33 @@ public class DatastetController implements DatastetPaths {
     }
 
     @Path(PATH_DATASET_SENTENCE)
-    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    @Produces({MediaType.APPLICATION_JSON + ";charset=utf-8", ResponseFormat.APPLICATION_SMILE, ResponseFormat.APPLICATION_CBOR})
     @POST
-    public Response processDatasetText_post(@FormParam(TEXT) String text) {
+    public Response processDatasetText_post(@FormParam(TEXT) String text,
+                                            @DefaultValue("1") @FormParam(PRETTY_PRINT) String prettyPrint,
+                                            @FormParam(FIELDS) String fields,
+                                            @FormParam(EXCLUDE) String exclude,
+                                            @Context HttpHeaders headers) {
         LOGGER.info(text);
-        return DatastetProcessString.processDatsetSentence(text);
+        return DatastetProcessString.processDatsetSentence(text, 
+            ResponseFormat.fromAcceptableMediaTypes(headers.getAcceptableMediaTypes()),
+            ResponseFields.parse(fields, exclude),
+            DatastetServiceUtils.validateBooleanRawParam(prettyPrint));
     }
     
     @Path(PATH_DATASET_SENTENCE)
-    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    @Produces({MediaType.APPLICATION_JSON + ";charset=utf-8", ResponseFormat.APPLICATION_SMILE, ResponseFormat.APPLICATION_CBOR})
     @GET
-    public Response processDatasetText_get(@QueryParam(TEXT) String text) {
+    public Response processDatasetText_get(@QueryParam(TEXT) String text,
+                                           @DefaultValue("1") @QueryParam(PRETTY_PRINT) String prettyPrint,
+                                           @QueryParam(FIELDS) String fields,
+                                           @QueryParam(EXCLUDE) String exclude,
+                                           @Context HttpHeaders headers) {
         LOGGER.info(text);
-        return DatastetProcessString.processDatsetSentence(text);
+        return DatastetProcessString.processDatsetSentence(text, 
+            ResponseFormat.fromAcceptableMediaTypes(headers.getAcceptableMediaTypes()),
+            ResponseFields.parse(fields, exclude),
+            DatastetServiceUtils.validateBooleanRawParam(prettyPrint));
     }
 
     @Path(PATH_DATASEER_PDF)
@@ -99,12 +120,31 @@ public class DatastetController implements DatastetPaths {
 
     @Path(PATH_DATASET_PDF)
     @Consumes(MediaType.MULTIPART_FORM_DATA)
-    @Produces(MediaType.APPLICATION_XML)
+    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, ResponseFormat.APPLICATION_SMILE, ResponseFormat.APPLICATION_CBOR})
     @POST
     public Response processDatasetPDF(@FormDataParam(INPUT) InputStream inputStream,
-                                      @DefaultValue("0") @FormDataParam(ADD_PARAGRAPH_CONTEXT) String addParagraphContext) {
+                                      @DefaultValue("0") @FormDataParam(ADD_PARAGRAPH_CONTEXT) String addParagraphContext,
+                                      @DefaultValue("1") @FormDataParam(PRETTY_PRINT) String prettyPrint,
+                                      @FormDataParam(FIELDS) String fields,
+                                      @FormDataParam(EXCLUDE) String exclude,
+                                      @FormDataParam(TIMEOUT) String timeout,
+                                      @Context HttpHeaders headers) {
         boolean addParagraphContextBoolean = DatastetServiceUtils.validateBooleanRawParam(addParagraphContext);
-        return DatastetProcessFile.processDatasetPDF(inputStream, addParagraphContextBoolean);
+        boolean prettyPrintBoolean = DatastetServiceUtils.validateBooleanRawParam(prettyPrint);
+        ResponseFormat format = ResponseFormat.fromAcceptableMediaTypes(headers.getAcceptableMediaTypes());
+        return DatastetProcessFile.processDatasetPDF(inputStream, addParagraphContextBoolean, format, 
+            ResponseFields.parse(fields, exclude), prettyPrintBoolean, timeout);
+    }
+
+    @Path(PATH_DATASET_PDF_STREAM)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(DatasetEventStream.APPLICATION_NDJSON)
+    @POST
+    public Response processDatasetPDFStream(@FormDataParam(INPUT) InputStream inputStream,
+                                            @FormDataParam(FIELDS) String fields,
+                                            @FormDataParam(EXCLUDE) String exclude,
+                                            @FormDataParam(TIMEOUT) String timeout) {
+        return DatastetProcessFile.processDatasetPDFStream(inputStream, ResponseFields.parse(fields, exclude), timeout);
     }
 
     @Path(PATH_DATASEER_TEI)
@@ -136,4 +176,11 @@ public class DatastetController implements DatastetPaths {
     public Response getResyncJsonDataTypes() {
         return DatastetDataTypeService.getInstance().getResyncJsonDataTypes();
     }
+
+    @Path(PATH_RELOAD_LEXICON)
+    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    @POST
+    public Response reloadLexicon() {
+        return DatastetRestProcessGeneric.reloadLexicon();
+    }
 }
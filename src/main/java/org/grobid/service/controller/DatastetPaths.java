@@ -26,6 +26,11 @@ public interface DatastetPaths {
      * path extension for annotating a PDF file with the dataset-relevant mentions
      */
     public static final String PATH_DATASET_PDF = "annotateDatasetPDF";
+    /**
+     * path extension for annotating a PDF file with the dataset-relevant mentions, streamed as
+     * newline-delimited JSON events during the processing
+     */
+    public static final String PATH_DATASET_PDF_STREAM = "annotateDatasetPDFStream";
 
     /**
      * path extension for classifying a textual sentence input.
@@ -59,4 +64,10 @@ public interface DatastetPaths {
      */
     public static final String PATH_RESYNC_DATATYPE_JSON = "resyncJsonDataTypes";
 
+    /**
+     * path extension to reload the lexical resources (DOI prefixes, url domains, black lists,
+     * stopwords, term IDF) without restarting the service
+     */
+    public static final String PATH_RELOAD_LEXICON = "reloadLexicon";
+
 }
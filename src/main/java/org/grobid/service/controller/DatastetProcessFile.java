@@ -6,12 +6,17 @@ import com.google.inject.Singleton;
 import org.apache.commons.lang3.StringUtils;
 import org.grobid.core.document.Document;
 import org.grobid.core.data.Dataset;
+import org.grobid.core.data.ResponseFields;
 import org.grobid.core.engines.DataseerClassifier;
 import org.grobid.core.engines.Engine;
 import org.grobid.core.engines.config.GrobidAnalysisConfig;
 import org.grobid.core.engines.DatasetParser;
+import org.grobid.core.engines.ProcessingCancelledException;
+import org.grobid.core.engines.ProcessingDeadline;
 import org.grobid.core.factory.GrobidFactory;
 import org.grobid.core.layout.Page;
+import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.lexicon.LexiconSnapshot;
 import org.grobid.core.utilities.IOUtilities;
 import org.grobid.core.utilities.ArticleUtilities;
 import org.grobid.core.utilities.DatastetUtilities;
@@ -22,9 +27,12 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.NoSuchElementException;
@@ -68,22 +76,32 @@ public class DatastetProcessFile {
      * associated information, return JSON response as layer annotations.
      *
      * @param inputStream the data of origin PDF document
+     * @param format encoding of the response
+     * @param fields fields of the response to be written
+     * @param prettyPrint if true, the JSON response is indented
+     * @param timeout timeout of the processing requested by the client in ms, if any
      * @return a response object which contains JSON annotation enrichments
      */
     public static Response processDatasetPDF(final InputStream inputStream,
-                                        boolean addParagraphContext) {
+                                        boolean addParagraphContext, 
+                                        ResponseFormat format,
+                                        ResponseFields fields,
+                                        boolean prettyPrint,
+                                        String timeout) {
         LOGGER.debug(methodLogIn());
-        String retVal = null;
         Response response = null;
         File originFile = null;
         DataseerClassifier classifier = DataseerClassifier.getInstance();
         DatasetParser parser = DatasetParser.getInstance(classifier.getDatastetConfiguration());
-        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        // the same lexical resources are used for the whole request
+        LexiconSnapshot lexicon = DatastetLexicon.getInstance().pin();
+        // the processing stages are aborted when the deadline of the request is exceeded
+        ProcessingDeadline deadline = new ProcessingDeadline(
+            DatastetServiceUtils.requestTimeout(classifier.getDatastetConfiguration().getRequestTimeout(), timeout));
+        deadline.bind();
 
         boolean disambiguate = false;
         try {
-            ObjectMapper mapper = new ObjectMapper();
-
             MessageDigest md = MessageDigest.getInstance("MD5");
             DigestInputStream dis = new DigestInputStream(inputStream, md); 
 
@@ -100,69 +118,141 @@ public class DatastetProcessFile {
             // starts conversion process
             Pair<List<List<Dataset>>, Document> extractedResults = 
                     parser.processPDF(originFile, disambiguate);
-            
-            StringBuilder json = new StringBuilder();
-            json.append("{ ");
-            json.append(DatastetServiceUtils.applicationDetails(classifier.getDatastetConfiguration().getVersion()));
-            
-            String md5Str = DatatypeConverter.printHexBinary(digest).toUpperCase();
-            json.append(", \"md5\": \"" + md5Str + "\"");
+            long end = System.currentTimeMillis();
 
-            // page height and width
-            json.append(", \"pages\":[");
+            String version = classifier.getDatastetConfiguration().getVersion();
+            String md5Str = DatatypeConverter.printHexBinary(digest).toUpperCase();
+            List<List<Dataset>> entities = extractedResults.getLeft();
             Document doc = extractedResults.getRight();
-            List<Page> pages = doc.getPages();
-            boolean first = true;
-            for(Page page : pages) {
-                if (first) 
-                    first = false;
-                else
-                    json.append(", ");    
-                json.append("{\"page_height\":" + page.getHeight());
-                json.append(", \"page_width\":" + page.getWidth() + "}");
-            }
+            float runtime = ((float)(end-start)/1000);
 
-            json.append("], \"mentions\":[");
-            boolean startList = true;
-            for(List<Dataset> results : extractedResults.getLeft()) {
-                for(Dataset dataset : results) {
-                    if (startList)
-                        startList = false;
-                    else 
-                        json.append(", ");
-                    json.append(dataset.toJson());
+            // the JSON result is written directly in the response output stream
+            StreamingOutput output = DatastetServiceUtils.streamResponse(generator -> {
+                generator.writeStartObject();
+                DatastetServiceUtils.writeApplicationDetails(generator, version, lexicon.getVersion());
+                if (fields.includes("md5"))
+                    generator.writeStringField("md5", md5Str);
+
+                // page height and width
+                if (fields.includes("pages")) {
+                    generator.writeArrayFieldStart("pages");
+                    for(Page page : doc.getPages()) {
+                        generator.writeStartObject();
+                        generator.writeNumberField("page_height", page.getHeight());
+                        generator.writeNumberField("page_width", page.getWidth());
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
                 }
-            }
 
-            json.append("], \"references\":[");
+                DatastetServiceUtils.writeMentions(generator, entities, fields);
+                // no TEI serialization of the references when they are not selected
+                if (fields.includes("references"))
+                    DatastetServiceUtils.writeReferences(generator, doc.getBibDataSets(), entities);
+                if (fields.includes("runtime"))
+                    generator.writeNumberField("runtime", runtime);
+                generator.writeEndObject();
+            }, format, prettyPrint);
+
+            response = Response.status(Status.OK).entity(output).type(format.getMediaType()).build();
+        } catch (ProcessingCancelledException exp) {
+            LOGGER.warn(exp.getMessage() + " after " + deadline.elapsed() + " ms, last completed stage: " + exp.getLastStage());
+            response = DatastetServiceUtils.abortedResponse(exp, deadline.elapsed());
+        } catch (Exception exp) {
+            LOGGER.error("An unexpected exception occurs. ", exp);
+            response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(exp.getMessage()).build();
+        } finally {
+            ProcessingDeadline.unbind();
+            DatastetLexicon.getInstance().unpin();
+            if (originFile != null)
+                IOUtilities.removeTempFile(originFile);
+        }
 
-            List<BibDataSet> bibDataSet = doc.getBibDataSets();
-            if (bibDataSet != null && bibDataSet.size()>0) {
-                DatastetServiceUtils.serializeReferences(json, bibDataSet, extractedResults.getLeft());
-            }
-            json.append("]");
+        LOGGER.debug(methodLogOut());
+        return response;
+    }
 
-            long end = System.currentTimeMillis();
-            float runtime = ((float)(end-start)/1000);
-            json.append(", \"runtime\": "+ runtime);
+    /**
+     * Uploads a PDF document and streams the identified datasets as newline-delimited JSON 
+     * events while the document is being processed, see DatasetEventStream. The processing 
+     * takes place when the response is written, so that the first events are received before
+     * the end of the processing.
+     *
+     * The processing is aborted when the deadline of the request is exceeded, with an "error" 
+     * event, or when the client is gone, the processing of the request still running in the 
+     * background (disambiguation) being then cancelled.
+     *
+     * @param inputStream the data of origin PDF document
+     * @param fields fields of the events to be written
+     * @param timeout timeout of the processing requested by the client in ms, if any
+     * @return a response object streaming the JSON events
+     */
+    public static Response processDatasetPDFStream(final InputStream inputStream,
+                                        ResponseFields fields,
+                                        String timeout) {
+        LOGGER.debug(methodLogIn());
+        Response response = null;
+        File originFile = null;
+        boolean streaming = false;
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            DigestInputStream dis = new DigestInputStream(inputStream, md); 
 
-            json.append("}");
+            originFile = IOUtilities.writeInputFile(dis);
+            byte[] digest = md.digest();
 
-            //System.out.println(json.toString());
+            if (originFile == null) {
+                LOGGER.error("The input file cannot be written.");
+                throw new DatastetServiceException(
+                    "The input file cannot be written. ", Status.INTERNAL_SERVER_ERROR);
+            } 
 
-            Object finalJsonObject = mapper.readValue(json.toString(), Object.class);
-            String retValString = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(finalJsonObject);
+            File file = originFile;
+            String md5Str = DatatypeConverter.printHexBinary(digest).toUpperCase();
+            StreamingOutput output = stream -> {
+                DataseerClassifier classifier = DataseerClassifier.getInstance();
+                DatasetParser parser = DatasetParser.getInstance(classifier.getDatastetConfiguration());
+                // the same lexical resources are used for the whole request
+                LexiconSnapshot lexicon = DatastetLexicon.getInstance().pin();
+                // the processing stages are aborted when the deadline of the request is exceeded
+                ProcessingDeadline deadline = new ProcessingDeadline(
+                    DatastetServiceUtils.requestTimeout(classifier.getDatastetConfiguration().getRequestTimeout(), timeout));
+                deadline.bind();
+                try (DatasetEventStream events = new DatasetEventStream(stream, fields, 
+                        classifier.getDatastetConfiguration().getVersion(), lexicon.getVersion(), md5Str)) {
+                    try {
+                        Pair<List<List<Dataset>>, Document> extractedResults = parser.processPDF(file, false, events);
+                        events.writeMentions(extractedResults.getLeft(), extractedResults.getRight().getBibDataSets());
+                        events.writeSummary();
+                    } catch (ProcessingCancelledException exp) {
+                        LOGGER.warn(exp.getMessage() + " after " + deadline.elapsed() + " ms, last completed stage: " + exp.getLastStage());
+                        events.writeError(exp.getMessage());
+                    } catch (Exception exp) {
+                        if (exp instanceof IOException || exp instanceof UncheckedIOException || 
+                            exp.getCause() instanceof UncheckedIOException) {
+                            // the client is gone, the processing is aborted, including its background tasks
+                            deadline.cancel();
+                            LOGGER.warn("The event stream cannot be written, processing aborted.");
+                        } else {
+                            LOGGER.error("An unexpected exception occurs. ", exp);
+                            events.writeError(exp.getMessage());
+                        }
+                    }
+                } finally {
+                    ProcessingDeadline.unbind();
+                    DatastetLexicon.getInstance().unpin();
+                    IOUtilities.removeTempFile(file);
+                }
+            };
 
-            if (!isResultOK(retValString)) {
-                response = Response.status(Status.NO_CONTENT).build();
-            } else {
-                response = Response.status(Status.OK).entity(retValString).type(MediaType.TEXT_PLAIN).build();
-            }
+            response = Response.status(Status.OK).entity(output).type(DatasetEventStream.APPLICATION_NDJSON).build();
+            // the input file is removed when the response is written
+            streaming = true;
         } catch (Exception exp) {
             LOGGER.error("An unexpected exception occurs. ", exp);
             response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(exp.getMessage()).build();
         } finally {
-            if (originFile != null)
+            if (originFile != null && !streaming)
                 IOUtilities.removeTempFile(originFile);
         }
 
@@ -313,20 +403,25 @@ public class DatastetProcessFile {
      *
      * @param inputStream the data of origin XML
      * @param addParagraphContext if true, the full paragraph where an annotation takes place is added
+     * @param format encoding of the response
+     * @param fields fields of the response to be written
+     * @param prettyPrint if true, the JSON response is indented
      * @return a response object containing the JSON annotations
      */
     public static Response extractXML(final InputStream inputStream, 
-                                        boolean addParagraphContext) {
+                                        boolean addParagraphContext, 
+                                        ResponseFormat format,
+                                        ResponseFields fields,
+                                        boolean prettyPrint) {
         LOGGER.debug(methodLogIn()); 
         Response response = null;
         File originFile = null;
         DataseerClassifier classifier = DataseerClassifier.getInstance();
         DatasetParser parser = DatasetParser.getInstance(classifier.getDatastetConfiguration());
-        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        // the same lexical resources are used for the whole request
+        LexiconSnapshot lexicon = DatastetLexicon.getInstance().pin();
 
         try {
-            ObjectMapper mapper = new ObjectMapper();
-
             MessageDigest md = MessageDigest.getInstance("MD5");
             DigestInputStream dis = new DigestInputStream(inputStream, md); 
 
@@ -342,60 +437,32 @@ public class DatastetProcessFile {
                 long end = System.currentTimeMillis();
 
                 List<List<Dataset>> extractedEntities = null;
+                List<BibDataSet> bibDataSet = null;
                 if (extractionResult != null) {
                     extractedEntities = extractionResult.getLeft();
+                    bibDataSet = extractionResult.getRight();
                 }
 
-                StringBuilder json = new StringBuilder();
-                json.append("{ ");
-                json.append(DatastetServiceUtils.applicationDetails(GrobidProperties.getVersion()));
-                
                 String md5Str = DatatypeConverter.printHexBinary(digest).toUpperCase();
-                json.append(", \"md5\": \"" + md5Str + "\"");
-                json.append(", \"mentions\":[");
-
-                if (extractedEntities != null && extractedEntities.size()>0) {
-                    boolean startList = true;
-                    for(List<Dataset> results : extractedEntities) {
-                        for(Dataset dataset : results) {
-                            if (startList)
-                                startList = false;
-                            else 
-                                json.append(", ");
-                            json.append(dataset.toJson());
-                        }
-                    }
-                }
-
-                json.append("], \"references\":[");
-
-                if (extractionResult != null) {
-                    List<BibDataSet> bibDataSet = extractionResult.getRight();
-                    if (bibDataSet != null && bibDataSet.size()>0) {
-                        DatastetServiceUtils.serializeReferences(json, bibDataSet, extractedEntities);
-                    }
-                }
-
-                json.append("]");
-
                 float runtime = ((float)(end-start)/1000);
-                json.append(", \"runtime\": "+ runtime);
-
-                json.append("}");
-
-                Object finalJsonObject = mapper.readValue(json.toString(), Object.class);
-                String retValString = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(finalJsonObject);
-
-                if (!isResultOK(retValString)) {
-                    response = Response.status(Status.NO_CONTENT).build();
-                } else {
-                    response = Response.status(Status.OK).entity(retValString).type(MediaType.TEXT_PLAIN).build();
-                    /*response = Response
-                            .ok()
-                            .type("application/json")
-                            .entity(retValString)
-                            .build();*/
-                }
+                List<List<Dataset>> entities = extractedEntities;
+                List<BibDataSet> references = bibDataSet;
+
+                // the JSON result is written directly in the response output stream
+                StreamingOutput output = DatastetServiceUtils.streamResponse(generator -> {
+                    generator.writeStartObject();
+                    DatastetServiceUtils.writeApplicationDetails(generator, GrobidProperties.getVersion(), lexicon.getVersion());
+                    if (fields.includes("md5"))
+                        generator.writeStringField("md5", md5Str);
+                    DatastetServiceUtils.writeMentions(generator, entities, fields);
+                    if (fields.includes("references"))
+                        DatastetServiceUtils.writeReferences(generator, references, entities);
+                    if (fields.includes("runtime"))
+                        generator.writeNumberField("runtime", runtime);
+                    generator.writeEndObject();
+                }, format, prettyPrint);
+
+                response = Response.status(Status.OK).entity(output).type(format.getMediaType()).build();
             }
 
         } catch (NoSuchElementException nseExp) {
@@ -405,6 +472,7 @@ public class DatastetProcessFile {
             LOGGER.error("An unexpected exception occurs. ", exp);
             response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(exp.getMessage()).build();
         } finally {
+            DatastetLexicon.getInstance().unpin();
             IOUtilities.removeTempFile(originFile);
         }
         LOGGER.debug(methodLogOut());
@@ -416,21 +484,26 @@ public class DatastetProcessFile {
      *
      * @param inputStream the data of origin TEI
      * @param addParagraphContext if true, the full paragraph where an annotation takes place is added
+     * @param format encoding of the response
+     * @param fields fields of the response to be written
+     * @param prettyPrint if true, the JSON response is indented
      * @return a response object containing the JSON annotations
      */
     public static Response extractTEI(final InputStream inputStream, 
                                         boolean disambiguate, 
-                                        boolean addParagraphContext) {
+                                        boolean addParagraphContext, 
+                                        ResponseFormat format,
+                                        ResponseFields fields,
+                                        boolean prettyPrint) {
         LOGGER.debug(methodLogIn()); 
         Response response = null;
         File originFile = null;
         DataseerClassifier classifier = DataseerClassifier.getInstance();
         DatasetParser parser = DatasetParser.getInstance(classifier.getDatastetConfiguration());
-        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        // the same lexical resources are used for the whole request
+        LexiconSnapshot lexicon = DatastetLexicon.getInstance().pin();
 
         try {
-            ObjectMapper mapper = new ObjectMapper();
-
             MessageDigest md = MessageDigest.getInstance("MD5");
             DigestInputStream dis = new DigestInputStream(inputStream, md); 
 
@@ -445,56 +518,32 @@ public class DatastetProcessFile {
                 long end = System.currentTimeMillis();
 
                 List<List<Dataset>> extractedEntities = null;
+                List<BibDataSet> bibDataSet = null;
                 if (extractionResult != null) {
                     extractedEntities = extractionResult.getLeft();
+                    bibDataSet = extractionResult.getRight();
                 }
 
-                StringBuilder json = new StringBuilder();
-                json.append("{ ");
-                json.append(DatastetServiceUtils.applicationDetails(GrobidProperties.getVersion()));
-                
                 String md5Str = DatatypeConverter.printHexBinary(digest).toUpperCase();
-                json.append(", \"md5\": \"" + md5Str + "\"");
-                json.append(", \"mentions\":[");
-                if (extractedEntities != null && extractedEntities.size()>0) {
-                    boolean startList = true;
-                    for(List<Dataset> results : extractedEntities) {
-                        for(Dataset dataset : results) {
-                            if (startList)
-                                startList = false;
-                            else 
-                                json.append(", ");
-                            json.append(dataset.toJson());
-                        }
-                    }
-                }
-                json.append("], \"references\":[");
-
-                if (extractionResult != null) {
-                    List<BibDataSet> bibDataSet = extractionResult.getRight();
-                    if (bibDataSet != null && bibDataSet.size()>0) {
-                        DatastetServiceUtils.serializeReferences(json, bibDataSet, extractedEntities);
-                    }
-                }
-                
                 float runtime = ((float)(end-start)/1000);
-                json.append(", \"runtime\": "+ runtime);
-
-                json.append("}");
-
-                Object finalJsonObject = mapper.readValue(json.toString(), Object.class);
-                String retValString = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(finalJsonObject);
-
-                if (!isResultOK(retValString)) {
-                    response = Response.status(Status.NO_CONTENT).build();
-                } else {
-                    response = Response.status(Status.OK).entity(retValString).type(MediaType.TEXT_PLAIN).build();
-                    /*response = Response
-                            .ok()
-                            .type("application/json")
-                            .entity(retValString)
-                            .build();*/
-                }
+                List<List<Dataset>> entities = extractedEntities;
+                List<BibDataSet> references = bibDataSet;
+
+                // the JSON result is written directly in the response output stream
+                StreamingOutput output = DatastetServiceUtils.streamResponse(generator -> {
+                    generator.writeStartObject();
+                    DatastetServiceUtils.writeApplicationDetails(generator, GrobidProperties.getVersion(), lexicon.getVersion());
+                    if (fields.includes("md5"))
+                        generator.writeStringField("md5", md5Str);
+                    DatastetServiceUtils.writeMentions(generator, entities, fields);
+                    if (fields.includes("references"))
+                        DatastetServiceUtils.writeReferences(generator, references, entities);
+                    if (fields.includes("runtime"))
+                        generator.writeNumberField("runtime", runtime);
+                    generator.writeEndObject();
+                }, format, prettyPrint);
+
+                response = Response.status(Status.OK).entity(output).type(format.getMediaType()).build();
             }
 
         } catch (NoSuchElementException nseExp) {
@@ -504,6 +553,7 @@ public class DatastetProcessFile {
             LOGGER.error("An unexpected exception occurs. ", exp);
             response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(exp.getMessage()).build();
         } finally {
+            DatastetLexicon.getInstance().unpin();
             IOUtilities.removeTempFile(originFile);
         }
         LOGGER.debug(methodLogOut());
@@ -8,6 +8,9 @@ import org.grobid.core.engines.DataseerClassifier;
 import org.grobid.core.engines.DatasetParser;
 import org.grobid.core.data.Dataset;
 import org.grobid.core.data.Dataset.DatasetType;
+import org.grobid.core.data.ResponseFields;
+import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.lexicon.LexiconSnapshot;
 import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.DatastetUtilities;
 import org.grobid.core.utilities.TextUtilities;
@@ -17,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import java.util.*;
 
 import com.fasterxml.jackson.core.*;
@@ -44,16 +48,23 @@ public class DatastetProcessString {
      * 
      * @param text 
      *          raw sentence string
+     * @param format 
+     *          encoding of the response
+     * @param fields 
+     *          fields of the response to be written
+     * @param prettyPrint 
+     *          if true, the JSON response is indented
      * @return a json response object containing the labeling information related to possible 
      *          dataset mentions
      */
-    public static Response processDatsetSentence(String text) {
+    public static Response processDatsetSentence(String text, ResponseFormat format, ResponseFields fields, boolean prettyPrint) {
         LOGGER.debug(methodLogIn());
         Response response = null;
         StringBuilder retVal = new StringBuilder();
         DataseerClassifier classifier = DataseerClassifier.getInstance();
         DatasetParser parser = DatasetParser.getInstance(classifier.getDatastetConfiguration());
-        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        // the same lexical resources are used for the whole request
+        LexiconSnapshot lexicon = DatastetLexicon.getInstance().pin();
         boolean disambiguate = true;
         try {
             LOGGER.debug(">> set raw sentence text for stateless service'...");
@@ -62,17 +73,6 @@ public class DatastetProcessString {
             long start = System.currentTimeMillis();
             List<Dataset> result = parser.processingString(text, disambiguate);
 
-            // building JSON response
-            StringBuilder json = new StringBuilder();
-            json.append("{");
-            json.append(DatastetServiceUtils.applicationDetails(classifier.getDatastetConfiguration().getVersion()));
-
-            byte[] encoded = encoder.quoteAsUTF8(text);
-            String output = new String(encoded);
-
-            //json.append(", \"text\": \"" + output + "\"");
-            json.append(", \"mentions\": [");
-
             ObjectMapper mapper = new ObjectMapper();
 
             String classifierJson = classifier.classify(text);
@@ -115,45 +115,42 @@ public class DatastetProcessString {
                 }
             }
 
-            boolean startList = true;
             for(Dataset dataset : result) {
-                if (startList)
-                    startList = false;
-                else 
-                    json.append(", ");
-
                 if (dataset.getType() == DatasetType.DATASET && (bestType != null) && dataset.getDataset() != null) {
                     dataset.getDataset().setBestDataType(bestType);
                     dataset.getDataset().setBestDataTypeScore(bestScore);
                     dataset.getDataset().setHasDatasetScore(hasDatasetScore);
                 }
-
-                json.append(dataset.toJson());
             }
-            json.append("]");
 
             long end = System.currentTimeMillis();
             float runtime = ((float)(end-start)/1000);
-            json.append(", \"runtime\": "+ runtime);
-            json.append("}");
-
-            //System.out.println(json.toString());
-
-            Object finalJsonObject = mapper.readValue(json.toString(), Object.class);
-            String retValString = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(finalJsonObject);
+            String version = classifier.getDatastetConfiguration().getVersion();
+
+            // the JSON result is written directly in the response output stream
+            StreamingOutput output = DatastetServiceUtils.streamResponse(generator -> {
+                generator.writeStartObject();
+                DatastetServiceUtils.writeApplicationDetails(generator, version, lexicon.getVersion());
+                generator.writeArrayFieldStart("mentions");
+                for(Dataset dataset : result) {
+                    dataset.writeJson(generator, fields);
+                }
+                generator.writeEndArray();
+                if (fields.includes("runtime"))
+                    generator.writeNumberField("runtime", runtime);
+                generator.writeEndObject();
+            }, format, prettyPrint);
 
-            if (!isResultOK(retValString)) {
-                response = Response.status(Status.NO_CONTENT).build();
-            } else {
-                response = Response.status(Status.OK).entity(retValString).type(MediaType.TEXT_PLAIN).build();
-            }
+            response = Response.status(Status.OK).entity(output).type(format.getMediaType()).build();
         } catch (NoSuchElementException nseExp) {
             LOGGER.error("Could not get an instance of DatasetParser. Sending service unavailable.");
             response = Response.status(Status.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             LOGGER.error("An unexpected exception occurs. ", e);
             response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
-        } 
+        } finally {
+            DatastetLexicon.getInstance().unpin();
+        }
         LOGGER.debug(methodLogOut());
         return response;
     }
@@ -1,11 +1,14 @@
 package org.grobid.service.controller;
 
+import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.lexicon.LexiconSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import java.util.concurrent.ExecutionException;
 
 public class DatastetRestProcessGeneric {
 
@@ -36,5 +39,30 @@ public class DatastetRestProcessGeneric {
         }
         return response;
     }
-    
+
+    /**
+     * Rebuild the lexical resources from the lexicon files and swap them with the current ones, 
+     * the requests in progress finishing with the previous resources.
+     *
+     * @return a response object containing the version of the lexical resources before and 
+     * after the reload
+     */
+    public static Response reloadLexicon() {
+        Response response = null;
+        DatastetLexicon lexicon = DatastetLexicon.getInstance();
+        String previousVersion = lexicon.getSnapshot().getVersion();
+        try {
+            LexiconSnapshot snapshot = lexicon.reloadInBackground().get();
+            String json = "{\"previous_lexicon_version\": \"" + previousVersion + 
+                "\", \"lexicon_version\": \"" + snapshot.getVersion() + "\"}";
+            response = Response.status(Status.OK).entity(json).type(MediaType.APPLICATION_JSON).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = Response.status(Status.SERVICE_UNAVAILABLE).build();
+        } catch (ExecutionException e) {
+            LOGGER.error("The lexicon cannot be reloaded, the version " + previousVersion + " is kept. ", e.getCause());
+            response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getCause().getMessage()).build();
+        }
+        return response;
+    }
 }
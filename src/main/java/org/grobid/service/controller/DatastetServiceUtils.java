@@ -1,4 +1,4 @@
- package org.grobid.service.controller;
+package org.grobid.service.controller;
 
 import java.util.*;
 import java.text.DateFormat;
@@ -7,9 +7,17 @@ import java.text.SimpleDateFormat;
 import org.grobid.core.data.BibDataSet;
 import org.grobid.core.data.Dataset;
 import org.grobid.core.data.BiblioComponent;
+import org.grobid.core.data.JsonWritable;
+import org.grobid.core.data.ResponseFields;
+import org.grobid.core.engines.ProcessingCancelledException;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,21 +34,104 @@ public class DatastetServiceUtils {
      * Give application information to be added in a JSON result
      */
     public static String applicationDetails(String version) {
-        StringBuilder sb = new StringBuilder();
+        return applicationDetails(version, null);
+    }
 
-        TimeZone tz = TimeZone.getTimeZone("UTC");
-        DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mmZ");
-        df.setTimeZone(tz);
-        String dateISOString = df.format(new java.util.Date());
+    /**
+     * Give application information to be added in a JSON result, with the version of the
+     * lexical resources used for the processing
+     */
+    public static String applicationDetails(String version, String lexiconVersion) {
+        StringBuilder sb = new StringBuilder();
 
         sb.append("\"application\": \"datastet\", ");
         if (version !=null)
             sb.append("\"version\": \"" + version + "\", ");
-        sb.append("\"date\": \"" + dateISOString + "\"");
+        if (lexiconVersion != null)
+            sb.append("\"lexicon_version\": \"" + lexiconVersion + "\", ");
+        sb.append("\"date\": \"" + currentDate() + "\"");
 
         return sb.toString();
     }
 
+    /**
+     * Write the application information fields of a JSON result
+     */
+    public static void writeApplicationDetails(JsonGenerator generator, String version, String lexiconVersion) throws IOException {
+        generator.writeStringField("application", "datastet");
+        if (version != null)
+            generator.writeStringField("version", version);
+        if (lexiconVersion != null)
+            generator.writeStringField("lexicon_version", lexiconVersion);
+        generator.writeStringField("date", currentDate());
+    }
+
+    private static String currentDate() {
+        TimeZone tz = TimeZone.getTimeZone("UTC");
+        DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mmZ");
+        df.setTimeZone(tz);
+        return df.format(new java.util.Date());
+    }
+
+    /**
+     * Response entity writing a result in the response output stream with the encoding
+     * requested by the client, only JSON being indented.
+     */
+    public static StreamingOutput streamResponse(JsonWritable content, ResponseFormat format, boolean prettyPrint) {
+        return output -> {
+            try (JsonGenerator generator = format.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+                if (prettyPrint && format.isTextual())
+                    generator.useDefaultPrettyPrinter();
+                content.writeJson(generator);
+            }
+        };
+    }
+
+    /**
+     * Response 504 to a request whose processing has been aborted because its deadline is exceeded, 
+     * with the time spent in the completed stages of the processing
+     *
+     * @param runtime elapsed time since the start of the request, in ms
+     */
+    public static Response abortedResponse(ProcessingCancelledException e, long runtime) {
+        StreamingOutput output = streamResponse(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("message", e.getMessage());
+            if (e.getLastStage() != null)
+                generator.writeStringField("lastStage", e.getLastStage());
+            generator.writeObjectFieldStart("timings");
+            for (Map.Entry<String, Long> timing : e.getTimings().entrySet()) {
+                generator.writeNumberField(timing.getKey(), timing.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeNumberField("runtime", ((float)runtime/1000));
+            generator.writeEndObject();
+        }, ResponseFormat.JSON, false);
+        return Response.status(Status.GATEWAY_TIMEOUT).entity(output).type(ResponseFormat.JSON.getMediaType()).build();
+    }
+
+    /**
+     * Timeout of the processing of a request, the timeout requested by the client being bounded 
+     * by the configured timeout
+     *
+     * @param configuredTimeout timeout of the requests in ms, none if null or 0
+     * @param requestedTimeout timeout requested by the client in ms, as provided in the request, if any
+     * @return the timeout in ms, 0 if none
+     */
+    public static long requestTimeout(Integer configuredTimeout, String requestedTimeout) {
+        long timeout = 0;
+        if (requestedTimeout != null && requestedTimeout.trim().length() > 0) {
+            try {
+                timeout = Long.parseLong(requestedTimeout.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid timeout: " + requestedTimeout);
+            }
+        }
+        if (configuredTimeout != null && configuredTimeout > 0 && (timeout <= 0 || timeout > configuredTimeout))
+            timeout = configuredTimeout;
+        return Math.max(0, timeout);
+    }
+
     /**
      * Convert REST boolean parameter value provided as string
      */
@@ -53,37 +144,58 @@ public class DatastetServiceUtils {
     }
 
     /**
-     * Serialize the bibliographical references present in a list of entities
+     * Write the dataset mentions of a document as a mentions field
+     */
+    public static void writeMentions(JsonGenerator generator, List<List<Dataset>> entities) throws IOException {
+        writeMentions(generator, entities, ResponseFields.ALL);
+    }
+
+    /**
+     * Write the dataset mentions of a document as a mentions field, restricted to the selected fields
+     */
+    public static void writeMentions(JsonGenerator generator, 
+                                     List<List<Dataset>> entities, 
+                                     ResponseFields fields) throws IOException {
+        generator.writeArrayFieldStart("mentions");
+        if (entities != null) {
+            for(List<Dataset> datasets : entities) {
+                for(Dataset dataset : datasets) {
+                    dataset.writeJson(generator, fields);
+                }
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Write the bibliographical references present in a list of entities as a references field
      */ 
-    public static void serializeReferences(StringBuilder json, 
-                                           List<BibDataSet> bibDataSet, 
-                                           List<List<Dataset>> entities) {
-        ObjectMapper mapper = new ObjectMapper();
-        List<Integer> serializedKeys = new ArrayList<Integer>();
-        for(List<Dataset> datasets : entities) {
-            for(Dataset entity : datasets) {
-                List<BiblioComponent> bibRefs = entity.getBibRefs();
-                if (bibRefs != null) {
+    public static void writeReferences(JsonGenerator generator, 
+                                       List<BibDataSet> bibDataSet, 
+                                       List<List<Dataset>> entities) throws IOException {
+        generator.writeArrayFieldStart("references");
+        if (bibDataSet != null && bibDataSet.size() > 0 && entities != null) {
+            Set<Integer> serializedKeys = new HashSet<>();
+            for(List<Dataset> datasets : entities) {
+                for(Dataset entity : datasets) {
+                    List<BiblioComponent> bibRefs = entity.getBibRefs();
+                    if (bibRefs == null)
+                        continue;
                     for(BiblioComponent bibComponent : bibRefs) {
                         int refKey = bibComponent.getRefKey();
-                        if (!serializedKeys.contains(refKey)) {
-                            if (serializedKeys.size()>0)
-                                json.append(", ");
-                            if (bibComponent.getBiblio() != null) {
-                                json.append("{ \"refKey\": " + refKey);
-                                try {
-                                    json.append(", \"tei\": " + mapper.writeValueAsString(bibComponent.getBiblio().toTEI(refKey)));
-                                } catch (JsonProcessingException e) {
-                                    LOGGER.warn("tei for biblio cannot be encoded", e);
-                                }
-                                json.append("}");
-                            }
-                            serializedKeys.add(Integer.valueOf(refKey));
+                        if (!serializedKeys.add(refKey))
+                            continue;
+                        if (bibComponent.getBiblio() != null) {
+                            generator.writeStartObject();
+                            generator.writeNumberField("refKey", refKey);
+                            generator.writeStringField("tei", bibComponent.getBiblio().toTEI(refKey));
+                            generator.writeEndObject();
                         }
                     }
                 }
             }
         }
+        generator.writeEndArray();
     }
     
-}
\ No newline at end of file
+}
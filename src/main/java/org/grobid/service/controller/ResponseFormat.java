@@ -0,0 +1,71 @@
+package org.grobid.service.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+
+/**
+ * Encodings of the JSON results of the service. The binary encodings (Smile and CBOR) are
+ * written by the same generator code as JSON, so all the formats follow the data model, and are
+ * selected by bulk clients with the Accept header of the request.
+ */
+public enum ResponseFormat {
+
+    // the JSON results have always been sent as text/plain
+    JSON(MediaType.TEXT_PLAIN, new JsonFactory()),
+    SMILE(ResponseFormat.APPLICATION_SMILE, new SmileFactory()),
+    CBOR(ResponseFormat.APPLICATION_CBOR, new CBORFactory());
+
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    private final String mediaType;
+    private final JsonFactory factory;
+
+    ResponseFormat(String mediaType, JsonFactory factory) {
+        this.mediaType = mediaType;
+        // the response output stream is closed by the container
+        this.factory = factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public JsonFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Only JSON is indented, the binary encodings are for clients which do not read the results
+     */
+    public boolean isTextual() {
+        return this == JSON;
+    }
+
+    /**
+     * @param acceptableMediaTypes the media types accepted by the client, by order of preference
+     * @return the first binary encoding accepted by the client before JSON or a wildcard,
+     * JSON otherwise
+     */
+    public static ResponseFormat fromAcceptableMediaTypes(List<MediaType> acceptableMediaTypes) {
+        if (acceptableMediaTypes == null)
+            return JSON;
+        for (MediaType mediaType : acceptableMediaTypes) {
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype())
+                return JSON;
+            String type = mediaType.getType() + "/" + mediaType.getSubtype();
+            if (APPLICATION_SMILE.equalsIgnoreCase(type))
+                return SMILE;
+            if (APPLICATION_CBOR.equalsIgnoreCase(type))
+                return CBOR;
+            if (MediaType.APPLICATION_JSON.equalsIgnoreCase(type) || MediaType.TEXT_PLAIN.equalsIgnoreCase(type))
+                return JSON;
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,128 @@
+package org.grobid.core.analyzers;
+
+import org.grobid.core.layout.LayoutToken;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DatastetAnalyzerTest {
+
+    // previous implementation of the tokenizer, the reference of the differential tests
+    private static List<String> tokenizeReference(String text) {
+        List<String> result = new ArrayList<>();
+        StringTokenizer st = new StringTokenizer(text, DatastetAnalyzer.DELIMITERS, true);
+        while (st.hasMoreTokens()) {
+            String token = st.nextToken();
+            String[] subtokens = token.split("(?<=[a-zA-Z])(?=\\d)|(?<=\\d)(?=\\D)");
+            result.addAll(Arrays.asList(subtokens));
+        }
+        return result;
+    }
+
+    @Test
+    public void testTokenize() {
+        DatastetAnalyzer analyzer = DatastetAnalyzer.getInstance();
+        assertThat(analyzer.tokenize("GSE12345 (n=42)"),
+            is(Arrays.asList("GSE", "12345", " ", "(", "n", "=", "42", ")")));
+        assertThat(analyzer.tokenize("10.5061/dryad.2k4h2"),
+            is(Arrays.asList("10", ".", "5061", "/", "dryad", ".", "2", "k", "4", "h", "2")));
+        assertThat(analyzer.tokenize("β2 12ab"), is(Arrays.asList("β2", " ", "12", "ab")));
+        assertThat(analyzer.tokenize(""), is(new ArrayList<String>()));
+    }
+
+    @Test
+    public void testTokenizeWithLayoutToken() {
+        List<LayoutToken> tokens = DatastetAnalyzer.getInstance().tokenizeWithLayoutToken("ADNI2 data");
+        assertThat(tokens.size(), is(4));
+        assertThat(tokens.get(1).getText(), is("2"));
+        assertThat(tokens.get(1).getOffset(), is(4));
+        assertThat(tokens.get(3).getOffset(), is(6));
+    }
+
+    @Test
+    public void testRetokenizeLayoutTokens() {
+        DatastetAnalyzer analyzer = DatastetAnalyzer.getInstance();
+        LayoutToken atomic = new LayoutToken("GenBank");
+        LayoutToken composite = new LayoutToken("GSE12345.");
+        List<LayoutToken> tokens = analyzer.retokenizeLayoutTokens(Arrays.asList(atomic, new LayoutToken(" "), composite));
+
+        assertThat(tokens.size(), is(5));
+        assertThat(tokens.get(0), sameInstance(atomic));
+        assertThat(tokens.get(2).getText(), is("GSE"));
+        assertThat(tokens.get(3).getText(), is("12345"));
+        assertThat(tokens.get(4).getText(), is("."));
+
+        // already tokenized by the analyzer
+        assertThat(analyzer.retokenizeLayoutTokens(tokens), sameInstance(tokens));
+        List<LayoutToken> sentence = analyzer.tokenizeWithLayoutToken("ADNI2 data");
+        assertThat(analyzer.retokenizeLayoutTokens(sentence), sameInstance(sentence));
+    }
+
+    @Test
+    public void testSubTokens() {
+        DatastetAnalyzer analyzer = DatastetAnalyzer.getInstance();
+        List<LayoutToken> zone = analyzer.tokenizeWithLayoutToken("UK Biobank data. GEO data.");
+        List<LayoutToken> sentence = DatastetAnalyzer.subTokens(zone, 6, 11);
+        assertThat(sentence.size(), is(5));
+        assertThat(sentence.get(0), sameInstance(zone.get(6)));
+        assertThat(analyzer.retokenizeLayoutTokens(sentence), sameInstance(sentence));
+
+        List<LayoutToken> name = DatastetAnalyzer.subTokens(sentence, 1, 2);
+        assertThat(name.size(), is(1));
+        assertThat(name.get(0).getText(), is("GEO"));
+        assertThat(analyzer.retokenizeLayoutTokens(name), sameInstance(name));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSubTokensReadOnly() {
+        List<LayoutToken> zone = DatastetAnalyzer.getInstance().tokenizeWithLayoutToken("GEO data");
+        DatastetAnalyzer.subTokens(zone, 0, 1).add(new LayoutToken("GenBank"));
+    }
+
+    @Test
+    public void testTokenizeAsReferenceOnSamples() throws IOException {
+        DatastetAnalyzer analyzer = DatastetAnalyzer.getInstance();
+        List<File> files = new ArrayList<>();
+        for (String path : Arrays.asList("resources/samples", "resources/dataset/dataseer/evaluation")) {
+            File[] samples = new File(path).listFiles((dir, name) -> name.endsWith(".xml"));
+            if (samples != null)
+                files.addAll(Arrays.asList(samples));
+        }
+        assertThat(files.size(), greaterThan(0));
+
+        for (File file : files) {
+            String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            for (String line : content.split("\n")) {
+                assertThat(file.getName(), analyzer.tokenize(line), is(tokenizeReference(line)));
+            }
+            assertThat(file.getName(), analyzer.tokenize(content), is(tokenizeReference(content)));
+        }
+    }
+
+    @Test
+    public void testTokenizeAsReferenceOnRandomTexts() {
+        DatastetAnalyzer analyzer = DatastetAnalyzer.getInstance();
+        String alphabet = "aZ09 .-()/ \n\tβé²½‰−𝐀_#";
+        Random random = new Random(42);
+        for (int n = 0; n < 10000; n++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int i = 0; i < length; i++)
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            assertThat(text.toString(), analyzer.tokenize(text.toString()), is(tokenizeReference(text.toString())));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.grobid.core.data;
+
+import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.main.GrobidHomeFinder;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DatasetJsonTest {
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        DatastetConfiguration configuration =
+            mapper.readValue(new File("resources/config/config.yml").getAbsoluteFile(), DatastetConfiguration.class);
+
+        GrobidHomeFinder grobidHomeFinder = new GrobidHomeFinder(Arrays.asList(configuration.getGrobidHome()));
+        GrobidProperties.getInstance(grobidHomeFinder);
+        DatastetLexicon.getInstance();
+    }
+
+    private static DatasetComponent component(Dataset.DatasetType type, String rawForm, int start) {
+        DatasetComponent component = new DatasetComponent(type, rawForm);
+        component.setOffsetStart(start);
+        component.setOffsetEnd(start + rawForm.length());
+        return component;
+    }
+
+    @Test
+    public void testWriteJson() throws Exception {
+        String context = "The \"GEO\" data\n(see C:\\data\\geo\tand é ☃) were used.";
+
+        Dataset dataset = new Dataset(Dataset.DatasetType.DATASET_NAME, "GEO");
+        DatasetComponent datasetName = component(Dataset.DatasetType.DATASET_NAME, "GEO", 5);
+        datasetName.setWikidataId("Q5513019");
+        datasetName.setWikipediaExternalRef(12);
+        datasetName.setDisambiguationScore(0.87654);
+        dataset.setDatasetName(datasetName);
+        DatasetComponent implicit = component(Dataset.DatasetType.DATASET, "data", 10);
+        implicit.setBestDataType("Genetic Data");
+        implicit.setBestDataTypeScore(0.5);
+        implicit.setHasDatasetScore(0.75);
+        dataset.setDataset(implicit);
+        dataset.setDataDevice(component(Dataset.DatasetType.DATA_DEVICE, "sequencer", 20));
+        dataset.setUrl(component(Dataset.DatasetType.URL, "https://example.org/?a=1&b=<2>", 30));
+        dataset.setPublisher(component(Dataset.DatasetType.DATASET_NAME, "NCBI", 40));
+        dataset.setContext(context);
+        dataset.setInDataAvailabilitySection(true);
+
+        BiblioComponent bibRef = new BiblioComponent(new BiblioItem(), 3);
+        bibRef.setRawForm("[3]");
+        dataset.addBibRef(bibRef);
+        // a reference without matched record is not written
+        dataset.addBibRef(new BiblioComponent(null, 4));
+
+        DatasetContextAttributes attributes = new DatasetContextAttributes();
+        attributes.setUsed(true);
+        attributes.setUsedScore(0.9);
+        attributes.setCreated(false);
+        attributes.setCreatedScore(0.1);
+        dataset.setMentionContextAttributes(attributes);
+
+        JsonNode root = new ObjectMapper().readTree(dataset.toJson());
+
+        assertThat(root.path("rawForm").asText(), is("GEO"));
+        assertThat(root.path("type").asText(), is("dataset-name"));
+        assertThat(root.path("inDataAvailabilitySection").booleanValue(), is(true));
+        // the line breaks are replaced in the context, the other characters are escaped
+        assertThat(root.path("context").asText(), is(context.replace("\n", " ")));
+
+        JsonNode name = root.path("dataset-name");
+        assertThat(name.path("rawForm").asText(), is("GEO"));
+        assertThat(name.path("wikidataId").asText(), is("Q5513019"));
+        assertThat(name.path("wikipediaExternalRef").intValue(), is(12));
+        assertThat(name.path("confidence").doubleValue(), is(0.8765));
+        assertThat(name.path("offsetStart").intValue(), is(5));
+        assertThat(name.path("offsetEnd").intValue(), is(8));
+
+        JsonNode implicitNode = root.path("dataset-implicit");
+        assertThat(implicitNode.path("bestDataType").asText(), is("Genetic Data"));
+        assertThat(implicitNode.path("bestTypeScore").doubleValue(), is(0.5));
+        assertThat(implicitNode.path("hasDataset").doubleValue(), is(0.75));
+        assertThat(root.path("data-device").path("rawForm").asText(), is("sequencer"));
+        assertThat(root.path("url").path("rawForm").asText(), is("https://example.org/?a=1&b=<2>"));
+        assertThat(root.path("publisher").path("rawForm").asText(), is("NCBI"));
+
+        assertThat(root.path("references").size(), is(1));
+        assertThat(root.path("references").get(0).path("label").asText(), is("[3]"));
+        assertThat(root.path("references").get(0).path("refKey").intValue(), is(3));
+
+        JsonNode mentionAttributes = root.path("mentionContextAttributes");
+        assertThat(mentionAttributes.path("used").path("value").booleanValue(), is(true));
+        assertThat(mentionAttributes.path("used").path("score").doubleValue(), is(0.9));
+        assertThat(mentionAttributes.path("created").path("value").booleanValue(), is(false));
+        assertThat(mentionAttributes.path("shared").path("value").isNull(), is(true));
+        assertThat(root.has("documentContextAttributes"), is(false));
+    }
+}
@@ -0,0 +1,35 @@
+package org.grobid.core.data;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ResponseFieldsTest {
+
+    @Test
+    public void testParse() {
+        assertThat(ResponseFields.parse(null, null), sameInstance(ResponseFields.ALL));
+        assertThat(ResponseFields.parse(" ", ","), sameInstance(ResponseFields.ALL));
+
+        ResponseFields fields = ResponseFields.parse("type, dataset-name,rawForm,normalizedForm", null);
+        assertThat(fields.includes("dataset-name"), is(true));
+        assertThat(fields.includes("normalizedForm"), is(true));
+        assertThat(fields.includes("boundingBoxes"), is(false));
+        assertThat(fields.includes("references"), is(false));
+    }
+
+    @Test
+    public void testExclude() {
+        ResponseFields fields = ResponseFields.parse(null, "boundingBoxes,references");
+        assertThat(fields.includes("rawForm"), is(true));
+        assertThat(fields.includes("boundingBoxes"), is(false));
+        assertThat(fields.includes("references"), is(false));
+
+        // exclusion first
+        fields = ResponseFields.parse("rawForm,context", "context");
+        assertThat(fields.includes("rawForm"), is(true));
+        assertThat(fields.includes("context"), is(false));
+    }
+}
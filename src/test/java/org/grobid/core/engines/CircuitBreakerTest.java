@@ -0,0 +1,85 @@
+package org.grobid.core.engines;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpenAfterConsecutiveFailures() {
+        AtomicInteger nbProbes = new AtomicInteger(0);
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60000, () -> {
+            nbProbes.incrementAndGet();
+            return true;
+        });
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertThat(breaker.allowRequest(), is(true));
+
+        breaker.recordFailure();
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+        // no probe before the retry interval
+        assertThat(breaker.allowRequest(), is(false));
+        assertThat(nbProbes.get(), is(0));
+    }
+
+    @Test
+    public void testProbeAndTrialCall() throws Exception {
+        AtomicBoolean alive = new AtomicBoolean(false);
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 10, alive::get);
+        breaker.recordFailure();
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+
+        Thread.sleep(20);
+        assertThat(breaker.allowRequest(), is(false));
+
+        alive.set(true);
+        Thread.sleep(20);
+        assertThat(breaker.allowRequest(), is(true));
+        assertThat(breaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        // only one trial call at a time
+        assertThat(breaker.allowRequest(), is(false));
+
+        // failed trial call opens the circuit again
+        breaker.recordFailure();
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+
+        Thread.sleep(20);
+        assertThat(breaker.allowRequest(), is(true));
+        breaker.recordSuccess();
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.allowRequest(), is(true));
+    }
+
+    @Test
+    public void testAbandonedTrialCall() throws Exception {
+        AtomicInteger nbProbes = new AtomicInteger(0);
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 10, () -> {
+            nbProbes.incrementAndGet();
+            return true;
+        });
+        breaker.recordFailure();
+
+        Thread.sleep(20);
+        assertThat(breaker.allowRequest(), is(true));
+        assertThat(breaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(breaker.allowRequest(), is(false));
+
+        // the result of the trial call is never recorded, the service is probed again after 
+        // the retry interval instead of refusing every call
+        Thread.sleep(20);
+        assertThat(breaker.allowRequest(), is(true));
+        assertThat(nbProbes.get(), is(2));
+        breaker.recordSuccess();
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+}
@@ -0,0 +1,127 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.DatasetComponent;
+import org.grobid.core.engines.classifier.TextClassifierModel;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Early-exit policy of the binary context classifiers, with stub models
+ */
+public class DatasetContextClassifierTest {
+
+    /**
+     * Binary model returning a fixed positive score for each text and recording the classified texts
+     */
+    private static class RecordingModel implements TextClassifierModel {
+        private final String positiveLabel;
+        private final String negativeLabel;
+        private final Map<String, Double> scores;
+        private final List<String> texts = new ArrayList<>();
+
+        private RecordingModel(String positiveLabel, String negativeLabel, Map<String, Double> scores) {
+            this.positiveLabel = positiveLabel;
+            this.negativeLabel = negativeLabel;
+            this.scores = scores;
+        }
+
+        @Override
+        public String classify(List<String> texts) {
+            this.texts.addAll(texts);
+            StringBuilder json = new StringBuilder("{\"classifications\": [");
+            for (int i = 0; i < texts.size(); i++) {
+                double score = scores.getOrDefault(texts.get(i), 0.2);
+                if (i > 0)
+                    json.append(", ");
+                json.append("{\"text\": \"\", \"" + positiveLabel + "\": " + score + 
+                    ", \"" + negativeLabel + "\": " + (1 - score) + "}");
+            }
+            return json.append("]}").toString();
+        }
+
+        @Override
+        public String getModelName() {
+            return positiveLabel;
+        }
+
+        @Override
+        public String getEngineName() {
+            return "stub";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static Dataset mention(String name, String context, boolean inDataAvailabilitySection) {
+        Dataset dataset = new Dataset(Dataset.DatasetType.DATASET_NAME, name);
+        dataset.setDatasetName(new DatasetComponent(Dataset.DatasetType.DATASET_NAME, name));
+        dataset.setContext(context);
+        dataset.setInDataAvailabilitySection(inDataAvailabilitySection);
+        return dataset;
+    }
+
+    @Test
+    public void testEarlyExitBand() {
+        String below = "The GEO data were not used here.";
+        String above = "We used the TCGA data.";
+        String inside = "The PDB might have been used.";
+        String availability = "The ENA accession is given below.";
+        Map<String, Double> usedScores = new HashMap<>();
+        usedScores.put(below, 0.05);
+        usedScores.put(above, 0.95);
+        usedScores.put(inside, 0.5);
+        usedScores.put(availability, 0.02);
+
+        DatastetConfiguration configuration = new DatastetConfiguration();
+        configuration.setContextClassifierEarlyExit(true);
+        configuration.setContextUsedLowerThreshold(0.1);
+        configuration.setContextUsedUpperThreshold(0.9);
+        RecordingModel used = new RecordingModel("used", "not_used", usedScores);
+        RecordingModel created = new RecordingModel("creation", "not_creation", Collections.emptyMap());
+        RecordingModel shared = new RecordingModel("shared", "not_shared", Collections.emptyMap());
+        DatasetContextClassifier classifier = new DatasetContextClassifier(configuration, used, created, shared);
+
+        List<Dataset> mentions = Arrays.asList(mention("GEO", below, false), mention("TCGA", above, false), 
+            mention("PDB", inside, false), mention("ENA", availability, true));
+        classifier.classifyDocumentContextsBinary(Collections.singletonList(mentions));
+
+        assertThat(used.texts, is(Arrays.asList(below, above, inside, availability)));
+        // contexts out of the band are not sent to the creation and shared classifiers, except
+        // in a data availability section
+        assertThat(created.texts, is(Arrays.asList(inside, availability)));
+        assertThat(shared.texts, is(Arrays.asList(inside, availability)));
+        assertThat(mentions.get(0).getMentionContextAttributes().getCreatedScore(), is(0.0));
+        assertThat(mentions.get(1).getMentionContextAttributes().getShared(), is(false));
+        assertThat(mentions.get(2).getMentionContextAttributes().getCreatedScore(), closeTo(0.2, 1e-9));
+        assertThat(classifier.getInvocationCounts().get("created"), is(2L));
+    }
+
+    @Test
+    public void testWithoutEarlyExit() {
+        DatastetConfiguration configuration = new DatastetConfiguration();
+        configuration.setContextClassifierEarlyExit(false);
+        RecordingModel used = new RecordingModel("used", "not_used", Collections.singletonMap("We used the TCGA data.", 0.95));
+        RecordingModel created = new RecordingModel("creation", "not_creation", Collections.emptyMap());
+        RecordingModel shared = new RecordingModel("shared", "not_shared", Collections.emptyMap());
+        DatasetContextClassifier classifier = new DatasetContextClassifier(configuration, used, created, shared);
+
+        classifier.classifyDocumentContextsBinary(Collections.singletonList(
+            Arrays.asList(mention("TCGA", "We used the TCGA data.", false))));
+        assertThat(created.texts, is(Arrays.asList("We used the TCGA data.")));
+        assertThat(shared.texts, is(Arrays.asList("We used the TCGA data.")));
+    }
+}
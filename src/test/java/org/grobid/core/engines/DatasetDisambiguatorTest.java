@@ -0,0 +1,249 @@
+package org.grobid.core.engines;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.DatasetComponent;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Disambiguator HTTP client against a local stand-in of the entity-fishing service
+ */
+public class DatasetDisambiguatorTest {
+    private static HttpServer server;
+    private static final AtomicInteger nbDisambiguateCalls = new AtomicInteger(0);
+    private static final List<JsonNode> queries = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/service/isalive", exchange -> respond(exchange, "true"));
+        server.createContext("/service/customisation/dataset", exchange -> respond(exchange, "{}"));
+        server.createContext("/service/disambiguate", exchange -> {
+            nbDisambiguateCalls.incrementAndGet();
+            respond(exchange, disambiguate(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+        });
+        server.start();
+    }
+
+    /**
+     * Echo the mentions of the query, disambiguated with a Wikidata identifier made of their 
+     * position in the query text
+     */
+    private static String disambiguate(String body) throws java.io.IOException {
+        JsonNode query = new ObjectMapper().readTree(body.substring(body.indexOf("{\"language\""), body.lastIndexOf("}") + 1));
+        queries.add(query);
+        StringBuilder response = new StringBuilder("{\"language\": {\"lang\": \"en\"}, \"entities\": [");
+        for (JsonNode mention : query.path("entities")) {
+            if (response.charAt(response.length() - 1) != '[')
+                response.append(", ");
+            int start = mention.path("offsetStart").intValue();
+            response.append("{\"rawName\": \"" + mention.path("rawName").textValue() + "\", \"offsetStart\": " + start + 
+                ", \"offsetEnd\": " + mention.path("offsetEnd").intValue() + ", \"wikidataId\": \"Q" + start + "\"}");
+        }
+        return response.append("]}").toString();
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, String body) throws java.io.IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        nbDisambiguateCalls.set(0);
+        queries.clear();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        server.stop(0);
+    }
+
+    private static DatastetConfiguration getConfiguration(int port) {
+        DatastetConfiguration configuration = new DatastetConfiguration();
+        configuration.setEntityFishingHost("localhost");
+        configuration.setEntityFishingPort(String.valueOf(port));
+        configuration.setEntityFishingMaxConnections(2);
+        configuration.setEntityFishingConnectTimeout(1000);
+        configuration.setEntityFishingReadTimeout(1000);
+        return configuration;
+    }
+
+    @Test
+    public void testPooledConnections() {
+        DatasetDisambiguator disambiguator = new DatasetDisambiguator(getConfiguration(server.getAddress().getPort()));
+        assertThat(disambiguator.checkIfAlive(), is(true));
+
+        for (int i = 0; i < 5; i++) {
+            String json = disambiguator.runNerd(new ArrayList<>(), new ArrayList<>(), "en");
+            assertThat(json.startsWith("{\"language\""), is(true));
+        }
+        assertThat(nbDisambiguateCalls.get(), is(5));
+
+        // connections are released to the pool and re-used
+        Map<String, Long> stats = disambiguator.getConnectionPoolStats();
+        assertThat(stats.get("leased"), is(0L));
+        assertThat(stats.get("available"), lessThanOrEqualTo(2L));
+        assertThat(stats.get("requests"), is(5L));
+        assertThat(stats.get("failed_requests"), is(0L));
+        disambiguator.close();
+    }
+
+    @Test
+    public void testUnavailableService() throws Exception {
+        // port without server
+        java.net.ServerSocket socket = new java.net.ServerSocket(0);
+        int port = socket.getLocalPort();
+        socket.close();
+
+        DatasetDisambiguator disambiguator = new DatasetDisambiguator(getConfiguration(port));
+        assertThat(disambiguator.checkIfAlive(), is(false));
+
+        // calls are skipped until the service is available again
+        assertThat(disambiguator.getCircuitState(), is(CircuitBreaker.State.OPEN));
+        assertThat(disambiguator.runNerd(new ArrayList<>(), new ArrayList<>(), "en") == null, is(true));
+        assertThat(disambiguator.getConnectionPoolStats().get("requests"), is(0L));
+        disambiguator.close();
+    }
+
+    /**
+     * Segment of text starting at the given document offset, with a dataset mention for each of 
+     * the given words
+     */
+    private static List<LayoutToken> segment(int offset, String text) {
+        List<LayoutToken> tokens = new ArrayList<>();
+        for (String word : text.split("(?<=[ \\n])|(?=[ \\n])")) {
+            LayoutToken token = new LayoutToken(word);
+            token.setOffset(offset);
+            tokens.add(token);
+            offset += word.length();
+        }
+        return tokens;
+    }
+
+    /**
+     * Dataset mentions of a segment for the given words, with offsets relative to the segment as
+     * set by the parser
+     */
+    private static List<Dataset> mentions(List<LayoutToken> tokens, String... words) {
+        List<Dataset> entities = new ArrayList<>();
+        int segmentStart = tokens.get(0).getOffset();
+        for (String word : words) {
+            for (LayoutToken token : tokens) {
+                if (token.getText().equals(word)) {
+                    DatasetComponent component = new DatasetComponent(Dataset.DatasetType.DATASET_NAME, word);
+                    component.setOffsetStart(token.getOffset() - segmentStart);
+                    component.setOffsetEnd(token.getOffset() - segmentStart + word.length());
+                    Dataset entity = new Dataset(Dataset.DatasetType.DATASET_NAME, word);
+                    entity.setDatasetName(component);
+                    entities.add(entity);
+                }
+            }
+        }
+        return entities;
+    }
+
+    @Test
+    public void testPrepareBatches() {
+        DatastetConfiguration configuration = getConfiguration(server.getAddress().getPort());
+        configuration.setEntityFishingBatchMaxLength(40);
+        DatasetDisambiguator disambiguator = new DatasetDisambiguator(configuration);
+
+        List<List<LayoutToken>> tokens = Arrays.asList(
+            segment(0, "We used GEO data."),
+            // following sentence of the same paragraph
+            segment(18, "And TCGA too."),
+            // gap larger than MAX_SEGMENT_GAP: new paragraph
+            segment(100, "The PDB was used."),
+            // following sentence, but the batch would exceed batchMaxLength
+            segment(118, "The UK Biobank cohort data was used as well."),
+            // no mention: skipped
+            segment(163, "Nothing here."));
+        List<List<Dataset>> entities = Arrays.asList(
+            mentions(tokens.get(0), "GEO"),
+            mentions(tokens.get(1), "TCGA"),
+            mentions(tokens.get(2), "PDB"),
+            mentions(tokens.get(3), "Biobank"),
+            mentions(tokens.get(4)));
+
+        List<List<Integer>> batches = disambiguator.prepareBatches(entities, tokens);
+        assertThat(batches, is(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2), Arrays.asList(3))));
+        assertThat(entities.get(0).get(0).getDatasetName().isDisambiguationSkipped(), is(true));
+        disambiguator.close();
+    }
+
+    @Test
+    public void testBuildBatchText() {
+        List<List<LayoutToken>> tokens = Arrays.asList(segment(10, "We used GEO."), segment(23, "And\nTCGA."));
+        int[] batchStarts = new int[2];
+
+        String text = DatasetDisambiguator.buildBatchText(tokens, batchStarts);
+        assertThat(text, is("We used GEO. And TCGA."));
+        assertThat(batchStarts[0], is(0));
+        assertThat(batchStarts[1], is(13));
+    }
+
+    @Test
+    public void testBatchOffsets() {
+        DatastetConfiguration configuration = getConfiguration(server.getAddress().getPort());
+        configuration.setDisambiguationCacheSize(0);
+        DatasetDisambiguator disambiguator = new DatasetDisambiguator(configuration);
+
+        // consecutive sentences of a PDF in one batch, with mentions at the same start in their sentence
+        List<List<LayoutToken>> tokens = Arrays.asList(
+            segment(1000, "GEO data were used."), 
+            segment(1020, "TCGA data too."), 
+            segment(1035, "PDB and GEO."));
+        List<List<Dataset>> entities = Arrays.asList(
+            mentions(tokens.get(0), "GEO"), 
+            mentions(tokens.get(1), "TCGA"), 
+            mentions(tokens.get(2), "PDB", "GEO"));
+        disambiguator.disambiguate(entities, tokens);
+
+        assertThat(queries.size(), is(1));
+        JsonNode query = queries.get(0);
+        assertThat(query.path("text").textValue(), is("GEO data were used. TCGA data too. PDB and GEO."));
+        List<Integer> queryOffsets = new ArrayList<>();
+        for (JsonNode mention : query.path("entities")) {
+            queryOffsets.add(mention.path("offsetStart").intValue());
+        }
+        assertThat(queryOffsets, is(Arrays.asList(0, 20, 35, 43)));
+
+        // each component gets the result of its own position in the batch text
+        List<String> identifiers = new ArrayList<>();
+        for (List<Dataset> segmentEntities : entities) {
+            for (Dataset entity : segmentEntities) {
+                assertThat(entity.getDatasetName().isDisambiguationSkipped(), is(false));
+                identifiers.add(entity.getDatasetName().getWikidataId());
+            }
+        }
+        assertThat(identifiers, is(Arrays.asList("Q0", "Q20", "Q35", "Q43")));
+        // the offsets of the components stay relative to their segment
+        assertThat(entities.get(2).get(1).getDatasetName().getOffsetStart(), is(8));
+        disambiguator.close();
+    }
+}
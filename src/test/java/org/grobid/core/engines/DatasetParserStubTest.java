@@ -0,0 +1,95 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.DatasetComponent;
+import org.grobid.core.lexicon.DatastetLexicon;
+import org.grobid.core.main.GrobidHomeFinder;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.utilities.DatastetConfiguration;
+import org.grobid.core.utilities.GrobidConfig.ModelParameters;
+import org.grobid.core.utilities.GrobidProperties;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.hasItem;
+
+/**
+ * Text processing pipeline run end to end with the "stub" engine set for the Deep Learning models
+ */
+public class DatasetParserStubTest {
+    private static DatasetParser parser;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        DatastetConfiguration configuration =
+            mapper.readValue(new File("resources/config/config.yml").getAbsoluteFile(), DatastetConfiguration.class);
+
+        GrobidHomeFinder grobidHomeFinder = new GrobidHomeFinder(Arrays.asList(configuration.getGrobidHome()));
+        GrobidProperties.getInstance(grobidHomeFinder);
+        for (ModelParameters model : configuration.getModels()) {
+            // the Deep Learning models are replaced by the stub engine
+            if (!"wapiti".equals(model.engine))
+                model.engine = "stub";
+            GrobidProperties.getInstance().addModel(model);
+        }
+        LibraryLoader.load();
+        DatastetLexicon.getInstance();
+
+        parser = DatasetParser.getInstance(configuration);
+    }
+
+    private static List<DatasetComponent> getComponents(List<Dataset> datasets) {
+        List<DatasetComponent> components = new ArrayList<>();
+        for (Dataset dataset : datasets) {
+            if (dataset.getDatasetName() != null)
+                components.add(dataset.getDatasetName());
+            if (dataset.getDataset() != null)
+                components.add(dataset.getDataset());
+            if (dataset.getDataDevice() != null)
+                components.add(dataset.getDataDevice());
+        }
+        return components;
+    }
+
+    @Test
+    public void testProcessingString() {
+        String text = "We used the TCGA data and the GEO database in this study.";
+        List<Dataset> datasets = parser.processingString(text, false);
+
+        List<String> names = new ArrayList<>();
+        List<String> mentions = new ArrayList<>();
+        for (Dataset dataset : datasets) {
+            if (dataset.getDatasetName() != null)
+                names.add(dataset.getDatasetName().getRawForm());
+        }
+        for (DatasetComponent component : getComponents(datasets)) {
+            mentions.add(component.getRawForm());
+            // the offsets of the mentions point to their text in the input
+            assertThat(text.substring(component.getOffsetStart(), component.getOffsetEnd()), is(component.getRawForm()));
+        }
+        assertThat(names, hasItems("TCGA", "GEO"));
+        assertThat(mentions, hasItems("data", "database"));
+        assertThat(mentions, not(hasItem("We")));
+        assertThat(mentions, not(hasItem("study")));
+
+        // the stub labeling is deterministic
+        List<String> secondMentions = new ArrayList<>();
+        for (DatasetComponent component : getComponents(parser.processingString(text, false))) {
+            secondMentions.add(component.getRawForm());
+        }
+        assertThat(secondMentions, is(mentions));
+    }
+}
@@ -0,0 +1,117 @@
+package org.grobid.core.engines;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+public class DisambiguationCacheTest {
+
+    @Test
+    public void testMemoryCache() {
+        DisambiguationCache cache = new DisambiguationCache(2, 60000, null, 0);
+        long now = System.currentTimeMillis();
+        cache.put("geo\tcancer tumor", new DisambiguationCache.Entry("Q1", 12, 0.8, false, "en", now));
+        cache.put("tcga\tcancer tumor", new DisambiguationCache.Entry(null, -1, null, false, null, now));
+
+        DisambiguationCache.Entry entry = cache.get("geo\tcancer tumor");
+        assertThat(entry, is(notNullValue()));
+        assertThat(entry.getWikidataId(), is("Q1"));
+        assertThat(entry.getWikipediaExternalRef(), is(12));
+
+        // least recently used entry is evicted
+        cache.put("ukb\tcohort", new DisambiguationCache.Entry("Q2", -1, 0.5, true, "en", now));
+        assertThat(cache.get("tcga\tcancer tumor"), is(nullValue()));
+        assertThat(cache.get("geo\tcancer tumor"), is(notNullValue()));
+        assertThat(cache.getStats().get("misses"), is(1L));
+    }
+
+    @Test
+    public void testExpiration() {
+        DisambiguationCache cache = new DisambiguationCache(10, 1000, null, 0);
+        cache.put("geo\tcancer", new DisambiguationCache.Entry("Q1", -1, 0.8, false, "en", System.currentTimeMillis() - 2000));
+        assertThat(cache.get("geo\tcancer"), is(nullValue()));
+    }
+
+    @Test
+    public void testDiskStore() throws Exception {
+        File file = File.createTempFile("disambiguation", ".cache");
+        file.delete();
+        file.deleteOnExit();
+        try {
+            DisambiguationCache cache = new DisambiguationCache(10, 60000, file.getPath(), 100);
+            cache.put("geo\tcancer", new DisambiguationCache.Entry("Q1", 12, 0.75, true, "en", System.currentTimeMillis()));
+            cache.close();
+
+            // new cache with an empty memory tier
+            cache = new DisambiguationCache(10, 60000, file.getPath(), 100);
+            DisambiguationCache.Entry entry = cache.get("geo\tcancer");
+            assertThat(entry, is(notNullValue()));
+            assertThat(entry.getWikidataId(), is("Q1"));
+            assertThat(entry.getWikipediaExternalRef(), is(12));
+            assertThat(entry.getScore(), is(0.75));
+            assertThat(entry.isFiltered(), is(true));
+            assertThat(entry.getLang(), is("en"));
+            assertThat(cache.getStats().get("disk_hits"), is(1L));
+            assertThat(cache.get("tcga\tcancer"), is(nullValue()));
+            cache.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testDiskStoreKeyFingerprint() throws Exception {
+        File file = File.createTempFile("disambiguation", ".cache");
+        file.delete();
+        try {
+            int nbSlots = 100;
+            String key = "geo\tcancer";
+            DisambiguationDiskStore store = new DisambiguationDiskStore(file, nbSlots);
+            store.put(key, new DisambiguationCache.Entry("Q1", 12, 0.75, false, "en", System.currentTimeMillis()));
+            assertThat(store.get(key).getWikidataId(), is("Q1"));
+            store.close();
+
+            // the slot of the key now holds the fingerprint of another key with the same hash
+            long slot = Math.floorMod(DisambiguationDiskStore.hash(key), (long) nbSlots);
+            try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+                raw.seek(16 + slot * 72 + 8);
+                raw.writeLong(DisambiguationDiskStore.fingerprint("another key"));
+            }
+            store = new DisambiguationDiskStore(file, nbSlots);
+            assertThat(store.get(key), is(nullValue()));
+            store.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testDiskStoreSingleProcess() throws Exception {
+        File file = File.createTempFile("disambiguation", ".cache");
+        file.delete();
+        try {
+            DisambiguationDiskStore store = new DisambiguationDiskStore(file, 100);
+            try {
+                new DisambiguationDiskStore(file, 100);
+                fail("the store file should be locked");
+            } catch (IOException e) {
+                // expected
+            }
+            store.close();
+
+            // the file is released when the store is closed
+            store = new DisambiguationDiskStore(file, 100);
+            store.close();
+        } finally {
+            file.delete();
+        }
+    }
+}
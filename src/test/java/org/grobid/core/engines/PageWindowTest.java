@@ -0,0 +1,138 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.BibDataSet;
+import org.grobid.core.data.BiblioItem;
+import org.grobid.core.data.Dataset;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.layout.PDFAnnotation;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class PageWindowTest {
+
+    private static LayoutToken token(String text, int offset, int page) {
+        LayoutToken token = new LayoutToken(text);
+        token.setOffset(offset);
+        token.setPage(page);
+        return token;
+    }
+
+    private static BibDataSet reference(int ordinal) {
+        BiblioItem biblio = new BiblioItem();
+        biblio.setOrdinal(ordinal);
+        BibDataSet reference = new BibDataSet();
+        reference.setResBib(biblio);
+        return reference;
+    }
+
+    /**
+     * Sentences of a window with one sentence per zone
+     */
+    private static PDFSentences sentences(List<LayoutToken> tokens, boolean... implicitRelevance) {
+        PDFSentences sentences = new PDFSentences();
+        for (int i = 0; i < implicitRelevance.length; i++) {
+            sentences.tokens.add(Collections.singletonList(tokens.get(i)));
+            sentences.texts.add(tokens.get(i).getText());
+            sentences.offsetStarts.add(tokens.get(i).getOffset());
+            sentences.entities.add(new ArrayList<Dataset>());
+            sentences.zones.put(i, i);
+            sentences.relevantSectionsNamedDatasets.add(true);
+            sentences.relevantSectionsImplicitDatasets.add(implicitRelevance[i]);
+        }
+        return sentences;
+    }
+
+    @Test
+    public void testPages() {
+        PageWindow first = new PageWindow(0, 20, 45);
+        PageWindow last = new PageWindow(2, 20, 45);
+        assertThat(first.getStartPage(), is(1));
+        assertThat(first.getEndPage(), is(20));
+        assertThat(last.getStartPage(), is(41));
+        assertThat(last.getEndPage(), is(45));
+        // pages of the window numbered from 1 or as in the document
+        assertThat(last.getPageShift(1), is(40));
+        assertThat(last.getPageShift(41), is(0));
+    }
+
+    @Test
+    public void testShift() {
+        PageWindow window = new PageWindow(1, 20, 45);
+        List<LayoutToken> tokens = Arrays.asList(token("Data", 0, 1), token("GEO", 120, 2));
+        PDFAnnotation annotation = new PDFAnnotation();
+        annotation.setPageNumber(2);
+
+        assertThat(window.shift(tokens, Collections.singletonList(annotation), window.getPageShift(1)), is(true));
+        assertThat(tokens.get(0).getOffset(), is(PageWindow.OFFSET_RANGE));
+        assertThat(tokens.get(1).getOffset(), is(PageWindow.OFFSET_RANGE + 120));
+        assertThat(tokens.get(0).getPage(), is(21));
+        assertThat(tokens.get(1).getPage(), is(22));
+        assertThat(annotation.getPageNumber(), is(22));
+
+        List<LayoutToken> tooLong = Collections.singletonList(token("x", PageWindow.OFFSET_RANGE, 1));
+        assertThat(window.shift(tooLong, null, 0), is(false));
+    }
+
+    @Test
+    public void testWindowLimit() {
+        // the offsets of the last possible window remain positive
+        PageWindow last = new PageWindow(PageWindow.MAX_WINDOWS - 1, 1, PageWindow.MAX_WINDOWS);
+        assertThat(last.getOffsetShift(), is(Integer.MAX_VALUE - PageWindow.OFFSET_RANGE + 1));
+
+        assertThat(PageWindow.getWindowSize(20, 45), is(20));
+        assertThat(PageWindow.getWindowSize(1, PageWindow.MAX_WINDOWS), is(1));
+        // windows enlarged beyond MAX_WINDOWS windows
+        int nbPages = PageWindow.MAX_WINDOWS * 3 + 1;
+        int windowSize = PageWindow.getWindowSize(1, nbPages);
+        assertThat(windowSize, is(4));
+        assertThat((nbPages + windowSize - 1) / windowSize <= PageWindow.MAX_WINDOWS, is(true));
+
+        try {
+            new PageWindow(PageWindow.MAX_WINDOWS, 1, PageWindow.MAX_WINDOWS + 1);
+            fail("window index out of the offset range");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        // windows processed from the last one
+        PageWindow second = new PageWindow(1, 20, 40);
+        List<LayoutToken> secondTokens = Arrays.asList(token("GEO", 10, 1), token("available", 50, 3));
+        second.shift(secondTokens, null, second.getPageShift(1));
+        List<BibDataSet> references = new ArrayList<>();
+        PageWindow.appendReferences(references, Arrays.asList(reference(0), reference(1)));
+        PDFSentences merged = sentences(Arrays.asList(token("Title", 0, 1), token("Methods", 30, 2)), false, false);
+
+        PageWindow first = new PageWindow(0, 20, 40);
+        first.shift(Collections.<LayoutToken>emptyList(), null, first.getPageShift(1));
+        PageWindow.appendReferences(references, Arrays.asList(reference(0)));
+        merged.append(sentences(secondTokens, false, true));
+
+        // references numbered as their index in the document references
+        assertThat(references.size(), is(3));
+        for (int i = 0; i < references.size(); i++) {
+            assertThat(references.get(i).getResBib().getOrdinal(), is(i));
+        }
+
+        // sentences and zones of the second window follow the ones of the first window
+        assertThat(merged.texts.size(), is(4));
+        assertThat(merged.zones.get(2), is(2));
+        assertThat(merged.zones.get(3), is(3));
+        assertThat(merged.relevantSectionsImplicitDatasets.get(merged.zones.get(3)), is(true));
+        assertThat(merged.relevantSectionsImplicitDatasets.get(merged.zones.get(1)), is(false));
+        // offsets ordered and disjoint between the windows
+        assertThat(merged.offsetStarts.get(1) < merged.offsetStarts.get(2), is(true));
+        assertThat(merged.offsetStarts.get(2), is(PageWindow.OFFSET_RANGE + 10));
+        assertThat(merged.tokens.get(3).get(0).getPage(), is(23));
+    }
+}
@@ -0,0 +1,64 @@
+package org.grobid.core.engines;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+public class ProcessingDeadlineTest {
+
+    @After
+    public void tearDown() {
+        ProcessingDeadline.unbind();
+    }
+
+    @Test
+    public void testNoDeadline() {
+        ProcessingDeadline.checkCurrent();
+        ProcessingDeadline.checkpointCurrent("segmentation");
+
+        ProcessingDeadline deadline = new ProcessingDeadline(0);
+        deadline.bind();
+        assertThat(ProcessingDeadline.current() == deadline, is(true));
+        assertThat(deadline.remaining(), is(Long.MAX_VALUE));
+        ProcessingDeadline.checkpointCurrent("segmentation");
+        ProcessingDeadline.checkpointCurrent("labeling");
+        ProcessingDeadline.checkpointCurrent("labeling");
+        assertThat(deadline.getTimings().keySet().toString(), is("[segmentation, labeling]"));
+
+        ProcessingDeadline.unbind();
+        assertThat(ProcessingDeadline.current(), is(nullValue()));
+    }
+
+    @Test
+    public void testDeadlineExceeded() throws Exception {
+        ProcessingDeadline deadline = new ProcessingDeadline(20);
+        deadline.checkpoint("segmentation");
+        Thread.sleep(50);
+        try {
+            deadline.checkpoint("labeling");
+            fail("the deadline should be exceeded");
+        } catch (ProcessingCancelledException e) {
+            assertThat(e.isDeadlineExceeded(), is(true));
+            assertThat(e.getLastStage(), is("labeling"));
+            assertThat(e.getTimings().keySet().toString(), is("[segmentation, labeling]"));
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        ProcessingDeadline deadline = new ProcessingDeadline(60000);
+        deadline.check();
+        deadline.cancel();
+        try {
+            deadline.check();
+            fail("the processing should be cancelled");
+        } catch (ProcessingCancelledException e) {
+            assertThat(e.isDeadlineExceeded(), is(false));
+            assertThat(e.getLastStage(), is(nullValue()));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.grobid.core.engines.classifier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class StubTextClassifierModelTest {
+
+    @Test
+    public void testDeterministicBinaryScores() throws Exception {
+        StubTextClassifierModel model = new StubTextClassifierModel("context_used");
+        List<String> texts = Arrays.asList("We used the GEO dataset.", "The weather was nice.");
+
+        JsonNode first = new ObjectMapper().readTree(model.classify(texts)).path("classifications");
+        JsonNode second = new ObjectMapper().readTree(model.classify(texts)).path("classifications");
+
+        assertThat(first.size(), is(2));
+        assertThat(first.get(0).path("used").doubleValue(), is(second.get(0).path("used").doubleValue()));
+        assertThat(first.get(0).path("used").doubleValue(), greaterThan(0.5));
+        assertThat(first.get(1).path("used").doubleValue(), lessThan(0.5));
+        assertThat(first.get(0).path("used").doubleValue() + first.get(0).path("not_used").doubleValue(), 
+            closeTo(1.0, 1e-9));
+    }
+
+    @Test
+    public void testMultiLabelScores() throws Exception {
+        StubTextClassifierModel model = new StubTextClassifierModel("context");
+        JsonNode classification = new ObjectMapper().readTree(
+            model.classify(Arrays.asList("The data were deposited in a public repository."))).path("classifications").get(0);
+
+        assertThat(classification.path("shared").doubleValue(), greaterThan(0.5));
+        assertThat(classification.path("creation").doubleValue(), lessThan(0.5));
+        assertThat(classification.has("used"), is(true));
+    }
+}
@@ -0,0 +1,116 @@
+package org.grobid.core.engines.classifier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
+
+public class TextClassifierModelPoolTest {
+
+    private TextClassifierModelPool pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null)
+            pool.close();
+    }
+
+    /**
+     * Model returning the name of the worker thread, blocking until released
+     */
+    private static class BlockingModel implements TextClassifierModel {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        private BlockingModel(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String classify(List<String> texts) throws Exception {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return Thread.currentThread().getName();
+        }
+
+        @Override
+        public String getModelName() {
+            return "test";
+        }
+
+        @Override
+        public String getEngineName() {
+            return "stub";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testDispatchToLeastLoadedWorkers() throws Exception {
+        int nbWorkers = 3;
+        CountDownLatch started = new CountDownLatch(nbWorkers);
+        CountDownLatch release = new CountDownLatch(1);
+        pool = new TextClassifierModelPool("test", nbWorkers, () -> new BlockingModel(started, release));
+
+        // concurrent batches, each one is dispatched to a different idle worker
+        ExecutorService callers = Executors.newFixedThreadPool(nbWorkers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < nbWorkers; i++) {
+                results.add(callers.submit(() -> pool.classify(Collections.singletonList("text"))));
+            }
+            assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+            assertThat(pool.getQueueDepths(), is(Arrays.asList(1, 1, 1)));
+
+            release.countDown();
+            Set<String> threads = new HashSet<>();
+            for (Future<String> result : results) {
+                String thread = result.get(10, TimeUnit.SECONDS);
+                assertThat(thread, startsWith("classifier-test-"));
+                threads.add(thread);
+            }
+            assertThat(threads.size(), is(nbWorkers));
+            assertThat(pool.getQueueDepths(), is(Arrays.asList(0, 0, 0)));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExceptionUnwrapping() throws Exception {
+        pool = new TextClassifierModelPool("test", 2, () -> new StubTextClassifierModel("test") {
+            @Override
+            public String classify(List<String> texts) throws Exception {
+                throw new IOException("inference failed");
+            }
+        });
+
+        try {
+            pool.classify(Collections.singletonList("text"));
+            fail("the exception of the model should be thrown");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("inference failed"));
+        }
+        assertThat(pool.getQueueDepths(), is(Arrays.asList(0, 0)));
+    }
+}
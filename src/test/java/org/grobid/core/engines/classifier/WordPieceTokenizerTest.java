@@ -0,0 +1,50 @@
+package org.grobid.core.engines.classifier;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WordPieceTokenizerTest {
+    private static File vocabularyFile;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        vocabularyFile = File.createTempFile("vocab", ".txt");
+        vocabularyFile.deleteOnExit();
+        // ids are the line numbers
+        FileUtils.writeLines(vocabularyFile, UTF_8.name(), Arrays.asList(
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "the", "data", "##set", "was", "used", ",", "(", ")", "gen", "##bank", "cafe"));
+    }
+
+    @Test
+    public void testEncodeCased() {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(vocabularyFile, false);
+        int[] ids = tokenizer.encode("the dataset (genbank) was used,", 50);
+        assertThat(Arrays.toString(ids), is(Arrays.toString(new int[] {2, 4, 5, 6, 10, 12, 13, 11, 7, 8, 9, 3})));
+
+        // unknown word and casing
+        ids = tokenizer.encode("The dataset", 50);
+        assertThat(Arrays.toString(ids), is(Arrays.toString(new int[] {2, 1, 5, 6, 3})));
+    }
+
+    @Test
+    public void testEncodeLowerCaseAccents() {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(vocabularyFile, true);
+        int[] ids = tokenizer.encode("The Café dataset", 50);
+        assertThat(Arrays.toString(ids), is(Arrays.toString(new int[] {2, 4, 14, 5, 6, 3})));
+    }
+
+    @Test
+    public void testEncodeTruncation() {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(vocabularyFile, false);
+        int[] ids = tokenizer.encode("the dataset was used", 4);
+        assertThat(Arrays.toString(ids), is(Arrays.toString(new int[] {2, 4, 5, 3})));
+    }
+}
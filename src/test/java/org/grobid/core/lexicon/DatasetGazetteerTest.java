@@ -0,0 +1,116 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.utilities.OffsetPosition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringTokenizer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DatasetGazetteerTest {
+
+    // tokenization on delimiters as with DatastetAnalyzer
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringTokenizer st = new StringTokenizer(text, " -,.()", true);
+        while (st.hasMoreTokens())
+            tokens.add(st.nextToken());
+        return tokens;
+    }
+
+    private static List<String> match(DatasetGazetteer gazetteer, String text) {
+        List<String> tokens = tokenize(text);
+        List<String> names = new ArrayList<>();
+        for (OffsetPosition position : gazetteer.match(tokens)) {
+            names.add(String.join("", tokens.subList(position.start, position.end + 1)));
+        }
+        return names;
+    }
+
+    @Test
+    public void testMatch() {
+        DatasetGazetteer gazetteer = new DatasetGazetteer(Arrays.asList("UK Biobank", "MIMIC-III", "MIMIC",
+            "The Cancer Genome Atlas", "Cancer Genome", "TCGA", "TCGA"), DatasetGazetteerTest::tokenize);
+        assertThat(gazetteer.size(), is(6));
+
+        assertThat(match(gazetteer, "Data from the UK Biobank and MIMIC-III were used."),
+            is(Arrays.asList("UK Biobank", "MIMIC-III")));
+        // leftmost-longest
+        assertThat(match(gazetteer, "The Cancer Genome Atlas (TCGA) data"),
+            is(Arrays.asList("The Cancer Genome Atlas", "TCGA")));
+        assertThat(match(gazetteer, "the Cancer Genome Atlas"), is(Arrays.asList("Cancer Genome")));
+        // a failed longer match falls back on the shorter names
+        assertThat(match(gazetteer, "MIMIC-II and MIMIC"), is(Arrays.asList("MIMIC", "MIMIC")));
+        // whitespace tokens are ignored, matching is case-sensitive and on token boundaries
+        assertThat(match(gazetteer, "UK  Biobank, uk biobank, UKBiobank, TCGAs"), is(Arrays.asList("UK  Biobank")));
+        assertThat(match(gazetteer, ""), is(new ArrayList<String>()));
+    }
+
+    @Test
+    public void testMatchAsNaiveScan() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            names.add("D" + (i % 50) + " set " + (i % 7) + (i % 3 == 0 ? "" : " v" + i));
+        }
+        DatasetGazetteer gazetteer = new DatasetGazetteer(names, DatasetGazetteerTest::tokenize);
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            text.append("D").append((i * 13) % 60).append(" set ").append(i % 9).append(i % 4 == 0 ? " v" + (i * 3) : "").append(" ");
+        }
+        List<String> tokens = tokenize(text.toString());
+
+        // naive leftmost-longest scan
+        List<String> expected = new ArrayList<>();
+        List<List<String>> nameTokens = new ArrayList<>();
+        for (String name : names) {
+            List<String> local = new ArrayList<>();
+            for (String token : tokenize(name)) {
+                if (token.trim().length() > 0)
+                    local.add(token);
+            }
+            nameTokens.add(local);
+        }
+        int i = 0;
+        while (i < tokens.size()) {
+            int longestEnd = -1;
+            if (tokens.get(i).trim().length() > 0) {
+                for (List<String> local : nameTokens) {
+                    int j = i;
+                    int k = 0;
+                    int end = -1;
+                    while (j < tokens.size() && k < local.size()) {
+                        if (tokens.get(j).trim().length() == 0) {
+                            j++;
+                            continue;
+                        }
+                        if (!tokens.get(j).equals(local.get(k)))
+                            break;
+                        end = j;
+                        j++;
+                        k++;
+                    }
+                    if (k == local.size() && end > longestEnd)
+                        longestEnd = end;
+                }
+            }
+            if (longestEnd != -1) {
+                expected.add(i + "-" + longestEnd);
+                i = longestEnd + 1;
+            } else {
+                i++;
+            }
+        }
+
+        List<String> actual = new ArrayList<>();
+        for (OffsetPosition position : gazetteer.match(tokens)) {
+            actual.add(position.start + "-" + position.end);
+        }
+        assertThat(expected.size() > 0, is(true));
+        assertThat(actual, is(expected));
+    }
+}
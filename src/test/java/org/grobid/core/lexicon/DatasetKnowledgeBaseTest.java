@@ -0,0 +1,70 @@
+package org.grobid.core.lexicon;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DatasetKnowledgeBaseTest {
+    private static File input;
+    private static File index;
+    private static DatasetKnowledgeBase knowledgeBase;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        input = File.createTempFile("datasets", ".jsonl");
+        index = File.createTempFile("datasets", ".kb");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(input), StandardCharsets.UTF_8)) {
+            writer.write("{\"id\": \"Q1\", \"labels\": [\"The Cancer Genome Atlas\"], \"aliases\": [\"TCGA\"], " +
+                "\"types\": [\"Q1172284\"], \"description\": \"cancer genomics program\", \"sitelinks\": 20}\n");
+            writer.write("{\"id\": \"Q2\", \"labels\": [\"TCGA\"], \"description\": \"a band\", \"sitelinks\": 2, " +
+                "\"wikipediaExternalRef\": 42}\n");
+            writer.write("{\"id\": \"Q3\", \"labels\": [\"GEO\"], \"urls\": [\"https://zenodo.org/x\"]}\n");
+            writer.write("{\"labels\": [\"no identifier\"]}\n");
+        }
+        DatasetKnowledgeBaseBuilder.build(input, index);
+        knowledgeBase = new DatasetKnowledgeBase(index);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        input.delete();
+        index.delete();
+    }
+
+    @Test
+    public void testLookup() {
+        assertThat(knowledgeBase.getNbEntities(), is(3));
+
+        List<DatasetKnowledgeBase.Candidate> candidates = knowledgeBase.lookup("  tcga ");
+        assertThat(candidates.size(), is(2));
+        // labels come before aliases
+        assertThat(candidates.get(0).getId(), is("Q2"));
+        assertThat(candidates.get(0).isAlias(), is(false));
+        assertThat(candidates.get(0).getWikipediaExternalRef(), is(42));
+        assertThat(candidates.get(1).getId(), is("Q1"));
+        assertThat(candidates.get(1).isAlias(), is(true));
+        assertThat(candidates.get(1).getPrior(), is(1.0f));
+        assertThat(candidates.get(1).getFlags(), is(DatasetKnowledgeBase.FLAG_DATASET_TYPE));
+        assertThat(candidates.get(1).getKeywords().length, is(3));
+
+        candidates = knowledgeBase.lookup("The  Cancer Genome ATLAS");
+        assertThat(candidates.size(), is(1));
+        assertThat(candidates.get(0).getId(), is("Q1"));
+
+        candidates = knowledgeBase.lookup("GEO");
+        assertThat(candidates.get(0).getFlags(), is(DatasetKnowledgeBase.FLAG_DATASET_URL));
+
+        assertThat(knowledgeBase.lookup("unknown").size(), is(0));
+        assertThat(knowledgeBase.lookup("no identifier").size(), is(0));
+    }
+}
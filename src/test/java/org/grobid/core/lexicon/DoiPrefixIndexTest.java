@@ -0,0 +1,29 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DoiPrefixIndexTest {
+
+    @Test
+    public void testContains() {
+        DoiPrefixIndex index = new DoiPrefixIndex(Arrays.asList("10.5061", "10.013", "10.5281", "10.5061", "invalid"));
+        assertThat(index.size(), is(3));
+
+        assertThat(index.contains("10.5061/dryad.2bs69"), is(true));
+        assertThat(index.contains("https://doi.org/10.5281/zenodo.3233986"), is(true));
+        assertThat(index.contains("http://dx.doi.org/10.5281/zenodo.3233986"), is(true));
+        assertThat(index.contains("10.5061"), is(true));
+        assertThat(index.contains("10.013/xyz"), is(true));
+        assertThat(index.contains("10.0130/xyz"), is(false));
+        assertThat(index.contains("10.50611/xyz"), is(false));
+        assertThat(index.contains("10.5061.1/xyz"), is(false));
+        assertThat(index.contains("https://zenodo.org/10.5281/zenodo.3233986"), is(false));
+        assertThat(index.contains("11.5061/xyz"), is(false));
+        assertThat(index.contains(""), is(false));
+    }
+}
@@ -0,0 +1,35 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DomainTrieTest {
+
+    @Test
+    public void testDomainAndPathRules() {
+        DomainTrie trie = new DomainTrie(Arrays.asList("zenodo.org", "mendeley.com", "ebi.ac.uk/ena", "www.github.com"));
+        assertThat(trie.size(), is(4));
+
+        assertThat(trie.matches("https://zenodo.org/record/3233986"), is(true));
+        assertThat(trie.matches("http://www.zenodo.org"), is(true));
+        assertThat(trie.matches("zenodo.org"), is(true));
+        assertThat(trie.matches("https://data.mendeley.com/datasets/xyz"), is(true));
+        assertThat(trie.matches("https://Data.Mendeley.COM:443/datasets"), is(true));
+        assertThat(trie.matches("https://github.com/kermitt2/datastet"), is(true));
+        assertThat(trie.matches("https://notzenodo.org/record/1"), is(false));
+        assertThat(trie.matches("https://zenodo.org.example.com/record/1"), is(false));
+        assertThat(trie.matches("https://example.com/zenodo.org"), is(false));
+
+        assertThat(trie.matches("https://www.ebi.ac.uk/ena/browser/view/PRJEB1787"), is(true));
+        assertThat(trie.matches("https://www.ebi.ac.uk/ena"), is(true));
+        assertThat(trie.matches("https://www.ebi.ac.uk/ena?query=1"), is(true));
+        assertThat(trie.matches("https://www.ebi.ac.uk/enabled"), is(false));
+        assertThat(trie.matches("https://www.ebi.ac.uk/about"), is(false));
+        assertThat(trie.matches(""), is(false));
+        assertThat(trie.matches(null), is(false));
+    }
+}
@@ -0,0 +1,49 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class IdfTableTest {
+
+    @Test
+    public void testSameValuesAsTextFile() throws Exception {
+        File textFile = new File("resources/lexicon/idf.label.en.txt.gz");
+        File binaryFile = File.createTempFile("idf", ".bin");
+        try {
+            IdfTable.compile(textFile, binaryFile);
+            IdfTable table = new IdfTable(binaryFile);
+
+            Map<String, Double> expected = new TreeMap<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new FileInputStream(textFile)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] pieces = line.split("\t");
+                    if (pieces.length == 2)
+                        expected.put(pieces[0], Double.parseDouble(pieces[1]));
+                }
+            }
+
+            assertThat(table.size(), is(expected.size()));
+            for (Map.Entry<String, Double> entry : expected.entrySet()) {
+                assertThat(table.get(entry.getKey()), closeTo(entry.getValue(), 1e-4 * Math.max(1.0, entry.getValue())));
+            }
+            assertThat(table.get("zzzunknownterm"), is(0.0));
+            assertThat(table.get(null), is(0.0));
+        } finally {
+            binaryFile.delete();
+        }
+    }
+}
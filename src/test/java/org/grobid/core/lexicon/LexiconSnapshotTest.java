@@ -0,0 +1,44 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class LexiconSnapshotTest {
+
+    @Test
+    public void testReloadModifiedFiles() throws Exception {
+        File directory = Files.createTempDirectory("lexicon").toFile();
+        try {
+            for (String name : new String[]{"idf.label.en.txt.gz", "doiPrefixes.txt", "domains.txt",
+                    "stopwords_en.txt", "covid_blacklist.txt"}) {
+                Files.copy(new File(LexiconSnapshot.LEXICON_PATH, name).toPath(), new File(directory, name).toPath());
+            }
+
+            LexiconSnapshot snapshot = LexiconSnapshot.load(directory);
+            assertThat(LexiconSnapshot.load(directory).getVersion(), is(snapshot.getVersion()));
+            assertThat(snapshot.isDatasetURL("https://zenodo.org/record/3233986"), is(true));
+            assertThat(snapshot.isDatasetURL("https://www.ebi.ac.uk/ena/browser"), is(false));
+            assertThat(snapshot.isEnglishStopword("the"), is(true));
+
+            Files.write(new File(directory, "domains.txt").toPath(), "\nebi.ac.uk/ena\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+            LexiconSnapshot newSnapshot = LexiconSnapshot.load(directory);
+            assertThat(newSnapshot.getVersion(), is(not(snapshot.getVersion())));
+            assertThat(newSnapshot.isDatasetURL("https://www.ebi.ac.uk/ena/browser"), is(true));
+            // the previous snapshot is not modified
+            assertThat(snapshot.isDatasetURL("https://www.ebi.ac.uk/ena/browser"), is(false));
+        } finally {
+            for (File file : directory.listFiles())
+                file.delete();
+            directory.delete();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TermSetTest {
+
+    @Test
+    public void testContains() {
+        TermSet set = new TermSet(Arrays.asList("data", "data set", "mβcd", "data"));
+        assertThat(set.size(), is(3));
+        assertThat(set.contains("data"), is(true));
+        assertThat(set.contains("Data"), is(false));
+        assertThat(set.contains("dat"), is(false));
+        assertThat(set.contains(null), is(false));
+        assertThat(set.contains("the data set", 4, 12), is(true));
+        assertThat(set.containsLowerCase("DATA Set"), is(true));
+        assertThat(set.containsLowerCase("MβCD"), is(true));
+        assertThat(set.containsLowerCase("dataset"), is(false));
+    }
+
+    @Test
+    public void testRemoveLeadingTermsAsListScan() throws Exception {
+        List<String> stopwords = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get("resources/lexicon/stopwords_en.txt"), StandardCharsets.UTF_8)) {
+            if (line.length() > 0)
+                stopwords.add(line.trim());
+        }
+        TermSet set = new TermSet(stopwords);
+
+        String[] inputs = {"the data", "  of the  GEO dataset ", "the", "the ", "   ", "", "The data",
+            "a an the ImageNet", "thesaurus data", "the\tdata", "of  the\tdata"};
+        for (String input : inputs) {
+            assertThat(input, set.removeLeadingTerms(input), is(removeLeadingTerms(stopwords, input)));
+        }
+        assertThat(set.removeLeadingTerms(null) == null, is(true));
+    }
+
+    // list-based implementation previously used by DatastetLexicon
+    private static String removeLeadingTerms(List<String> stopwords, String string) {
+        if (string == null || string.trim().length() == 0) {
+            return string;
+        }
+
+        string = string.trim();
+        while(string.length()>0) {
+            int startSize = string.length();
+            for(String stopword : stopwords) {
+                if (string.startsWith(stopword+" ")) {
+                    string = string.substring(stopword.length(), string.length());
+                    string = string.trim();
+                    break;
+                }
+            }
+            if (startSize - string.length() == 0)
+                break;
+        }
+
+        return string;
+    }
+}
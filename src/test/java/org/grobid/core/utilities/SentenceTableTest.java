@@ -0,0 +1,37 @@
+package org.grobid.core.utilities;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SentenceTableTest {
+
+    @Test
+    public void testAdd() {
+        SentenceTable table = new SentenceTable(String::trim);
+        String sentence = "We used the GEO data.";
+        assertThat(table.add(sentence), is(0));
+        assertThat(table.add("The data are available."), is(1));
+        assertThat(table.add(new String(sentence)), is(0));
+        assertThat(table.size(), is(2));
+        assertThat(table.get(0), sameInstance(sentence));
+    }
+
+    @Test
+    public void testNormalizedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        SentenceTable table = new SentenceTable(sentence -> {
+            calls.incrementAndGet();
+            return sentence.replaceAll("( )+", " ");
+        });
+        int id = table.add("the  GEO   data");
+        table.add("the  GEO   data");
+        assertThat(table.getNormalized(id), is("the GEO data"));
+        assertThat(table.getNormalized(id), is("the GEO data"));
+        assertThat(calls.get(), is(1));
+    }
+}
@@ -0,0 +1,71 @@
+package org.grobid.service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.DatasetComponent;
+import org.grobid.core.data.ResponseFields;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DatasetEventStreamTest {
+
+    private static Dataset mention(String rawForm, int sentenceOffset, int offsetStart) {
+        DatasetComponent name = new DatasetComponent(Dataset.DatasetType.DATASET_NAME, rawForm);
+        name.setOffsetStart(offsetStart);
+        name.setOffsetEnd(offsetStart + rawForm.length());
+        Dataset dataset = new Dataset(Dataset.DatasetType.DATASET_NAME);
+        dataset.setDatasetName(name);
+        dataset.setGlobalContextOffset(sentenceOffset);
+        return dataset;
+    }
+
+    @Test
+    public void testMentionIds() throws Exception {
+        Dataset geo = mention("GEO", 0, 12);
+        Dataset tcga = mention("TCGA", 40, 12);
+        List<List<Dataset>> labeled = new ArrayList<>();
+        labeled.add(new ArrayList<>(Collections.singletonList(geo)));
+        labeled.add(new ArrayList<>(Collections.singletonList(tcga)));
+        Map<Integer, Integer> zones = new HashMap<>();
+        zones.put(0, 0);
+        zones.put(1, 0);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (DatasetEventStream events = new DatasetEventStream(output,
+                ResponseFields.parse(null, "references"), "0.8", "1", "md5")) {
+            events.sentencesLabeled(labeled, zones);
+            // the final mentions are not aligned with the sentences anymore, the propagated
+            // mention has no provisional counterpart
+            events.writeMentions(Arrays.asList(Collections.singletonList(tcga),
+                Arrays.asList(mention("GEO", 80, 3))), null);
+        }
+
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length, is(3));
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode zone = mapper.readTree(lines[0]);
+        assertThat(zone.path("event").asText(), is("zone"));
+        assertThat(zone.path("mentions").size(), is(2));
+        assertThat(zone.path("mentions").get(0).path("id").asText(), is("0:12"));
+        assertThat(zone.path("mentions").get(0).path("mention").path("dataset-name").path("rawForm").asText(), is("GEO"));
+        assertThat(zone.path("mentions").get(1).path("id").asText(), is("40:12"));
+
+        JsonNode first = mapper.readTree(lines[1]);
+        assertThat(first.path("event").asText(), is("mention"));
+        assertThat(first.path("id").asText(), is(zone.path("mentions").get(1).path("id").asText()));
+        assertThat(first.path("mention").path("dataset-name").path("rawForm").asText(), is("TCGA"));
+        assertThat(mapper.readTree(lines[2]).path("id").asText(), is("80:3"));
+    }
+}
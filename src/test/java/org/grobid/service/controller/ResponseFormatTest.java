@@ -0,0 +1,45 @@
+package org.grobid.service.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.grobid.core.data.Dataset;
+import org.grobid.core.data.DatasetComponent;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ResponseFormatTest {
+
+    private static JsonNode roundTrip(DatasetComponent component, ResponseFormat format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = format.getFactory().createGenerator(output)) {
+            component.writeJson(generator);
+        }
+        return new ObjectMapper(format.getFactory()).readTree(output.toByteArray());
+    }
+
+    @Test
+    public void testBinaryFormatsInSync() throws Exception {
+        DatasetComponent component = new DatasetComponent(Dataset.DatasetType.DATASET_NAME, "GEO");
+        component.setOffsetStart(8);
+        component.setOffsetEnd(11);
+        component.setWikidataId("Q5513019");
+        component.setWikipediaExternalRef(12);
+        component.setDisambiguationScore(0.123456);
+        component.setBestDataType("Genetic Data");
+        component.setBestDataTypeScore(0.87654321);
+
+        JsonNode json = roundTrip(component, ResponseFormat.JSON);
+        // the scores are numbers rounded to 4 decimals
+        assertThat(json.path("confidence").isNumber(), is(true));
+        assertThat(json.path("confidence").doubleValue(), is(0.1235));
+        assertThat(json.path("bestTypeScore").doubleValue(), is(0.8765));
+
+        assertThat(roundTrip(component, ResponseFormat.SMILE), is(json));
+        assertThat(roundTrip(component, ResponseFormat.CBOR), is(json));
+    }
+}